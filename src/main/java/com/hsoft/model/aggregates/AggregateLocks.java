@@ -0,0 +1,56 @@
+package com.hsoft.model.aggregates;
+
+import com.hsoft.model.entities.v1.DailyTransactionAggregate;
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Transaction-scoped PostgreSQL advisory locks that keep incremental updates and rebuilds of the same
+ * tenant's aggregates apart. The lock key is (tenant, business month): incremental writers take it shared,
+ * so they never wait for each other, and a rebuild chunk takes it exclusive, so it waits for in-flight writers
+ * to commit and holds new ones back until its own rows are committed.
+ * <p>
+ * A rebuild chunk never spans two months, so it holds at most one lock while waiting and cannot
+ * deadlock with writers, which only take shared locks.
+ */
+final class AggregateLocks {
+
+    private static final String LOCK_SHARED = "select 1 from pg_advisory_xact_lock_shared(:tenant, :month)";
+    private static final String LOCK_EXCLUSIVE = "select 1 from pg_advisory_xact_lock(:tenant, :month)";
+
+    private AggregateLocks() {
+    }
+
+    /**
+     * Shared locks on the months of the given business dates (nulls ignored), in ascending order.
+     */
+    static void lockShared(EntityManager em, UUID userId, LocalDate... businessDates) {
+        TreeSet<YearMonth> months = new TreeSet<>();
+        for (LocalDate date : businessDates) {
+            if (date != null) {
+                months.add(YearMonth.from(date));
+            }
+        }
+        for (YearMonth month : months) {
+            lock(em, LOCK_SHARED, userId, month);
+        }
+    }
+
+    static void lockExclusive(EntityManager em, UUID userId, YearMonth month) {
+        lock(em, LOCK_EXCLUSIVE, userId, month);
+    }
+
+    private static void lock(EntityManager em, String sql, UUID userId, YearMonth month) {
+        em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(DailyTransactionAggregate.class) // Do not flush unrelated entities
+                .setParameter("tenant", userId.hashCode())
+                .setParameter("month", month.getYear() * 12 + month.getMonthValue() - 1)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,22 @@
+package com.hsoft.model.aggregates;
+
+import com.hsoft.model.types.v1.TransactionType;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Difference between a stored aggregate row and the totals recomputed from the transactions.
+ * A missing stored row shows as zeros on the {@code stored*} side (and vice versa).
+ */
+@Value
+public class AggregateMismatch {
+    LocalDate businessDate;
+    TransactionType transactionType;
+    long storedCount;
+    long expectedCount;
+    long storedGrossCents;
+    long expectedGrossCents;
+    long storedItemQuantity;
+    long expectedItemQuantity;
+}
@@ -0,0 +1,72 @@
+package com.hsoft.model.aggregates;
+
+import com.hsoft.model.types.v1.Money;
+import com.hsoft.model.types.v1.TransactionStatus;
+import com.hsoft.model.types.v1.TransactionType;
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes daily totals from the raw transactions; shared by the rebuilder and the verifier.
+ */
+final class DailyAggregateCalculator {
+
+    // Per-transaction row: item quantities are summed in the database, totals folded per day in Java
+    // (the business day depends on the configured zone, not the database session's)
+    private static final String COMPLETED_TRANSACTIONS =
+            "select t.transactionDate, t.transactionType, t.totalAmount, " +
+            "(select coalesce(sum(i.quantity), 0) from TransactionItem i where i.transaction = t) " +
+            "from Transaction t " +
+            "where t.user.userId = :userId and t.status = :status " +
+            "and t.transactionDate >= :from and t.transactionDate < :to";
+
+    private DailyAggregateCalculator() {
+    }
+
+    /**
+     * Totals per (business date, type) for business dates in {@code [fromDate, toDate)}.
+     */
+    static Map<DailyAggregateKey, Totals> compute(EntityManager em, ZoneId zone, UUID userId,
+                                                  LocalDate fromDate, LocalDate toDate) {
+        OffsetDateTime from = fromDate.atStartOfDay(zone).toOffsetDateTime();
+        OffsetDateTime to = toDate.atStartOfDay(zone).toOffsetDateTime();
+        Map<DailyAggregateKey, Totals> totals = new HashMap<>();
+        try (Stream<Object[]> rows = em.createQuery(COMPLETED_TRANSACTIONS, Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("status", TransactionStatus.COMPLETED)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultStream()) {
+            rows.forEach(row -> {
+                DailyAggregateKey key = new DailyAggregateKey(
+                        DailyAggregateMaintainer.businessDate((OffsetDateTime) row[0], zone),
+                        (TransactionType) row[1]);
+                totals.computeIfAbsent(key, k -> new Totals())
+                        .add((Money) row[2], ((Number) row[3]).longValue());
+            });
+        }
+        return totals;
+    }
+
+    /**
+     * Mutable accumulator for one aggregate row.
+     */
+    static final class Totals {
+        long transactionCount;
+        long grossCents;
+        long itemQuantity;
+
+        void add(Money total, long quantity) {
+            transactionCount++;
+            grossCents = Money.addCents(grossCents, total);
+            itemQuantity = Math.addExact(itemQuantity, quantity);
+        }
+    }
+}
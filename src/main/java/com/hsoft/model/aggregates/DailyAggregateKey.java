@@ -0,0 +1,15 @@
+package com.hsoft.model.aggregates;
+
+import com.hsoft.model.types.v1.TransactionType;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Row key of a tenant's {@link com.hsoft.model.entities.v1.DailyTransactionAggregate}.
+ */
+@Value
+public class DailyAggregateKey {
+    LocalDate businessDate;
+    TransactionType transactionType;
+}
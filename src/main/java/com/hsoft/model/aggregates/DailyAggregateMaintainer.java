@@ -0,0 +1,130 @@
+package com.hsoft.model.aggregates;
+
+import com.hsoft.model.entities.v1.DailyTransactionAggregate;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.TransactionItem;
+import com.hsoft.model.generators.UuidV7Generator;
+import com.hsoft.model.types.v1.Money;
+import com.hsoft.model.types.v1.TransactionStatus;
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Keeps {@link DailyTransactionAggregate} rows in step with transaction writes, in the same unit of work.
+ * <p>
+ * Capture the transaction's contribution before changing it, then apply the change afterwards:
+ * <pre>{@code
+ * TransactionContribution before = maintainer.capture(transaction);
+ * transaction.setStatus(TransactionStatus.CANCELLED); // or any edit
+ * maintainer.applyChange(em, before, transaction);
+ * }</pre>
+ * Only COMPLETED transactions count, so status transitions (PENDING -> COMPLETED, COMPLETED -> CANCELLED, ...)
+ * add or remove the contribution, and edits of a completed transaction move it between rows as needed.
+ * Rows are updated with an atomic upsert, so concurrent writers for the same day never lose increments.
+ * Each change first takes the tenant's aggregate lock for the affected months in shared mode
+ * ({@link AggregateLocks}); a running {@link DailyAggregateRebuilder} chunk holds it exclusively, so an increment
+ * is applied either before the chunk recomputes its rows (and is included) or after it commits.
+ * Requires PostgreSQL.
+ */
+public class DailyAggregateMaintainer {
+
+    private static final String UPSERT =
+            "insert into pilot_v2.daily_transaction_aggregates " +
+            "(aggregate_id, user_id, business_date, transaction_type, transaction_count, gross_total, item_quantity, updated_at) " +
+            "values (:aggregateId, :userId, :businessDate, :transactionType, :count, :grossTotal, :itemQuantity, :now) " +
+            "on conflict (user_id, business_date, transaction_type) do update set " +
+            "transaction_count = daily_transaction_aggregates.transaction_count + excluded.transaction_count, " +
+            "gross_total = daily_transaction_aggregates.gross_total + excluded.gross_total, " +
+            "item_quantity = daily_transaction_aggregates.item_quantity + excluded.item_quantity, " +
+            "updated_at = excluded.updated_at";
+
+    private final ZoneId zone;
+
+    public DailyAggregateMaintainer() {
+        this(ZoneOffset.UTC);
+    }
+
+    /**
+     * @param zone time zone defining the business day; must match the rebuilder's and verifier's
+     */
+    public DailyAggregateMaintainer(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    public TransactionContribution capture(Transaction transaction) {
+        if (transaction == null || transaction.getStatus() != TransactionStatus.COMPLETED) {
+            return TransactionContribution.NONE;
+        }
+        long itemQuantity = 0L;
+        for (TransactionItem item : transaction.getItems()) {
+            itemQuantity += item.getQuantity();
+        }
+        Money total = transaction.getTotalAmount() != null ? transaction.getTotalAmount() : Money.ZERO;
+        return new TransactionContribution(
+                transaction.getUser().getUserId(),
+                businessDate(transaction.getTransactionDate(), zone),
+                transaction.getTransactionType(),
+                total.getCents(),
+                itemQuantity);
+    }
+
+    public void recordCreated(EntityManager em, Transaction transaction) {
+        applyChange(em, TransactionContribution.NONE, transaction);
+    }
+
+    /**
+     * Moves the aggregates from the captured state {@code before} to the current state of {@code transaction}.
+     */
+    public void applyChange(EntityManager em, TransactionContribution before, Transaction transaction) {
+        TransactionContribution after = capture(transaction);
+        if (before.isNone() && after.isNone()) {
+            return;
+        }
+        AggregateLocks.lockShared(em, before.isNone() ? after.getUserId() : before.getUserId(),
+                before.getBusinessDate(), after.getBusinessDate());
+        if (before.sameRowAs(after)) {
+            upsert(em, after, 0L,
+                    Math.subtractExact(after.getGrossCents(), before.getGrossCents()),
+                    Math.subtractExact(after.getItemQuantity(), before.getItemQuantity()));
+            return;
+        }
+        if (!before.isNone()) {
+            upsert(em, before, -1L, Math.negateExact(before.getGrossCents()), Math.negateExact(before.getItemQuantity()));
+        }
+        if (!after.isNone()) {
+            upsert(em, after, 1L, after.getGrossCents(), after.getItemQuantity());
+        }
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    static LocalDate businessDate(OffsetDateTime instant, ZoneId zone) {
+        return instant.atZoneSameInstant(zone).toLocalDate();
+    }
+
+    private static void upsert(EntityManager em, TransactionContribution row, long countDelta, long grossCentsDelta,
+                               long itemQuantityDelta) {
+        if (countDelta == 0L && grossCentsDelta == 0L && itemQuantityDelta == 0L) {
+            return;
+        }
+        em.createNativeQuery(UPSERT)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(DailyTransactionAggregate.class) // Only this table is affected
+                .setParameter("aggregateId", UuidV7Generator.nextUuid())
+                .setParameter("userId", row.getUserId())
+                .setParameter("businessDate", row.getBusinessDate())
+                .setParameter("transactionType", row.getTransactionType().name())
+                .setParameter("count", countDelta)
+                .setParameter("grossTotal", Money.ofCents(grossCentsDelta).toBigDecimal())
+                .setParameter("itemQuantity", itemQuantityDelta)
+                .setParameter("now", OffsetDateTime.now())
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,154 @@
+package com.hsoft.model.aggregates;
+
+import com.hsoft.model.entities.v1.DailyTransactionAggregate;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.types.v1.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Recomputes a tenant's {@link DailyTransactionAggregate} rows from the raw transactions.
+ * The date range is split into chunks of at most {@code chunkDays} days that never cross a month boundary;
+ * chunks are rebuilt in parallel, each in its own EntityManager and transaction
+ * (lock, delete the chunk's rows, insert the recomputed ones).
+ * <p>
+ * Each chunk first takes the tenant's aggregate lock for its month exclusively ({@link AggregateLocks}):
+ * it waits for incremental updates in flight to commit, so the recomputation sees them, and updates that
+ * arrive meanwhile wait until the rebuilt rows are committed and then apply on top of them.
+ * No increment is lost, so the rebuild can run while the tenant keeps selling. Requires PostgreSQL.
+ */
+public class DailyAggregateRebuilder {
+
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_CHUNK_DAYS = 31;
+
+    private static final String DELETE_RANGE =
+            "delete from DailyTransactionAggregate a " +
+            "where a.user.userId = :userId and a.businessDate >= :from and a.businessDate < :to";
+
+    private final EntityManagerFactory emf;
+    private final ZoneId zone;
+    private final int parallelism;
+    private final int chunkDays;
+
+    public DailyAggregateRebuilder(EntityManagerFactory emf) {
+        this(emf, ZoneOffset.UTC, DEFAULT_PARALLELISM, DEFAULT_CHUNK_DAYS);
+    }
+
+    /**
+     * @param zone time zone defining the business day; must match the maintainer's
+     */
+    public DailyAggregateRebuilder(EntityManagerFactory emf, ZoneId zone, int parallelism, int chunkDays) {
+        if (parallelism < 1 || chunkDays < 1) {
+            throw new IllegalArgumentException("parallelism and chunkDays must be at least 1.");
+        }
+        this.emf = emf;
+        this.zone = zone;
+        this.parallelism = parallelism;
+        this.chunkDays = chunkDays;
+    }
+
+    /**
+     * Rebuilds the rows for business dates in {@code [fromDate, toDate)}.
+     *
+     * @return number of aggregate rows written
+     */
+    public int rebuild(UUID userId, LocalDate fromDate, LocalDate toDate) {
+        List<LocalDate[]> chunks = chunks(fromDate, toDate);
+        if (chunks.isEmpty()) {
+            return 0;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, chunks.size()));
+        try {
+            List<Future<Integer>> futures = new ArrayList<>(chunks.size());
+            for (LocalDate[] chunk : chunks) {
+                futures.add(executor.submit(() -> rebuildChunk(userId, chunk[0], chunk[1])));
+            }
+            int written = 0;
+            for (Future<Integer> future : futures) {
+                written += future.get();
+            }
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Aggregate rebuild was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Aggregate rebuild failed.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // [from, to) pairs of at most chunkDays days, each within one calendar month (one aggregate lock)
+    private List<LocalDate[]> chunks(LocalDate fromDate, LocalDate toDate) {
+        List<LocalDate[]> chunks = new ArrayList<>();
+        for (LocalDate start = fromDate; start.isBefore(toDate); ) {
+            LocalDate end = start.plusDays(chunkDays);
+            LocalDate nextMonth = start.withDayOfMonth(1).plusMonths(1);
+            if (nextMonth.isBefore(end)) {
+                end = nextMonth;
+            }
+            if (toDate.isBefore(end)) {
+                end = toDate;
+            }
+            chunks.add(new LocalDate[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private int rebuildChunk(UUID userId, LocalDate fromDate, LocalDate toDate) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            AggregateLocks.lockExclusive(em, userId, YearMonth.from(fromDate));
+            Map<DailyAggregateKey, DailyAggregateCalculator.Totals> totals =
+                    DailyAggregateCalculator.compute(em, zone, userId, fromDate, toDate);
+            em.createQuery(DELETE_RANGE)
+                    .setParameter("userId", userId)
+                    .setParameter("from", fromDate)
+                    .setParameter("to", toDate)
+                    .executeUpdate();
+            User owner = em.getReference(User.class, userId);
+            for (Map.Entry<DailyAggregateKey, DailyAggregateCalculator.Totals> entry : totals.entrySet()) {
+                DailyAggregateCalculator.Totals t = entry.getValue();
+                em.persist(DailyTransactionAggregate.builder()
+                        .user(owner)
+                        .businessDate(entry.getKey().getBusinessDate())
+                        .transactionType(entry.getKey().getTransactionType())
+                        .transactionCount(t.transactionCount)
+                        .grossTotal(Money.ofCents(t.grossCents))
+                        .itemQuantity(t.itemQuantity)
+                        .build());
+            }
+            tx.commit();
+            return totals.size();
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+}
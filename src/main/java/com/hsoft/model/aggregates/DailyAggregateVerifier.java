@@ -0,0 +1,77 @@
+package com.hsoft.model.aggregates;
+
+import com.hsoft.model.entities.v1.DailyTransactionAggregate;
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Compares a tenant's stored {@link DailyTransactionAggregate} rows with totals recomputed from the
+ * raw transactions. An empty result means the incremental maintenance is consistent for the range.
+ */
+public class DailyAggregateVerifier {
+
+    private static final String STORED_RANGE =
+            "select a from DailyTransactionAggregate a " +
+            "where a.user.userId = :userId and a.businessDate >= :from and a.businessDate < :to";
+
+    private final ZoneId zone;
+
+    public DailyAggregateVerifier() {
+        this(ZoneOffset.UTC);
+    }
+
+    /**
+     * @param zone time zone defining the business day; must match the maintainer's
+     */
+    public DailyAggregateVerifier(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Mismatches for business dates in {@code [fromDate, toDate)}, ordered by date and type.
+     */
+    public List<AggregateMismatch> verify(EntityManager em, UUID userId, LocalDate fromDate, LocalDate toDate) {
+        Map<DailyAggregateKey, DailyAggregateCalculator.Totals> expected =
+                DailyAggregateCalculator.compute(em, zone, userId, fromDate, toDate);
+        Map<DailyAggregateKey, DailyTransactionAggregate> stored = new HashMap<>();
+        for (DailyTransactionAggregate aggregate : em.createQuery(STORED_RANGE, DailyTransactionAggregate.class)
+                .setParameter("userId", userId)
+                .setParameter("from", fromDate)
+                .setParameter("to", toDate)
+                .getResultList()) {
+            stored.put(new DailyAggregateKey(aggregate.getBusinessDate(), aggregate.getTransactionType()), aggregate);
+        }
+
+        Set<DailyAggregateKey> keys = new HashSet<>(expected.keySet());
+        keys.addAll(stored.keySet());
+        List<AggregateMismatch> mismatches = new ArrayList<>();
+        for (DailyAggregateKey key : keys) {
+            DailyAggregateCalculator.Totals e = expected.get(key);
+            DailyTransactionAggregate s = stored.get(key);
+            long expectedCount = e != null ? e.transactionCount : 0L;
+            long expectedGross = e != null ? e.grossCents : 0L;
+            long expectedQuantity = e != null ? e.itemQuantity : 0L;
+            long storedCount = s != null ? s.getTransactionCount() : 0L;
+            long storedGross = s != null && s.getGrossTotal() != null ? s.getGrossTotal().getCents() : 0L;
+            long storedQuantity = s != null ? s.getItemQuantity() : 0L;
+            if (expectedCount != storedCount || expectedGross != storedGross || expectedQuantity != storedQuantity) {
+                mismatches.add(new AggregateMismatch(key.getBusinessDate(), key.getTransactionType(),
+                        storedCount, expectedCount, storedGross, expectedGross, storedQuantity, expectedQuantity));
+            }
+        }
+        mismatches.sort(Comparator.comparing(AggregateMismatch::getBusinessDate)
+                .thenComparing(AggregateMismatch::getTransactionType));
+        return mismatches;
+    }
+}
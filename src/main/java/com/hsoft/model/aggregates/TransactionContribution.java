@@ -0,0 +1,35 @@
+package com.hsoft.model.aggregates;
+
+import com.hsoft.model.types.v1.TransactionType;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * What one transaction adds to its {@link com.hsoft.model.entities.v1.DailyTransactionAggregate} row.
+ * Only COMPLETED transactions contribute; every other status maps to {@link #NONE}.
+ */
+@Value
+public class TransactionContribution {
+
+    public static final TransactionContribution NONE = new TransactionContribution(null, null, null, 0L, 0L);
+
+    UUID userId;
+    LocalDate businessDate;
+    TransactionType transactionType;
+    long grossCents;
+    long itemQuantity;
+
+    public boolean isNone() {
+        return userId == null;
+    }
+
+    // Same aggregate row as the other contribution
+    boolean sameRowAs(TransactionContribution other) {
+        return !isNone() && !other.isNone()
+                && userId.equals(other.userId)
+                && businessDate.equals(other.businessDate)
+                && transactionType == other.transactionType;
+    }
+}
@@ -0,0 +1,131 @@
+package com.hsoft.model.assembly;
+
+import com.hsoft.model.dto.v1.transactions.TransactionItemCreateRequestDTO;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Coalesces request lines that reference the same product (e.g. a product scanned twice), so a ticket
+ * never hits the {@code (transaction_id, product_id)} unique constraint. One pass over the lines
+ * with a hash map keyed by product id; merged lines keep the position of the first occurrence.
+ * Input DTOs are never modified.
+ */
+public class DuplicateLineMerger {
+
+    /**
+     * What to do when duplicate lines carry different unit prices.
+     */
+    public enum PricePolicy {
+        REJECT,  // IllegalArgumentException
+        FIRST,   // Keep the price of the first line
+        LAST,    // Keep the price of the last line
+        LOWEST   // Keep the lowest price (customer-favourable)
+    }
+
+    /**
+     * What to do when duplicate lines carry different contexts.
+     */
+    public enum ContextPolicy {
+        REJECT,  // IllegalArgumentException
+        FIRST,   // Keep the context of the first line
+        MERGE    // Shallow merge keeping key order; later lines win on key conflicts
+    }
+
+    private final PricePolicy pricePolicy;
+    private final ContextPolicy contextPolicy;
+
+    public DuplicateLineMerger() {
+        this(PricePolicy.REJECT, ContextPolicy.MERGE);
+    }
+
+    public DuplicateLineMerger(PricePolicy pricePolicy, ContextPolicy contextPolicy) {
+        this.pricePolicy = pricePolicy;
+        this.contextPolicy = contextPolicy;
+    }
+
+    /**
+     * @return the input list itself when no product repeats, otherwise a new list with one line per product
+     * @throws IllegalArgumentException on conflicting prices/contexts under a REJECT policy
+     * @throws ArithmeticException      if merged quantities overflow
+     */
+    public List<TransactionItemCreateRequestDTO> merge(List<TransactionItemCreateRequestDTO> lines) {
+        if (lines == null || lines.size() < 2) {
+            return lines;
+        }
+        Map<UUID, TransactionItemCreateRequestDTO> byProduct = new LinkedHashMap<>(lines.size() * 4 / 3 + 1);
+        boolean merged = false;
+        for (TransactionItemCreateRequestDTO line : lines) {
+            UUID productId = line.getProductId();
+            if (productId == null) {
+                return lines; // Left to validation; nothing sensible to merge on
+            }
+            TransactionItemCreateRequestDTO existing = byProduct.get(productId);
+            if (existing == null) {
+                byProduct.put(productId, line);
+            } else {
+                byProduct.put(productId, combine(existing, line));
+                merged = true;
+            }
+        }
+        return merged ? new ArrayList<>(byProduct.values()) : lines;
+    }
+
+    private TransactionItemCreateRequestDTO combine(TransactionItemCreateRequestDTO first,
+                                                    TransactionItemCreateRequestDTO next) {
+        return TransactionItemCreateRequestDTO.builder()
+                .productId(first.getProductId())
+                .quantity(sumQuantities(first.getQuantity(), next.getQuantity()))
+                .unitPrice(resolvePrice(first, next))
+                .context(resolveContext(first, next))
+                .build();
+    }
+
+    private BigDecimal resolvePrice(TransactionItemCreateRequestDTO first, TransactionItemCreateRequestDTO next) {
+        BigDecimal a = first.getUnitPrice();
+        BigDecimal b = next.getUnitPrice();
+        if (a == null || b == null || a.compareTo(b) == 0) {
+            return a != null ? a : b;
+        }
+        return switch (pricePolicy) {
+            case REJECT -> throw new IllegalArgumentException(
+                    "Duplicate lines for product " + first.getProductId() + " have different unit prices: "
+                            + a.toPlainString() + " and " + b.toPlainString() + ".");
+            case FIRST -> a;
+            case LAST -> b;
+            case LOWEST -> a.min(b);
+        };
+    }
+
+    private Map<String, Object> resolveContext(TransactionItemCreateRequestDTO first,
+                                               TransactionItemCreateRequestDTO next) {
+        Map<String, Object> a = first.getContext();
+        Map<String, Object> b = next.getContext();
+        if (b == null || b.isEmpty() || Objects.equals(a, b)) {
+            return a;
+        }
+        if (a == null || a.isEmpty()) {
+            return b;
+        }
+        return switch (contextPolicy) {
+            case REJECT -> throw new IllegalArgumentException(
+                    "Duplicate lines for product " + first.getProductId() + " have different contexts.");
+            case FIRST -> a;
+            case MERGE -> {
+                Map<String, Object> combined = new LinkedHashMap<>(a);
+                combined.putAll(b);
+                yield combined;
+            }
+        };
+    }
+
+    // A null quantity stays null so bean validation still reports it
+    private static Integer sumQuantities(Integer a, Integer b) {
+        return a != null && b != null ? Integer.valueOf(Math.addExact(a, b)) : null;
+    }
+}
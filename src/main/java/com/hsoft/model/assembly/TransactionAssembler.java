@@ -0,0 +1,113 @@
+package com.hsoft.model.assembly;
+
+import com.hsoft.model.dto.v1.transactions.TransactionCreateRequestDTO;
+import com.hsoft.model.dto.v1.transactions.TransactionItemCreateRequestDTO;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.TransactionItem;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.mappers.TransactionItemMapper;
+import com.hsoft.model.mappers.TransactionMapper;
+import jakarta.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Builds a {@link Transaction} with its items from a {@link TransactionCreateRequestDTO}.
+ * All products referenced by the request are resolved with a single IN query scoped to the
+ * owning user (instead of one find per line), validated, wired to their items, and the
+ * subtotals and total are computed in the same pass.
+ * <p>
+ * Lines repeating a product are first coalesced by a {@link DuplicateLineMerger}.
+ * The caller still sets the transaction type, creator and client/provider, as with the mappers.
+ */
+public class TransactionAssembler {
+
+    private static final String PRODUCTS_BY_IDS =
+            "select p from Product p where p.user.userId = :userId and p.productId in :productIds";
+
+    private final TransactionMapper transactionMapper;
+    private final TransactionItemMapper transactionItemMapper;
+    private final DuplicateLineMerger lineMerger;
+
+    public TransactionAssembler(TransactionMapper transactionMapper, TransactionItemMapper transactionItemMapper) {
+        this(transactionMapper, transactionItemMapper, new DuplicateLineMerger());
+    }
+
+    public TransactionAssembler(TransactionMapper transactionMapper, TransactionItemMapper transactionItemMapper,
+                                DuplicateLineMerger lineMerger) {
+        this.transactionMapper = transactionMapper;
+        this.transactionItemMapper = transactionItemMapper;
+        this.lineMerger = lineMerger;
+    }
+
+    /**
+     * @throws IllegalArgumentException if any product does not exist for the user or is inactive
+     *                                  (the message lists every offending product id), or if duplicate
+     *                                  lines conflict under the merger's REJECT policies
+     */
+    public Transaction assemble(EntityManager em, UUID userId, TransactionCreateRequestDTO dto) {
+        List<TransactionItemCreateRequestDTO> itemDtos = dto.getItems() != null ? lineMerger.merge(dto.getItems()) : List.of();
+        Map<UUID, Product> products = resolveProducts(em, userId, itemDtos);
+
+        Transaction transaction = transactionMapper.transactionCreateRequestDTOToTransaction(dto);
+        transaction.setUser(em.getReference(User.class, userId));
+        for (TransactionItemCreateRequestDTO itemDto : itemDtos) {
+            TransactionItem item = transactionItemMapper.transactionItemCreateRequestDTOToTransactionItem(itemDto);
+            item.setProduct(products.get(itemDto.getProductId()));
+            transaction.addItem(item); // Links the item and adds its subtotal to the running total
+        }
+        return transaction;
+    }
+
+    private Map<UUID, Product> resolveProducts(EntityManager em, UUID userId,
+                                               List<TransactionItemCreateRequestDTO> itemDtos) {
+        Set<UUID> productIds = new LinkedHashSet<>();
+        for (TransactionItemCreateRequestDTO itemDto : itemDtos) {
+            if (itemDto.getProductId() == null) {
+                throw new IllegalArgumentException("Every transaction item must reference a product.");
+            }
+            productIds.add(itemDto.getProductId());
+        }
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Product> found = em.createQuery(PRODUCTS_BY_IDS, Product.class)
+                .setParameter("userId", userId)
+                .setParameter("productIds", productIds)
+                .getResultList();
+        Map<UUID, Product> products = new HashMap<>(found.size() * 2);
+        for (Product product : found) {
+            products.put(product.getProductId(), product);
+        }
+
+        List<UUID> missing = new ArrayList<>();
+        List<UUID> inactive = new ArrayList<>();
+        for (UUID productId : productIds) {
+            Product product = products.get(productId);
+            if (product == null) {
+                missing.add(productId);
+            } else if (!product.isActive()) {
+                inactive.add(productId);
+            }
+        }
+        if (!missing.isEmpty() || !inactive.isEmpty()) {
+            StringBuilder message = new StringBuilder("Invalid products in transaction request.");
+            if (!missing.isEmpty()) {
+                message.append(" Not found: ").append(missing).append('.');
+            }
+            if (!inactive.isEmpty()) {
+                message.append(" Inactive: ").append(inactive).append('.');
+            }
+            throw new IllegalArgumentException(message.toString());
+        }
+        return products;
+    }
+}
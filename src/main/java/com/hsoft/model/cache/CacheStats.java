@@ -0,0 +1,57 @@
+package com.hsoft.model.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit / miss / eviction counters of one cache region, summed over all tenants.
+ */
+public class CacheStats {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    void recordInvalidations(int count) {
+        invalidations.add(count);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    // Entries dropped because a tenant partition was full
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    // Entries dropped by explicit invalidation (single key or whole tenant)
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Hits per lookup (0.0 when nothing was looked up yet).
+     */
+    public double getHitRate() {
+        long h = getHits();
+        long total = h + getMisses();
+        return total > 0 ? (double) h / total : 0.0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.hsoft.model.cache;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Immutable catalog view of a {@link com.hsoft.model.entities.v1.Product} as held by {@link CatalogCache}.
+ * Stock is deliberately absent: it changes on every sale and is read through the stock package.
+ */
+@Value
+public class CachedProduct {
+    UUID productId;
+    UUID userId;
+    String sku;
+    String name;
+    BigDecimal purchasePrice;
+    BigDecimal salePrice;
+    String unitOfMeasure;
+    String category;
+    boolean active;
+    Long version;
+}
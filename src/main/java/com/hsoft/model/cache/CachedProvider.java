@@ -0,0 +1,20 @@
+package com.hsoft.model.cache;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Immutable view of a {@link com.hsoft.model.entities.v1.Provider} as held by {@link CatalogCache}.
+ */
+@Value
+public class CachedProvider {
+    UUID providerId;
+    UUID userId;
+    String name;
+    String nit;
+    String email;
+    String phone;
+    boolean active;
+    Long version;
+}
@@ -0,0 +1,259 @@
+package com.hsoft.model.cache;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through, per-tenant cache of products, clients and providers and of their
+ * natural-key lookups ({@code (user_id, sku)} and {@code (user_id, nit)}).
+ * Every region is a {@link TenantPartitionedCache}, so one tenant's traffic or invalidation
+ * never touches another tenant's entries.
+ * <p>
+ * Entries are immutable snapshots loaded by constructor-expression queries; nothing here is a managed entity.
+ * Writers must call the matching {@code evict*} method after their transaction commits
+ * (or {@link #evictTenant(UUID)} after a bulk import).
+ */
+public class CatalogCache {
+
+    public static final int DEFAULT_MAX_ENTRIES_PER_TENANT = 10_000;
+    // Bound of each region over all tenants; the largest partitions give way first
+    public static final int DEFAULT_MAX_ENTRIES_PER_REGION = 200_000;
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_IDS_BY_SKU = "productIdsBySku";
+    public static final String CLIENTS = "clients";
+    public static final String CLIENT_IDS_BY_NIT = "clientIdsByNit";
+    public static final String PROVIDERS = "providers";
+    public static final String PROVIDER_IDS_BY_NIT = "providerIdsByNit";
+
+    private static final String PRODUCT_BY_ID =
+            "select new com.hsoft.model.cache.CachedProduct(p.productId, p.user.userId, p.sku, p.name, " +
+            "p.purchasePrice, p.salePrice, p.unitOfMeasure, p.category, p.isActive, p.version) " +
+            "from Product p where p.productId = :id and p.user.userId = :userId";
+
+    private static final String PRODUCT_ID_BY_SKU =
+            "select p.productId from Product p where p.user.userId = :userId and p.sku = :sku";
+
+    private static final String CLIENT_BY_ID =
+            "select new com.hsoft.model.cache.CachedClient(c.clientId, c.user.userId, c.name, c.nit, " +
+            "c.email, c.phone, c.isActive, c.version) " +
+            "from Client c where c.clientId = :id and c.user.userId = :userId";
+
+    // nit is not unique for clients (e.g. 'C/F'); resolve to the oldest active one
+    private static final String CLIENT_ID_BY_NIT =
+            "select c.clientId from Client c where c.user.userId = :userId and c.nit = :nit and c.isActive = true " +
+            "order by c.clientId";
+
+    private static final String PROVIDER_BY_ID =
+            "select new com.hsoft.model.cache.CachedProvider(p.providerId, p.user.userId, p.name, p.nit, " +
+            "p.email, p.phone, p.isActive, p.version) " +
+            "from Provider p where p.providerId = :id and p.user.userId = :userId";
+
+    private static final String PROVIDER_ID_BY_NIT =
+            "select p.providerId from Provider p where p.user.userId = :userId and p.nit = :nit";
+
+    private final TenantPartitionedCache<UUID, CachedProduct> products;
+    private final TenantPartitionedCache<String, UUID> productIdsBySku;
+    private final TenantPartitionedCache<UUID, CachedClient> clients;
+    private final TenantPartitionedCache<String, UUID> clientIdsByNit;
+    private final TenantPartitionedCache<UUID, CachedProvider> providers;
+    private final TenantPartitionedCache<String, UUID> providerIdsByNit;
+
+    public CatalogCache() {
+        this(DEFAULT_MAX_ENTRIES_PER_TENANT, DEFAULT_MAX_ENTRIES_PER_REGION);
+    }
+
+    public CatalogCache(int maxEntriesPerTenant, int maxEntriesPerRegion) {
+        this.products = new TenantPartitionedCache<>(PRODUCTS, maxEntriesPerTenant, maxEntriesPerRegion);
+        this.productIdsBySku = new TenantPartitionedCache<>(PRODUCT_IDS_BY_SKU, maxEntriesPerTenant, maxEntriesPerRegion);
+        this.clients = new TenantPartitionedCache<>(CLIENTS, maxEntriesPerTenant, maxEntriesPerRegion);
+        this.clientIdsByNit = new TenantPartitionedCache<>(CLIENT_IDS_BY_NIT, maxEntriesPerTenant, maxEntriesPerRegion);
+        this.providers = new TenantPartitionedCache<>(PROVIDERS, maxEntriesPerTenant, maxEntriesPerRegion);
+        this.providerIdsByNit = new TenantPartitionedCache<>(PROVIDER_IDS_BY_NIT, maxEntriesPerTenant, maxEntriesPerRegion);
+    }
+
+    // --- Products ---
+
+    public Optional<CachedProduct> findProduct(EntityManager em, UUID userId, UUID productId) {
+        return Optional.ofNullable(products.get(userId, productId,
+                id -> single(em.createQuery(PRODUCT_BY_ID, CachedProduct.class)
+                        .setParameter("id", id)
+                        .setParameter("userId", userId)
+                        .getResultList())));
+    }
+
+    public Optional<CachedProduct> findProductBySku(EntityManager em, UUID userId, String sku) {
+        UUID productId = productIdsBySku.get(userId, sku,
+                key -> single(em.createQuery(PRODUCT_ID_BY_SKU, UUID.class)
+                        .setParameter("userId", userId)
+                        .setParameter("sku", key)
+                        .getResultList()));
+        if (productId == null) {
+            return Optional.empty();
+        }
+        Optional<CachedProduct> product = findProduct(em, userId, productId);
+        if (product.isEmpty() || !sku.equals(product.get().getSku())) {
+            // Mapping went stale (sku changed or product deleted without eviction): resolve again once
+            productIdsBySku.invalidate(userId, sku);
+            products.invalidate(userId, productId);
+            UUID reloadedId = single(em.createQuery(PRODUCT_ID_BY_SKU, UUID.class)
+                    .setParameter("userId", userId)
+                    .setParameter("sku", sku)
+                    .getResultList());
+            return reloadedId != null ? findProduct(em, userId, reloadedId) : Optional.empty();
+        }
+        return product;
+    }
+
+    public void evictProduct(UUID userId, UUID productId) {
+        CachedProduct cached = products.getIfPresent(userId, productId);
+        if (cached != null && cached.getSku() != null) {
+            productIdsBySku.invalidate(userId, cached.getSku());
+        }
+        products.invalidate(userId, productId);
+    }
+
+    // Natural-id resolution (sku -> productId) shared with NaturalIdLoader.
+    // Take the generation before querying; the resolution is only cached if the sku was not evicted since.
+
+    public UUID cachedProductId(UUID userId, String sku) {
+        return productIdsBySku.get(userId, sku);
+    }
+
+    public long productSkuGeneration(UUID userId, String sku) {
+        return productIdsBySku.generation(userId, sku);
+    }
+
+    public void cacheProductId(UUID userId, String sku, UUID productId, long generation) {
+        productIdsBySku.put(userId, sku, productId, generation);
+    }
+
+    public void evictProductSku(UUID userId, String sku) {
+        productIdsBySku.invalidate(userId, sku);
+    }
+
+    // --- Clients ---
+
+    public Optional<CachedClient> findClient(EntityManager em, UUID userId, UUID clientId) {
+        return Optional.ofNullable(clients.get(userId, clientId,
+                id -> single(em.createQuery(CLIENT_BY_ID, CachedClient.class)
+                        .setParameter("id", id)
+                        .setParameter("userId", userId)
+                        .getResultList())));
+    }
+
+    public Optional<CachedClient> findClientByNit(EntityManager em, UUID userId, String nit) {
+        UUID clientId = clientIdsByNit.get(userId, nit, key -> first(em, CLIENT_ID_BY_NIT, userId, key));
+        if (clientId == null) {
+            return Optional.empty();
+        }
+        Optional<CachedClient> client = findClient(em, userId, clientId);
+        if (client.isEmpty() || !client.get().isActive() || !nit.equals(client.get().getNit())) {
+            clientIdsByNit.invalidate(userId, nit);
+            clients.invalidate(userId, clientId);
+            UUID reloadedId = first(em, CLIENT_ID_BY_NIT, userId, nit);
+            return reloadedId != null ? findClient(em, userId, reloadedId) : Optional.empty();
+        }
+        return client;
+    }
+
+    public void evictClient(UUID userId, UUID clientId) {
+        CachedClient cached = clients.getIfPresent(userId, clientId);
+        if (cached != null && cached.getNit() != null) {
+            clientIdsByNit.invalidate(userId, cached.getNit());
+        }
+        clients.invalidate(userId, clientId);
+    }
+
+    // --- Providers ---
+
+    public Optional<CachedProvider> findProvider(EntityManager em, UUID userId, UUID providerId) {
+        return Optional.ofNullable(providers.get(userId, providerId,
+                id -> single(em.createQuery(PROVIDER_BY_ID, CachedProvider.class)
+                        .setParameter("id", id)
+                        .setParameter("userId", userId)
+                        .getResultList())));
+    }
+
+    public Optional<CachedProvider> findProviderByNit(EntityManager em, UUID userId, String nit) {
+        UUID providerId = providerIdsByNit.get(userId, nit, key -> first(em, PROVIDER_ID_BY_NIT, userId, key));
+        if (providerId == null) {
+            return Optional.empty();
+        }
+        Optional<CachedProvider> provider = findProvider(em, userId, providerId);
+        if (provider.isEmpty() || !nit.equals(provider.get().getNit())) {
+            providerIdsByNit.invalidate(userId, nit);
+            providers.invalidate(userId, providerId);
+            UUID reloadedId = first(em, PROVIDER_ID_BY_NIT, userId, nit);
+            return reloadedId != null ? findProvider(em, userId, reloadedId) : Optional.empty();
+        }
+        return provider;
+    }
+
+    public void evictProvider(UUID userId, UUID providerId) {
+        CachedProvider cached = providers.getIfPresent(userId, providerId);
+        if (cached != null && cached.getNit() != null) {
+            providerIdsByNit.invalidate(userId, cached.getNit());
+        }
+        providers.invalidate(userId, providerId);
+    }
+
+    public UUID cachedProviderId(UUID userId, String nit) {
+        return providerIdsByNit.get(userId, nit);
+    }
+
+    public long providerNitGeneration(UUID userId, String nit) {
+        return providerIdsByNit.generation(userId, nit);
+    }
+
+    public void cacheProviderId(UUID userId, String nit, UUID providerId, long generation) {
+        providerIdsByNit.put(userId, nit, providerId, generation);
+    }
+
+    public void evictProviderNit(UUID userId, String nit) {
+        providerIdsByNit.invalidate(userId, nit);
+    }
+
+    // --- Tenant-wide invalidation and metrics ---
+
+    /**
+     * Drops every entry of one tenant in all regions; other tenants keep their entries.
+     */
+    public void evictTenant(UUID userId) {
+        products.invalidateTenant(userId);
+        productIdsBySku.invalidateTenant(userId);
+        clients.invalidateTenant(userId);
+        clientIdsByNit.invalidateTenant(userId);
+        providers.invalidateTenant(userId);
+        providerIdsByNit.invalidateTenant(userId);
+    }
+
+    /**
+     * Stats of every region keyed by region name (e.g. for a metrics endpoint or log line).
+     */
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        for (TenantPartitionedCache<?, ?> region : List.of(products, productIdsBySku, clients, clientIdsByNit,
+                providers, providerIdsByNit)) {
+            stats.put(region.getRegionName(), region.getStats());
+        }
+        return stats;
+    }
+
+    private static UUID first(EntityManager em, String jpql, UUID userId, String nit) {
+        return single(em.createQuery(jpql, UUID.class)
+                .setParameter("userId", userId)
+                .setParameter("nit", nit)
+                .setMaxResults(1)
+                .getResultList());
+    }
+
+    private static <T> T single(List<T> results) {
+        return results.isEmpty() ? null : results.get(0);
+    }
+}
@@ -0,0 +1,226 @@
+package com.hsoft.model.cache;
+
+import com.hsoft.model.dto.v1.products.ProductUpdateRequestDTO;
+import com.hsoft.model.dto.v1.providers.ProviderUpdateRequestDTO;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Provider;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.mappers.ProductMapper;
+import com.hsoft.model.mappers.ProviderMapper;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Loads products, providers and users by their natural ids ({@code (user, sku)}, {@code (user, nit)},
+ * {@code username}) as managed entities.
+ * Natural-id to primary-key resolution is cached across sessions in {@link CatalogCache};
+ * within a session Hibernate's own natural-id cross-reference is used.
+ * <p>
+ * Updates that can change a natural id go through {@link #updateProduct}/{@link #updateProvider},
+ * which evict the cached resolutions once the transaction commits. Resolutions are cached under the
+ * invalidation generation taken before their query, so an eviction that commits while the query runs
+ * is not undone by a late put (see {@link TenantPartitionedCache}).
+ */
+public class NaturalIdLoader {
+
+    // Upper bound of SKUs bound into one IN list
+    public static final int SKU_BATCH_SIZE = 500;
+
+    private static final String PRODUCTS_BY_SKUS =
+            "select p from Product p where p.user.userId = :userId and p.sku in :skus";
+
+    private static final String USER_BY_EMAIL =
+            "select u from User u where u.email = :email";
+
+    private final CatalogCache catalogCache;
+
+    public NaturalIdLoader(CatalogCache catalogCache) {
+        this.catalogCache = catalogCache;
+    }
+
+    // --- Products ---
+
+    public Optional<Product> loadProductBySku(Session session, UUID userId, String sku) {
+        UUID productId = catalogCache.cachedProductId(userId, sku);
+        if (productId != null) {
+            Product product = session.find(Product.class, productId);
+            if (product != null && sku.equals(product.getSku())) {
+                return Optional.of(product);
+            }
+            catalogCache.evictProductSku(userId, sku); // Stale resolution
+        }
+        // Taken before the query: an eviction committed while it runs keeps its result out of the cache
+        long generation = catalogCache.productSkuGeneration(userId, sku);
+        Optional<Product> product = session.byNaturalId(Product.class)
+                .using("user", session.getReference(User.class, userId))
+                .using("sku", sku)
+                .loadOptional();
+        product.ifPresent(p -> catalogCache.cacheProductId(userId, sku, p.getProductId(), generation));
+        return product;
+    }
+
+    /**
+     * Resolves many SKUs of one tenant (e.g. a scanned basket) in one round-trip per
+     * {@link #SKU_BATCH_SIZE} SKUs; SKUs with a cached resolution are multi-loaded by id instead.
+     * Unknown SKUs are absent from the result.
+     */
+    public Map<String, Product> loadProductsBySkus(Session session, UUID userId, Collection<String> skus) {
+        Set<String> pending = new LinkedHashSet<>(skus);
+        Map<String, Product> result = new HashMap<>(pending.size() * 2);
+
+        // Cached resolutions: one multi-load for all of them
+        List<String> resolvedSkus = new ArrayList<>();
+        List<UUID> resolvedIds = new ArrayList<>();
+        for (String sku : pending) {
+            UUID productId = catalogCache.cachedProductId(userId, sku);
+            if (productId != null) {
+                resolvedSkus.add(sku);
+                resolvedIds.add(productId);
+            }
+        }
+        if (!resolvedIds.isEmpty()) {
+            List<Product> loaded = session.byMultipleIds(Product.class).multiLoad(resolvedIds);
+            for (int i = 0; i < resolvedSkus.size(); i++) {
+                String sku = resolvedSkus.get(i);
+                Product product = loaded.get(i);
+                if (product != null && sku.equals(product.getSku())) {
+                    result.put(sku, product);
+                    pending.remove(sku);
+                } else {
+                    catalogCache.evictProductSku(userId, sku);
+                }
+            }
+        }
+
+        // Remaining SKUs: chunked IN queries
+        List<String> remaining = new ArrayList<>(pending);
+        for (int from = 0; from < remaining.size(); from += SKU_BATCH_SIZE) {
+            List<String> chunk = remaining.subList(from, Math.min(from + SKU_BATCH_SIZE, remaining.size()));
+            Map<String, Long> generations = new HashMap<>(chunk.size() * 2);
+            for (String sku : chunk) {
+                generations.put(sku, catalogCache.productSkuGeneration(userId, sku));
+            }
+            List<Product> products = session.createQuery(PRODUCTS_BY_SKUS, Product.class)
+                    .setParameter("userId", userId)
+                    .setParameter("skus", chunk)
+                    .getResultList();
+            for (Product product : products) {
+                result.put(product.getSku(), product);
+                catalogCache.cacheProductId(userId, product.getSku(), product.getProductId(),
+                        generations.get(product.getSku()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Applies {@link ProductMapper#updateProductFromDto} and, after commit, evicts the cached
+     * product and any SKU resolution it invalidated.
+     */
+    public void updateProduct(Session session, ProductMapper mapper, ProductUpdateRequestDTO dto, Product product) {
+        UUID userId = product.getUser().getUserId();
+        String previousSku = product.getSku();
+        mapper.updateProductFromDto(dto, product);
+        String currentSku = product.getSku();
+        UUID productId = product.getProductId();
+        afterCommit(session, () -> {
+            catalogCache.evictProduct(userId, productId);
+            if (!Objects.equals(previousSku, currentSku)) {
+                if (previousSku != null) {
+                    catalogCache.evictProductSku(userId, previousSku);
+                }
+                if (currentSku != null) {
+                    catalogCache.evictProductSku(userId, currentSku);
+                }
+            }
+        });
+    }
+
+    // --- Providers ---
+
+    public Optional<Provider> loadProviderByNit(Session session, UUID userId, String nit) {
+        UUID providerId = catalogCache.cachedProviderId(userId, nit);
+        if (providerId != null) {
+            Provider provider = session.find(Provider.class, providerId);
+            if (provider != null && nit.equals(provider.getNit())) {
+                return Optional.of(provider);
+            }
+            catalogCache.evictProviderNit(userId, nit);
+        }
+        long generation = catalogCache.providerNitGeneration(userId, nit);
+        Optional<Provider> provider = session.byNaturalId(Provider.class)
+                .using("user", session.getReference(User.class, userId))
+                .using("nit", nit)
+                .loadOptional();
+        provider.ifPresent(p -> catalogCache.cacheProviderId(userId, nit, p.getProviderId(), generation));
+        return provider;
+    }
+
+    /**
+     * Applies {@link ProviderMapper#updateProviderFromDto} and, after commit, evicts the cached
+     * provider and any NIT resolution it invalidated.
+     */
+    public void updateProvider(Session session, ProviderMapper mapper, ProviderUpdateRequestDTO dto, Provider provider) {
+        UUID userId = provider.getUser().getUserId();
+        String previousNit = provider.getNit();
+        mapper.updateProviderFromDto(dto, provider);
+        String currentNit = provider.getNit();
+        UUID providerId = provider.getProviderId();
+        afterCommit(session, () -> {
+            catalogCache.evictProvider(userId, providerId);
+            if (!Objects.equals(previousNit, currentNit)) {
+                if (previousNit != null) {
+                    catalogCache.evictProviderNit(userId, previousNit);
+                }
+                if (currentNit != null) {
+                    catalogCache.evictProviderNit(userId, currentNit);
+                }
+            }
+        });
+    }
+
+    // --- Users ---
+
+    public Optional<User> loadUserByUsername(Session session, String username) {
+        return session.bySimpleNaturalId(User.class).loadOptional(username);
+    }
+
+    // Only one natural id per entity: email stays a (unique-indexed) query
+    public Optional<User> loadUserByEmail(Session session, String email) {
+        return session.createQuery(USER_BY_EMAIL, User.class)
+                .setParameter("email", email)
+                .uniqueResultOptional();
+    }
+
+    // Runs the eviction once the surrounding transaction has committed (immediately if there is none)
+    private static void afterCommit(Session session, Runnable eviction) {
+        if (!session.getTransaction().isActive()) {
+            eviction.run();
+            return;
+        }
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    eviction.run();
+                }
+            }
+        });
+    }
+}
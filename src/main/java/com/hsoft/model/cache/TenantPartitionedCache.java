@@ -0,0 +1,275 @@
+package com.hsoft.model.cache;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Local cache region split into one bounded LRU partition per owning user (tenant).
+ * A busy tenant can only evict its own entries, and invalidating a tenant drops
+ * only its partition, leaving every other tenant's warm entries in place.
+ * The region as a whole is also bounded: past {@code maxEntries} the least recently used entry
+ * of the largest partition is evicted, so many small tenants cannot add up to an unbounded heap.
+ * <p>
+ * Only non-null values are cached, so a lookup that found nothing is retried next time.
+ * <p>
+ * Loads race with invalidations: a loader may read the old row, the writer commits and invalidates,
+ * and only then the loader's result arrives. Every key therefore has an invalidation generation;
+ * a loaded value is cached only if no invalidation of its key (or tenant) happened since the load started.
+ * Callers that load outside {@link #get(UUID, Object, Function)} take the generation with
+ * {@link #generation} before reading and pass it to {@link #put(UUID, Object, Object, long)}.
+ */
+public class TenantPartitionedCache<K, V> {
+
+    // Generations are tracked per hash stripe of the key: bounded memory, and a collision only skips a put
+    private static final int GENERATION_STRIPES = 64;
+
+    private final String regionName;
+    private final int maxEntriesPerTenant;
+    private final int maxEntries;
+    private final CacheStats stats = new CacheStats();
+    private final Map<UUID, Partition<K, V>> partitions = new ConcurrentHashMap<>();
+    private final AtomicInteger totalEntries = new AtomicInteger();
+    private final AtomicLong invalidationClock = new AtomicLong();
+
+    public TenantPartitionedCache(String regionName, int maxEntriesPerTenant) {
+        this(regionName, maxEntriesPerTenant, Integer.MAX_VALUE);
+    }
+
+    public TenantPartitionedCache(String regionName, int maxEntriesPerTenant, int maxEntries) {
+        if (maxEntriesPerTenant < 1) {
+            throw new IllegalArgumentException("maxEntriesPerTenant must be at least 1.");
+        }
+        if (maxEntries < maxEntriesPerTenant) {
+            throw new IllegalArgumentException("maxEntries must be at least maxEntriesPerTenant.");
+        }
+        this.regionName = regionName;
+        this.maxEntriesPerTenant = maxEntriesPerTenant;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Cached value for the key, or the loader's result (cached if non-null and the key was not
+     * invalidated meanwhile). The loader runs outside the partition lock; concurrent misses may both load.
+     */
+    public V get(UUID tenantId, K key, Function<? super K, ? extends V> loader) {
+        Partition<K, V> partition = partition(tenantId);
+        V value;
+        long generation;
+        synchronized (partition) {
+            value = partition.get(key);
+            generation = partition.generation(key);
+        }
+        if (value != null) {
+            stats.recordHit();
+            return value;
+        }
+        stats.recordMiss();
+        value = loader.apply(key);
+        if (value != null) {
+            put(partition, key, value, generation);
+        }
+        return value;
+    }
+
+    /**
+     * Cached value or null; counts as a hit or miss (use {@link #getIfPresent} for bookkeeping reads).
+     */
+    public V get(UUID tenantId, K key) {
+        V value = getIfPresent(tenantId, key);
+        if (value != null) {
+            stats.recordHit();
+        } else {
+            stats.recordMiss();
+        }
+        return value;
+    }
+
+    /**
+     * Invalidation generation of the key; take it before reading the value to cache.
+     */
+    public long generation(UUID tenantId, K key) {
+        Partition<K, V> partition = partition(tenantId);
+        synchronized (partition) {
+            return partition.generation(key);
+        }
+    }
+
+    /**
+     * Caches a value read after {@link #generation} returned {@code generation}; skipped (false) if the key
+     * or its tenant was invalidated since.
+     */
+    public boolean put(UUID tenantId, K key, V value, long generation) {
+        return put(partition(tenantId), key, value, generation);
+    }
+
+    /**
+     * Put for values known to be current (e.g. written by this transaction, after commit);
+     * only an invalidation running at the same moment skips it.
+     */
+    public void put(UUID tenantId, K key, V value) {
+        Partition<K, V> partition = partition(tenantId);
+        long generation;
+        synchronized (partition) {
+            generation = partition.generation(key);
+        }
+        put(partition, key, value, generation);
+    }
+
+    public V getIfPresent(UUID tenantId, K key) {
+        Partition<K, V> partition = partitions.get(tenantId);
+        if (partition == null) {
+            return null;
+        }
+        synchronized (partition) {
+            return partition.get(key);
+        }
+    }
+
+    public void invalidate(UUID tenantId, K key) {
+        Partition<K, V> partition = partitions.get(tenantId);
+        if (partition == null) {
+            return; // No partition, so no load in flight for this tenant either
+        }
+        synchronized (partition) {
+            partition.bumpGeneration(key, invalidationClock.incrementAndGet());
+            if (partition.remove(key) != null) {
+                totalEntries.decrementAndGet();
+                stats.recordInvalidations(1);
+            }
+        }
+    }
+
+    public void invalidateTenant(UUID tenantId) {
+        invalidationClock.incrementAndGet(); // A replacement partition starts past every generation handed out so far
+        Partition<K, V> partition = partitions.remove(tenantId);
+        if (partition != null) {
+            synchronized (partition) {
+                partition.detached = true;
+                totalEntries.addAndGet(-partition.size());
+                stats.recordInvalidations(partition.size());
+                partition.clear();
+            }
+        }
+    }
+
+    public int size(UUID tenantId) {
+        Partition<K, V> partition = partitions.get(tenantId);
+        if (partition == null) {
+            return 0;
+        }
+        synchronized (partition) {
+            return partition.size();
+        }
+    }
+
+    // Entries across all tenants
+    public int size() {
+        return totalEntries.get();
+    }
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    private boolean put(Partition<K, V> partition, K key, V value, long generation) {
+        synchronized (partition) {
+            if (partition.detached || partition.generation(key) != generation) {
+                return false;
+            }
+            if (partition.put(key, value) == null) {
+                totalEntries.incrementAndGet();
+            }
+        }
+        while (totalEntries.get() > maxEntries && evictFromLargestPartition()) {
+            // One entry at a time: the largest partition may change after each eviction
+        }
+        return true;
+    }
+
+    // Only reached once the region is full; scans the partitions (one short lock each)
+    private boolean evictFromLargestPartition() {
+        Partition<K, V> largest = null;
+        int largestSize = 0;
+        for (Partition<K, V> partition : partitions.values()) {
+            int size;
+            synchronized (partition) {
+                size = partition.size();
+            }
+            if (size > largestSize) {
+                largest = partition;
+                largestSize = size;
+            }
+        }
+        if (largest == null) {
+            return false;
+        }
+        synchronized (largest) {
+            Iterator<K> eldest = largest.keySet().iterator();
+            if (!eldest.hasNext()) {
+                return true; // Emptied meanwhile; look again
+            }
+            eldest.next();
+            eldest.remove();
+            totalEntries.decrementAndGet();
+            stats.recordEviction();
+        }
+        return true;
+    }
+
+    private Partition<K, V> partition(UUID tenantId) {
+        return partitions.computeIfAbsent(tenantId,
+                k -> new Partition<>(maxEntriesPerTenant, invalidationClock.get(), totalEntries, stats));
+    }
+
+    // Access-ordered LinkedHashMap: the eldest entry is the least recently used one
+    private static final class Partition<K, V> extends LinkedHashMap<K, V> {
+
+        private final int maxEntries;
+        private final long[] generations = new long[GENERATION_STRIPES];
+        private final AtomicInteger totalEntries;
+        private final CacheStats stats;
+        private boolean detached; // Removed by invalidateTenant; late puts are dropped
+
+        private Partition(int maxEntries, long initialGeneration, AtomicInteger totalEntries, CacheStats stats) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+            this.totalEntries = totalEntries;
+            this.stats = stats;
+            Arrays.fill(generations, initialGeneration);
+        }
+
+        long generation(K key) {
+            return generations[stripe(key)];
+        }
+
+        void bumpGeneration(K key, long generation) {
+            generations[stripe(key)] = generation;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() > maxEntries) {
+                totalEntries.decrementAndGet();
+                stats.recordEviction();
+                return true;
+            }
+            return false;
+        }
+
+        private static int stripe(Object key) {
+            int h = key.hashCode();
+            return (h ^ (h >>> 16)) & (GENERATION_STRIPES - 1);
+        }
+    }
+}
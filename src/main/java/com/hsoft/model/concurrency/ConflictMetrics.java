@@ -0,0 +1,119 @@
+package com.hsoft.model.concurrency;
+
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.Hibernate;
+import org.hibernate.StaleObjectStateException;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for optimistic locking. Attempts, conflicts and retries that gave up are counted per operation
+ * (the label passed to {@link OptimisticRetryExecutor}); conflicts are also counted per entity type, which is
+ * taken from the conflict exception itself so a caller cannot mislabel it.
+ * Counters are {@link LongAdder}s so recording never becomes a contention point itself.
+ */
+public class ConflictMetrics {
+
+    /**
+     * Entity type recorded when the exception does not name the entity (e.g. a batch row count mismatch).
+     */
+    public static final String UNKNOWN_ENTITY = "unknown";
+
+    private final Map<String, Counters> countersByOperation = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> conflictsByEntity = new ConcurrentHashMap<>();
+
+    void recordAttempt(String operation) {
+        counters(operation).attempts.increment();
+    }
+
+    void recordConflict(String operation, Throwable conflict) {
+        counters(operation).conflicts.increment();
+        conflictsByEntity.computeIfAbsent(entityTypeOf(conflict), k -> new LongAdder()).increment();
+    }
+
+    void recordExhausted(String operation) {
+        counters(operation).exhausted.increment();
+    }
+
+    public long getAttempts(String operation) {
+        Counters c = countersByOperation.get(operation);
+        return c != null ? c.attempts.sum() : 0L;
+    }
+
+    public long getConflicts(String operation) {
+        Counters c = countersByOperation.get(operation);
+        return c != null ? c.conflicts.sum() : 0L;
+    }
+
+    public long getExhausted(String operation) {
+        Counters c = countersByOperation.get(operation);
+        return c != null ? c.exhausted.sum() : 0L;
+    }
+
+    /**
+     * Conflicts on the entity type (simple class name, e.g. "Product"), whatever operation hit them.
+     */
+    public long getEntityConflicts(String entityType) {
+        LongAdder conflicts = conflictsByEntity.get(entityType);
+        return conflicts != null ? conflicts.sum() : 0L;
+    }
+
+    /**
+     * Conflicts per attempt for the operation (0.0 when nothing was recorded).
+     */
+    public double getConflictRate(String operation) {
+        long attempts = getAttempts(operation);
+        return attempts > 0 ? (double) getConflicts(operation) / attempts : 0.0;
+    }
+
+    /**
+     * Conflict rate of every operation seen so far, sorted by name (e.g. for a metrics endpoint or log line).
+     */
+    public Map<String, Double> conflictRates() {
+        Map<String, Double> rates = new TreeMap<>();
+        for (String operation : countersByOperation.keySet()) {
+            rates.put(operation, getConflictRate(operation));
+        }
+        return rates;
+    }
+
+    /**
+     * Conflicts of every entity type seen so far, sorted by name.
+     */
+    public Map<String, Long> entityConflicts() {
+        Map<String, Long> conflicts = new TreeMap<>();
+        conflictsByEntity.forEach((entityType, count) -> conflicts.put(entityType, count.sum()));
+        return conflicts;
+    }
+
+    /**
+     * Simple name of the entity the conflict is about: Hibernate's {@link StaleObjectStateException#getEntityName()}
+     * when present anywhere in the cause chain, else the entity of a JPA {@link OptimisticLockException}.
+     */
+    static String entityTypeOf(Throwable conflict) {
+        Object jpaEntity = null;
+        for (Throwable t = conflict; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof StaleObjectStateException stale && stale.getEntityName() != null) {
+                String entityName = stale.getEntityName();
+                return entityName.substring(entityName.lastIndexOf('.') + 1);
+            }
+            if (jpaEntity == null && t instanceof OptimisticLockException optimistic) {
+                jpaEntity = optimistic.getEntity();
+            }
+        }
+        return jpaEntity != null ? Hibernate.getClass(jpaEntity).getSimpleName() : UNKNOWN_ENTITY;
+    }
+
+    private Counters counters(String operation) {
+        return countersByOperation.computeIfAbsent(operation, k -> new Counters());
+    }
+
+    private static final class Counters {
+        final LongAdder attempts = new LongAdder();
+        final LongAdder conflicts = new LongAdder();
+        final LongAdder exhausted = new LongAdder();
+    }
+}
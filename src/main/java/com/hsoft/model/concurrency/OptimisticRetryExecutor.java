@@ -0,0 +1,101 @@
+package com.hsoft.model.concurrency;
+
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.StaleStateException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a unit of work when it fails with an optimistic locking conflict
+ * (JPA {@link OptimisticLockException} or Hibernate {@link StaleStateException}, also when wrapped),
+ * waiting a jittered exponential backoff between bounded attempts.
+ * <p>
+ * Each attempt must run in its own database transaction and reload the entities it changes;
+ * e.g. pass a lambda that calls a {@code @Transactional} service method.
+ */
+public class OptimisticRetryExecutor {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 10L;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 500L;
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final ConflictMetrics metrics;
+
+    public OptimisticRetryExecutor(ConflictMetrics metrics) {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS, metrics);
+    }
+
+    public OptimisticRetryExecutor(int maxAttempts, long baseDelayMillis, long maxDelayMillis, ConflictMetrics metrics) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1.");
+        }
+        if (baseDelayMillis < 0 || maxDelayMillis < baseDelayMillis) {
+            throw new IllegalArgumentException("Invalid backoff delays.");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Runs {@code unitOfWork}, retrying on optimistic locking conflicts.
+     *
+     * @param operation metrics label of the unit of work (e.g. "updateProduct"); the entity type of each
+     *                  conflict is taken from the exception, see {@link ConflictMetrics}
+     * @throws RuntimeException the last conflict once all attempts are exhausted, or any non-conflict failure
+     */
+    public <T> T execute(String operation, Supplier<T> unitOfWork) {
+        for (int attempt = 1; ; attempt++) {
+            metrics.recordAttempt(operation);
+            try {
+                return unitOfWork.get();
+            } catch (RuntimeException e) {
+                if (!isOptimisticLockFailure(e)) {
+                    throw e;
+                }
+                metrics.recordConflict(operation, e);
+                if (attempt >= maxAttempts) {
+                    metrics.recordExhausted(operation);
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable unitOfWork) {
+        execute(operation, () -> {
+            unitOfWork.run();
+            return null;
+        });
+    }
+
+    // "Full jitter": uniform in [0, min(max, base * 2^(attempt-1))]
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        long delay = ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0L;
+        if (delay == 0L) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry after an optimistic lock conflict.", e);
+        }
+    }
+
+    static boolean isOptimisticLockFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof OptimisticLockException || t instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,125 @@
+package com.hsoft.model.dedup;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical forms of the contact fields of {@code Client} / {@code Provider}, so that differently
+ * formatted values compare equal: {@code "1234567-8"} / {@code "12345678"}, {@code "+502 5555-1212"} /
+ * {@code "55551212"}, {@code "Ventas@Empresa.com "} / {@code "ventas@empresa.com"}.
+ */
+public final class ContactNormalizer {
+
+    // "Consumidor Final": a placeholder NIT shared by many unrelated clients, never an identity
+    public static final String CONSUMIDOR_FINAL = "CF";
+
+    private static final String GUATEMALA_CODE = "502";
+    private static final int LOCAL_PHONE_DIGITS = 8;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern NON_DIGIT = Pattern.compile("\\D+");
+
+    // Dropped from names: articles/connectors and legal-form words ("S.A." splits into single letters)
+    private static final Set<String> NAME_STOPWORDS = Set.of(
+            "de", "del", "la", "las", "el", "los", "y",
+            "sa", "ltda", "limitada", "cia", "sociedad", "anonima", "srl", "inc", "corp");
+
+    private ContactNormalizer() {
+    }
+
+    /**
+     * Upper-case alphanumerics without leading zeros ({@code "0123456-k"} -> {@code "123456K"});
+     * every spelling of consumidor final -> {@link #CONSUMIDOR_FINAL}; null when blank.
+     */
+    public static String normalizeNit(String nit) {
+        if (nit == null) {
+            return null;
+        }
+        String compact = NON_ALPHANUMERIC.matcher(foldAccents(nit)).replaceAll("").toUpperCase(Locale.ROOT);
+        if (compact.isEmpty()) {
+            return null;
+        }
+        if (compact.equals("CF") || compact.equals("CONSUMIDORFINAL")) {
+            return CONSUMIDOR_FINAL;
+        }
+        int start = 0;
+        while (start < compact.length() - 1 && compact.charAt(start) == '0') {
+            start++;
+        }
+        return compact.substring(start);
+    }
+
+    public static boolean isConsumidorFinal(String nit) {
+        return CONSUMIDOR_FINAL.equals(normalizeNit(nit));
+    }
+
+    /**
+     * Digits only, without the Guatemalan country code for local numbers; null when no digits.
+     */
+    public static String normalizePhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        String digits = NON_DIGIT.matcher(phone).replaceAll("");
+        if (digits.startsWith("00")) {
+            digits = digits.substring(2); // International prefix
+        }
+        if (digits.length() == GUATEMALA_CODE.length() + LOCAL_PHONE_DIGITS && digits.startsWith(GUATEMALA_CODE)) {
+            digits = digits.substring(GUATEMALA_CODE.length());
+        }
+        return digits.isEmpty() ? null : digits;
+    }
+
+    /**
+     * Trimmed, lower-case, without a {@code +tag}; dots in Gmail local parts are ignored. Null unless it has an '@'.
+     */
+    public static String normalizeEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        String trimmed = email.trim().toLowerCase(Locale.ROOT);
+        int at = trimmed.lastIndexOf('@');
+        if (at <= 0 || at == trimmed.length() - 1) {
+            return null;
+        }
+        String local = trimmed.substring(0, at);
+        String domain = trimmed.substring(at + 1);
+        int plus = local.indexOf('+');
+        if (plus > 0) {
+            local = local.substring(0, plus);
+        }
+        if (domain.equals("gmail.com") || domain.equals("googlemail.com")) {
+            local = local.replace(".", "");
+            domain = "gmail.com";
+        }
+        return local + "@" + domain;
+    }
+
+    /**
+     * Accent-free, lower-case name words without stopwords or single letters, sorted
+     * (word order and "S.A."-style suffixes do not matter).
+     */
+    public static List<String> nameTokens(String name) {
+        if (name == null) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(foldAccents(name).toLowerCase(Locale.ROOT))) {
+            if (token.length() > 1 && !NAME_STOPWORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        Collections.sort(tokens);
+        return tokens;
+    }
+
+    private static String foldAccents(String text) {
+        return COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+    }
+}
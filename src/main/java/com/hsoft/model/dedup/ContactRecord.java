@@ -0,0 +1,42 @@
+package com.hsoft.model.dedup;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A client or provider prepared for comparison: original name plus normalized fields.
+ * A consumidor final NIT is dropped, as it identifies nobody.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ContactRecord {
+
+    // The survivor of a merge: earliest created_at; the id only breaks ties (and orders records without one)
+    static final Comparator<ContactRecord> OLDEST_FIRST = Comparator
+            .comparing(ContactRecord::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ContactRecord::getId);
+
+    UUID id;
+    OffsetDateTime createdAt;
+    String name;
+    List<String> nameTokens;
+    String nameKey; // Sorted tokens joined by spaces
+    String nit;
+    String phone;
+    String email;
+
+    public static ContactRecord of(UUID id, OffsetDateTime createdAt, String name, String nit, String phone, String email) {
+        List<String> tokens = ContactNormalizer.nameTokens(name);
+        String normalizedNit = ContactNormalizer.normalizeNit(nit);
+        return new ContactRecord(id, createdAt, name, tokens, String.join(" ", tokens),
+                ContactNormalizer.CONSUMIDOR_FINAL.equals(normalizedNit) ? null : normalizedNit,
+                ContactNormalizer.normalizePhone(phone),
+                ContactNormalizer.normalizeEmail(email));
+    }
+}
@@ -0,0 +1,75 @@
+package com.hsoft.model.dedup;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Merge suggestions of one run, best first, with the figures needed to judge blocking quality.
+ */
+@Value
+public class DeduplicationResult {
+    List<MergeSuggestion> suggestions;
+    int recordCount;
+    int blockCount;
+    int skippedBlocks;  // Over maxBlockSize
+    long comparisons;   // Pairs actually scored
+    Duration elapsed;
+
+    /**
+     * Suggestions combined transitively (A~B, B~C) into groups, each listed as survivor first, then duplicates.
+     */
+    public List<List<UUID>> groups() {
+        Map<UUID, OffsetDateTime> createdAt = new HashMap<>();
+        for (MergeSuggestion suggestion : suggestions) {
+            createdAt.put(suggestion.getSurvivorId(), suggestion.getSurvivorCreatedAt());
+            createdAt.put(suggestion.getDuplicateId(), suggestion.getDuplicateCreatedAt());
+        }
+        // Same rule as for a single pair (ContactRecord.OLDEST_FIRST)
+        Comparator<UUID> oldestFirst = Comparator
+                .comparing((UUID id) -> createdAt.get(id), Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Comparator.naturalOrder());
+        Map<UUID, UUID> parent = new HashMap<>();
+        for (MergeSuggestion suggestion : suggestions) {
+            UUID a = root(parent, suggestion.getSurvivorId());
+            UUID b = root(parent, suggestion.getDuplicateId());
+            if (!a.equals(b)) {
+                // The older record stays the root, so it is the group's survivor
+                if (oldestFirst.compare(a, b) < 0) {
+                    parent.put(b, a);
+                } else {
+                    parent.put(a, b);
+                }
+            }
+        }
+        Map<UUID, TreeSet<UUID>> members = new HashMap<>();
+        for (UUID id : new ArrayList<>(parent.keySet())) {
+            members.computeIfAbsent(root(parent, id), r -> new TreeSet<>(oldestFirst)).add(id);
+        }
+        List<List<UUID>> groups = new ArrayList<>(members.size());
+        for (TreeSet<UUID> group : members.values()) {
+            groups.add(new ArrayList<>(group));
+        }
+        return groups;
+    }
+
+    private static UUID root(Map<UUID, UUID> parent, UUID id) {
+        UUID current = id;
+        UUID next;
+        while ((next = parent.putIfAbsent(current, current)) != null && !next.equals(current)) {
+            current = next;
+        }
+        if (!current.equals(id)) {
+            parent.put(id, current); // Path compression
+        }
+        return current;
+    }
+}
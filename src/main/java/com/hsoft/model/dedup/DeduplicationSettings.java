@@ -0,0 +1,27 @@
+package com.hsoft.model.dedup;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Tuning of {@link DuplicateDetector}.
+ */
+@Value
+@Builder
+public class DeduplicationSettings {
+
+    // Minimum score of a suggested pair
+    @Builder.Default
+    double threshold = 0.85;
+
+    // Blocks larger than this are too unselective (e.g. a very common first name) and are skipped
+    @Builder.Default
+    int maxBlockSize = 1_000;
+
+    @Builder.Default
+    int parallelism = Runtime.getRuntime().availableProcessors();
+
+    // Pair comparisons below which a fork-join task stops splitting
+    @Builder.Default
+    long comparisonsPerTask = 50_000L;
+}
@@ -0,0 +1,326 @@
+package com.hsoft.model.dedup;
+
+import jakarta.persistence.EntityManager;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds probable duplicate clients/providers of a tenant without comparing every pair.
+ * <ol>
+ *     <li><b>Blocking:</b> each record gets a few keys (normalized NIT, phone and email; a prefix of every
+ *     name word; the first two name words together). Only records sharing a key are compared, and a pair
+ *     sharing several keys is compared once, in its first common block. Oversized blocks are skipped.</li>
+ *     <li><b>Scoring:</b> blocks are compared in parallel on a fork-join pool, split by pair count.
+ *     A shared NIT or email with a plausible name scores at least 0.9; otherwise the score is a weighted
+ *     average of name similarity (Jaro-Winkler on sorted name words), NIT, email and phone equality over the
+ *     fields both records have. Two different NITs cap the score at 0.5.</li>
+ * </ol>
+ * In each suggestion the record created first survives. Suggestions are never applied here; merging is
+ * a reviewed, separate step.
+ */
+public class DuplicateDetector {
+
+    private static final String ACTIVE_CLIENTS =
+            "select c.clientId, c.createdAt, c.name, c.nit, c.phone, c.email from Client c " +
+            "where c.user.userId = :userId and c.isActive = true";
+    private static final String ACTIVE_PROVIDERS =
+            "select p.providerId, p.createdAt, p.name, p.nit, p.phone, p.email from Provider p " +
+            "where p.user.userId = :userId and p.isActive = true";
+
+    private static final int NAME_KEY_PREFIX = 5;
+    private static final int PAIR_KEY_PREFIX = 4;
+    private static final int MIN_PHONE_DIGITS = 7;
+
+    private static final double NAME_WEIGHT = 0.45;
+    private static final double NIT_WEIGHT = 0.30;
+    private static final double EMAIL_WEIGHT = 0.15;
+    private static final double PHONE_WEIGHT = 0.10;
+    private static final double SIMILAR_NAME = 0.90;
+    private static final double PLAUSIBLE_NAME = 0.60;    // Enough name agreement when an identifier matches
+    private static final double IDENTIFIER_FLOOR = 0.90;
+    private static final double CONFLICTING_NIT_CAP = 0.50;
+
+    private final DeduplicationSettings settings;
+
+    public DuplicateDetector() {
+        this(DeduplicationSettings.builder().build());
+    }
+
+    public DuplicateDetector(DeduplicationSettings settings) {
+        if (settings.getMaxBlockSize() < 2 || settings.getParallelism() < 1) {
+            throw new IllegalArgumentException("maxBlockSize must be at least 2 and parallelism at least 1.");
+        }
+        this.settings = settings;
+    }
+
+    public DeduplicationResult findClientDuplicates(EntityManager em, UUID userId) {
+        return detect(load(em, ACTIVE_CLIENTS, userId));
+    }
+
+    public DeduplicationResult findProviderDuplicates(EntityManager em, UUID userId) {
+        return detect(load(em, ACTIVE_PROVIDERS, userId));
+    }
+
+    public DeduplicationResult detect(List<ContactRecord> records) {
+        long started = System.nanoTime();
+        Blocks blocks = buildBlocks(records);
+        LongAdder comparisons = new LongAdder();
+        List<MergeSuggestion> suggestions;
+        if (blocks.members.length == 0) {
+            suggestions = new ArrayList<>();
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(settings.getParallelism());
+            try {
+                suggestions = pool.invoke(new CompareTask(records, blocks, comparisons, 0, blocks.members.length));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        suggestions.sort(Comparator.comparingDouble(MergeSuggestion::getScore).reversed()
+                .thenComparing(MergeSuggestion::getSurvivorId)
+                .thenComparing(MergeSuggestion::getDuplicateId));
+        return new DeduplicationResult(suggestions, records.size(), blocks.members.length, blocks.skipped,
+                comparisons.sum(), Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    // --- Blocking ---
+
+    static Set<String> blockingKeys(ContactRecord record) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (record.getNit() != null) {
+            keys.add("nit:" + record.getNit());
+        }
+        if (record.getPhone() != null && record.getPhone().length() >= MIN_PHONE_DIGITS) {
+            keys.add("tel:" + record.getPhone());
+        }
+        if (record.getEmail() != null) {
+            keys.add("mail:" + record.getEmail());
+        }
+        List<String> tokens = record.getNameTokens();
+        for (String token : tokens) {
+            keys.add("w:" + prefix(token, NAME_KEY_PREFIX));
+        }
+        if (tokens.size() >= 2) {
+            keys.add("ww:" + prefix(tokens.get(0), PAIR_KEY_PREFIX) + " " + prefix(tokens.get(1), PAIR_KEY_PREFIX));
+        }
+        return keys;
+    }
+
+    private Blocks buildBlocks(List<ContactRecord> records) {
+        Map<String, List<Integer>> byKey = new HashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            for (String key : blockingKeys(records.get(i))) {
+                byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+        List<int[]> kept = new ArrayList<>();
+        int skipped = 0;
+        for (List<Integer> members : byKey.values()) {
+            if (members.size() < 2) {
+                continue;
+            }
+            if (members.size() > settings.getMaxBlockSize()) {
+                skipped++;
+                continue;
+            }
+            kept.add(members.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        // Per record, the ascending ids of its blocks: a pair is compared only in its first common block
+        int[] counts = new int[records.size()];
+        for (int[] members : kept) {
+            for (int record : members) {
+                counts[record]++;
+            }
+        }
+        int[][] blocksOfRecord = new int[records.size()][];
+        for (int i = 0; i < records.size(); i++) {
+            blocksOfRecord[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int block = 0; block < kept.size(); block++) {
+            for (int record : kept.get(block)) {
+                blocksOfRecord[record][counts[record]++] = block;
+            }
+        }
+
+        // Cumulative pair counts, for splitting work evenly
+        long[] cumulativePairs = new long[kept.size() + 1];
+        for (int block = 0; block < kept.size(); block++) {
+            long size = kept.get(block).length;
+            cumulativePairs[block + 1] = cumulativePairs[block] + size * (size - 1) / 2;
+        }
+        return new Blocks(kept.toArray(new int[0][]), blocksOfRecord, cumulativePairs, skipped);
+    }
+
+    private static int firstCommonBlock(int[] a, int[] b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                return a[i];
+            }
+            if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return -1;
+    }
+
+    // --- Scoring ---
+
+    MergeSuggestion compare(ContactRecord a, ContactRecord b) {
+        Set<MatchSignal> signals = EnumSet.noneOf(MatchSignal.class);
+        double nameSimilarity = StringSimilarity.jaroWinkler(a.getNameKey(), b.getNameKey());
+        if (nameSimilarity >= SIMILAR_NAME) {
+            signals.add(MatchSignal.SIMILAR_NAME);
+        }
+        double weighted = NAME_WEIGHT * nameSimilarity;
+        double weights = NAME_WEIGHT;
+        boolean conflictingNit = false;
+        if (a.getNit() != null && b.getNit() != null) {
+            weights += NIT_WEIGHT;
+            if (a.getNit().equals(b.getNit())) {
+                weighted += NIT_WEIGHT;
+                signals.add(MatchSignal.SAME_NIT);
+            } else {
+                conflictingNit = true;
+            }
+        }
+        if (a.getEmail() != null && b.getEmail() != null) {
+            weights += EMAIL_WEIGHT;
+            if (a.getEmail().equals(b.getEmail())) {
+                weighted += EMAIL_WEIGHT;
+                signals.add(MatchSignal.SAME_EMAIL);
+            }
+        }
+        if (a.getPhone() != null && b.getPhone() != null) {
+            weights += PHONE_WEIGHT;
+            if (a.getPhone().equals(b.getPhone())) {
+                weighted += PHONE_WEIGHT;
+                signals.add(MatchSignal.SAME_PHONE);
+            }
+        }
+        double score = weighted / weights;
+        boolean sharedIdentifier = signals.contains(MatchSignal.SAME_NIT) || signals.contains(MatchSignal.SAME_EMAIL);
+        if (sharedIdentifier && nameSimilarity >= PLAUSIBLE_NAME) {
+            score = Math.max(score, IDENTIFIER_FLOOR + (1.0 - IDENTIFIER_FLOOR) * nameSimilarity);
+        }
+        if (conflictingNit) {
+            score = Math.min(score, CONFLICTING_NIT_CAP);
+        }
+        if (score < settings.getThreshold()) {
+            return null;
+        }
+        ContactRecord survivor = ContactRecord.OLDEST_FIRST.compare(a, b) <= 0 ? a : b;
+        ContactRecord duplicate = survivor == a ? b : a;
+        return new MergeSuggestion(survivor.getId(), duplicate.getId(), survivor.getCreatedAt(),
+                duplicate.getCreatedAt(), score, signals);
+    }
+
+    // --- Internals ---
+
+    private static List<ContactRecord> load(EntityManager em, String query, UUID userId) {
+        List<Object[]> rows = em.createQuery(query, Object[].class)
+                .setParameter("userId", userId)
+                .getResultList();
+        List<ContactRecord> records = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            records.add(ContactRecord.of((UUID) row[0], (OffsetDateTime) row[1], (String) row[2], (String) row[3],
+                    (String) row[4], (String) row[5]));
+        }
+        return records;
+    }
+
+    private static String prefix(String token, int length) {
+        return token.length() <= length ? token : token.substring(0, length);
+    }
+
+    private static final class Blocks {
+        final int[][] members;
+        final int[][] blocksOfRecord;
+        final long[] cumulativePairs;
+        final int skipped;
+
+        Blocks(int[][] members, int[][] blocksOfRecord, long[] cumulativePairs, int skipped) {
+            this.members = members;
+            this.blocksOfRecord = blocksOfRecord;
+            this.cumulativePairs = cumulativePairs;
+            this.skipped = skipped;
+        }
+    }
+
+    // Compares the blocks [from, to); splits at the pair-count midpoint until small enough
+    private final class CompareTask extends RecursiveTask<List<MergeSuggestion>> {
+        private final List<ContactRecord> records;
+        private final Blocks blocks;
+        private final LongAdder comparisons;
+        private final int from;
+        private final int to;
+
+        CompareTask(List<ContactRecord> records, Blocks blocks, LongAdder comparisons, int from, int to) {
+            this.records = records;
+            this.blocks = blocks;
+            this.comparisons = comparisons;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<MergeSuggestion> compute() {
+            long pairs = blocks.cumulativePairs[to] - blocks.cumulativePairs[from];
+            if (to - from == 1 || pairs <= settings.getComparisonsPerTask()) {
+                return compareBlocks();
+            }
+            long half = blocks.cumulativePairs[from] + pairs / 2;
+            int split = Arrays.binarySearch(blocks.cumulativePairs, from + 1, to, half);
+            split = split >= 0 ? split : -split - 1;
+            split = Math.max(from + 1, Math.min(split, to - 1));
+            CompareTask left = new CompareTask(records, blocks, comparisons, from, split);
+            CompareTask right = new CompareTask(records, blocks, comparisons, split, to);
+            left.fork();
+            List<MergeSuggestion> result = right.compute();
+            result.addAll(left.join());
+            return result;
+        }
+
+        private List<MergeSuggestion> compareBlocks() {
+            List<MergeSuggestion> result = new ArrayList<>();
+            long compared = 0L;
+            for (int block = from; block < to; block++) {
+                int[] members = blocks.members[block];
+                for (int i = 0; i < members.length; i++) {
+                    int[] blocksOfA = blocks.blocksOfRecord[members[i]];
+                    for (int j = i + 1; j < members.length; j++) {
+                        if (firstCommonBlock(blocksOfA, blocks.blocksOfRecord[members[j]]) != block) {
+                            continue; // Already compared in an earlier shared block
+                        }
+                        compared++;
+                        MergeSuggestion suggestion = compare(records.get(members[i]), records.get(members[j]));
+                        if (suggestion != null) {
+                            result.add(suggestion);
+                        }
+                    }
+                }
+            }
+            comparisons.add(compared);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.hsoft.model.dedup;
+
+/**
+ * Evidence behind a {@link MergeSuggestion}.
+ */
+public enum MatchSignal {
+    SAME_NIT,
+    SAME_EMAIL,
+    SAME_PHONE,
+    SIMILAR_NAME
+}
@@ -0,0 +1,22 @@
+package com.hsoft.model.dedup;
+
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Two records that probably describe the same client/provider. The survivor is the record created first
+ * (by {@code created_at}; ids may have been supplied by clients or imports, so their order proves nothing),
+ * which keeps transaction history on the original row.
+ */
+@Value
+public class MergeSuggestion {
+    UUID survivorId;
+    UUID duplicateId;
+    OffsetDateTime survivorCreatedAt;
+    OffsetDateTime duplicateCreatedAt;
+    double score; // 0..1
+    Set<MatchSignal> signals;
+}
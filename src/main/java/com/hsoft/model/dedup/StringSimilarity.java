@@ -0,0 +1,69 @@
+package com.hsoft.model.dedup;
+
+/**
+ * Jaro-Winkler similarity (0..1): tolerant of typos and transpositions, and favours a common prefix,
+ * which suits names typed at a counter.
+ */
+final class StringSimilarity {
+
+    private static final double PREFIX_SCALE = 0.1;
+    private static final int MAX_PREFIX = 4;
+
+    private StringSimilarity() {
+    }
+
+    static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) {
+            return a.isEmpty() ? 0.0 : 1.0;
+        }
+        double jaro = jaro(a, b);
+        int prefix = 0;
+        int maxPrefix = Math.min(MAX_PREFIX, Math.min(a.length(), b.length()));
+        while (prefix < maxPrefix && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * PREFIX_SCALE * (1.0 - jaro);
+    }
+
+    private static double jaro(String a, String b) {
+        int lengthA = a.length();
+        int lengthB = b.length();
+        if (lengthA == 0 || lengthB == 0) {
+            return 0.0;
+        }
+        int window = Math.max(0, Math.max(lengthA, lengthB) / 2 - 1);
+        boolean[] matchedA = new boolean[lengthA];
+        boolean[] matchedB = new boolean[lengthB];
+        int matches = 0;
+        for (int i = 0; i < lengthA; i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(lengthB - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (!matchedB[j] && a.charAt(i) == b.charAt(j)) {
+                    matchedA[i] = true;
+                    matchedB[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+        int transpositions = 0;
+        int j = 0;
+        for (int i = 0; i < lengthA; i++) {
+            if (matchedA[i]) {
+                while (!matchedB[j]) {
+                    j++;
+                }
+                if (a.charAt(i) != b.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        double m = matches;
+        return (m / lengthA + m / lengthB + (m - transpositions / 2.0) / m) / 3.0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.hsoft.model.dto.v1.commons;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Reusable request for keyset (cursor) pagination
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request for a page of results using keyset (cursor) pagination.")
+public class CursorPageRequestDTO {
+    @Size(max = 512)
+    @Schema(description = "Opaque cursor returned as 'nextCursor' by the previous page. Omit for the first page.")
+    private String cursor;
+
+    @Min(1) @Max(200)
+    @Schema(description = "Maximum number of items to return.", example = "50")
+    private Integer size = 50; // Default if not provided
+}
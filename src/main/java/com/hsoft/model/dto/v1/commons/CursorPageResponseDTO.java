@@ -0,0 +1,24 @@
+package com.hsoft.model.dto.v1.commons;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Reusable page wrapper for keyset (cursor) pagination
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A page of results with an opaque cursor to the next page.")
+public class CursorPageResponseDTO<T> {
+    @Schema(description = "Items in this page.")
+    private List<T> items;
+
+    @Schema(description = "Opaque cursor for the next page; null when there are no more results.")
+    private String nextCursor;
+
+    @Schema(description = "Whether more results are available after this page.", example = "true")
+    private boolean hasNext;
+}
@@ -0,0 +1,42 @@
+package com.hsoft.model.dto.v1.products;
+
+import com.hsoft.model.types.v1.StockMovementType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Representation of a stock movement in a product's stock history.")
+public class StockMovementResponseDTO {
+    @Schema(description = "Unique identifier of the movement.", accessMode = Schema.AccessMode.READ_ONLY)
+    private UUID movementId;
+
+    @Schema(description = "Unique identifier of the product.")
+    private UUID productId;
+
+    @Schema(description = "Origin of the movement.", example = "SALE")
+    private StockMovementType movementType;
+
+    @Schema(description = "Signed change in stock.", example = "-2")
+    private int quantity;
+
+    @Schema(description = "Transaction that caused the movement, if any.")
+    private UUID transactionId;
+
+    @Schema(description = "Reason for the movement.", example = "Stocktake correction")
+    private String reason;
+
+    @Schema(description = "When the stock change took effect.")
+    private OffsetDateTime occurredAt;
+
+    @Schema(description = "ID of the user who recorded the movement.")
+    private UUID createdByUserId;
+}
@@ -0,0 +1,33 @@
+package com.hsoft.model.dto.v1.transactions;
+
+import com.hsoft.model.types.v1.TransactionType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Daily totals of completed transactions of one type, for dashboards.")
+public class DailyTransactionAggregateResponseDTO {
+    @Schema(description = "Business day of the transactions.", example = "2023-10-27")
+    private LocalDate businessDate;
+
+    @Schema(description = "Type of the aggregated transactions.", example = "SALE")
+    private TransactionType transactionType;
+
+    @Schema(description = "Number of completed transactions.", example = "42")
+    private long transactionCount;
+
+    @Schema(description = "Sum of the transactions' total amounts.", example = "8399.50")
+    private BigDecimal grossTotal;
+
+    @Schema(description = "Sum of the item quantities of the transactions.", example = "137")
+    private long itemQuantity;
+}
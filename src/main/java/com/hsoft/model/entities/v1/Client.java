@@ -1,14 +1,17 @@
 package com.hsoft.model.entities.v1;
 
+import com.hsoft.model.generators.TimeOrderedUuid;
+import com.hsoft.model.generators.UuidV7Generator;
+import com.hsoft.model.types.v1.JsonContext;
+import com.hsoft.model.usertypes.JsonContextUserType;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.LazyGroup;
+import org.hibernate.annotations.Type;
 
 import java.time.OffsetDateTime;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -22,12 +25,16 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "clients", schema = "pilot_v2")
+@DynamicUpdate
+@Table(name = "clients", schema = "pilot_v2", indexes = {
+        @Index(name = "idx_clients_user_name_id", columnList = "user_id, name, client_id"), // Keyset pagination
+        @Index(name = "idx_clients_user_updated_id", columnList = "user_id, updated_at DESC, client_id DESC")
+})
 @Schema(description = "Represents a client (customer) of a main user account.")
 public class Client {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     @Column(name = "client_id", updatable = false, nullable = false)
     @Schema(description = "Unique identifier for the client.", example = "c3d4e5f6-a7b8-9012-3456-7890abcdef01")
     private UUID clientId;
@@ -55,6 +62,8 @@ public class Client {
     @Schema(description = "Client phone number.", example = "+502 5555 1212")
     private String phone;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(FetchPlans.TEXT_GROUP)
     @Column(columnDefinition = "TEXT")
     @Schema(description = "Client address.", example = "456 Avenida Reforma, Zona 10, Guatemala")
     private String address;
@@ -72,18 +81,25 @@ public class Client {
     @Schema(description = "Timestamp when the client was last updated.", accessMode = Schema.AccessMode.READ_ONLY)
     private OffsetDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    @Schema(description = "Optimistic locking version, incremented on every update.", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
     // --- JSONB Context Field ---
-    @JdbcTypeCode(SqlTypes.JSON)
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(FetchPlans.CONTEXT_GROUP)
+    @Type(JsonContextUserType.class)
     @Column(name = "context", nullable = false, columnDefinition = "jsonb")
     @Builder.Default
     @Schema(description = "Flexible JSON object for storing custom client-specific data.", example = "{\"creditLimit\": 5000, \"segment\":\"VIP\"}")
-    private Map<String, Object> context = new HashMap<>();
+    private JsonContext context = JsonContext.empty();
 
     // --- Lifecycle Callbacks ---
     @PrePersist
     protected void onCreate() {
         if (this.clientId == null) {
-            this.clientId = UUID.randomUUID();
+            this.clientId = UuidV7Generator.nextUuid();
         }
         this.createdAt = OffsetDateTime.now();
     }
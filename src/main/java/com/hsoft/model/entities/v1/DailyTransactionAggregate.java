@@ -0,0 +1,98 @@
+package com.hsoft.model.entities.v1;
+
+import com.hsoft.model.generators.TimeOrderedUuid;
+import com.hsoft.model.generators.UuidV7Generator;
+import com.hsoft.model.types.v1.Money;
+import com.hsoft.model.types.v1.TransactionType;
+import com.hsoft.model.usertypes.MoneyUserType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Type;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Materialized per-day totals of COMPLETED transactions for each main user account and transaction type.
+ * Maintained incrementally by {@code DailyAggregateMaintainer}; rebuilt and verified from the raw transactions
+ * by {@code DailyAggregateRebuilder} / {@code DailyAggregateVerifier}.
+ * Maps to the 'daily_transaction_aggregates' table in the 'pilot_v2' schema.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "daily_transaction_aggregates", schema = "pilot_v2", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"user_id", "business_date", "transaction_type"}, name = "uq_daily_tx_aggregates_user_date_type")
+})
+@Schema(description = "Daily totals of completed transactions for a main user account.")
+public class DailyTransactionAggregate {
+
+    @Id
+    @TimeOrderedUuid
+    @Column(name = "aggregate_id", updatable = false, nullable = false)
+    @Schema(description = "Unique identifier for the aggregate row.", example = "0190a1b2-c3d4-7e5f-8a6b-7c8d9e0f1a2d")
+    private UUID aggregateId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, updatable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Schema(description = "The main user account the totals belong to.")
+    private User user;
+
+    @Column(name = "business_date", nullable = false, updatable = false)
+    @Schema(description = "Business day (in the aggregation time zone) of the transactions.", example = "2023-10-27")
+    private LocalDate businessDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false, updatable = false, length = 10)
+    @Schema(description = "Type of the aggregated transactions.", example = "SALE")
+    private TransactionType transactionType;
+
+    @Column(name = "transaction_count", nullable = false)
+    @Schema(description = "Number of completed transactions.", example = "42")
+    private long transactionCount;
+
+    @Type(MoneyUserType.class)
+    @Column(name = "gross_total", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    @Schema(description = "Sum of the transactions' total amounts.", example = "8399.50")
+    private Money grossTotal = Money.ZERO;
+
+    @Column(name = "item_quantity", nullable = false)
+    @Schema(description = "Sum of the item quantities of the transactions.", example = "137")
+    private long itemQuantity;
+
+    @Column(name = "updated_at", nullable = false, columnDefinition = "TIMESTAMP WITH TIME ZONE")
+    @Schema(description = "Timestamp when the totals were last changed.", accessMode = Schema.AccessMode.READ_ONLY)
+    private OffsetDateTime updatedAt;
+
+    // --- Lifecycle Callbacks ---
+    @PrePersist
+    protected void onCreate() {
+        if (this.aggregateId == null) {
+            this.aggregateId = UuidV7Generator.nextUuid();
+        }
+        this.updatedAt = OffsetDateTime.now();
+    }
+
+    // --- Custom equals/hashCode based on ID ---
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DailyTransactionAggregate that = (DailyTransactionAggregate) o;
+        return aggregateId != null && Objects.equals(aggregateId, that.aggregateId);
+    }
+
+    @Override
+    public int hashCode() {
+        return aggregateId != null ? aggregateId.hashCode() : super.hashCode();
+    }
+}
@@ -0,0 +1,34 @@
+package com.hsoft.model.entities.v1;
+
+/**
+ * Names of the {@link jakarta.persistence.NamedEntityGraph} fetch plans declared on the v1 entities.
+ * Use with {@code jakarta.persistence.fetchgraph}/{@code loadgraph} hints instead of ad-hoc join fetches.
+ * Also names the {@link org.hibernate.annotations.LazyGroup} attribute groups; each group is loaded
+ * with one select on first access to any of its attributes.
+ */
+public final class FetchPlans {
+
+    // Transaction + owner, client, provider, creator, items and each item's product
+    public static final String TRANSACTION_DETAIL = "Transaction.detail";
+
+    // Transaction + client, provider and creator (no items), for list views
+    public static final String TRANSACTION_SUMMARY = "Transaction.summary";
+
+    // Product + owning user
+    public static final String PRODUCT_WITH_USER = "Product.withUser";
+
+    // User + parent (main) account
+    public static final String USER_WITH_PARENT = "User.withParent";
+
+    // Lazy attribute group for large TEXT columns (descriptions, addresses, notes); needs bytecode enhancement
+    public static final String TEXT_GROUP = "text";
+
+    // Lazy attribute group for the jsonb context columns, loaded separately from the TEXT group
+    public static final String CONTEXT_GROUP = "context";
+
+    // Batch size used for lazily loaded collections (Transaction.items, User.subAccounts)
+    public static final int COLLECTION_BATCH_SIZE = 50;
+
+    private FetchPlans() {
+    }
+}
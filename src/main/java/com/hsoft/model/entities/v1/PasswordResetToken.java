@@ -1,5 +1,7 @@
 package com.hsoft.model.entities.v1;
 
+import com.hsoft.model.generators.TimeOrderedUuid;
+import com.hsoft.model.generators.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.*; // Using individual annotations for clarity
 
@@ -21,7 +23,7 @@ import java.util.UUID;
 public class PasswordResetToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     @Column(name = "token_id", updatable = false, nullable = false)
     private UUID tokenId;
 
@@ -58,7 +60,7 @@ public class PasswordResetToken {
     @PrePersist
     protected void onCreate() {
         if (this.tokenId == null) {
-            this.tokenId = UUID.randomUUID();
+            this.tokenId = UuidV7Generator.nextUuid();
         }
         this.createdAt = OffsetDateTime.now();
     }
@@ -1,15 +1,19 @@
 package com.hsoft.model.entities.v1;
 
+import com.hsoft.model.generators.TimeOrderedUuid;
+import com.hsoft.model.generators.UuidV7Generator;
+import com.hsoft.model.types.v1.JsonContext;
+import com.hsoft.model.usertypes.JsonContextUserType;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.LazyGroup;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.Type;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -17,24 +21,35 @@ import java.util.UUID;
  * Catalog of products or services offered by a main user account.
  * Maps to the 'products' table in the 'pilot_v2' schema.
  */
+@NamedEntityGraph(
+        name = "Product.withUser",
+        attributeNodes = {
+                @NamedAttributeNode("user")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity
+@DynamicUpdate
 @Table(name = "products", schema = "pilot_v2", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"user_id", "sku"}, name = "idx_products_user_sku")
+}, indexes = {
+        @Index(name = "idx_products_user_name_id", columnList = "user_id, name, product_id"), // Keyset pagination
+        @Index(name = "idx_products_user_updated_id", columnList = "user_id, updated_at DESC, product_id DESC")
 })
 @Schema(description = "Represents a product or service offered by a main user account.")
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     @Column(name = "product_id", updatable = false, nullable = false)
     @Schema(description = "Unique identifier for the product.", example = "b2c3d4e5-f6a7-8901-2345-67890abcdef0")
     private UUID productId;
 
+    @NaturalId(mutable = true)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false) // Link to the main owning user
     @ToString.Exclude
@@ -42,6 +57,7 @@ public class Product {
     @Schema(description = "The main user account that owns this product.")
     private User user;
 
+    @NaturalId(mutable = true)
     @Column(length = 100)
     @Schema(description = "Stock Keeping Unit. Should be unique per main user account.", example = "SKU-WIDGET-RED")
     private String sku;
@@ -50,6 +66,8 @@ public class Product {
     @Schema(description = "Name of the product.", example = "Red Widget")
     private String name;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(FetchPlans.TEXT_GROUP)
     @Column(columnDefinition = "TEXT")
     @Schema(description = "Detailed description of the product.", example = "A high-quality red widget.")
     private String description;
@@ -69,6 +87,11 @@ public class Product {
     @Schema(description = "Current quantity of this product in stock.", example = "100")
     private int currentStock = 0;
 
+    @Column(name = "stock_shard_count", nullable = false)
+    @Builder.Default
+    @Schema(description = "Number of stock counter shards for hot products (0 = stock kept only in currentStock).", example = "0")
+    private int stockShardCount = 0;
+
     @Column(name = "unit_of_measure", length = 50)
     @Builder.Default
     @Schema(description = "Unit for measuring stock (e.g., unidad, kg, litro, caja).", example = "unidad")
@@ -91,18 +114,25 @@ public class Product {
     @Schema(description = "Timestamp when the product was last updated.", accessMode = Schema.AccessMode.READ_ONLY)
     private OffsetDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    @Schema(description = "Optimistic locking version, incremented on every update.", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
     // --- JSONB Context Field ---
-    @JdbcTypeCode(SqlTypes.JSON)
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(FetchPlans.CONTEXT_GROUP)
+    @Type(JsonContextUserType.class)
     @Column(name = "context", nullable = false, columnDefinition = "jsonb")
     @Builder.Default
     @Schema(description = "Flexible JSON object for storing custom product-specific data.", example = "{\"color\":\"Red\", \"material\":\"Plastic\"}")
-    private Map<String, Object> context = new HashMap<>();
+    private JsonContext context = JsonContext.empty();
 
     // --- Lifecycle Callbacks ---
     @PrePersist
     protected void onCreate() {
         if (this.productId == null) {
-            this.productId = UUID.randomUUID();
+            this.productId = UuidV7Generator.nextUuid();
         }
         this.createdAt = OffsetDateTime.now();
     }
@@ -0,0 +1,73 @@
+package com.hsoft.model.entities.v1;
+
+import com.hsoft.model.generators.TimeOrderedUuid;
+import com.hsoft.model.generators.UuidV7Generator;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * One stripe of a sharded stock counter. When {@link Product#getStockShardCount()} is positive,
+ * stock deltas are spread over these rows instead of updating the single product row;
+ * the product's stock is {@code currentStock + sum(delta)} until reconciliation folds the shards back.
+ * Maps to the 'product_stock_shards' table in the 'pilot_v2' schema.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "product_stock_shards", schema = "pilot_v2", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"product_id", "shard_index"}, name = "uq_product_stock_shard")
+})
+@Schema(description = "A stripe of a product's sharded stock counter.")
+public class ProductStockShard {
+
+    @Id
+    @TimeOrderedUuid
+    @Column(name = "shard_id", updatable = false, nullable = false)
+    @Schema(description = "Unique identifier for the shard row.")
+    private UUID shardId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false, updatable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Schema(description = "The product this shard belongs to.")
+    private Product product;
+
+    @Column(name = "shard_index", nullable = false, updatable = false)
+    @Schema(description = "Index of the shard (0 .. stockShardCount - 1).", example = "3")
+    private int shardIndex;
+
+    @Column(nullable = false)
+    @Builder.Default
+    @Schema(description = "Accumulated stock delta not yet folded into the product.", example = "-7")
+    private long delta = 0L;
+
+    // --- Lifecycle Callbacks ---
+    @PrePersist
+    protected void onCreate() {
+        if (this.shardId == null) {
+            this.shardId = UuidV7Generator.nextUuid();
+        }
+    }
+
+    // --- Custom equals/hashCode based on ID ---
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProductStockShard that = (ProductStockShard) o;
+        return shardId != null && Objects.equals(shardId, that.shardId);
+    }
+
+    @Override
+    public int hashCode() {
+        return shardId != null ? shardId.hashCode() : super.hashCode();
+    }
+}
@@ -1,14 +1,18 @@
 package com.hsoft.model.entities.v1;
 
+import com.hsoft.model.generators.TimeOrderedUuid;
+import com.hsoft.model.generators.UuidV7Generator;
+import com.hsoft.model.types.v1.JsonContext;
+import com.hsoft.model.usertypes.JsonContextUserType;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.LazyGroup;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.Type;
 
 import java.time.OffsetDateTime;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -22,18 +26,23 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder
 @Entity
+@DynamicUpdate
 @Table(name = "providers", schema = "pilot_v2", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"user_id", "nit"}, name = "idx_providers_user_nit")
+}, indexes = {
+        @Index(name = "idx_providers_user_name_id", columnList = "user_id, name, provider_id"), // Keyset pagination
+        @Index(name = "idx_providers_user_updated_id", columnList = "user_id, updated_at DESC, provider_id DESC")
 })
 @Schema(description = "Represents a provider (supplier) for a main user account.")
 public class Provider {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     @Column(name = "provider_id", updatable = false, nullable = false)
     @Schema(description = "Unique identifier for the provider.", example = "d4e5f6a7-b8c9-0123-4567-890abcdef012")
     private UUID providerId;
 
+    @NaturalId(mutable = true)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false) // Link to the main owning user
     @ToString.Exclude
@@ -45,6 +54,7 @@ public class Provider {
     @Schema(description = "Name of the provider.", example = "Proveedor General S.A.")
     private String name;
 
+    @NaturalId(mutable = true)
     @Column(length = 20)
     @Schema(description = "Provider Tax ID (NIT - Guatemala).", example = "9876543-C")
     private String nit;
@@ -57,6 +67,8 @@ public class Provider {
     @Schema(description = "Provider phone number.", example = "+502 6666 7777")
     private String phone;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(FetchPlans.TEXT_GROUP)
     @Column(columnDefinition = "TEXT")
     @Schema(description = "Provider address.", example = "Km 15 Carretera al Pacífico, Villa Nueva")
     private String address;
@@ -78,18 +90,25 @@ public class Provider {
     @Schema(description = "Timestamp when the provider was last updated.", accessMode = Schema.AccessMode.READ_ONLY)
     private OffsetDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    @Schema(description = "Optimistic locking version, incremented on every update.", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
     // --- JSONB Context Field ---
-    @JdbcTypeCode(SqlTypes.JSON)
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(FetchPlans.CONTEXT_GROUP)
+    @Type(JsonContextUserType.class)
     @Column(name = "context", nullable = false, columnDefinition = "jsonb")
     @Builder.Default
     @Schema(description = "Flexible JSON object for storing custom provider-specific data.", example = "{\"paymentTerms\":\"Net 30\", \"preferredShipper\":\"DHL\"}")
-    private Map<String, Object> context = new HashMap<>();
+    private JsonContext context = JsonContext.empty();
 
     // --- Lifecycle Callbacks ---
     @PrePersist
     protected void onCreate() {
         if (this.providerId == null) {
-            this.providerId = UUID.randomUUID();
+            this.providerId = UuidV7Generator.nextUuid();
         }
         this.createdAt = OffsetDateTime.now();
     }
@@ -0,0 +1,80 @@
+package com.hsoft.model.entities.v1;
+
+import com.hsoft.model.generators.TimeOrderedUuid;
+import com.hsoft.model.generators.UuidV7Generator;
+import com.hsoft.model.types.v1.TransactionType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Reference number counter per main user account and transaction type.
+ * {@code nextValue} is the first number not yet handed out (to a block or to a gap-free caller);
+ * rows are created and advanced by {@code ReferenceNumberAssigner} with an atomic upsert.
+ * Maps to the 'reference_sequences' table in the 'pilot_v2' schema.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "reference_sequences", schema = "pilot_v2", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"user_id", "transaction_type"}, name = "uq_reference_sequences_user_type")
+})
+@Schema(description = "Reference number counter of a main user account for one transaction type.")
+public class ReferenceSequence {
+
+    @Id
+    @TimeOrderedUuid
+    @Column(name = "sequence_id", updatable = false, nullable = false)
+    @Schema(description = "Unique identifier for the sequence row.", example = "0190a1b2-c3d4-7e5f-8a6b-7c8d9e0f1a2e")
+    private UUID sequenceId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, updatable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Schema(description = "The main user account the sequence belongs to.")
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false, updatable = false, length = 10)
+    @Schema(description = "Type of the transactions numbered by this sequence.", example = "SALE")
+    private TransactionType transactionType;
+
+    @Column(name = "next_value", nullable = false)
+    @Schema(description = "First reference number not yet allocated.", example = "1201")
+    private long nextValue;
+
+    @Column(name = "updated_at", nullable = false, columnDefinition = "TIMESTAMP WITH TIME ZONE")
+    @Schema(description = "Timestamp when numbers were last allocated.", accessMode = Schema.AccessMode.READ_ONLY)
+    private OffsetDateTime updatedAt;
+
+    // --- Lifecycle Callbacks ---
+    @PrePersist
+    protected void onCreate() {
+        if (this.sequenceId == null) {
+            this.sequenceId = UuidV7Generator.nextUuid();
+        }
+        this.updatedAt = OffsetDateTime.now();
+    }
+
+    // --- Custom equals/hashCode based on ID ---
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ReferenceSequence that = (ReferenceSequence) o;
+        return sequenceId != null && Objects.equals(sequenceId, that.sequenceId);
+    }
+
+    @Override
+    public int hashCode() {
+        return sequenceId != null ? sequenceId.hashCode() : super.hashCode();
+    }
+}
@@ -0,0 +1,113 @@
+package com.hsoft.model.entities.v1;
+
+import com.hsoft.model.generators.TimeOrderedUuid;
+import com.hsoft.model.generators.UuidV7Generator;
+import com.hsoft.model.types.v1.StockMovementType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Append-only ledger of stock changes (sales, purchases, adjustments) per product.
+ * Maps to the 'stock_movements' table in the 'pilot_v2' schema.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Immutable // Rows are never updated; corrections are new movements
+@Table(name = "stock_movements", schema = "pilot_v2", indexes = {
+        @Index(name = "idx_stock_movements_product_occurred", columnList = "product_id, occurred_at"),
+        @Index(name = "idx_stock_movements_user_occurred", columnList = "user_id, occurred_at")
+})
+@Schema(description = "Represents a single change in the stock level of a product.")
+public class StockMovement {
+
+    @Id
+    @TimeOrderedUuid
+    @Column(name = "movement_id", updatable = false, nullable = false)
+    @Schema(description = "Unique identifier for the stock movement.", example = "0190a1b2-c3d4-7e5f-8a6b-7c8d9e0f1a2b")
+    private UUID movementId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, updatable = false) // Link to the main owning user
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Schema(description = "The main user account that owns the product.")
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false, updatable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Schema(description = "The product whose stock changed.")
+    private Product product;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, updatable = false, length = 20)
+    @Schema(description = "Origin of the movement.", example = "SALE")
+    private StockMovementType movementType;
+
+    @Column(nullable = false, updatable = false)
+    @Schema(description = "Signed change in stock (negative for outgoing stock).", example = "-2")
+    private int quantity;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "transaction_id", updatable = false) // Nullable, set for SALE/PURCHASE/CANCELLATION
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Schema(description = "The transaction that caused the movement, if any.")
+    private Transaction transaction;
+
+    @Column(length = 255, updatable = false)
+    @Schema(description = "Reason for the movement (e.g. adjustment reason).", example = "Stocktake correction")
+    private String reason;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP WITH TIME ZONE")
+    @Schema(description = "When the stock change took effect.", example = "2023-10-27T10:30:00Z")
+    private OffsetDateTime occurredAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "created_by_user_id", updatable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Schema(description = "The specific user (main or sub-account) who recorded the movement.")
+    private User createdByUser;
+
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP WITH TIME ZONE")
+    @Schema(description = "Timestamp when the movement was recorded.", accessMode = Schema.AccessMode.READ_ONLY)
+    private OffsetDateTime createdAt;
+
+    // --- Lifecycle Callbacks ---
+    @PrePersist
+    protected void onCreate() {
+        if (this.movementId == null) {
+            this.movementId = UuidV7Generator.nextUuid();
+        }
+        this.createdAt = OffsetDateTime.now();
+        if (this.occurredAt == null) {
+            this.occurredAt = this.createdAt;
+        }
+    }
+
+    // --- Custom equals/hashCode based on ID ---
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StockMovement that = (StockMovement) o;
+        return movementId != null && Objects.equals(movementId, that.movementId);
+    }
+
+    @Override
+    public int hashCode() {
+        return movementId != null ? movementId.hashCode() : super.hashCode();
+    }
+}
@@ -0,0 +1,92 @@
+package com.hsoft.model.entities.v1;
+
+import com.hsoft.model.generators.TimeOrderedUuid;
+import com.hsoft.model.generators.UuidV7Generator;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Periodic per-product stock level, folding all movements up to {@code snapshotAt}.
+ * Stock at a date is the latest snapshot plus the movements after it.
+ * Maps to the 'stock_snapshots' table in the 'pilot_v2' schema.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Immutable
+@Table(name = "stock_snapshots", schema = "pilot_v2", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"product_id", "snapshot_at"}, name = "uq_stock_snapshots_product_at")
+}, indexes = {
+        @Index(name = "idx_stock_snapshots_user_at", columnList = "user_id, snapshot_at")
+})
+@Schema(description = "Stock level of a product at a point in time.")
+public class StockSnapshot {
+
+    @Id
+    @TimeOrderedUuid
+    @Column(name = "snapshot_id", updatable = false, nullable = false)
+    @Schema(description = "Unique identifier for the snapshot.", example = "0190a1b2-c3d4-7e5f-8a6b-7c8d9e0f1a2c")
+    private UUID snapshotId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, updatable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Schema(description = "The main user account that owns the product.")
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false, updatable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Schema(description = "The product this snapshot belongs to.")
+    private Product product;
+
+    @Column(name = "snapshot_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP WITH TIME ZONE")
+    @Schema(description = "Point in time covered by the snapshot (movements with occurredAt <= snapshotAt).")
+    private OffsetDateTime snapshotAt;
+
+    @Column(name = "stock_level", nullable = false, updatable = false)
+    @Schema(description = "Stock level at snapshotAt.", example = "100")
+    private int stockLevel;
+
+    @Column(name = "movement_count", nullable = false, updatable = false)
+    @Schema(description = "Number of movements folded since the previous snapshot.", example = "42")
+    private long movementCount;
+
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP WITH TIME ZONE")
+    @Schema(description = "Timestamp when the snapshot was taken.", accessMode = Schema.AccessMode.READ_ONLY)
+    private OffsetDateTime createdAt;
+
+    // --- Lifecycle Callbacks ---
+    @PrePersist
+    protected void onCreate() {
+        if (this.snapshotId == null) {
+            this.snapshotId = UuidV7Generator.nextUuid();
+        }
+        this.createdAt = OffsetDateTime.now();
+    }
+
+    // --- Custom equals/hashCode based on ID ---
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StockSnapshot that = (StockSnapshot) o;
+        return snapshotId != null && Objects.equals(snapshotId, that.snapshotId);
+    }
+
+    @Override
+    public int hashCode() {
+        return snapshotId != null ? snapshotId.hashCode() : super.hashCode();
+    }
+}
@@ -1,14 +1,21 @@
 package com.hsoft.model.entities.v1;
 
+import com.hsoft.model.generators.TimeOrderedUuid;
+import com.hsoft.model.generators.UuidV7Generator;
+import com.hsoft.model.types.v1.JsonContext;
+import com.hsoft.model.types.v1.Money;
 import com.hsoft.model.types.v1.TransactionStatus;
 import com.hsoft.model.types.v1.TransactionType;
+import com.hsoft.model.usertypes.JsonContextUserType;
+import com.hsoft.model.usertypes.MoneyUserType;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.LazyGroup;
+import org.hibernate.annotations.Type;
 
-import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.*;
 
@@ -34,18 +41,29 @@ import java.util.*;
                 )
         }
 )
+@NamedEntityGraph(
+        name = "Transaction.summary",
+        attributeNodes = {
+                @NamedAttributeNode("client"),
+                @NamedAttributeNode("provider"),
+                @NamedAttributeNode("createdByUser")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "transactions", schema = "pilot_v2")
+@DynamicUpdate // UPDATEs list only changed columns, so untouched contexts are never rewritten
+@Table(name = "transactions", schema = "pilot_v2", indexes = {
+        @Index(name = "idx_transactions_user_date_id", columnList = "user_id, transaction_date DESC, transaction_id DESC") // Keyset pagination
+})
 @Schema(description = "Represents a sale or purchase transaction linked to a main user account.")
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     @Column(name = "transaction_id", updatable = false, nullable = false)
     @Schema(description = "Unique identifier for the transaction.", example = "e5f6a7b8-c9d0-1234-5678-90abcdef0123")
     private UUID transactionId;
@@ -84,11 +102,14 @@ public class Transaction {
     @Schema(description = "Reference number (e.g., Invoice No., Receipt No.).", example = "INV-2023-00123")
     private String referenceNumber;
 
+    @Type(MoneyUserType.class)
     @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
     @Builder.Default
     @Schema(description = "Total monetary value of the transaction.", example = "199.95")
-    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private Money totalAmount = Money.ZERO;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(FetchPlans.TEXT_GROUP)
     @Column(columnDefinition = "TEXT")
     @Schema(description = "Additional notes related to the transaction.")
     private String notes;
@@ -107,12 +128,19 @@ public class Transaction {
     @Schema(description = "Timestamp when the transaction record was last updated.", accessMode = Schema.AccessMode.READ_ONLY)
     private OffsetDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    @Schema(description = "Optimistic locking version, incremented on every update.", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
     // --- JSONB Context Field ---
-    @JdbcTypeCode(SqlTypes.JSON)
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(FetchPlans.CONTEXT_GROUP)
+    @Type(JsonContextUserType.class)
     @Column(name = "context", nullable = false, columnDefinition = "jsonb")
     @Builder.Default
     @Schema(description = "Flexible JSON object for storing custom transaction-specific data.", example = "{\"discountCode\":\"FALL23\", \"shippingMethod\":\"Express\"}")
-    private Map<String, Object> context = new HashMap<>();
+    private JsonContext context = JsonContext.empty();
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by_user_id") // Link to the user (main or sub) who actually created it
@@ -123,17 +151,24 @@ public class Transaction {
 
     // --- Relationship to Items ---
     @OneToMany(mappedBy = "transaction", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = FetchPlans.COLLECTION_BATCH_SIZE) // Initialize items of several transactions per query
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @Builder.Default
     @Schema(description = "List of items included in this transaction.")
     private List<TransactionItem> items = new ArrayList<>();
 
+    // Index of each item in 'items' so removeItem can swap-remove in O(1); rebuilt lazily when stale
+    // (items loaded by Hibernate or added through getItems()). Final + initialized keeps it out of the builder.
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private final Map<TransactionItem, Integer> itemPositions = new IdentityHashMap<>();
+
     // --- Lifecycle Callbacks ---
     @PrePersist
     protected void onCreate() {
         if (this.transactionId == null) {
-            this.transactionId = UUID.randomUUID();
+            this.transactionId = UuidV7Generator.nextUuid();
         }
         this.createdAt = OffsetDateTime.now();
         if (this.transactionDate == null) {
@@ -148,32 +183,85 @@ public class Transaction {
 
     @PreUpdate
     protected void onUpdate() {
+        // The trigger sets updated_at; mirroring it keeps a row inserted earlier in this transaction updatable
+        this.updatedAt = OffsetDateTime.now();
         validateClientProvider();
         // Recalculate total based on items before update if needed
         // calculateTotalAmount();
     }
 
     // --- Helper methods ---
+    // The running total is kept in step with the items in O(1) per change;
+    // calculateTotalAmount() remains as the full recompute / verification path.
     public void addItem(TransactionItem item) {
+        if (item.getSubtotal() == null) {
+            item.calculateSubtotal(); // e.g. items built via the builder
+        }
+        itemPositions.put(item, items.size());
         items.add(item);
         item.setTransaction(this);
-        // Consider recalculating total amount here or leave to service layer/callback
-        // calculateTotalAmount();
+        adjustTotalAmount(Money.ZERO, item.getSubtotal());
     }
 
+    // O(1): the last item takes the removed item's place. 'items' is an unordered bag (no order column),
+    // so line order is not persisted anyway; sort for display where it matters.
     public void removeItem(TransactionItem item) {
-        items.remove(item);
+        int position = positionOf(item);
+        if (position >= 0) {
+            TransactionItem removed = items.get(position);
+            int last = items.size() - 1;
+            TransactionItem moved = items.remove(last);
+            if (position != last) {
+                items.set(position, moved);
+                itemPositions.put(moved, position);
+            }
+            itemPositions.remove(removed);
+            adjustTotalAmount(removed.getSubtotal(), Money.ZERO);
+        }
         item.setTransaction(null);
-        // Consider recalculating total amount here or leave to service layer/callback
-        // calculateTotalAmount();
     }
 
-    // Optional: Helper to calculate total amount from items
+    private int positionOf(TransactionItem item) {
+        Integer position = itemPositions.get(item);
+        if (position == null || position >= items.size() || items.get(position) != item) {
+            // One O(n) pass after a load or a direct getItems() change; later removals are O(1) again
+            itemPositions.clear();
+            for (int i = 0; i < items.size(); i++) {
+                itemPositions.put(items.get(i), i);
+            }
+            position = itemPositions.get(item);
+        }
+        return position != null ? position : items.indexOf(item); // Fall back to id equality, like List.remove
+    }
+
+    // Called by TransactionItem when its subtotal changes while attached to this transaction
+    void adjustTotalAmount(Money previousSubtotal, Money currentSubtotal) {
+        long delta = Math.subtractExact(
+                currentSubtotal != null ? currentSubtotal.getCents() : 0L,
+                previousSubtotal != null ? previousSubtotal.getCents() : 0L);
+        if (delta != 0L) {
+            Money current = this.totalAmount != null ? this.totalAmount : Money.ZERO;
+            this.totalAmount = Money.ofCents(Math.addExact(current.getCents(), delta));
+        }
+    }
+
+    // Full recompute of the total amount from items
     public void calculateTotalAmount() {
-        this.totalAmount = items.stream()
-                .map(TransactionItem::getSubtotal)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        this.totalAmount = sumItemSubtotals();
+    }
+
+    // Verification path: true if the running total matches a full rescan of the items
+    public boolean isTotalAmountConsistent() {
+        return sumItemSubtotals().equals(this.totalAmount);
+    }
+
+    private Money sumItemSubtotals() {
+        // Accumulate raw cents so only the final Money is allocated
+        long totalCents = 0L;
+        for (TransactionItem item : items) {
+            totalCents = Money.addCents(totalCents, item.getSubtotal());
+        }
+        return Money.ofCents(totalCents);
     }
 
     // Optional: Validation matching DB constraint (better done in service layer)
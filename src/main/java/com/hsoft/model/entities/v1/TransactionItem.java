@@ -1,14 +1,16 @@
 package com.hsoft.model.entities.v1;
 
+import com.hsoft.model.generators.TimeOrderedUuid;
+import com.hsoft.model.types.v1.JsonContext;
+import com.hsoft.model.types.v1.Money;
+import com.hsoft.model.usertypes.JsonContextUserType;
+import com.hsoft.model.usertypes.MoneyUserType;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Type;
 
-import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -22,6 +24,7 @@ import java.util.UUID;
 @AllArgsConstructor
 @Builder
 @Entity
+@DynamicUpdate
 @Table(name = "transaction_items", schema = "pilot_v2", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"transaction_id", "product_id"}, name = "uq_transaction_product")
 })
@@ -29,7 +32,7 @@ import java.util.UUID;
 public class TransactionItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     @Column(name = "item_id", updatable = false, nullable = false)
     @Schema(description = "Unique identifier for the transaction item.", example = "f6a7b8c9-d0e1-2345-6789-0abcdef01234")
     private UUID itemId;
@@ -52,37 +55,40 @@ public class TransactionItem {
     @Schema(description = "Quantity of the product for this line item.", example = "2")
     private int quantity; // DB Check constraint (quantity != 0)
 
+    @Type(MoneyUserType.class)
     @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
     @Schema(description = "Price per unit of the product at the time of the transaction.", example = "29.99")
-    private BigDecimal unitPrice;
+    private Money unitPrice;
 
+    @Type(MoneyUserType.class)
     @Column(nullable = false, precision = 12, scale = 2)
     @Schema(description = "Subtotal for this line item (quantity * unitPrice).", example = "59.98", accessMode = Schema.AccessMode.READ_ONLY)
-    private BigDecimal subtotal; // Automatically calculated
+    private Money subtotal; // Automatically calculated
 
     // --- JSONB Context Field ---
-    @JdbcTypeCode(SqlTypes.JSON)
+    @Basic // JsonContext is a Map: without @Basic the enhancer tracks it as a collection and parses it on load
+    @Type(JsonContextUserType.class)
     @Column(name = "context", nullable = false, columnDefinition = "jsonb")
     @Builder.Default
     @Schema(description = "Flexible JSON object for storing custom item-specific data.", example = "{\"discountApplied\":\"10%\", \"serialNumber\":\"SN12345\"}")
-    private Map<String, Object> context = new HashMap<>();
+    private JsonContext context = JsonContext.empty();
 
 
     // --- Lifecycle Callbacks / Setters for Calculation ---
     @PrePersist
     @PreUpdate
     public void calculateSubtotal() {
+        Money previous = this.subtotal;
         if (this.unitPrice != null) {
-            // Use BigDecimal for quantity calculation to avoid precision issues if needed,
-            // but multiplying by int is usually fine here.
-            this.subtotal = this.unitPrice.multiply(BigDecimal.valueOf(this.quantity));
+            // Exact cents arithmetic; throws ArithmeticException on overflow
+            this.subtotal = this.unitPrice.times(this.quantity);
         } else {
-            this.subtotal = BigDecimal.ZERO; // Or handle as an error/invalid state
+            this.subtotal = Money.ZERO; // Or handle as an error/invalid state
+        }
+        // Keep the parent's running total in step (O(1) delta, no rescan of items)
+        if (this.transaction != null && !this.subtotal.equals(previous)) {
+            this.transaction.adjustTotalAmount(previous, this.subtotal);
         }
-        // Note: Triggering recalculation of Transaction.totalAmount should ideally
-        // happen in the service layer or via JPA listeners on the Transaction entity
-        // when its item collection changes. Directly modifying parent from child callback
-        // can be complex and might lead to issues.
     }
 
     // Custom setters to ensure subtotal is recalculated on change
@@ -91,7 +97,7 @@ public class TransactionItem {
         calculateSubtotal(); // Recalculate when quantity changes
     }
 
-    public void setUnitPrice(BigDecimal unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
         calculateSubtotal(); // Recalculate when unit price changes
     }
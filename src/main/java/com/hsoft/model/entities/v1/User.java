@@ -1,12 +1,17 @@
 package com.hsoft.model.entities.v1;
 
+import com.hsoft.model.generators.TimeOrderedUuid;
+import com.hsoft.model.generators.UuidV7Generator;
+import com.hsoft.model.types.v1.JsonContext;
+import com.hsoft.model.usertypes.JsonContextUserType;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.JdbcTypeCode; // For Hibernate 6+
-import org.hibernate.type.SqlTypes;          // For Hibernate 6+
-// import io.hypersistence.utils.hibernate.type.json.JsonType; // Alt: Hypersistence Utils
-// import jakarta.persistence.Convert; // Alt: For custom AttributeConverter
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.LazyGroup;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.Type;
 
 import java.time.OffsetDateTime;
 import java.util.*;
@@ -16,12 +21,19 @@ import java.util.*;
  * or sub-accounts linked to a main account.
  * Maps to the 'users' table in the 'pilot_v2' schema.
  */
+@NamedEntityGraph(
+        name = "User.withParent",
+        attributeNodes = {
+                @NamedAttributeNode("parentUser")
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity
+@DynamicUpdate
 @Table(name = "users", schema = "pilot_v2", uniqueConstraints = {
         @UniqueConstraint(columnNames = "username", name = "users_username_key"),
         @UniqueConstraint(columnNames = "email", name = "users_email_key"),
@@ -31,7 +43,7 @@ import java.util.*;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID) // Use UUID generation
+    @TimeOrderedUuid // Time-ordered UUIDv7 generation
     @Column(name = "user_id", updatable = false, nullable = false)
     @Schema(description = "Unique identifier for the user.", example = "a1b2c3d4-e5f6-7890-1234-567890abcdef")
     private UUID userId;
@@ -43,6 +55,7 @@ public class User {
     @Schema(description = "The main user account this user belongs to, if this is a sub-account. Null for main accounts.")
     private User parentUser; // Self-referencing: Link to parent
 
+    @NaturalId(mutable = true)
     @Column(nullable = false, length = 50)
     @Schema(description = "Unique username for login.", example = "johndoe")
     private String username;
@@ -64,6 +77,8 @@ public class User {
     @Schema(description = "Company Tax ID (NIT - Guatemala). Should be unique for main accounts.", example = "1234567-8")
     private String companyNit;
 
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(FetchPlans.TEXT_GROUP)
     @Column(name = "company_address", columnDefinition = "TEXT")
     @Schema(description = "Physical address of the company.", example = "123 Main St, Guatemala City")
     private String companyAddress;
@@ -86,17 +101,18 @@ public class User {
     private OffsetDateTime updatedAt;
 
     // --- JSONB Context Field ---
-    @JdbcTypeCode(SqlTypes.JSON) // Hibernate 6+ native JSON mapping
-    // @Convert(converter = JsonMapConverter.class) // Alt: Custom JPA converter
-    // @Type(JsonType.class) // Alt: Hypersistence Utils
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup(FetchPlans.CONTEXT_GROUP)
+    @Type(JsonContextUserType.class) // Raw jsonb text, parsed lazily on first access
     @Column(name = "context", nullable = false, columnDefinition = "jsonb")
     @Builder.Default // Initialize for builder
     @Schema(description = "Flexible JSON object for storing custom user-specific data.", example = "{\"department\":\"Sales\", \"employeeId\":\"E123\"}")
-    private Map<String, Object> context = new HashMap<>();
+    private JsonContext context = JsonContext.empty();
 
     // --- Relationships ---
 
     @OneToMany(mappedBy = "parentUser", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
+    @BatchSize(size = FetchPlans.COLLECTION_BATCH_SIZE) // Initialize sub-accounts of several users per query
     @ToString.Exclude // Avoid recursion
     @EqualsAndHashCode.Exclude // Avoid recursion
     @Builder.Default
@@ -135,7 +151,7 @@ public class User {
     @PrePersist
     protected void onCreate() {
         if (this.userId == null) { // Ensure ID is set if not already (e.g., if assigned manually before persist)
-            this.userId = UUID.randomUUID();
+            this.userId = UuidV7Generator.nextUuid();
         }
         this.createdAt = OffsetDateTime.now();
         // 'updated_at' handled by DB trigger
@@ -0,0 +1,282 @@
+package com.hsoft.model.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsoft.model.dto.v1.transactions.TransactionItemResponseDTO;
+import com.hsoft.model.dto.v1.transactions.TransactionSummaryResponseDTO;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.TransactionItem;
+import com.hsoft.model.mappers.TransactionItemMapper;
+import com.hsoft.model.mappers.TransactionMapper;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Streams a tenant's transactions (with item lines) to NDJSON or CSV in constant memory.
+ * Transaction ids are scrolled forward-only in fixed-size windows; the transactions and the items of each
+ * window are loaded with one query each, mapped with the existing mappers, written, and the session is cleared.
+ * Only ids are scrolled: clearing the session under a scroll that is still initializing entities (the client
+ * or creator shared by many rows) is not supported by Hibernate.
+ * <p>
+ * Exports run inside the caller's transaction (PostgreSQL only streams with a fetch size inside one)
+ * and clear the caller's session after every window: use a dedicated session, or flush first and
+ * expect every entity loaded in it to be detached afterwards.
+ */
+public class TransactionExporter {
+
+    public static final int DEFAULT_WINDOW_SIZE = 500;
+
+    private static final String TRANSACTION_IDS_QUERY =
+            "select t.transactionId from Transaction t " +
+            "where t.user.userId = :userId and t.transactionDate >= :from and t.transactionDate < :to " +
+            "order by t.transactionDate, t.transactionId";
+
+    private static final String TRANSACTIONS_QUERY =
+            "select t from Transaction t " +
+            "left join fetch t.client " +
+            "left join fetch t.provider " +
+            "left join fetch t.createdByUser " +
+            "where t.transactionId in :transactionIds " +
+            "order by t.transactionDate, t.transactionId";
+
+    private static final String ITEMS_QUERY =
+            "select i from TransactionItem i " +
+            "join fetch i.product " +
+            "where i.transaction.transactionId in :transactionIds";
+
+    private static final String[] CSV_HEADER = {
+            "transaction_id", "transaction_type", "transaction_date", "reference_number", "status",
+            "client_id", "client_name", "provider_id", "provider_name", "total_amount",
+            "item_id", "product_id", "sku", "product_name", "quantity", "unit_price", "subtotal"
+    };
+
+    private final TransactionMapper transactionMapper;
+    private final TransactionItemMapper transactionItemMapper;
+    private final ObjectMapper objectMapper;
+    private final int windowSize;
+
+    public TransactionExporter(TransactionMapper transactionMapper, TransactionItemMapper transactionItemMapper,
+                               ObjectMapper objectMapper) {
+        this(transactionMapper, transactionItemMapper, objectMapper, DEFAULT_WINDOW_SIZE);
+    }
+
+    public TransactionExporter(TransactionMapper transactionMapper, TransactionItemMapper transactionItemMapper,
+                               ObjectMapper objectMapper, int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be positive.");
+        }
+        this.transactionMapper = transactionMapper;
+        this.transactionItemMapper = transactionItemMapper;
+        this.objectMapper = objectMapper;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Writes one JSON object per line: {"transaction": {...summary...}, "items": [...]}.
+     *
+     * @return number of transactions written
+     * @throws IllegalStateException if the session has no active transaction
+     */
+    public long exportNdjson(Session session, UUID userId, OffsetDateTime from, OffsetDateTime to,
+                             OutputStream out) throws IOException {
+        JsonGenerator gen = objectMapper.getFactory().createGenerator(out);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.setRootValueSeparator(null); // Lines are separated by '\n' alone, not "\n "
+        try {
+            return scroll(session, userId, from, to, (summary, items) -> {
+                gen.writeStartObject();
+                gen.writeObjectField("transaction", summary);
+                gen.writeObjectField("items", items);
+                gen.writeEndObject();
+                gen.writeRaw('\n');
+            }, gen::flush);
+        } finally {
+            gen.close();
+        }
+    }
+
+    /**
+     * Writes one CSV row per item line (transactions without items get a single row with empty item columns).
+     *
+     * @return number of transactions written
+     * @throws IllegalStateException if the session has no active transaction
+     */
+    public long exportCsv(Session session, UUID userId, OffsetDateTime from, OffsetDateTime to,
+                          OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsvRow(writer, CSV_HEADER);
+        String[] row = new String[CSV_HEADER.length];
+        long count = scroll(session, userId, from, to, (summary, items) -> {
+            fillTransactionColumns(row, summary);
+            if (items.isEmpty()) {
+                fillItemColumns(row, null);
+                writeCsvRow(writer, row);
+            }
+            for (TransactionItemResponseDTO item : items) {
+                fillItemColumns(row, item);
+                writeCsvRow(writer, row);
+            }
+        }, writer::flush);
+        writer.flush();
+        return count;
+    }
+
+    // --- Scrolling core ---
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(TransactionSummaryResponseDTO summary, List<TransactionItemResponseDTO> items) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface WindowFlush {
+        void flush() throws IOException;
+    }
+
+    private long scroll(Session session, UUID userId, OffsetDateTime from, OffsetDateTime to,
+                        RowWriter rowWriter, WindowFlush windowFlush) throws IOException {
+        if (!session.getTransaction().isActive()) {
+            // In auto-commit mode the driver ignores the fetch size and reads the whole result into memory
+            throw new IllegalStateException("Exports must run inside a transaction so results are streamed.");
+        }
+        long count = 0;
+        List<UUID> window = new ArrayList<>(windowSize);
+        try (ScrollableResults<UUID> results = session.createQuery(TRANSACTION_IDS_QUERY, UUID.class)
+                .setParameter("userId", userId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setFetchSize(windowSize)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                window.add(results.get());
+                if (window.size() == windowSize) {
+                    count += writeWindow(session, window, rowWriter);
+                    windowFlush.flush();
+                }
+            }
+            if (!window.isEmpty()) {
+                count += writeWindow(session, window, rowWriter);
+                windowFlush.flush();
+            }
+        }
+        return count;
+    }
+
+    private int writeWindow(Session session, List<UUID> window, RowWriter rowWriter) throws IOException {
+        List<Transaction> transactions = session.createQuery(TRANSACTIONS_QUERY, Transaction.class)
+                .setParameter("transactionIds", window)
+                .setReadOnly(true)
+                .getResultList();
+        Map<UUID, List<TransactionItemResponseDTO>> itemsByTransaction = new HashMap<>(window.size() * 2);
+        List<TransactionItem> items = session.createQuery(ITEMS_QUERY, TransactionItem.class)
+                .setParameter("transactionIds", window)
+                .setReadOnly(true)
+                .getResultList();
+        for (TransactionItem item : items) {
+            itemsByTransaction
+                    .computeIfAbsent(item.getTransaction().getTransactionId(), k -> new ArrayList<>())
+                    .add(transactionItemMapper.transactionItemToTransactionItemResponseDTO(item));
+        }
+
+        for (Transaction transaction : transactions) {
+            rowWriter.write(
+                    transactionMapper.transactionToTransactionSummaryResponseDTO(transaction),
+                    itemsByTransaction.getOrDefault(transaction.getTransactionId(), Collections.emptyList()));
+        }
+        int written = transactions.size();
+        // Detach everything loaded for this window so memory stays flat; this clears the caller's session
+        window.clear();
+        session.clear();
+        return written;
+    }
+
+    // --- CSV helpers ---
+
+    private static void fillTransactionColumns(String[] row, TransactionSummaryResponseDTO t) {
+        row[0] = str(t.getTransactionId());
+        row[1] = str(t.getTransactionType());
+        row[2] = str(t.getTransactionDate());
+        row[3] = t.getReferenceNumber();
+        row[4] = str(t.getStatus());
+        row[5] = str(t.getClientId());
+        row[6] = t.getClientName();
+        row[7] = str(t.getProviderId());
+        row[8] = t.getProviderName();
+        row[9] = decimal(t.getTotalAmount());
+    }
+
+    private static void fillItemColumns(String[] row, TransactionItemResponseDTO item) {
+        if (item == null) {
+            for (int i = 10; i < row.length; i++) {
+                row[i] = null;
+            }
+            return;
+        }
+        row[10] = str(item.getItemId());
+        row[11] = item.getProduct() != null ? str(item.getProduct().getProductId()) : null;
+        row[12] = item.getProduct() != null ? item.getProduct().getSku() : null;
+        row[13] = item.getProduct() != null ? item.getProduct().getName() : null;
+        row[14] = Integer.toString(item.getQuantity());
+        row[15] = decimal(item.getUnitPrice());
+        row[16] = decimal(item.getSubtotal());
+    }
+
+    private static String str(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static String decimal(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+
+    private static void writeCsvRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvValue(writer, values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180 quoting: quote when the value contains a separator, quote or line break
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,293 @@
+package com.hsoft.model.imports;
+
+import com.hsoft.model.entities.v1.User;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Value;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Streaming CSV import for catalog entities: parse, validate (Jakarta constraints) and map in batches,
+ * then upsert each batch through a {@link StatelessSession} with JDBC batching.
+ * Rows are matched on the per-tenant natural key; rows that fail are reported and never abort the import.
+ *
+ * @param <D> create-request DTO type
+ * @param <E> entity type
+ * @param <R> existing-row type: the columns an upsert keeps
+ */
+public abstract class CatalogImportPipeline<D, E, R extends CatalogImportPipeline.ExistingRow> {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    // Plans each key lookup with its values, so PostgreSQL hashes the IN list. A cached generic plan compares every
+    // row of the tenant against every key once a growing import has outrun the table statistics
+    private static final String CUSTOM_PLANS = "set local plan_cache_mode = force_custom_plan";
+
+    private final Validator validator;
+    private final int batchSize;
+
+    protected CatalogImportPipeline(Validator validator, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+        this.validator = validator;
+        this.batchSize = batchSize;
+    }
+
+    // --- Entity-specific stages ---
+
+    /**
+     * Parses one CSV record; throws IllegalArgumentException with a readable message on bad values.
+     */
+    protected abstract D parse(Map<String, String> record);
+
+    /**
+     * Natural key unique per tenant, or null when the row has none (always inserted).
+     */
+    protected abstract String naturalKey(D dto);
+
+    protected abstract E toEntity(D dto);
+
+    /**
+     * Loads the rows of this tenant that already use the given keys.
+     * Default: nothing matches, for insert-only pipelines (no natural key).
+     */
+    protected Map<String, R> findExisting(StatelessSession session, UUID userId, Collection<String> keys) {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Prepares a mapped entity for update of an existing row (id, preserved columns).
+     * Only called for rows returned by {@link #findExisting}; pipelines that override one override both.
+     */
+    protected void prepareUpdate(E entity, R existing, User owner, OffsetDateTime now) {
+    }
+
+    /**
+     * Prepares a mapped entity for insert. Stateless sessions do not run @PrePersist callbacks.
+     */
+    protected abstract void prepareInsert(E entity, User owner, OffsetDateTime now);
+
+    /**
+     * Called for each row once its transaction committed, e.g. to keep a {@code UniquenessGuard} current.
+     */
+    protected void committed(E entity) {
+    }
+
+    /**
+     * Identifier and columns of an existing row that an upsert must keep.
+     * Pipelines that keep more columns extend it.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ExistingRow {
+        private final UUID id;
+        private final Long version;
+        private final OffsetDateTime createdAt;
+    }
+
+    // --- Pipeline ---
+
+    public ImportReport run(StatelessSession session, User owner, Reader input) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        Set<String> seenKeys = new HashSet<>();
+        List<PendingRow<D>> batch = new ArrayList<>(batchSize);
+        session.setJdbcBatchSize(batchSize);
+
+        try (CsvRecordReader reader = new CsvRecordReader(input)) {
+            Map<String, String> record;
+            while ((record = reader.next()) != null) {
+                report.rowRead();
+                long rowNumber = reader.getRecordNumber();
+                D dto;
+                try {
+                    dto = parse(record);
+                } catch (IllegalArgumentException e) {
+                    report.error(rowNumber, null, e.getMessage());
+                    continue;
+                }
+                String key = naturalKey(dto);
+                if (key != null && !seenKeys.add(key)) {
+                    report.error(rowNumber, key, "Duplicate key in input file.");
+                    continue;
+                }
+                batch.add(new PendingRow<>(rowNumber, key, dto));
+                if (batch.size() == batchSize) {
+                    flushBatch(session, owner, batch, report);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushBatch(session, owner, batch, report);
+        }
+        report.finished((System.nanoTime() - start) / 1_000_000L);
+        return report;
+    }
+
+    @Value
+    private static class PendingRow<D> {
+        long rowNumber;
+        String key;
+        D dto;
+    }
+
+    private void flushBatch(StatelessSession session, User owner, List<PendingRow<D>> batch, ImportReport report) {
+        // Validate once; only valid rows reach the database
+        List<PendingRow<D>> valid = new ArrayList<>(batch.size());
+        for (PendingRow<D> row : batch) {
+            Set<ConstraintViolation<D>> violations = validator.validate(row.getDto());
+            if (!violations.isEmpty()) {
+                report.error(row.getRowNumber(), row.getKey(), describe(violations));
+                continue;
+            }
+            valid.add(row);
+        }
+        batch.clear();
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            upsert(session, owner, valid, report);
+        } catch (RuntimeException batchFailure) {
+            // One bad row (duplicate key, overlong value) rolls back the whole batch:
+            // redo it row by row so the good rows are kept and only the failing ones are reported
+            for (PendingRow<D> row : valid) {
+                try {
+                    upsert(session, owner, List.of(row), report);
+                } catch (RuntimeException rowFailure) {
+                    report.error(row.getRowNumber(), row.getKey(), "Rejected by the database: " + rootMessage(rowFailure));
+                }
+            }
+        }
+    }
+
+    // Maps and writes the rows in one database transaction; counters are only reported after the commit
+    private void upsert(StatelessSession session, User owner, List<PendingRow<D>> rows, ImportReport report) {
+        Transaction tx = session.beginTransaction();
+        try {
+            List<String> keys = new ArrayList<>(rows.size());
+            for (PendingRow<D> row : rows) {
+                if (row.getKey() != null) {
+                    keys.add(row.getKey());
+                }
+            }
+            Map<String, R> existing = Collections.emptyMap();
+            if (!keys.isEmpty()) {
+                session.createNativeMutationQuery(CUSTOM_PLANS).executeUpdate();
+                existing = findExisting(session, owner.getUserId(), keys);
+            }
+
+            OffsetDateTime now = OffsetDateTime.now();
+            List<E> written = new ArrayList<>(rows.size());
+            int inserted = 0;
+            int updated = 0;
+            for (PendingRow<D> row : rows) {
+                E entity = toEntity(row.getDto()); // Fresh entity per attempt; a failed attempt may have changed the last one
+                written.add(entity);
+                R match = row.getKey() != null ? existing.get(row.getKey()) : null;
+                if (match != null) {
+                    prepareUpdate(entity, match, owner, now);
+                    session.update(entity);
+                    updated++;
+                } else {
+                    prepareInsert(entity, owner, now);
+                    session.insert(entity);
+                    inserted++;
+                }
+            }
+            tx.commit();
+            report.inserted(inserted);
+            report.updated(updated);
+            written.forEach(this::committed);
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        }
+    }
+
+    private String describe(Set<ConstraintViolation<D>> violations) {
+        StringBuilder sb = new StringBuilder();
+        for (ConstraintViolation<D> violation : violations) {
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            sb.append(violation.getPropertyPath()).append(' ').append(violation.getMessage());
+        }
+        return sb.toString();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    // --- Parsing helpers for subclasses ---
+
+    protected static String required(Map<String, String> record, String column) {
+        String value = record.get(column);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing required column '" + column + "'.");
+        }
+        return value;
+    }
+
+    protected static BigDecimal decimal(Map<String, String> record, String column) {
+        String value = record.get(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Column '" + column + "' is not a valid decimal: " + value);
+        }
+    }
+
+    protected static Integer integer(Map<String, String> record, String column) {
+        String value = record.get(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Column '" + column + "' is not a valid integer: " + value);
+        }
+    }
+
+    protected static Boolean bool(Map<String, String> record, String column) {
+        String value = record.get(column);
+        if (value == null) {
+            return null;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes", "si", "sí" -> Boolean.TRUE;
+            case "false", "0", "no" -> Boolean.FALSE;
+            default -> throw new IllegalArgumentException("Column '" + column + "' is not a valid boolean: " + value);
+        };
+    }
+}
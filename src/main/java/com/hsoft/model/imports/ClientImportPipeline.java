@@ -0,0 +1,59 @@
+package com.hsoft.model.imports;
+
+import com.hsoft.model.dto.v1.clients.ClientCreateRequestDTO;
+import com.hsoft.model.entities.v1.Client;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.mappers.ClientMapper;
+import jakarta.validation.Validator;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * Imports clients. Clients have no per-tenant unique key (many share NIT 'C/F'), so every row is inserted
+ * (the base pipeline's default {@code findExisting} matches nothing).
+ * <p>
+ * Columns: name, nit, email, phone, address, is_active.
+ */
+public class ClientImportPipeline
+        extends CatalogImportPipeline<ClientCreateRequestDTO, Client, CatalogImportPipeline.ExistingRow> {
+
+    private final ClientMapper clientMapper;
+
+    public ClientImportPipeline(ClientMapper clientMapper, Validator validator) {
+        this(clientMapper, validator, DEFAULT_BATCH_SIZE);
+    }
+
+    public ClientImportPipeline(ClientMapper clientMapper, Validator validator, int batchSize) {
+        super(validator, batchSize);
+        this.clientMapper = clientMapper;
+    }
+
+    @Override
+    protected ClientCreateRequestDTO parse(Map<String, String> record) {
+        return ClientCreateRequestDTO.builder()
+                .name(required(record, "name"))
+                .nit(record.get("nit"))
+                .email(record.get("email"))
+                .phone(record.get("phone"))
+                .address(record.get("address"))
+                .isActive(bool(record, "is_active"))
+                .build();
+    }
+
+    @Override
+    protected String naturalKey(ClientCreateRequestDTO dto) {
+        return null;
+    }
+
+    @Override
+    protected Client toEntity(ClientCreateRequestDTO dto) {
+        return clientMapper.clientCreateRequestDTOToClient(dto);
+    }
+
+    @Override
+    protected void prepareInsert(Client client, User owner, OffsetDateTime now) {
+        client.setUser(owner);
+        client.setCreatedAt(now);
+    }
+}
@@ -0,0 +1,106 @@
+package com.hsoft.model.imports;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal streaming RFC 4180 CSV reader. The first record is the header; header names are
+ * trimmed and lower-cased, and each following record is returned as a header -> value map.
+ */
+public class CsvRecordReader implements Closeable {
+
+    private final BufferedReader reader;
+    private final String[] header;
+    private long recordNumber;
+
+    public CsvRecordReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, 64 * 1024);
+        List<String> fields = readFields();
+        if (fields == null) {
+            throw new IOException("CSV input is empty; a header row is required.");
+        }
+        this.header = new String[fields.size()];
+        for (int i = 0; i < header.length; i++) {
+            header[i] = fields.get(i).trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * @return the next record, or null at end of input
+     */
+    public Map<String, String> next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readFields();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isEmpty()); // Skip blank lines
+        recordNumber++;
+        Map<String, String> record = new HashMap<>(header.length * 2);
+        for (int i = 0; i < header.length && i < fields.size(); i++) {
+            String value = fields.get(i).trim();
+            record.put(header[i], value.isEmpty() ? null : value);
+        }
+        return record;
+    }
+
+    /**
+     * 1-based number of the last record returned by {@link #next()} (the header is not counted).
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    private List<String> readFields() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"'); // Escaped quote
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
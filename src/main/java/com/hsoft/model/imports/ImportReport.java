@@ -0,0 +1,46 @@
+package com.hsoft.model.imports;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a catalog import: row counters plus a per-row error list.
+ */
+@Getter
+public class ImportReport {
+    private long totalRows;
+    private long inserted;
+    private long updated;
+    private final List<ImportRowError> errors = new ArrayList<>();
+    private long elapsedMillis;
+
+    void rowRead() {
+        totalRows++;
+    }
+
+    void inserted(int count) {
+        inserted += count;
+    }
+
+    void updated(int count) {
+        updated += count;
+    }
+
+    void error(long rowNumber, String key, String message) {
+        errors.add(new ImportRowError(rowNumber, key, message));
+    }
+
+    void finished(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getFailed() {
+        return errors.size();
+    }
+
+    public double getRowsPerMinute() {
+        return elapsedMillis > 0 ? totalRows * 60_000.0 / elapsedMillis : 0.0;
+    }
+}
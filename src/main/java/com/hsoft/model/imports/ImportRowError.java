@@ -0,0 +1,13 @@
+package com.hsoft.model.imports;
+
+import lombok.Value;
+
+/**
+ * A rejected input row: its 1-based record number, natural key (if any) and the reason.
+ */
+@Value
+public class ImportRowError {
+    long rowNumber;
+    String key;
+    String message;
+}
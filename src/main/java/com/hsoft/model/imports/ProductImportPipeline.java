@@ -0,0 +1,129 @@
+package com.hsoft.model.imports;
+
+import com.hsoft.model.dto.v1.products.ProductCreateRequestDTO;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.mappers.ProductMapper;
+import com.hsoft.model.uniqueness.UniquenessGuard;
+import jakarta.validation.Validator;
+import lombok.Getter;
+import org.hibernate.StatelessSession;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Imports products keyed by (user_id, sku). Existing SKUs are updated and keep their stock;
+ * stock changes go through transactions/adjustments. Rows without SKU are always inserted.
+ * <p>
+ * Columns: sku, name, description, purchase_price, sale_price, current_stock, unit_of_measure, category, is_active.
+ */
+public class ProductImportPipeline
+        extends CatalogImportPipeline<ProductCreateRequestDTO, Product, ProductImportPipeline.ExistingProduct> {
+
+    private static final String EXISTING_BY_SKU =
+            "select p.sku, p.productId, p.version, p.createdAt, p.currentStock, p.stockShardCount from Product p " +
+            "where p.user.userId = :userId and p.sku in :keys";
+
+    private final ProductMapper productMapper;
+    private final UniquenessGuard guard;
+
+    public ProductImportPipeline(ProductMapper productMapper, Validator validator) {
+        this(productMapper, validator, DEFAULT_BATCH_SIZE, null);
+    }
+
+    public ProductImportPipeline(ProductMapper productMapper, Validator validator, int batchSize) {
+        this(productMapper, validator, batchSize, null);
+    }
+
+    /**
+     * @param guard optional; every committed row is recorded in it
+     */
+    public ProductImportPipeline(ProductMapper productMapper, Validator validator, int batchSize, UniquenessGuard guard) {
+        super(validator, batchSize);
+        this.productMapper = productMapper;
+        this.guard = guard;
+    }
+
+    @Override
+    protected ProductCreateRequestDTO parse(Map<String, String> record) {
+        return ProductCreateRequestDTO.builder()
+                .sku(record.get("sku"))
+                .name(required(record, "name"))
+                .description(record.get("description"))
+                .purchasePrice(decimal(record, "purchase_price"))
+                .salePrice(decimal(record, "sale_price"))
+                .currentStock(integer(record, "current_stock"))
+                .unitOfMeasure(record.get("unit_of_measure"))
+                .category(record.get("category"))
+                .isActive(bool(record, "is_active"))
+                .build();
+    }
+
+    @Override
+    protected String naturalKey(ProductCreateRequestDTO dto) {
+        return dto.getSku();
+    }
+
+    @Override
+    protected Product toEntity(ProductCreateRequestDTO dto) {
+        return productMapper.productCreateRequestDTOToProduct(dto);
+    }
+
+    @Override
+    protected Map<String, ExistingProduct> findExisting(StatelessSession session, UUID userId, Collection<String> keys) {
+        List<Object[]> rows = session.createQuery(EXISTING_BY_SKU, Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("keys", keys)
+                .getResultList();
+        Map<String, ExistingProduct> existing = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            existing.put((String) row[0], new ExistingProduct((UUID) row[1], (Long) row[2], (OffsetDateTime) row[3],
+                    (Integer) row[4], (Integer) row[5]));
+        }
+        return existing;
+    }
+
+    @Override
+    protected void prepareUpdate(Product product, ExistingProduct existing, User owner, OffsetDateTime now) {
+        product.setProductId(existing.getId());
+        product.setVersion(existing.getVersion()); // Stateless update still checks the version
+        product.setUser(owner);
+        product.setCreatedAt(existing.getCreatedAt());
+        product.setUpdatedAt(now);
+        product.setCurrentStock(existing.getCurrentStock()); // Import never overwrites stock of existing SKUs
+        product.setStockShardCount(existing.getStockShardCount());
+    }
+
+    @Override
+    protected void prepareInsert(Product product, User owner, OffsetDateTime now) {
+        product.setUser(owner);
+        product.setCreatedAt(now);
+    }
+
+    @Override
+    protected void committed(Product product) {
+        if (guard != null) {
+            guard.recordProduct(product);
+        }
+    }
+
+    /**
+     * An existing product also keeps its stock columns.
+     */
+    @Getter
+    public static class ExistingProduct extends ExistingRow {
+        private final int currentStock;
+        private final int stockShardCount;
+
+        ExistingProduct(UUID id, Long version, OffsetDateTime createdAt, int currentStock, int stockShardCount) {
+            super(id, version, createdAt);
+            this.currentStock = currentStock;
+            this.stockShardCount = stockShardCount;
+        }
+    }
+}
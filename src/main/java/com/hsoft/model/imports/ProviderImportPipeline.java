@@ -0,0 +1,107 @@
+package com.hsoft.model.imports;
+
+import com.hsoft.model.dto.v1.providers.ProviderCreateRequestDTO;
+import com.hsoft.model.entities.v1.Provider;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.mappers.ProviderMapper;
+import com.hsoft.model.uniqueness.UniquenessGuard;
+import jakarta.validation.Validator;
+import org.hibernate.StatelessSession;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Imports providers keyed by (user_id, nit). Existing NITs are updated; rows without NIT are always inserted.
+ * <p>
+ * Columns: name, nit, email, phone, address, contact_person, is_active.
+ */
+public class ProviderImportPipeline
+        extends CatalogImportPipeline<ProviderCreateRequestDTO, Provider, CatalogImportPipeline.ExistingRow> {
+
+    private static final String EXISTING_BY_NIT =
+            "select p.nit, p.providerId, p.version, p.createdAt from Provider p " +
+            "where p.user.userId = :userId and p.nit in :keys";
+
+    private final ProviderMapper providerMapper;
+    private final UniquenessGuard guard;
+
+    public ProviderImportPipeline(ProviderMapper providerMapper, Validator validator) {
+        this(providerMapper, validator, DEFAULT_BATCH_SIZE, null);
+    }
+
+    public ProviderImportPipeline(ProviderMapper providerMapper, Validator validator, int batchSize) {
+        this(providerMapper, validator, batchSize, null);
+    }
+
+    /**
+     * @param guard optional; every committed row is recorded in it
+     */
+    public ProviderImportPipeline(ProviderMapper providerMapper, Validator validator, int batchSize, UniquenessGuard guard) {
+        super(validator, batchSize);
+        this.providerMapper = providerMapper;
+        this.guard = guard;
+    }
+
+    @Override
+    protected ProviderCreateRequestDTO parse(Map<String, String> record) {
+        return ProviderCreateRequestDTO.builder()
+                .name(required(record, "name"))
+                .nit(record.get("nit"))
+                .email(record.get("email"))
+                .phone(record.get("phone"))
+                .address(record.get("address"))
+                .contactPerson(record.get("contact_person"))
+                .isActive(bool(record, "is_active"))
+                .build();
+    }
+
+    @Override
+    protected String naturalKey(ProviderCreateRequestDTO dto) {
+        return dto.getNit();
+    }
+
+    @Override
+    protected Provider toEntity(ProviderCreateRequestDTO dto) {
+        return providerMapper.providerCreateRequestDTOToProvider(dto);
+    }
+
+    @Override
+    protected Map<String, ExistingRow> findExisting(StatelessSession session, UUID userId, Collection<String> keys) {
+        List<Object[]> rows = session.createQuery(EXISTING_BY_NIT, Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("keys", keys)
+                .getResultList();
+        Map<String, ExistingRow> existing = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            existing.put((String) row[0], new ExistingRow((UUID) row[1], (Long) row[2], (OffsetDateTime) row[3]));
+        }
+        return existing;
+    }
+
+    @Override
+    protected void prepareUpdate(Provider provider, ExistingRow existing, User owner, OffsetDateTime now) {
+        provider.setProviderId(existing.getId());
+        provider.setVersion(existing.getVersion());
+        provider.setUser(owner);
+        provider.setCreatedAt(existing.getCreatedAt());
+        provider.setUpdatedAt(now);
+    }
+
+    @Override
+    protected void prepareInsert(Provider provider, User owner, OffsetDateTime now) {
+        provider.setUser(owner);
+        provider.setCreatedAt(now);
+    }
+
+    @Override
+    protected void committed(Provider provider) {
+        if (guard != null) {
+            guard.recordProvider(provider);
+        }
+    }
+}
@@ -0,0 +1,620 @@
+package com.hsoft.model.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsoft.model.assembly.DuplicateLineMerger;
+import com.hsoft.model.dto.v1.transactions.TransactionCreateRequestDTO;
+import com.hsoft.model.dto.v1.transactions.TransactionItemCreateRequestDTO;
+import com.hsoft.model.entities.v1.Client;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Provider;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.TransactionItem;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.generators.UuidV7Generator;
+import com.hsoft.model.mappers.TransactionItemMapper;
+import com.hsoft.model.mappers.TransactionMapper;
+import com.hsoft.model.types.v1.TransactionType;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Write-behind ingestion of high-volume tickets with group commit.
+ * <ol>
+ *     <li>{@link #submit} serializes the ticket and puts it on a bounded queue (fails fast when full).</li>
+ *     <li>A single writer thread takes up to {@code batchSize} tickets (waiting at most {@code maxBatchDelay}),
+ *     appends them to the write-ahead log with one fsync, and completes their futures: the ticket is durable.</li>
+ *     <li>The same batch is inserted in one database transaction through a {@link StatelessSession} with JDBC
+ *     batching (all transactions, then all items; enable {@code reWriteBatchedInserts} on the PostgreSQL
+ *     driver to turn each batch into multi-row inserts).</li>
+ * </ol>
+ * {@link #start()} first replays the log. Ticket ids are the transaction ids, so tickets that were already
+ * committed before a crash are skipped. Tickets the database refuses (bad data) are dropped and reported
+ * to the {@link IngestionListener}. Transient database failures are retried with backoff; a batch is
+ * validated (and its duplicates and rejections reported) once, and retries only insert its valid tickets.
+ * <p>
+ * The caller's {@link ObjectMapper} must handle {@code java.time} types (e.g. Spring's default mapper).
+ */
+public class GroupCommitIngestor implements Closeable {
+
+    private static final long IDLE_POLL_MILLIS = 100L;
+
+    private static final String EXISTING_TRANSACTIONS =
+            "select t.transactionId from Transaction t where t.transactionId in :ids";
+    private static final String USERS_BY_IDS =
+            "select u.userId from User u where u.userId in :ids";
+    private static final String PRODUCTS_BY_IDS =
+            "select p.productId, p.user.userId, p.isActive, p.version from Product p where p.productId in :ids";
+    private static final String CLIENTS_BY_IDS =
+            "select c.clientId, c.user.userId, c.version from Client c where c.clientId in :ids";
+    private static final String PROVIDERS_BY_IDS =
+            "select p.providerId, p.user.userId, p.version from Provider p where p.providerId in :ids";
+
+    private final SessionFactory sessionFactory;
+    private final ObjectMapper objectMapper;
+    private final TransactionMapper transactionMapper;
+    private final TransactionItemMapper transactionItemMapper;
+    private final DuplicateLineMerger lineMerger;
+    private final IngestionSettings settings;
+    private final IngestionListener listener;
+    private final IngestionStats stats = new IngestionStats();
+    private final BlockingQueue<PendingTicket> queue;
+    // Submitters share it while checking running and enqueueing; close() takes it exclusively to stop them
+    private final ReadWriteLock submitLock = new ReentrantReadWriteLock();
+
+    private TicketWal wal;
+    private Thread writer;
+    private volatile boolean running;
+    private boolean walHasUncommitted; // Writer thread only: some logged tickets are not in the database yet
+
+    public GroupCommitIngestor(SessionFactory sessionFactory, ObjectMapper objectMapper,
+                               TransactionMapper transactionMapper, TransactionItemMapper transactionItemMapper,
+                               IngestionSettings settings) {
+        this(sessionFactory, objectMapper, transactionMapper, transactionItemMapper, new DuplicateLineMerger(),
+                settings, IngestionListener.NONE);
+    }
+
+    public GroupCommitIngestor(SessionFactory sessionFactory, ObjectMapper objectMapper,
+                               TransactionMapper transactionMapper, TransactionItemMapper transactionItemMapper,
+                               DuplicateLineMerger lineMerger, IngestionSettings settings, IngestionListener listener) {
+        if (settings.getWalFile() == null || settings.getBatchSize() < 1 || settings.getQueueCapacity() < 1) {
+            throw new IllegalArgumentException("walFile is required; batchSize and queueCapacity must be at least 1.");
+        }
+        this.sessionFactory = sessionFactory;
+        this.objectMapper = objectMapper;
+        this.transactionMapper = transactionMapper;
+        this.transactionItemMapper = transactionItemMapper;
+        this.lineMerger = lineMerger;
+        this.settings = settings;
+        this.listener = listener;
+        this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+    }
+
+    // --- Lifecycle ---
+
+    /**
+     * Replays the write-ahead log into the database (blocking until done), then starts accepting tickets.
+     */
+    public synchronized void start() throws IOException {
+        if (writer != null) {
+            return;
+        }
+        wal = new TicketWal(settings.getWalFile());
+        running = true;
+        replay(wal.readAll());
+        writer = new Thread(this::writeLoop, "ticket-ingestor");
+        writer.start();
+    }
+
+    /**
+     * Stops accepting tickets, writes what is queued and waits for the writer.
+     * Tickets whose database insert could not complete stay in the log for the next {@link #start()}.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        submitLock.writeLock().lock();
+        try {
+            running = false; // No submit is between its running check and its enqueue now
+        } finally {
+            submitLock.writeLock().unlock();
+        }
+        try {
+            writer.join(); // No interrupt: it would close the log's channel mid-write
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Left behind only if the writer was interrupted (it then stops on its own): never logged, so fail them
+        List<PendingTicket> unwritten = new ArrayList<>();
+        queue.drainTo(unwritten);
+        for (PendingTicket ticket : unwritten) {
+            ticket.ack.completeExceptionally(new IllegalStateException("Ingestor closed before the ticket was logged."));
+        }
+        wal.close();
+        writer = null;
+    }
+
+    // --- Accepting tickets ---
+
+    /**
+     * @return future completed with the transaction id once the ticket is durable in the log
+     * (not yet in the database); failed with {@link RejectedExecutionException} when the queue is full
+     */
+    public CompletableFuture<UUID> submit(UUID userId, UUID createdByUserId, TransactionType transactionType,
+                                          TransactionCreateRequestDTO request) {
+        CompletableFuture<UUID> ack = new CompletableFuture<>();
+        if (!running) {
+            ack.completeExceptionally(new IllegalStateException("Ingestor is not running."));
+            return ack;
+        }
+        TicketRecord record = TicketRecord.builder()
+                .ticketId(UuidV7Generator.nextUuid())
+                .userId(userId)
+                .createdByUserId(createdByUserId)
+                .transactionType(transactionType)
+                .acceptedAt(OffsetDateTime.now())
+                .request(request)
+                .build();
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(record); // Serialized on the caller's thread
+        } catch (IOException e) {
+            ack.completeExceptionally(e);
+            return ack;
+        }
+        submitLock.readLock().lock();
+        try {
+            if (!running) {
+                ack.completeExceptionally(new IllegalStateException("Ingestor is not running."));
+            } else if (!queue.offer(new PendingTicket(record, payload, ack))) {
+                stats.queueFull.increment();
+                ack.completeExceptionally(new RejectedExecutionException("Ingestion queue is full."));
+            }
+        } finally {
+            submitLock.readLock().unlock();
+        }
+        return ack;
+    }
+
+    public IngestionStats getStats() {
+        return stats;
+    }
+
+    // --- Writer thread ---
+
+    private void writeLoop() {
+        List<PendingTicket> batch = new ArrayList<>(settings.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collectBatch(List<PendingTicket> batch) throws InterruptedException {
+        PendingTicket first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        int batchSize = settings.getBatchSize();
+        batch.add(first);
+        queue.drainTo(batch, batchSize - batch.size());
+        long deadline = System.nanoTime() + settings.getMaxBatchDelay().toNanos();
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0L) {
+                break;
+            }
+            PendingTicket next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    private void writeBatch(List<PendingTicket> batch) {
+        List<byte[]> payloads = new ArrayList<>(batch.size());
+        List<TicketRecord> records = new ArrayList<>(batch.size());
+        for (PendingTicket ticket : batch) {
+            payloads.add(ticket.payload);
+            records.add(ticket.record);
+        }
+        try {
+            wal.append(payloads); // One write + one fsync for the whole group
+        } catch (IOException e) {
+            UncheckedIOException failure = new UncheckedIOException("Could not write tickets to the write-ahead log.", e);
+            for (PendingTicket ticket : batch) {
+                ticket.ack.completeExceptionally(failure);
+            }
+            return;
+        }
+        stats.walBatches.increment();
+        stats.accepted.add(batch.size());
+        for (PendingTicket ticket : batch) {
+            ticket.ack.complete(ticket.record.getTicketId());
+        }
+        if (flushWithRetry(records)) {
+            compactIfPossible();
+        }
+    }
+
+    private void replay(List<byte[]> payloads) throws IOException {
+        List<TicketRecord> records = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            records.add(objectMapper.readValue(payload, TicketRecord.class));
+        }
+        boolean allFlushed = true;
+        for (int from = 0; from < records.size(); from += settings.getBatchSize()) {
+            allFlushed &= flushWithRetry(records.subList(from, Math.min(from + settings.getBatchSize(), records.size())));
+        }
+        // The log now holds exactly the replayed tickets, so a batch abandoned by a previous close() no longer counts
+        walHasUncommitted = !allFlushed;
+        compactIfPossible();
+        if (!walHasUncommitted && wal.size() > 0L) {
+            wal.reset();
+        }
+    }
+
+    private void compactIfPossible() {
+        try {
+            if (!walHasUncommitted && wal.size() >= settings.getWalCompactionBytes()) {
+                wal.reset(); // Everything logged so far is committed
+            }
+        } catch (IOException e) {
+            // Keeping a longer log is harmless: replay skips committed tickets
+        }
+    }
+
+    // --- Database flush ---
+
+    /**
+     * @return true once every ticket is committed or rejected; false if abandoned because the ingestor is stopping
+     */
+    private boolean flushWithRetry(List<TicketRecord> records) {
+        Batch batch = new Batch(records);
+        long delayNanos = settings.getMinRetryDelay().toNanos();
+        while (true) {
+            try {
+                flush(batch);
+                return true;
+            } catch (RuntimeException e) {
+                if (batch.valid != null && isDataError(e)) {
+                    batch.valid = flushIndividually(batch.valid); // Isolate the ticket(s) the database refuses
+                    if (batch.valid.isEmpty()) {
+                        return true;
+                    }
+                }
+                stats.flushRetries.increment();
+                if (!running) {
+                    walHasUncommitted = true;
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.sleep(delayNanos);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    walHasUncommitted = true;
+                    return false;
+                }
+                delayNanos = Math.min(delayNanos * 2, settings.getMaxRetryDelay().toNanos());
+            }
+        }
+    }
+
+    // Returns the transactions that failed for transient reasons; the others are committed or rejected
+    private List<Transaction> flushIndividually(List<Transaction> transactions) {
+        List<Transaction> transientFailures = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            try {
+                inTransaction(session -> insert(session, List.of(transaction)));
+            } catch (RuntimeException e) {
+                if (isDataError(e)) {
+                    reject(transaction.getTransactionId(), "Database refused the ticket: " + rootMessage(e));
+                } else {
+                    transientFailures.add(transaction);
+                }
+            }
+        }
+        return transientFailures;
+    }
+
+    // The first attempt validates the batch in the same transaction as its insert; retries only insert
+    private void flush(Batch batch) {
+        inTransaction(session -> {
+            if (batch.valid == null) {
+                batch.valid = validate(session, batch.records);
+            } else if (batch.attempted) {
+                dropCommitted(session, batch);
+            }
+            batch.attempted = true;
+            return insert(session, batch.valid);
+        });
+    }
+
+    private void inTransaction(Function<StatelessSession, List<UUID>> work) {
+        List<UUID> inserted;
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(settings.getBatchSize());
+            org.hibernate.Transaction tx = session.beginTransaction();
+            try {
+                inserted = work.apply(session);
+                tx.commit();
+            } catch (RuntimeException e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw e;
+            }
+        }
+        stats.dbBatches.increment();
+        stats.committed.add(inserted.size());
+        if (!inserted.isEmpty()) {
+            listener.onCommitted(inserted);
+        }
+    }
+
+    /**
+     * Skips tickets committed before a crash and rejects invalid ones; reports both once, after every
+     * read succeeded, so a transient failure here is simply retried.
+     */
+    private List<Transaction> validate(StatelessSession session, List<TicketRecord> records) {
+        Set<UUID> alreadyCommitted = existing(session, records.stream().map(TicketRecord::getTicketId).toList());
+        References refs = loadReferences(session, records, alreadyCommitted);
+        List<Transaction> transactions = new ArrayList<>(records.size());
+        Map<UUID, String> rejections = new LinkedHashMap<>();
+        for (TicketRecord record : records) {
+            if (alreadyCommitted.contains(record.getTicketId())) {
+                continue;
+            }
+            try {
+                transactions.add(buildTransaction(record, refs));
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                rejections.put(record.getTicketId(), e.getMessage()); // Invalid ticket: never retried
+            }
+        }
+        stats.duplicates.add(alreadyCommitted.size());
+        rejections.forEach(this::reject);
+        return transactions;
+    }
+
+    // A failed commit may still have reached the database (e.g. connection lost on the reply)
+    private void dropCommitted(StatelessSession session, Batch batch) {
+        Set<UUID> committed = existing(session, batch.valid.stream().map(Transaction::getTransactionId).toList());
+        if (!committed.isEmpty()) {
+            batch.valid = batch.valid.stream().filter(t -> !committed.contains(t.getTransactionId())).toList();
+            stats.committed.add(committed.size());
+            listener.onCommitted(List.copyOf(committed));
+        }
+    }
+
+    private static Set<UUID> existing(StatelessSession session, List<UUID> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(session.createQuery(EXISTING_TRANSACTIONS, UUID.class)
+                .setParameter("ids", transactionIds)
+                .getResultList());
+    }
+
+    // Statement order: all headers, then all items, so JDBC batching groups each table's inserts
+    private static List<UUID> insert(StatelessSession session, List<Transaction> transactions) {
+        List<UUID> inserted = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            session.insert(transaction);
+            inserted.add(transaction.getTransactionId());
+        }
+        for (Transaction transaction : transactions) {
+            for (TransactionItem item : transaction.getItems()) {
+                session.insert(item);
+            }
+        }
+        return inserted;
+    }
+
+    private Transaction buildTransaction(TicketRecord record, References refs) {
+        TransactionCreateRequestDTO request = record.getRequest();
+        if (request == null || request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Ticket has no items.");
+        }
+        if (record.getTransactionType() == null) {
+            throw new IllegalArgumentException("Ticket has no transaction type.");
+        }
+        User owner = refs.user(record.getUserId());
+        User creator = record.getCreatedByUserId() != null ? refs.user(record.getCreatedByUserId()) : null;
+
+        Transaction transaction = transactionMapper.transactionCreateRequestDTOToTransaction(request);
+        transaction.setTransactionId(record.getTicketId());
+        transaction.setTransactionType(record.getTransactionType());
+        transaction.setUser(owner);
+        transaction.setCreatedByUser(creator);
+        transaction.setCreatedAt(record.getAcceptedAt()); // Stateless inserts skip @PrePersist
+        if (request.getTransactionDate() == null) {
+            transaction.setTransactionDate(record.getAcceptedAt());
+        }
+        if (request.getClientId() != null) {
+            transaction.setClient(refs.client(request.getClientId(), record.getUserId()));
+        }
+        if (request.getProviderId() != null) {
+            transaction.setProvider(refs.provider(request.getProviderId(), record.getUserId()));
+        }
+        for (TransactionItemCreateRequestDTO line : lineMerger.merge(request.getItems())) {
+            TransactionItem item = transactionItemMapper.transactionItemCreateRequestDTOToTransactionItem(line);
+            item.setProduct(refs.product(line.getProductId(), record.getUserId()));
+            transaction.addItem(item);
+        }
+        return transaction;
+    }
+
+    // One query per referenced table for the whole batch
+    private References loadReferences(StatelessSession session, List<TicketRecord> records, Set<UUID> skip) {
+        Set<UUID> userIds = new HashSet<>();
+        Set<UUID> productIds = new HashSet<>();
+        Set<UUID> clientIds = new HashSet<>();
+        Set<UUID> providerIds = new HashSet<>();
+        for (TicketRecord record : records) {
+            if (skip.contains(record.getTicketId()) || record.getRequest() == null) {
+                continue;
+            }
+            addIfPresent(userIds, record.getUserId());
+            addIfPresent(userIds, record.getCreatedByUserId());
+            addIfPresent(clientIds, record.getRequest().getClientId());
+            addIfPresent(providerIds, record.getRequest().getProviderId());
+            if (record.getRequest().getItems() != null) {
+                for (TransactionItemCreateRequestDTO line : record.getRequest().getItems()) {
+                    addIfPresent(productIds, line.getProductId());
+                }
+            }
+        }
+        References refs = new References();
+        if (!userIds.isEmpty()) {
+            refs.users.addAll(session.createQuery(USERS_BY_IDS, UUID.class).setParameter("ids", userIds).getResultList());
+        }
+        for (Object[] row : rows(session, PRODUCTS_BY_IDS, productIds)) {
+            refs.products.put((UUID) row[0], row);
+        }
+        for (Object[] row : rows(session, CLIENTS_BY_IDS, clientIds)) {
+            refs.clients.put((UUID) row[0], row);
+        }
+        for (Object[] row : rows(session, PROVIDERS_BY_IDS, providerIds)) {
+            refs.providers.put((UUID) row[0], row);
+        }
+        return refs;
+    }
+
+    private static List<Object[]> rows(StatelessSession session, String hql, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return session.createQuery(hql, Object[].class).setParameter("ids", ids).getResultList();
+    }
+
+    private static void addIfPresent(Set<UUID> ids, UUID id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    private void reject(UUID ticketId, String reason) {
+        stats.rejected.increment();
+        listener.onRejected(ticketId, reason);
+    }
+
+    private static boolean isDataError(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException || t instanceof DataException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    /**
+     * Validated reference stubs for one batch. A stub only carries what the insert reads for the
+     * foreign key: the id, plus the version so Hibernate treats versioned entities as persistent.
+     */
+    private static final class References {
+        final Set<UUID> users = new HashSet<>();
+        final Map<UUID, Object[]> products = new HashMap<>();
+        final Map<UUID, Object[]> clients = new HashMap<>();
+        final Map<UUID, Object[]> providers = new HashMap<>();
+
+        User user(UUID userId) {
+            if (!users.contains(userId)) {
+                throw new IllegalArgumentException("Unknown user " + userId + ".");
+            }
+            return User.builder().userId(userId).build();
+        }
+
+        Product product(UUID productId, UUID ownerId) {
+            Object[] row = products.get(productId);
+            if (row == null || !ownerId.equals(row[1])) {
+                throw new IllegalArgumentException("Unknown product " + productId + ".");
+            }
+            if (!(Boolean) row[2]) {
+                throw new IllegalArgumentException("Inactive product " + productId + ".");
+            }
+            return Product.builder().productId(productId).version((Long) row[3]).build();
+        }
+
+        Client client(UUID clientId, UUID ownerId) {
+            Object[] row = clients.get(clientId);
+            if (row == null || !ownerId.equals(row[1])) {
+                throw new IllegalArgumentException("Unknown client " + clientId + ".");
+            }
+            return Client.builder().clientId(clientId).version((Long) row[2]).build();
+        }
+
+        Provider provider(UUID providerId, UUID ownerId) {
+            Object[] row = providers.get(providerId);
+            if (row == null || !ownerId.equals(row[1])) {
+                throw new IllegalArgumentException("Unknown provider " + providerId + ".");
+            }
+            return Provider.builder().providerId(providerId).version((Long) row[2]).build();
+        }
+    }
+
+    // One batch across its flush attempts, so validation and its reports happen once
+    private static final class Batch {
+        final List<TicketRecord> records;
+        List<Transaction> valid; // Null until validated; then the transactions still to insert
+        boolean attempted; // An insert was tried and failed; its commit may still have gone through
+
+        Batch(List<TicketRecord> records) {
+            this.records = records;
+        }
+    }
+
+    private static final class PendingTicket {
+        final TicketRecord record;
+        final byte[] payload;
+        final CompletableFuture<UUID> ack;
+
+        PendingTicket(TicketRecord record, byte[] payload, CompletableFuture<UUID> ack) {
+            this.record = record;
+            this.payload = payload;
+            this.ack = ack;
+        }
+    }
+}
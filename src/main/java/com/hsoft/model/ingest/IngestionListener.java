@@ -0,0 +1,26 @@
+package com.hsoft.model.ingest;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Callbacks from the ingestor's writer thread, e.g. to update stock or daily aggregates
+ * for committed tickets, or to surface rejected ones. Keep them fast.
+ */
+public interface IngestionListener {
+
+    IngestionListener NONE = new IngestionListener() {
+    };
+
+    /**
+     * Transactions inserted by one database batch, after its commit.
+     */
+    default void onCommitted(List<UUID> transactionIds) {
+    }
+
+    /**
+     * A durable ticket that can never be inserted (e.g. unknown or inactive product); it is dropped.
+     */
+    default void onRejected(UUID ticketId, String reason) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.hsoft.model.ingest;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Tuning of {@link GroupCommitIngestor}; only {@code walFile} is required.
+ */
+@Value
+@Builder
+public class IngestionSettings {
+
+    Path walFile;
+
+    // Tickets waiting for the writer; submit() fails fast when full (back-pressure to the terminals)
+    @Builder.Default
+    int queueCapacity = 10_000;
+
+    // Tickets per WAL fsync and per database transaction
+    @Builder.Default
+    int batchSize = 200;
+
+    // Longest a ticket waits for its batch to fill before being written anyway
+    @Builder.Default
+    Duration maxBatchDelay = Duration.ofMillis(5);
+
+    // The WAL is truncated after a commit once it grows past this size
+    @Builder.Default
+    long walCompactionBytes = 64L * 1024 * 1024;
+
+    // Backoff bounds while the database is unavailable
+    @Builder.Default
+    Duration minRetryDelay = Duration.ofMillis(100);
+
+    @Builder.Default
+    Duration maxRetryDelay = Duration.ofSeconds(5);
+}
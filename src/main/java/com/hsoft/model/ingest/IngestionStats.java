@@ -0,0 +1,62 @@
+package com.hsoft.model.ingest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a {@link GroupCommitIngestor}.
+ */
+public class IngestionStats {
+
+    final LongAdder accepted = new LongAdder();
+    final LongAdder queueFull = new LongAdder();
+    final LongAdder walBatches = new LongAdder();
+    final LongAdder committed = new LongAdder();
+    final LongAdder dbBatches = new LongAdder();
+    final LongAdder duplicates = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final LongAdder flushRetries = new LongAdder();
+
+    // Tickets acknowledged (durable in the WAL)
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    // Tickets refused because the queue was full
+    public long getQueueFull() {
+        return queueFull.sum();
+    }
+
+    public long getWalBatches() {
+        return walBatches.sum();
+    }
+
+    // Tickets inserted into the database
+    public long getCommitted() {
+        return committed.sum();
+    }
+
+    public long getDbBatches() {
+        return dbBatches.sum();
+    }
+
+    // Tickets skipped on replay because they were already committed
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getFlushRetries() {
+        return flushRetries.sum();
+    }
+
+    /**
+     * Average tickets per database commit (0.0 before the first batch).
+     */
+    public double getAverageBatchSize() {
+        long batches = getDbBatches();
+        return batches > 0 ? (double) getCommitted() / batches : 0.0;
+    }
+}
@@ -0,0 +1,28 @@
+package com.hsoft.model.ingest;
+
+import com.hsoft.model.dto.v1.transactions.TransactionCreateRequestDTO;
+import com.hsoft.model.types.v1.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * One accepted ticket as written to the write-ahead log.
+ * {@code ticketId} becomes the transaction id, which makes replays idempotent.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketRecord {
+    private UUID ticketId;
+    private UUID userId;
+    private UUID createdByUserId;
+    private TransactionType transactionType;
+    private OffsetDateTime acceptedAt; // Creation time, and transaction date when the request has none
+    private TransactionCreateRequestDTO request;
+}
@@ -0,0 +1,116 @@
+package com.hsoft.model.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only write-ahead log of accepted tickets.
+ * Record layout: {@code int length | int crc32c | payload}. A group of records is written with one
+ * write and made durable with one fsync (group commit). On open, a torn or corrupt tail left by a
+ * crash is detected by length/CRC and cut off.
+ * Not thread-safe: owned by the ingestor's writer thread.
+ */
+class TicketWal implements Closeable {
+
+    private static final int HEADER_BYTES = 8;
+    // Guards against reading garbage lengths from a corrupt tail
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+
+    private final FileChannel channel;
+
+    TicketWal(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reads every intact record from the start of the file and positions the log after the last one.
+     */
+    List<byte[]> readAll() throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        long position = 0L;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header, position);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length < 0 || length > MAX_RECORD_BYTES || position + HEADER_BYTES + length > size) {
+                break; // Torn write
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + HEADER_BYTES);
+            if (crc(payload.array()) != crc) {
+                break; // Corrupt record: nothing after it is trusted
+            }
+            records.add(payload.array());
+            position += HEADER_BYTES + length;
+        }
+        if (position < size) {
+            channel.truncate(position);
+            channel.force(true);
+        }
+        channel.position(position);
+        return records;
+    }
+
+    /**
+     * Appends the records and returns once they are on stable storage.
+     */
+    void append(List<byte[]> payloads) throws IOException {
+        int total = 0;
+        for (byte[] payload : payloads) {
+            total += HEADER_BYTES + payload.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        for (byte[] payload : payloads) {
+            buffer.putInt(payload.length).putInt(crc(payload)).put(payload);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Drops every record; only call once all of them are committed to the database.
+     */
+    void reset() throws IOException {
+        channel.truncate(0L);
+        channel.position(0L);
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of write-ahead log.");
+            }
+        }
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,23 @@
+package com.hsoft.model.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.hsoft.model.types.v1.JsonContext;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link JsonContext} as its JSON text, without parsing it when it was never accessed.
+ */
+public class JsonContextSerializer extends StdSerializer<JsonContext> {
+
+    public JsonContextSerializer() {
+        super(JsonContext.class);
+    }
+
+    @Override
+    public void serialize(JsonContext value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeRawValue(value.toJson());
+    }
+}
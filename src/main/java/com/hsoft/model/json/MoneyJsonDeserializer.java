@@ -0,0 +1,50 @@
+package com.hsoft.model.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.hsoft.model.types.v1.Money;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Reads {@link Money} from a JSON number or numeric string.
+ */
+public class MoneyJsonDeserializer extends StdDeserializer<Money> {
+
+    public MoneyJsonDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return Money.ofCents(Math.multiplyExact(p.getLongValue(), 100L));
+        }
+        if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            BigDecimal amount = p.getDecimalValue();
+            try {
+                return Money.of(amount);
+            } catch (ArithmeticException e) {
+                return (Money) ctxt.handleWeirdNumberValue(Money.class, amount, e.getMessage());
+            }
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = p.getText().trim();
+            if (text.isEmpty()) {
+                return null;
+            }
+            try {
+                return Money.of(new BigDecimal(text));
+            } catch (NumberFormatException e) {
+                return (Money) ctxt.handleWeirdStringValue(Money.class, text, "not a valid monetary amount");
+            } catch (ArithmeticException e) {
+                return (Money) ctxt.handleWeirdStringValue(Money.class, text, e.getMessage());
+            }
+        }
+        return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+    }
+}
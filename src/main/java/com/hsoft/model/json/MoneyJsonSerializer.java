@@ -0,0 +1,23 @@
+package com.hsoft.model.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.hsoft.model.types.v1.Money;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link Money} as a plain JSON number ("199.95"), the same wire format as BigDecimal.
+ */
+public class MoneyJsonSerializer extends StdSerializer<Money> {
+
+    public MoneyJsonSerializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public void serialize(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeNumber(value.toPlainString());
+    }
+}
@@ -0,0 +1,19 @@
+package com.hsoft.model.mappers;
+
+import com.hsoft.model.dto.v1.transactions.DailyTransactionAggregateResponseDTO;
+import com.hsoft.model.entities.v1.DailyTransactionAggregate;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", uses = MoneyMapper.class)
+public interface DailyTransactionAggregateMapper {
+
+    // --- Entity to DTO ---
+
+    DailyTransactionAggregateResponseDTO dailyTransactionAggregateToResponseDTO(DailyTransactionAggregate aggregate);
+
+    List<DailyTransactionAggregateResponseDTO> dailyTransactionAggregatesToResponseDTOs(List<DailyTransactionAggregate> aggregates);
+
+    // Aggregates are maintained by the aggregates package, never mapped from request DTOs
+}
@@ -0,0 +1,46 @@
+package com.hsoft.model.mappers;
+
+import com.hsoft.model.types.v1.JsonContext;
+import org.mapstruct.Mapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Converts between entity JsonContext fields and the plain Map contexts exposed by DTOs
+@Mapper(componentModel = "spring")
+public interface JsonContextMapper {
+
+    // Deep copy: nested objects/arrays of a JsonContext are tracked and read-only through views, so DTOs get
+    // plain LinkedHashMap/ArrayList copies that can be modified (and serialized) without touching the entity
+    default Map<String, Object> jsonContextToMap(JsonContext context) {
+        return context != null ? plainCopy(context) : null;
+    }
+
+    default JsonContext mapToJsonContext(Map<String, Object> context) {
+        return context != null ? JsonContext.of(context) : null;
+    }
+
+    private static Map<String, Object> plainCopy(Map<?, ?> source) {
+        Map<String, Object> copy = new LinkedHashMap<>(Math.max(16, source.size() * 4 / 3 + 1));
+        for (Map.Entry<?, ?> entry : source.entrySet()) {
+            copy.put((String) entry.getKey(), plainValue(entry.getValue()));
+        }
+        return copy;
+    }
+
+    private static Object plainValue(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return plainCopy(map);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(plainValue(element));
+            }
+            return copy;
+        }
+        return value;
+    }
+}
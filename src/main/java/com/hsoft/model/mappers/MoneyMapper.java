@@ -0,0 +1,19 @@
+package com.hsoft.model.mappers;
+
+import com.hsoft.model.types.v1.Money;
+import org.mapstruct.Mapper;
+
+import java.math.BigDecimal;
+
+// Converts between entity Money fields and the BigDecimal fields exposed by DTOs
+@Mapper(componentModel = "spring")
+public interface MoneyMapper {
+
+    default BigDecimal moneyToBigDecimal(Money money) {
+        return money != null ? money.toBigDecimal() : null;
+    }
+
+    default Money bigDecimalToMoney(BigDecimal amount) {
+        return Money.of(amount);
+    }
+}
@@ -10,12 +10,13 @@ import org.mapstruct.*;
 import java.util.HashMap;
 import java.util.List;
 
-@Mapper(componentModel = "spring",
+@Mapper(componentModel = "spring", uses = JsonContextMapper.class,
         nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
 public interface ProductMapper {
 
     // --- Entity to DTO ---
 
+    // currentStock excludes pending shard deltas: map sharded products via ShardedStockCounter.toProductResponses
     @Mapping(target = "userId", source = "user.userId")
     ProductResponseDTO productToProductResponseDTO(Product product);
 
@@ -30,11 +31,13 @@ public interface ProductMapper {
     @Mapping(target = "user", ignore = true) // Set by service
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "isActive", expression = "java(dto.getIsActive() != null ? dto.getIsActive() : true)") // Default active
     @Mapping(target = "currentStock", expression = "java(dto.getCurrentStock() != null ? dto.getCurrentStock() : 0)") // Default stock
+    @Mapping(target = "stockShardCount", ignore = true) // Enabled via ShardedStockCounter
     @Mapping(target = "unitOfMeasure", expression = "java(dto.getUnitOfMeasure() != null ? dto.getUnitOfMeasure() : \"unidad\")") // Default unit
     @Mapping(target = "purchasePrice", expression = "java(dto.getPurchasePrice() != null ? dto.getPurchasePrice() : java.math.BigDecimal.ZERO)") // Default price
-    @Mapping(target = "context", expression = "java(dto.getContext() != null ? dto.getContext() : new java.util.HashMap<>())")
+    @Mapping(target = "context", expression = "java(com.hsoft.model.types.v1.JsonContext.of(dto.getContext()))")
     Product productCreateRequestDTOToProduct(ProductCreateRequestDTO dto);
 
     // --- Update Entity from DTO ---
@@ -43,8 +46,10 @@ public interface ProductMapper {
     @Mapping(target = "user", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "active", ignore = true) // Usually updated via specific endpoint
     @Mapping(target = "currentStock", ignore = true) // Usually updated via transactions/adjustments
+    @Mapping(target = "stockShardCount", ignore = true)
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateProductFromDto(ProductUpdateRequestDTO dto, @MappingTarget Product product);
 }
@@ -10,7 +10,7 @@ import org.mapstruct.*;
 import java.util.HashMap;
 import java.util.List;
 
-@Mapper(componentModel = "spring",
+@Mapper(componentModel = "spring", uses = JsonContextMapper.class,
         nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
 public interface ProviderMapper {
 
@@ -29,8 +29,9 @@ public interface ProviderMapper {
     @Mapping(target = "user", ignore = true) // Set by service
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "isActive", expression = "java(dto.getIsActive() != null ? dto.getIsActive() : true)")
-    @Mapping(target = "context", expression = "java(dto.getContext() != null ? dto.getContext() : new java.util.HashMap<>())")
+    @Mapping(target = "context", expression = "java(com.hsoft.model.types.v1.JsonContext.of(dto.getContext()))")
     Provider providerCreateRequestDTOToProvider(ProviderCreateRequestDTO dto);
 
     // --- Update Entity from DTO ---
@@ -39,6 +40,7 @@ public interface ProviderMapper {
     @Mapping(target = "user", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "active", ignore = true)
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateProviderFromDto(ProviderUpdateRequestDTO dto, @MappingTarget Provider provider);
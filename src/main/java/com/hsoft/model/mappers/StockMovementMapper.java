@@ -0,0 +1,23 @@
+package com.hsoft.model.mappers;
+
+import com.hsoft.model.dto.v1.products.StockMovementResponseDTO;
+import com.hsoft.model.entities.v1.StockMovement;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface StockMovementMapper {
+
+    // --- Entity to DTO ---
+
+    @Mapping(target = "productId", source = "product.productId")
+    @Mapping(target = "transactionId", source = "transaction.transactionId")
+    @Mapping(target = "createdByUserId", source = "createdByUser.userId")
+    StockMovementResponseDTO stockMovementToStockMovementResponseDTO(StockMovement movement);
+
+    List<StockMovementResponseDTO> stockMovementsToStockMovementResponseDTOs(List<StockMovement> movements);
+
+    // Movements are created through StockLedger, never mapped from request DTOs
+}
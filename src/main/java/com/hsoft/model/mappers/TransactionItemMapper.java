@@ -8,8 +8,8 @@ import org.mapstruct.*;
 import java.util.HashMap;
 import java.util.List;
 
-// Uses ProductMapper to map the nested ProductSummaryResponseDTO
-@Mapper(componentModel = "spring", uses = {ProductMapper.class})
+// Uses ProductMapper to map the nested ProductSummaryResponseDTO, MoneyMapper for prices
+@Mapper(componentModel = "spring", uses = {ProductMapper.class, MoneyMapper.class, JsonContextMapper.class})
 public interface TransactionItemMapper {
 
     // --- Entity to DTO ---
@@ -23,12 +23,12 @@ public interface TransactionItemMapper {
 
     // --- DTO to Entity ---
 
-    // Note: Product and Transaction relationships must be set by the service layer AFTER mapping
+    // Note: Product and Transaction relationships must be set AFTER mapping (see assembly.TransactionAssembler)
     @Mapping(target = "itemId", ignore = true)
-    @Mapping(target = "product", ignore = true)    // Service finds/sets entity
+    @Mapping(target = "product", ignore = true)    // Resolved in bulk by TransactionAssembler
     @Mapping(target = "transaction", ignore = true) // Service sets parent entity
     @Mapping(target = "subtotal", ignore = true)  // Calculated in entity/service
-    @Mapping(target = "context", expression = "java(dto.getContext() != null ? dto.getContext() : new java.util.HashMap<>())")
+    @Mapping(target = "context", expression = "java(com.hsoft.model.types.v1.JsonContext.of(dto.getContext()))")
     TransactionItem transactionItemCreateRequestDTOToTransactionItem(TransactionItemCreateRequestDTO dto);
 
     // No update method needed typically, items are usually replaced or transaction cancelled
@@ -12,7 +12,7 @@ import java.util.List;
 
 // Uses other mappers for nested DTOs
 @Mapper(componentModel = "spring",
-        uses = {UserMapper.class, ClientMapper.class, ProviderMapper.class, TransactionItemMapper.class},
+        uses = {UserMapper.class, ClientMapper.class, ProviderMapper.class, TransactionItemMapper.class, MoneyMapper.class, JsonContextMapper.class},
         nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
 public interface TransactionMapper {
 
@@ -25,6 +25,7 @@ public interface TransactionMapper {
     @Mapping(target = "items", source = "items") // Uses TransactionItemMapper.transactionItemsToTransactionItemResponseDTOs
     TransactionDetailResponseDTO transactionToTransactionDetailResponseDTO(Transaction transaction);
 
+    // For paged list views prefer TransactionProjections, which builds these rows in one query
     @Mapping(target = "clientId", source = "client.clientId")
     @Mapping(target = "clientName", source = "client.name") // Assumes client is fetched with transaction for list view
     @Mapping(target = "providerId", source = "provider.providerId")
@@ -47,10 +48,11 @@ public interface TransactionMapper {
     @Mapping(target = "totalAmount", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "transactionType", ignore = true) // Set by service based on endpoint
     @Mapping(target = "status", expression = "java(dto.getStatus() != null ? dto.getStatus() : com.hsoft.model.types.v1.TransactionStatus.COMPLETED)") // Default status
     @Mapping(target = "transactionDate", expression = "java(dto.getTransactionDate() != null ? dto.getTransactionDate() : java.time.OffsetDateTime.now())") // Default date
-    @Mapping(target = "context", expression = "java(dto.getContext() != null ? dto.getContext() : new java.util.HashMap<>())")
+    @Mapping(target = "context", expression = "java(com.hsoft.model.types.v1.JsonContext.of(dto.getContext()))")
     Transaction transactionCreateRequestDTOToTransaction(TransactionCreateRequestDTO dto);
 
 
@@ -65,6 +67,7 @@ public interface TransactionMapper {
     @Mapping(target = "totalAmount", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "transactionType", ignore = true)
     @Mapping(target = "transactionDate", ignore = true) // Typically not updated
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
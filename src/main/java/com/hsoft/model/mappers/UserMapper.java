@@ -12,7 +12,7 @@ import org.mapstruct.*;
 import java.util.HashMap;
 import java.util.List;
 
-@Mapper(componentModel = "spring",
+@Mapper(componentModel = "spring", uses = JsonContextMapper.class,
         nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE) // Useful for PATCH updates
 public interface UserMapper {
 
@@ -41,7 +41,7 @@ public interface UserMapper {
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "isActive", ignore = true) // Service should set default
-    @Mapping(target = "context", expression = "java(dto.getContext() != null ? dto.getContext() : new java.util.HashMap<>())")
+    @Mapping(target = "context", expression = "java(com.hsoft.model.types.v1.JsonContext.of(dto.getContext()))")
     User registerRequestDTOToUser(RegisterRequestDTO dto);
 
     // For Sub-User Creation
@@ -60,7 +60,7 @@ public interface UserMapper {
     @Mapping(target = "companyNit", ignore = true)
     @Mapping(target = "companyAddress", ignore = true)
     @Mapping(target = "companyPhone", ignore = true)
-    @Mapping(target = "context", expression = "java(dto.getContext() != null ? dto.getContext() : new java.util.HashMap<>())")
+    @Mapping(target = "context", expression = "java(com.hsoft.model.types.v1.JsonContext.of(dto.getContext()))")
     User subUserCreateRequestDTOToUser(SubUserCreateRequestDTO dto);
 
     // --- Update Entity from DTO (@MappingTarget) ---
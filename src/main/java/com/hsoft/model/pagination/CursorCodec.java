@@ -0,0 +1,87 @@
+package com.hsoft.model.pagination;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Encodes {@link KeysetCursor}s as opaque, tamper-evident strings.
+ * Format: base64url(payload) + "." + base64url(truncated HMAC-SHA256(payload)).
+ * A cursor only decodes for the entity and order it was issued for.
+ */
+public class CursorCodec {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 16;
+    private static final int MIN_KEY_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    // Mac instances are not thread-safe
+    private final ThreadLocal<Mac> macs;
+
+    public CursorCodec(byte[] secret) {
+        if (secret == null || secret.length < MIN_KEY_BYTES) {
+            throw new IllegalArgumentException("Cursor secret must be at least " + MIN_KEY_BYTES + " bytes.");
+        }
+        this.key = new SecretKeySpec(secret.clone(), HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String encode(KeysetCursor cursor) {
+        // Sort value goes last so it may contain the separator
+        String payload = cursor.getEntityName() + '|' + cursor.getOrder().name() + '|' + cursor.getId() + '|'
+                + cursor.getOrder().formatValue(cursor.getSortValue());
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + '.' + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * Decodes and verifies a cursor issued for the given entity and order.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed, tampered with or issued for another query
+     */
+    public KeysetCursor decode(String token, String expectedEntityName, KeysetOrder expectedOrder) {
+        int dot = token != null ? token.indexOf('.') : -1;
+        if (dot <= 0) {
+            throw new IllegalArgumentException("Malformed cursor.");
+        }
+        try {
+            byte[] payloadBytes = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+                throw new IllegalArgumentException("Invalid or tampered cursor.");
+            }
+            String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|", 4);
+            if (parts.length != 4 || !parts[0].equals(expectedEntityName) || !parts[1].equals(expectedOrder.name())) {
+                throw new IllegalArgumentException("Cursor was not issued for this query.");
+            }
+            return new KeysetCursor(parts[0], expectedOrder, expectedOrder.parseValue(parts[3]), UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor.", e);
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        return Arrays.copyOf(macs.get().doFinal(payload), SIGNATURE_BYTES);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + HMAC_ALGORITHM, e);
+        }
+    }
+}
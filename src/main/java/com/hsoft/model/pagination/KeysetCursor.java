@@ -0,0 +1,16 @@
+package com.hsoft.model.pagination;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Position after the last row of a page: the sort value and id of that row.
+ */
+@Value
+public class KeysetCursor {
+    String entityName;
+    KeysetOrder order;
+    Object sortValue;
+    UUID id;
+}
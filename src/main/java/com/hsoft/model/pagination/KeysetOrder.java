@@ -0,0 +1,45 @@
+package com.hsoft.model.pagination;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Supported keyset sort orders. Each order sorts on (sortAttribute, id) so the key is unique and stable.
+ */
+public enum KeysetOrder {
+    // Newest first; used for transactions
+    TRANSACTION_DATE_DESC("transactionDate", true, OffsetDateTime.class),
+    // Alphabetical; used for product/client/provider catalogs
+    NAME_ASC("name", false, String.class),
+    // Most recently updated first; used for catalog sync views
+    UPDATED_AT_DESC("updatedAt", true, OffsetDateTime.class);
+
+    private final String sortAttribute;
+    private final boolean descending;
+    private final Class<?> valueType;
+
+    KeysetOrder(String sortAttribute, boolean descending, Class<?> valueType) {
+        this.sortAttribute = sortAttribute;
+        this.descending = descending;
+        this.valueType = valueType;
+    }
+
+    public String getSortAttribute() {
+        return sortAttribute;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public Class<?> getValueType() {
+        return valueType;
+    }
+
+    String formatValue(Object value) {
+        return valueType == OffsetDateTime.class ? ((OffsetDateTime) value).toString() : (String) value;
+    }
+
+    Object parseValue(String text) {
+        return valueType == OffsetDateTime.class ? OffsetDateTime.parse(text) : text;
+    }
+}
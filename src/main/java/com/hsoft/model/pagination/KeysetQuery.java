@@ -0,0 +1,136 @@
+package com.hsoft.model.pagination;
+
+import com.hsoft.model.dto.v1.commons.CursorPageResponseDTO;
+import com.hsoft.model.entities.v1.Client;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Provider;
+import com.hsoft.model.entities.v1.Transaction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Builds keyset-paginated queries over a tenant's rows, ordered by (sort attribute, id).
+ * Each page seeks past the previous page's last key instead of using OFFSET,
+ * so the cost of a page does not depend on how deep it is.
+ */
+public class KeysetQuery<E> {
+
+    private final Class<E> entityClass;
+    private final String idAttribute;
+    private final KeysetOrder order;
+    private final Function<E, Object> sortValueOf;
+    private final Function<E, UUID> idOf;
+
+    public KeysetQuery(Class<E> entityClass, String idAttribute, KeysetOrder order,
+                       Function<E, Object> sortValueOf, Function<E, UUID> idOf) {
+        this.entityClass = entityClass;
+        this.idAttribute = idAttribute;
+        this.order = order;
+        this.sortValueOf = sortValueOf;
+        this.idOf = idOf;
+    }
+
+    // --- Query builders per aggregate (backed by the composite indexes declared on each entity) ---
+
+    public static KeysetQuery<Transaction> transactions() {
+        return new KeysetQuery<>(Transaction.class, "transactionId", KeysetOrder.TRANSACTION_DATE_DESC,
+                Transaction::getTransactionDate, Transaction::getTransactionId);
+    }
+
+    public static KeysetQuery<Product> products(KeysetOrder order) {
+        return new KeysetQuery<>(Product.class, "productId", requireCatalogOrder(order),
+                p -> order == KeysetOrder.NAME_ASC ? p.getName() : p.getUpdatedAt(), Product::getProductId);
+    }
+
+    public static KeysetQuery<Client> clients(KeysetOrder order) {
+        return new KeysetQuery<>(Client.class, "clientId", requireCatalogOrder(order),
+                c -> order == KeysetOrder.NAME_ASC ? c.getName() : c.getUpdatedAt(), Client::getClientId);
+    }
+
+    public static KeysetQuery<Provider> providers(KeysetOrder order) {
+        return new KeysetQuery<>(Provider.class, "providerId", requireCatalogOrder(order),
+                p -> order == KeysetOrder.NAME_ASC ? p.getName() : p.getUpdatedAt(), Provider::getProviderId);
+    }
+
+    private static KeysetOrder requireCatalogOrder(KeysetOrder order) {
+        if (order != KeysetOrder.NAME_ASC && order != KeysetOrder.UPDATED_AT_DESC) {
+            throw new IllegalArgumentException("Unsupported catalog order: " + order);
+        }
+        return order;
+    }
+
+    // --- JPQL ---
+
+    public String getEntityName() {
+        return entityClass.getSimpleName();
+    }
+
+    public KeysetOrder getOrder() {
+        return order;
+    }
+
+    /**
+     * JPQL for one page; when {@code afterCursor} is true the query expects :sortValue and :lastId.
+     * The seek is a row comparison, {@code (sort, id) < (:sortValue, :lastId)}, which PostgreSQL
+     * turns into a single range start on the (user, sort, id) index.
+     */
+    public String toJpql(boolean afterCursor) {
+        String sort = "e." + order.getSortAttribute();
+        String id = "e." + idAttribute;
+        String cmp = order.isDescending() ? "<" : ">";
+        String direction = order.isDescending() ? " desc" : " asc";
+
+        StringBuilder jpql = new StringBuilder(256)
+                .append("select e from ").append(getEntityName()).append(" e where e.user.userId = :userId");
+        if (afterCursor) {
+            jpql.append(" and (").append(sort).append(", ").append(id).append(") ")
+                    .append(cmp).append(" (:sortValue, :lastId)");
+        }
+        return jpql.append(" order by ").append(sort).append(direction)
+                .append(", ").append(id).append(direction)
+                .toString();
+    }
+
+    /**
+     * Fetches up to {@code size + 1} rows after the cursor; the extra row only signals that a next page exists.
+     */
+    public List<E> fetch(EntityManager em, UUID userId, KeysetCursor after, int size) {
+        TypedQuery<E> query = em.createQuery(toJpql(after != null), entityClass)
+                .setParameter("userId", userId)
+                .setMaxResults(size + 1);
+        if (after != null) {
+            query.setParameter("sortValue", after.getSortValue())
+                    .setParameter("lastId", after.getId());
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Fetches and maps one page, decoding the incoming cursor and encoding the next one with {@code codec}.
+     */
+    public <D> CursorPageResponseDTO<D> page(EntityManager em, CursorCodec codec, UUID userId,
+                                             String cursor, int size, Function<E, D> mapper) {
+        KeysetCursor after = cursor != null && !cursor.isBlank()
+                ? codec.decode(cursor, getEntityName(), order)
+                : null;
+        List<E> rows = fetch(em, userId, after, size);
+
+        boolean hasNext = rows.size() > size;
+        int count = hasNext ? size : rows.size();
+        List<D> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(mapper.apply(rows.get(i)));
+        }
+        String nextCursor = hasNext ? codec.encode(cursorAfter(rows.get(count - 1))) : null;
+        return new CursorPageResponseDTO<>(items, nextCursor, hasNext);
+    }
+
+    public KeysetCursor cursorAfter(E row) {
+        return new KeysetCursor(getEntityName(), order, sortValueOf.apply(row), idOf.apply(row));
+    }
+}
@@ -0,0 +1,68 @@
+package com.hsoft.model.projections;
+
+import com.hsoft.model.dto.v1.commons.ClientSummaryResponseDTO;
+import com.hsoft.model.dto.v1.commons.ProductSummaryResponseDTO;
+import com.hsoft.model.dto.v1.commons.ProviderSummaryResponseDTO;
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Constructor-expression projections for product, client and provider list views.
+ * Summary DTOs are instantiated directly by the query; no entities are managed.
+ * With {@code activeOnly} false, inactive rows are listed too, as the entity-based lists do.
+ */
+public final class CatalogProjections {
+
+    public static final String PRODUCT_SUMMARIES_BY_USER =
+            "select new com.hsoft.model.dto.v1.commons.ProductSummaryResponseDTO(p.productId, p.sku, p.name) " +
+            "from Product p " +
+            "where p.user.userId = :userId and (p.isActive = true or :activeOnly = false) " +
+            "order by p.name, p.productId";
+
+    public static final String CLIENT_SUMMARIES_BY_USER =
+            "select new com.hsoft.model.dto.v1.commons.ClientSummaryResponseDTO(c.clientId, c.name, c.nit) " +
+            "from Client c " +
+            "where c.user.userId = :userId and (c.isActive = true or :activeOnly = false) " +
+            "order by c.name, c.clientId";
+
+    public static final String PROVIDER_SUMMARIES_BY_USER =
+            "select new com.hsoft.model.dto.v1.commons.ProviderSummaryResponseDTO(p.providerId, p.name, p.nit) " +
+            "from Provider p " +
+            "where p.user.userId = :userId and (p.isActive = true or :activeOnly = false) " +
+            "order by p.name, p.providerId";
+
+    private CatalogProjections() {
+    }
+
+    public static List<ProductSummaryResponseDTO> findProductSummariesByUser(EntityManager em, UUID userId,
+                                                                             boolean activeOnly, int firstResult, int maxResults) {
+        return em.createQuery(PRODUCT_SUMMARIES_BY_USER, ProductSummaryResponseDTO.class)
+                .setParameter("userId", userId)
+                .setParameter("activeOnly", activeOnly)
+                .setFirstResult(firstResult)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    public static List<ClientSummaryResponseDTO> findClientSummariesByUser(EntityManager em, UUID userId,
+                                                                           boolean activeOnly, int firstResult, int maxResults) {
+        return em.createQuery(CLIENT_SUMMARIES_BY_USER, ClientSummaryResponseDTO.class)
+                .setParameter("userId", userId)
+                .setParameter("activeOnly", activeOnly)
+                .setFirstResult(firstResult)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    public static List<ProviderSummaryResponseDTO> findProviderSummariesByUser(EntityManager em, UUID userId,
+                                                                               boolean activeOnly, int firstResult, int maxResults) {
+        return em.createQuery(PROVIDER_SUMMARIES_BY_USER, ProviderSummaryResponseDTO.class)
+                .setParameter("userId", userId)
+                .setParameter("activeOnly", activeOnly)
+                .setFirstResult(firstResult)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+}
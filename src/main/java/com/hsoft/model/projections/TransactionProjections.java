@@ -0,0 +1,100 @@
+package com.hsoft.model.projections;
+
+import com.hsoft.model.dto.v1.commons.UserSummaryResponseDTO;
+import com.hsoft.model.dto.v1.transactions.TransactionSummaryResponseDTO;
+import com.hsoft.model.types.v1.Money;
+import com.hsoft.model.types.v1.TransactionStatus;
+import com.hsoft.model.types.v1.TransactionType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read projections for transaction list views.
+ * Rows are built from a single scalar query (left joins on client/provider/creator),
+ * so no Transaction entities are hydrated or registered in the persistence context.
+ */
+public final class TransactionProjections {
+
+    public static final String SUMMARY_SELECT =
+            "select t.transactionId as transactionId, t.transactionType as transactionType, " +
+            "c.clientId as clientId, c.name as clientName, " +
+            "p.providerId as providerId, p.name as providerName, " +
+            "t.transactionDate as transactionDate, t.referenceNumber as referenceNumber, " +
+            "t.totalAmount as totalAmount, t.status as status, " +
+            "u.userId as createdByUserId, u.username as createdByUsername, " +
+            "t.createdAt as createdAt " +
+            "from Transaction t " +
+            "left join t.client c " +
+            "left join t.provider p " +
+            "left join t.createdByUser u ";
+
+    public static final String SUMMARIES_BY_USER = SUMMARY_SELECT +
+            "where t.user.userId = :userId " +
+            "order by t.transactionDate desc, t.transactionId desc";
+
+    public static final String SUMMARIES_BY_USER_AND_TYPE = SUMMARY_SELECT +
+            "where t.user.userId = :userId and t.transactionType = :transactionType " +
+            "order by t.transactionDate desc, t.transactionId desc";
+
+    private TransactionProjections() {
+    }
+
+    public static List<TransactionSummaryResponseDTO> findSummariesByUser(EntityManager em, UUID userId,
+                                                                          int firstResult, int maxResults) {
+        List<Tuple> rows = em.createQuery(SUMMARIES_BY_USER, Tuple.class)
+                .setParameter("userId", userId)
+                .setFirstResult(firstResult)
+                .setMaxResults(maxResults)
+                .getResultList();
+        return toSummaries(rows);
+    }
+
+    public static List<TransactionSummaryResponseDTO> findSummariesByUserAndType(EntityManager em, UUID userId,
+                                                                                 TransactionType transactionType,
+                                                                                 int firstResult, int maxResults) {
+        List<Tuple> rows = em.createQuery(SUMMARIES_BY_USER_AND_TYPE, Tuple.class)
+                .setParameter("userId", userId)
+                .setParameter("transactionType", transactionType)
+                .setFirstResult(firstResult)
+                .setMaxResults(maxResults)
+                .getResultList();
+        return toSummaries(rows);
+    }
+
+    public static List<TransactionSummaryResponseDTO> toSummaries(List<Tuple> rows) {
+        List<TransactionSummaryResponseDTO> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            result.add(toSummary(row));
+        }
+        return result;
+    }
+
+    /**
+     * Maps one row selected with the {@link #SUMMARY_SELECT} aliases.
+     */
+    public static TransactionSummaryResponseDTO toSummary(Tuple row) {
+        UUID createdByUserId = row.get("createdByUserId", UUID.class);
+        Money totalAmount = row.get("totalAmount", Money.class);
+        return TransactionSummaryResponseDTO.builder()
+                .transactionId(row.get("transactionId", UUID.class))
+                .transactionType(row.get("transactionType", TransactionType.class))
+                .clientId(row.get("clientId", UUID.class))
+                .clientName(row.get("clientName", String.class))
+                .providerId(row.get("providerId", UUID.class))
+                .providerName(row.get("providerName", String.class))
+                .transactionDate(row.get("transactionDate", OffsetDateTime.class))
+                .referenceNumber(row.get("referenceNumber", String.class))
+                .totalAmount(totalAmount != null ? totalAmount.toBigDecimal() : null)
+                .status(row.get("status", TransactionStatus.class))
+                .createdByUser(createdByUserId != null
+                        ? new UserSummaryResponseDTO(createdByUserId, row.get("createdByUsername", String.class))
+                        : null)
+                .createdAt(row.get("createdAt", OffsetDateTime.class))
+                .build();
+    }
+}
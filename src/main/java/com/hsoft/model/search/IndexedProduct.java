@@ -0,0 +1,167 @@
+package com.hsoft.model.search;
+
+import com.hsoft.model.dto.v1.commons.ProductSummaryResponseDTO;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One product as held by a {@link TenantSearchIndex}: display fields plus their normalized words.
+ * Inactive products are kept as tombstones (no postings) so that an older snapshot cannot bring them back.
+ */
+final class IndexedProduct {
+
+    // Field flags of a word occurrence, stored in the postings
+    static final int SKU = 1, NAME = 2, CATEGORY = 4, DESCRIPTION = 8, LEADING = 16;
+    static final int FLAG_BITS = 5;
+
+    // Per-token match weights: exact word > word prefix > inside a word
+    static final int SKU_EXACT = 60, SKU_PREFIX = 45, SKU_INFIX = 12;
+    static final int NAME_EXACT = 40, NAME_PREFIX = 30, NAME_INFIX = 15;
+    static final int CATEGORY_EXACT = 20, CATEGORY_PREFIX = 10, CATEGORY_INFIX = 6;
+    static final int DESCRIPTION_MATCH = 4;   // Descriptions are matched by word prefix only
+    static final int NAME_LEADING_BONUS = 5;  // Query word matches the start of the name
+    static final int FULL_SKU_BONUS = 100;    // Whole query is the SKU (barcode/scanner input)
+
+    final UUID productId;
+    final String sku;
+    final String name;
+    final long version;
+    final boolean active;
+
+    final String sortName;
+    final long sortKey; // First chars of sortName packed for cheap ranking comparisons
+    final String compactSku;
+    final List<String> skuTokens;
+    final List<String> nameTokens;
+    final List<String> categoryTokens;
+    final List<String> descriptionTokens;
+
+    IndexedProduct(UUID productId, String sku, String name, String category, String description,
+                   boolean active, Long version) {
+        this.productId = productId;
+        this.sku = sku;
+        this.name = name;
+        this.version = version != null ? version : 0L;
+        this.active = active;
+        this.sortName = SearchText.normalize(name);
+        this.sortKey = packPrefix(sortName);
+        this.compactSku = SearchText.compact(sku);
+        this.skuTokens = SearchText.tokens(sku);
+        this.nameTokens = SearchText.tokens(name);
+        this.categoryTokens = SearchText.tokens(category);
+        this.descriptionTokens = SearchText.tokens(description);
+    }
+
+    // Every distinct word with the fields it occurs in, for exact/prefix lookups
+    Map<String, Integer> words() {
+        Map<String, Integer> words = new HashMap<>();
+        addWords(words, descriptionTokens, DESCRIPTION);
+        addWords(words, categoryTokens, CATEGORY);
+        addWords(words, nameTokens, NAME);
+        addWords(words, skuTokens, SKU);
+        if (!nameTokens.isEmpty()) {
+            words.merge(nameTokens.get(0), LEADING, (a, b) -> a | b);
+        }
+        return words;
+    }
+
+    // N-grams inside (not at the start of) the words of the short fields, with the fields they occur in,
+    // for in-word lookups: a token found inside a word only has such grams
+    Map<String, Integer> grams() {
+        Map<String, Integer> grams = new HashMap<>();
+        addInsideGrams(grams, skuTokens, SKU);
+        addInsideGrams(grams, nameTokens, NAME);
+        addInsideGrams(grams, categoryTokens, CATEGORY);
+        return grams;
+    }
+
+    /**
+     * Weight of a query token that equals ({@code exact}) or prefixes a word occurring in {@code fields}.
+     */
+    static int wordWeight(int fields, boolean exact) {
+        int weight = 0;
+        if ((fields & SKU) != 0) {
+            weight = exact ? SKU_EXACT : SKU_PREFIX;
+        }
+        if ((fields & NAME) != 0) {
+            int nameWeight = (exact ? NAME_EXACT : NAME_PREFIX) + ((fields & LEADING) != 0 ? NAME_LEADING_BONUS : 0);
+            weight = Math.max(weight, nameWeight);
+        }
+        if ((fields & CATEGORY) != 0) {
+            weight = Math.max(weight, exact ? CATEGORY_EXACT : CATEGORY_PREFIX);
+        }
+        if ((fields & DESCRIPTION) != 0) {
+            weight = Math.max(weight, DESCRIPTION_MATCH);
+        }
+        return weight;
+    }
+
+    /**
+     * Weight of a token found inside (not at the start of) a word occurring in {@code fields}.
+     */
+    static int inWordWeight(int fields) {
+        int weight = 0;
+        if ((fields & SKU) != 0) {
+            weight = SKU_INFIX;
+        }
+        if ((fields & NAME) != 0) {
+            weight = Math.max(weight, NAME_INFIX);
+        }
+        if ((fields & CATEGORY) != 0) {
+            weight = Math.max(weight, CATEGORY_INFIX);
+        }
+        return weight;
+    }
+
+    /**
+     * Weight of a token found inside (not at the start of) a word; 0 if it is not (n-grams can false-match).
+     */
+    int infixWeight(String token) {
+        if (containsInside(skuTokens, token)) {
+            return Math.max(SKU_INFIX, containsInside(nameTokens, token) ? NAME_INFIX : 0);
+        }
+        if (containsInside(nameTokens, token)) {
+            return NAME_INFIX;
+        }
+        return containsInside(categoryTokens, token) ? CATEGORY_INFIX : 0;
+    }
+
+    ProductSummaryResponseDTO toSummary() {
+        return new ProductSummaryResponseDTO(productId, sku, name);
+    }
+
+    private static void addWords(Map<String, Integer> words, List<String> tokens, int field) {
+        for (String token : tokens) {
+            words.merge(token, field, (a, b) -> a | b);
+        }
+    }
+
+    private static void addInsideGrams(Map<String, Integer> grams, List<String> tokens, int field) {
+        for (String token : tokens) {
+            for (int i = 1; i + SearchText.GRAM_LENGTH <= token.length(); i++) {
+                grams.merge(token.substring(i, i + SearchText.GRAM_LENGTH), field, (a, b) -> a | b);
+            }
+        }
+    }
+
+    private static boolean containsInside(List<String> tokens, String token) {
+        for (String word : tokens) {
+            if (word.indexOf(token, 1) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Four UTF-16 units in a long, compared unsigned: same order as String.compareTo on those chars
+    private static long packPrefix(String text) {
+        long key = 0L;
+        for (int i = 0; i < 4; i++) {
+            key = (key << 16) | (i < text.length() ? text.charAt(i) : 0);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,169 @@
+package com.hsoft.model.search;
+
+import com.hsoft.model.dto.v1.commons.ProductSummaryResponseDTO;
+import com.hsoft.model.dto.v1.products.ProductCreateRequestDTO;
+import com.hsoft.model.dto.v1.products.ProductUpdateRequestDTO;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.mappers.ProductMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory, per-tenant product search for the POS: matches partial words of the name, SKU,
+ * category and description, ignoring accents and case, and ranks exact/prefix matches first.
+ * <p>
+ * A tenant's index is built with one query on its first search. After that it is kept up to date by the
+ * write paths below, applied after commit; snapshots carry the product version, so an older one never
+ * overwrites a newer one. Deactivated products drop out of the results.
+ * <ul>
+ *     <li>{@link #createProduct} / {@link #updateProduct} wrap the {@link ProductMapper} flows;</li>
+ *     <li>{@link #indexAfterCommit} covers any other change (deactivation, imports), called after the last edit.</li>
+ * </ul>
+ */
+public class ProductSearchIndex {
+
+    public static final int DEFAULT_LIMIT = 20;
+
+    private static final String INDEXED_PRODUCTS =
+            "select p.productId, p.sku, p.name, p.category, p.description, p.isActive, p.version " +
+            "from Product p where p.user.userId = :userId";
+
+    private final ConcurrentMap<UUID, TenantSearchIndex> tenants = new ConcurrentHashMap<>();
+
+    // --- Search ---
+
+    public List<ProductSummaryResponseDTO> search(EntityManager em, UUID userId, String query) {
+        return search(em, userId, query, DEFAULT_LIMIT);
+    }
+
+    /**
+     * @return up to {@code limit} active products, best match first
+     */
+    public List<ProductSummaryResponseDTO> search(EntityManager em, UUID userId, String query, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1.");
+        }
+        List<String> queryTokens = SearchText.tokens(query);
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+        TenantSearchIndex index = loadedIndex(em, userId);
+        List<IndexedProduct> matches = index.search(queryTokens, SearchText.compact(query), limit);
+        List<ProductSummaryResponseDTO> result = new ArrayList<>(matches.size());
+        for (IndexedProduct match : matches) {
+            result.add(match.toSummary());
+        }
+        return result;
+    }
+
+    // --- Write paths ---
+
+    /**
+     * Maps and persists a new product for {@code owner}; it becomes searchable once the transaction commits.
+     */
+    public Product createProduct(Session session, ProductMapper mapper, ProductCreateRequestDTO dto, User owner) {
+        Product product = mapper.productCreateRequestDTOToProduct(dto);
+        product.setUser(owner);
+        session.persist(product);
+        indexAfterCommit(session, product);
+        return product;
+    }
+
+    /**
+     * Applies {@link ProductMapper#updateProductFromDto} and re-indexes the product after commit.
+     */
+    public void updateProduct(Session session, ProductMapper mapper, ProductUpdateRequestDTO dto, Product product) {
+        mapper.updateProductFromDto(dto, product);
+        indexAfterCommit(session, product);
+    }
+
+    /**
+     * Snapshots the product now and indexes the snapshot once the transaction commits
+     * (immediately when no transaction is active).
+     */
+    public void indexAfterCommit(Session session, Product product) {
+        UUID userId = product.getUser().getUserId();
+        IndexedProduct snapshot = snapshot(product);
+        afterCommit(session, () -> apply(userId, snapshot));
+    }
+
+    // For hard deletes; deactivation goes through indexAfterCommit
+    public void remove(UUID userId, UUID productId) {
+        TenantSearchIndex index = tenants.get(userId);
+        if (index != null) {
+            index.remove(productId);
+        }
+    }
+
+    // Drops the tenant's index (e.g. after a bulk import); the next search rebuilds it
+    public void evictTenant(UUID userId) {
+        tenants.remove(userId);
+    }
+
+    public int size(UUID userId) {
+        TenantSearchIndex index = tenants.get(userId);
+        return index != null ? index.size() : 0;
+    }
+
+    // --- Internals ---
+
+    private void apply(UUID userId, IndexedProduct snapshot) {
+        TenantSearchIndex index = tenants.get(userId);
+        if (index != null) { // Tenants not loaded yet will read the change from the database
+            index.apply(snapshot);
+        }
+    }
+
+    private TenantSearchIndex loadedIndex(EntityManager em, UUID userId) {
+        TenantSearchIndex index = tenants.computeIfAbsent(userId, id -> new TenantSearchIndex());
+        if (!index.loaded) {
+            synchronized (index) {
+                if (!index.loaded) {
+                    // Updates committed meanwhile are applied concurrently; versions keep the newest
+                    List<Object[]> rows = em.createQuery(INDEXED_PRODUCTS, Object[].class)
+                            .setParameter("userId", userId)
+                            .getResultList();
+                    for (Object[] row : rows) {
+                        index.apply(new IndexedProduct((UUID) row[0], (String) row[1], (String) row[2],
+                                (String) row[3], (String) row[4], (Boolean) row[5], (Long) row[6]));
+                    }
+                    index.loaded = true;
+                }
+            }
+        }
+        return index;
+    }
+
+    private static IndexedProduct snapshot(Product product) {
+        return new IndexedProduct(product.getProductId(), product.getSku(), product.getName(), product.getCategory(),
+                product.getDescription(), product.isActive(), product.getVersion());
+    }
+
+    private static void afterCommit(Session session, Runnable update) {
+        if (!session.getTransaction().isActive()) {
+            update.run();
+            return;
+        }
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    update.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.hsoft.model.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Text normalization shared by indexing and querying: accents and case are folded
+ * ("Café Ñandú" -> "cafe nandu"), words are split on anything that is not a letter or digit.
+ */
+final class SearchText {
+
+    static final int GRAM_LENGTH = 3;
+    // Shorter query tokens only match whole words: a one-letter prefix would scan a large part of the word map
+    static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    private SearchText() {
+    }
+
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // "SKU-Widget red" -> "skuwidgetred": lets scanned or typed codes match regardless of separators
+    static String compact(String text) {
+        return SEPARATORS.matcher(normalize(text)).replaceAll("");
+    }
+
+    static void addGrams(String token, Collection<String> grams) {
+        for (int i = 0; i + GRAM_LENGTH <= token.length(); i++) {
+            grams.add(token.substring(i, i + GRAM_LENGTH));
+        }
+    }
+}
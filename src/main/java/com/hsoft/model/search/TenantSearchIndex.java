@@ -0,0 +1,379 @@
+package com.hsoft.model.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Search structures of one tenant's catalog. Active products get a dense slot number; postings are
+ * int arrays of {@code slot << FLAG_BITS | fields} in a sorted word map (exact/prefix lookups via
+ * {@code subMap}) and in a map of the trigrams inside words (in-word lookups: a three-letter token is
+ * scored straight from its postings, longer ones are verified on the intersected candidates). Scores are
+ * accumulated per slot straight from the postings, so a query costs O(postings touched) rather than a
+ * per-product check; the best
+ * {@code limit} are then picked with a bounded heap.
+ * <p>
+ * Removing a product only marks its slot dead: queries skip dead slots, and once they exceed
+ * {@code 1 / COMPACTION_RATIO} of the slots one sweep drops their postings and frees the slots,
+ * so an update costs O(its own words) plus an amortized share of the sweep instead of a scan per posting list.
+ * Readers share a read lock; incremental updates take the write lock briefly.
+ */
+final class TenantSearchIndex {
+
+    private static final int FLAG_MASK = (1 << IndexedProduct.FLAG_BITS) - 1;
+    private static final int COMPACTION_RATIO = 8;
+    private static final int[] EXACT_WEIGHTS = new int[FLAG_MASK + 1];
+    private static final int[] PREFIX_WEIGHTS = new int[FLAG_MASK + 1];
+    private static final int[] IN_WORD_WEIGHTS = new int[FLAG_MASK + 1];
+
+    static {
+        for (int fields = 0; fields <= FLAG_MASK; fields++) {
+            EXACT_WEIGHTS[fields] = IndexedProduct.wordWeight(fields, true);
+            PREFIX_WEIGHTS[fields] = IndexedProduct.wordWeight(fields, false);
+            IN_WORD_WEIGHTS[fields] = IndexedProduct.inWordWeight(fields);
+        }
+    }
+
+    private final Map<UUID, IndexedProduct> products = new HashMap<>(); // Including inactive tombstones
+    private final Map<UUID, Integer> slotsById = new HashMap<>();
+    private final List<IndexedProduct> slots = new ArrayList<>();
+    private long[] sortKeys = new long[16]; // Per slot: ranks ties by name without loading the product
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final NavigableMap<String, Postings> words = new TreeMap<>();
+    private final Map<String, Postings> grams = new HashMap<>();
+    private final Map<String, Postings> compactSkus = new HashMap<>();
+    private final BitSet deadSlots = new BitSet(); // Unposted, but still in the postings until the next sweep
+    private int deadSlotCount;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    volatile boolean loaded;
+
+    /**
+     * Stores the snapshot unless a newer version of the product is already indexed.
+     */
+    void apply(IndexedProduct product) {
+        lock.writeLock().lock();
+        try {
+            IndexedProduct previous = products.get(product.productId);
+            if (previous != null && previous.version > product.version) {
+                return;
+            }
+            unpost(product.productId);
+            products.put(product.productId, product);
+            if (product.active) {
+                post(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(UUID productId) {
+        lock.writeLock().lock();
+        try {
+            unpost(productId);
+            products.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<IndexedProduct> search(List<String> queryTokens, String compactQuery, int limit) {
+        lock.readLock().lock();
+        try {
+            int[] totals = null;
+            BitSet matching = null;
+            for (String token : queryTokens) {
+                int[] weights = new int[slots.size()];
+                BitSet tokenMatches = scoreToken(token, weights, matching);
+                if (matching == null) {
+                    matching = tokenMatches;
+                    totals = weights;
+                } else {
+                    matching.and(tokenMatches); // Every token must match
+                    for (int slot = matching.nextSetBit(0); slot >= 0; slot = matching.nextSetBit(slot + 1)) {
+                        totals[slot] += weights[slot];
+                    }
+                }
+                if (matching.isEmpty()) {
+                    return List.of();
+                }
+            }
+            if (matching == null) {
+                return List.of();
+            }
+            Postings fullSku = compactSkus.get(compactQuery);
+            if (fullSku != null) {
+                for (int i = 0; i < fullSku.size; i++) {
+                    int slot = fullSku.entries[i] >>> IndexedProduct.FLAG_BITS;
+                    if (matching.get(slot)) {
+                        totals[slot] += IndexedProduct.FULL_SKU_BONUS;
+                    }
+                }
+            }
+            return best(matching, totals, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Fills {@code weights} with the token's best match weight per slot, straight from the postings:
+     * word map entries for exact and prefix matches, n-grams (then verified) for in-word matches.
+     * Slots outside {@code candidates} (the matches of the previous tokens, null for the first) are skipped.
+     *
+     * @return the slots the token matches
+     */
+    private BitSet scoreToken(String token, int[] weights, BitSet candidates) {
+        BitSet matches = new BitSet(weights.length);
+        for (Map.Entry<String, Postings> word : matchingWords(token).entrySet()) {
+            int[] table = word.getKey().length() == token.length() ? EXACT_WEIGHTS : PREFIX_WEIGHTS;
+            Postings postings = word.getValue();
+            for (int i = 0; i < postings.size; i++) {
+                int entry = postings.entries[i];
+                int slot = entry >>> IndexedProduct.FLAG_BITS;
+                if (deadSlots.get(slot) || candidates != null && !candidates.get(slot)) {
+                    continue;
+                }
+                int weight = table[entry & FLAG_MASK];
+                if (weight > weights[slot]) {
+                    weights[slot] = weight;
+                }
+                matches.set(slot);
+            }
+        }
+        if (token.length() == SearchText.GRAM_LENGTH) {
+            Postings postings = grams.get(token);
+            if (postings != null) {
+                scoreInWord(postings, weights, candidates, matches);
+            }
+        } else if (token.length() > SearchText.GRAM_LENGTH) {
+            BitSet inside = gramCandidates(token);
+            if (candidates != null) {
+                inside.and(candidates);
+            }
+            for (int slot = inside.nextSetBit(0); slot >= 0; slot = inside.nextSetBit(slot + 1)) {
+                if (weights[slot] < IndexedProduct.NAME_INFIX) { // Only an in-word match could still improve it
+                    int weight = slots.get(slot).infixWeight(token);
+                    if (weight > weights[slot]) {
+                        weights[slot] = weight;
+                        matches.set(slot);
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    // The token is a whole gram: its postings already say in which fields it occurs inside a word
+    private void scoreInWord(Postings postings, int[] weights, BitSet candidates, BitSet matches) {
+        for (int i = 0; i < postings.size; i++) {
+            int entry = postings.entries[i];
+            int slot = entry >>> IndexedProduct.FLAG_BITS;
+            if (deadSlots.get(slot) || candidates != null && !candidates.get(slot)) {
+                continue;
+            }
+            int weight = IN_WORD_WEIGHTS[entry & FLAG_MASK];
+            if (weight > weights[slot]) {
+                weights[slot] = weight;
+                matches.set(slot);
+            }
+        }
+    }
+
+    private Map<String, Postings> matchingWords(String token) {
+        if (token.length() >= SearchText.MIN_PREFIX_LENGTH) {
+            return words.subMap(token, true, token + Character.MAX_VALUE, true);
+        }
+        Postings exact = words.get(token);
+        return exact != null ? Map.of(token, exact) : Map.of();
+    }
+
+    // Best 'limit' slots via a bounded heap that keeps the worst retained result on top
+    private List<IndexedProduct> best(BitSet matching, int[] totals, int limit) {
+        PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1, (a, b) -> b.compareTo(a));
+        for (int slot = matching.nextSetBit(0); slot >= 0; slot = matching.nextSetBit(slot + 1)) {
+            int score = totals[slot];
+            if (top.size() == limit) {
+                Scored worst = top.peek();
+                if (score < worst.score
+                        || score == worst.score && Long.compareUnsigned(sortKeys[slot], worst.product.sortKey) > 0) {
+                    continue; // Ranks below the worst kept result: no need to load the product
+                }
+            }
+            IndexedProduct product = slots.get(slot);
+            if (top.size() < limit) {
+                top.offer(new Scored(product, score));
+            } else if (top.peek().compareTo(product, score) > 0) {
+                top.poll();
+                top.offer(new Scored(product, score));
+            }
+        }
+        Scored[] ranked = top.toArray(new Scored[0]);
+        Arrays.sort(ranked);
+        List<IndexedProduct> result = new ArrayList<>(ranked.length);
+        for (Scored scored : ranked) {
+            result.add(scored.product);
+        }
+        return result;
+    }
+
+    // Intersection of the token's trigram postings; verified by infixWeight
+    private BitSet gramCandidates(String token) {
+        List<String> tokenGrams = new ArrayList<>();
+        SearchText.addGrams(token, tokenGrams);
+        BitSet result = null;
+        for (String gram : tokenGrams) {
+            Postings postings = grams.get(gram);
+            if (postings == null) {
+                return new BitSet();
+            }
+            BitSet slotsWithGram = new BitSet(slots.size());
+            for (int i = 0; i < postings.size; i++) {
+                slotsWithGram.set(postings.entries[i] >>> IndexedProduct.FLAG_BITS);
+            }
+            if (result == null) {
+                result = slotsWithGram;
+            } else {
+                result.and(slotsWithGram);
+            }
+        }
+        if (result == null) {
+            return new BitSet();
+        }
+        result.andNot(deadSlots);
+        return result;
+    }
+
+    private void post(IndexedProduct product) {
+        int slot;
+        if (freeSlots.isEmpty()) {
+            slot = slots.size();
+            slots.add(product);
+            if (slot == sortKeys.length) {
+                sortKeys = Arrays.copyOf(sortKeys, slot * 2);
+            }
+        } else {
+            slot = freeSlots.pop();
+            slots.set(slot, product);
+        }
+        slotsById.put(product.productId, slot);
+        sortKeys[slot] = product.sortKey;
+        int entry = slot << IndexedProduct.FLAG_BITS;
+        for (Map.Entry<String, Integer> word : product.words().entrySet()) {
+            words.computeIfAbsent(word.getKey(), w -> new Postings()).add(entry | word.getValue());
+        }
+        for (Map.Entry<String, Integer> gram : product.grams().entrySet()) {
+            grams.computeIfAbsent(gram.getKey(), g -> new Postings()).add(entry | gram.getValue());
+        }
+        if (!product.compactSku.isEmpty()) {
+            compactSkus.computeIfAbsent(product.compactSku, k -> new Postings()).add(entry);
+        }
+    }
+
+    private void unpost(UUID productId) {
+        Integer slot = slotsById.remove(productId);
+        if (slot == null) {
+            return; // Unknown or tombstone
+        }
+        slots.set(slot, null);
+        deadSlots.set(slot);
+        if (++deadSlotCount * COMPACTION_RATIO > slots.size()) {
+            compact();
+        }
+    }
+
+    // One pass over every posting list; dead slots become reusable afterwards
+    private void compact() {
+        compact(words.values());
+        compact(grams.values());
+        compact(compactSkus.values());
+        for (int slot = deadSlots.nextSetBit(0); slot >= 0; slot = deadSlots.nextSetBit(slot + 1)) {
+            freeSlots.push(slot);
+        }
+        deadSlots.clear();
+        deadSlotCount = 0;
+    }
+
+    private void compact(Collection<Postings> postingLists) {
+        for (Iterator<Postings> it = postingLists.iterator(); it.hasNext(); ) {
+            Postings postings = it.next();
+            postings.removeSlots(deadSlots);
+            if (postings.size == 0) {
+                it.remove();
+            }
+        }
+    }
+
+    // Unordered, growable list of {@code slot << FLAG_BITS | fields} entries
+    private static final class Postings {
+        int[] entries = new int[2];
+        int size;
+
+        void add(int entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entries[size++] = entry;
+        }
+
+        void removeSlots(BitSet slots) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!slots.get(entries[i] >>> IndexedProduct.FLAG_BITS)) {
+                    entries[kept++] = entries[i];
+                }
+            }
+            size = kept;
+        }
+    }
+
+    // Natural order = ranking: higher score first, then name, then id
+    private static final class Scored implements Comparable<Scored> {
+        final IndexedProduct product;
+        final int score;
+
+        Scored(IndexedProduct product, int score) {
+            this.product = product;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Scored other) {
+            return compareTo(other.product, other.score);
+        }
+
+        int compareTo(IndexedProduct other, int otherScore) {
+            if (score != otherScore) {
+                return score > otherScore ? -1 : 1;
+            }
+            int byName = Long.compareUnsigned(product.sortKey, other.sortKey);
+            if (byName == 0) {
+                byName = product.sortName.compareTo(other.sortName);
+            }
+            return byName != 0 ? byName : product.productId.compareTo(other.productId);
+        }
+    }
+}
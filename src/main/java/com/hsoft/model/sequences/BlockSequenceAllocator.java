@@ -0,0 +1,88 @@
+package com.hsoft.model.sequences;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hi/lo allocation: a block of numbers is reserved with one short database transaction of its own,
+ * then handed out from memory with a single atomic increment. Only the thread that finds a block
+ * exhausted takes the key's lock to reserve the next one; other keys are never blocked.
+ * <p>
+ * Numbers are increasing within this JVM. With several instances each one owns different blocks,
+ * and numbers left in a block are skipped on restart.
+ */
+class BlockSequenceAllocator {
+
+    private static final Block EXHAUSTED = new Block(0L, 0L);
+
+    private final EntityManagerFactory emf;
+    private final int blockSize;
+    private final ConcurrentMap<SequenceKey, KeyState> states = new ConcurrentHashMap<>();
+
+    BlockSequenceAllocator(EntityManagerFactory emf, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be at least 1.");
+        }
+        this.emf = emf;
+        this.blockSize = blockSize;
+    }
+
+    long next(SequenceKey key) {
+        KeyState state = states.computeIfAbsent(key, k -> new KeyState());
+        while (true) {
+            Block block = state.block;
+            long value = block.next.getAndIncrement(); // Lock-free fast path
+            if (value < block.limit) {
+                return value;
+            }
+            synchronized (state) {
+                if (state.block == block) { // Not refilled by another thread meanwhile
+                    long first = reserve(key);
+                    state.block = new Block(first, first + blockSize);
+                }
+            }
+        }
+    }
+
+    // Drops the in-memory blocks (their remaining numbers are skipped)
+    void clear() {
+        states.clear();
+    }
+
+    private long reserve(SequenceKey key) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            long first = SequenceCounter.reserve(em, key, blockSize);
+            tx.commit();
+            return first;
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static final class KeyState {
+        volatile Block block = EXHAUSTED;
+    }
+
+    private static final class Block {
+        final AtomicLong next;
+        final long limit;
+
+        Block(long first, long limit) {
+            this.next = new AtomicLong(first);
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.hsoft.model.sequences;
+
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.types.v1.TransactionType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.UUID;
+
+/**
+ * Fills {@code Transaction.referenceNumber} from the per-tenant, per-type {@link com.hsoft.model.entities.v1.ReferenceSequence}.
+ * <ul>
+ *     <li>{@link ReferenceSequenceMode#BLOCK}: hi/lo blocks, no database work on most calls and
+ *     no lock held while the caller's transaction runs. Numbers can have gaps.</li>
+ *     <li>{@link ReferenceSequenceMode#GAP_FREE}: the counter row is advanced in the caller's transaction,
+ *     so a rollback gives the number back. The row lock is the critical section: it is held from the
+ *     increment until commit, so call {@link #assign} as the last step and commit right after.
+ *     Pending changes are flushed before the increment to keep that window short.</li>
+ * </ul>
+ * Typical use, inside the caller's transaction:
+ * <pre>{@code
+ * Transaction transaction = assembler.assemble(em, userId, dto);
+ * em.persist(transaction);
+ * assigner.assign(em, transaction); // Last: flushes the inserts, then takes the number (GAP_FREE locks until commit)
+ * tx.commit();
+ * }</pre>
+ */
+public class ReferenceNumberAssigner {
+
+    private final ReferenceSequenceSettings settings;
+    private final BlockSequenceAllocator blocks;
+
+    public ReferenceNumberAssigner(EntityManagerFactory emf) {
+        this(emf, ReferenceSequenceSettings.builder().build());
+    }
+
+    public ReferenceNumberAssigner(EntityManagerFactory emf, ReferenceSequenceSettings settings) {
+        this.settings = settings;
+        this.blocks = new BlockSequenceAllocator(emf, settings.getBlockSize());
+    }
+
+    /**
+     * Assigns a reference number unless the transaction already has one.
+     *
+     * @param em the EntityManager of the caller's active transaction (used in GAP_FREE mode)
+     * @return the transaction's reference number
+     */
+    public String assign(EntityManager em, Transaction transaction) {
+        if (transaction.getReferenceNumber() != null) {
+            return transaction.getReferenceNumber();
+        }
+        if (transaction.getUser() == null || transaction.getTransactionType() == null) {
+            throw new IllegalArgumentException("Transaction user and type must be set before assigning a reference number.");
+        }
+        TransactionType type = transaction.getTransactionType();
+        long value = next(em, transaction.getUser().getUserId(), type);
+        String referenceNumber = settings.getFormatter().format(type, value);
+        transaction.setReferenceNumber(referenceNumber);
+        return referenceNumber;
+    }
+
+    /**
+     * Allocates the next raw value of the tenant's sequence for {@code type}.
+     */
+    public long next(EntityManager em, UUID userId, TransactionType type) {
+        SequenceKey key = new SequenceKey(userId, type);
+        if (settings.modeFor(type) == ReferenceSequenceMode.BLOCK) {
+            return blocks.next(key);
+        }
+        if (!em.isJoinedToTransaction()) {
+            throw new IllegalStateException("Gap-free reference numbers require an active transaction.");
+        }
+        em.flush(); // Run the caller's pending statements before taking the row lock
+        return SequenceCounter.reserve(em, key, 1L);
+    }
+
+    /**
+     * Forgets the in-memory blocks, e.g. after sequences were reset administratively.
+     */
+    public void clearBlocks() {
+        blocks.clear();
+    }
+
+    public ReferenceSequenceSettings getSettings() {
+        return settings;
+    }
+}
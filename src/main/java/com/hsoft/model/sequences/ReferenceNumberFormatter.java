@@ -0,0 +1,15 @@
+package com.hsoft.model.sequences;
+
+import com.hsoft.model.types.v1.TransactionType;
+
+/**
+ * Renders an allocated sequence value as {@code Transaction.referenceNumber}.
+ */
+@FunctionalInterface
+public interface ReferenceNumberFormatter {
+
+    // e.g. SALE-00001201
+    ReferenceNumberFormatter DEFAULT = (type, value) -> String.format("%s-%08d", type.name(), value);
+
+    String format(TransactionType transactionType, long value);
+}
@@ -0,0 +1,9 @@
+package com.hsoft.model.sequences;
+
+/**
+ * How reference numbers of a transaction type are allocated.
+ */
+public enum ReferenceSequenceMode {
+    BLOCK,    // Hi/lo: blocks reserved in the database, numbers handed out lock-free in memory; gaps on restart/rollback
+    GAP_FREE  // One number per transaction, taken in the caller's database transaction; rolled back with it
+}
@@ -0,0 +1,30 @@
+package com.hsoft.model.sequences;
+
+import com.hsoft.model.types.v1.TransactionType;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Set;
+
+/**
+ * Tuning of {@link ReferenceNumberAssigner}.
+ */
+@Value
+@Builder
+public class ReferenceSequenceSettings {
+
+    // Numbers reserved per database round trip in BLOCK mode; unused ones are lost on restart
+    @Builder.Default
+    int blockSize = 100;
+
+    // Types numbered in GAP_FREE mode (fiscal documents); all others use BLOCK
+    @Builder.Default
+    Set<TransactionType> gapFreeTypes = Set.of();
+
+    @Builder.Default
+    ReferenceNumberFormatter formatter = ReferenceNumberFormatter.DEFAULT;
+
+    public ReferenceSequenceMode modeFor(TransactionType transactionType) {
+        return gapFreeTypes.contains(transactionType) ? ReferenceSequenceMode.GAP_FREE : ReferenceSequenceMode.BLOCK;
+    }
+}
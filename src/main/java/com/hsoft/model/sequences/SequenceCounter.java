@@ -0,0 +1,47 @@
+package com.hsoft.model.sequences;
+
+import com.hsoft.model.entities.v1.ReferenceSequence;
+import com.hsoft.model.generators.UuidV7Generator;
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Atomically advances a {@link ReferenceSequence} row, creating it on first use (numbers start at 1).
+ * The row stays locked until the surrounding transaction ends.
+ */
+final class SequenceCounter {
+
+    static final long FIRST_VALUE = 1L;
+
+    private static final String ADVANCE =
+            "insert into pilot_v2.reference_sequences (sequence_id, user_id, transaction_type, next_value, updated_at) " +
+            "values (:sequenceId, :userId, :transactionType, :first + :count, :now) " +
+            "on conflict (user_id, transaction_type) do update set " +
+            "next_value = reference_sequences.next_value + excluded.next_value - :first, " +
+            "updated_at = excluded.updated_at " +
+            "returning next_value";
+
+    private SequenceCounter() {
+    }
+
+    /**
+     * Reserves {@code count} numbers.
+     *
+     * @return the first reserved number; the reservation is {@code [result, result + count)}
+     */
+    static long reserve(EntityManager em, SequenceKey key, long count) {
+        Number next = (Number) em.createNativeQuery(ADVANCE)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(ReferenceSequence.class) // Only this table is affected
+                .setParameter("sequenceId", UuidV7Generator.nextUuid())
+                .setParameter("userId", key.getUserId())
+                .setParameter("transactionType", key.getTransactionType().name())
+                .setParameter("first", FIRST_VALUE)
+                .setParameter("count", count)
+                .setParameter("now", OffsetDateTime.now())
+                .getSingleResult();
+        return next.longValue() - count;
+    }
+}
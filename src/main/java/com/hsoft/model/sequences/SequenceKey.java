@@ -0,0 +1,15 @@
+package com.hsoft.model.sequences;
+
+import com.hsoft.model.types.v1.TransactionType;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Identifies one {@link com.hsoft.model.entities.v1.ReferenceSequence}: owning main user and transaction type.
+ */
+@Value
+public class SequenceKey {
+    UUID userId;
+    TransactionType transactionType;
+}
@@ -0,0 +1,185 @@
+package com.hsoft.model.stock;
+
+import com.hsoft.model.dto.v1.products.ProductResponseDTO;
+import com.hsoft.model.dto.v1.products.ProductStockResponseDTO;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.ProductStockShard;
+import com.hsoft.model.mappers.ProductMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Striped stock counter for hot products. Concurrent sales of the same product update one of N
+ * shard rows (picked at random) instead of all serializing on the single {@code products} row.
+ * Reads aggregate {@code currentStock + sum(shard deltas)}; {@link #reconcile} folds the shards
+ * back into {@code currentStock}. Products with {@code stockShardCount == 0} keep the plain row update.
+ * Map product responses through {@link #toProductResponses} so their {@code currentStock} includes the shards.
+ */
+public class ShardedStockCounter {
+
+    public static final int MAX_SHARDS = 64;
+
+    private static final String ADD_TO_SHARD =
+            "update ProductStockShard s set s.delta = s.delta + :delta " +
+            "where s.product.productId = :productId and s.shardIndex = :shardIndex";
+
+    private static final String ADD_TO_PRODUCT =
+            "update versioned Product p set p.currentStock = p.currentStock + :delta where p.productId = :productId";
+
+    private static final String READ_STOCK =
+            "select p.currentStock + coalesce((select sum(s.delta) from ProductStockShard s where s.product = p), 0) " +
+            "from Product p where p.productId = :productId";
+
+    private static final String SHARDS_OF_PRODUCT =
+            "select s from ProductStockShard s where s.product.productId = :productId";
+
+    private static final String DELETE_SHARDS =
+            "delete from ProductStockShard s where s.product.productId = :productId";
+
+    private static final String SHARD_DELTAS =
+            "select s.product.productId, sum(s.delta) from ProductStockShard s " +
+            "where s.product.productId in :productIds group by s.product.productId";
+
+    /**
+     * Switches a product to sharded mode with {@code shardCount} stripes (0 turns sharding off).
+     * Any pending shard deltas are reconciled first. While sales may run, pass the product loaded with
+     * {@code PESSIMISTIC_WRITE}: their plain-row updates bump its version.
+     */
+    public void configureShards(EntityManager em, Product product, int shardCount) {
+        if (shardCount < 0 || shardCount > MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard count must be between 0 and " + MAX_SHARDS + ".");
+        }
+        if (product.getStockShardCount() > 0) {
+            reconcile(em, product);
+            em.createQuery(DELETE_SHARDS)
+                    .setParameter("productId", product.getProductId())
+                    .executeUpdate();
+        }
+        for (int i = 0; i < shardCount; i++) {
+            em.persist(ProductStockShard.builder()
+                    .product(product)
+                    .shardIndex(i)
+                    .build());
+        }
+        product.setStockShardCount(shardCount);
+    }
+
+    /**
+     * Applies a stock delta without loading or locking the product row.
+     * Uses bulk updates, so call it inside the unit of work that records the sale/purchase.
+     * The product's {@code stockShardCount} may be stale (detached or cached copy, re-sharded meanwhile):
+     * when the picked shard row no longer exists the delta goes to the product row instead.
+     *
+     * @throws IllegalStateException if the product row does not exist either
+     */
+    public void applyDelta(EntityManager em, Product product, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        int shards = product.getStockShardCount();
+        if (shards > 0) {
+            int updated = em.createQuery(ADD_TO_SHARD)
+                    .setParameter("delta", (long) delta)
+                    .setParameter("productId", product.getProductId())
+                    .setParameter("shardIndex", ThreadLocalRandom.current().nextInt(shards))
+                    .executeUpdate();
+            if (updated > 0) {
+                return;
+            }
+        }
+        int updated = em.createQuery(ADD_TO_PRODUCT)
+                .setParameter("delta", delta)
+                .setParameter("productId", product.getProductId())
+                .executeUpdate();
+        if (updated == 0) {
+            throw new IllegalStateException("Product " + product.getProductId() + " not found; stock delta "
+                    + delta + " was not applied.");
+        }
+    }
+
+    /**
+     * Current stock including deltas still held in shards.
+     */
+    public int readStock(EntityManager em, UUID productId) {
+        Number stock = em.createQuery(READ_STOCK, Number.class)
+                .setParameter("productId", productId)
+                .getSingleResult();
+        return Math.toIntExact(stock.longValue());
+    }
+
+    public ProductStockResponseDTO toStockResponse(EntityManager em, UUID productId) {
+        return new ProductStockResponseDTO(productId, readStock(em, productId));
+    }
+
+    /**
+     * Maps a product with {@code currentStock} including its shard deltas; the entity field alone is stale
+     * for sharded products until {@link #reconcile}.
+     */
+    public ProductResponseDTO toProductResponse(EntityManager em, ProductMapper mapper, Product product) {
+        return toProductResponses(em, mapper, List.of(product)).get(0);
+    }
+
+    /**
+     * List variant of {@link #toProductResponse}: one query for the shard deltas of all sharded products.
+     */
+    public List<ProductResponseDTO> toProductResponses(EntityManager em, ProductMapper mapper, List<Product> products) {
+        List<ProductResponseDTO> responses = mapper.productsToProductResponseDTOs(products);
+        List<UUID> sharded = new ArrayList<>();
+        for (Product product : products) {
+            if (product.getStockShardCount() > 0) {
+                sharded.add(product.getProductId());
+            }
+        }
+        if (sharded.isEmpty()) {
+            return responses;
+        }
+        Map<UUID, Long> deltas = new HashMap<>(sharded.size() * 2);
+        for (Object[] row : em.createQuery(SHARD_DELTAS, Object[].class)
+                .setParameter("productIds", sharded)
+                .getResultList()) {
+            deltas.put((UUID) row[0], ((Number) row[1]).longValue());
+        }
+        for (int i = 0; i < products.size(); i++) {
+            long delta = deltas.getOrDefault(products.get(i).getProductId(), 0L);
+            if (delta != 0L) {
+                ProductResponseDTO response = responses.get(i);
+                response.setCurrentStock(Math.toIntExact(response.getCurrentStock() + delta));
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * Folds all shard deltas into {@code currentStock} and resets the shards.
+     * Locks only the product's shard rows, briefly, in the caller's transaction.
+     *
+     * @return the delta folded into the product
+     */
+    public long reconcile(EntityManager em, Product product) {
+        List<ProductStockShard> shards = em.createQuery(SHARDS_OF_PRODUCT, ProductStockShard.class)
+                .setParameter("productId", product.getProductId())
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+        long folded = 0L;
+        for (ProductStockShard shard : shards) {
+            folded = Math.addExact(folded, shard.getDelta());
+            shard.setDelta(0L);
+        }
+        if (folded != 0L) {
+            em.flush(); // Write the reset shards before the bulk update
+            em.createQuery(ADD_TO_PRODUCT)
+                    .setParameter("delta", Math.toIntExact(folded))
+                    .setParameter("productId", product.getProductId())
+                    .executeUpdate();
+            em.refresh(product);
+        }
+        return folded;
+    }
+}
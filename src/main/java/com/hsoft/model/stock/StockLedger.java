@@ -0,0 +1,188 @@
+package com.hsoft.model.stock;
+
+import com.hsoft.model.dto.v1.products.StockAdjustmentRequestDTO;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.StockMovement;
+import com.hsoft.model.entities.v1.StockSnapshot;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.TransactionItem;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.types.v1.StockMovementType;
+import com.hsoft.model.types.v1.TransactionType;
+import jakarta.persistence.EntityManager;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Single entry point for stock changes: every change is appended to the {@link StockMovement} ledger
+ * and applied to {@link Product#getCurrentStock()} in the same unit of work.
+ * Movements are stamped with the time they are recorded, not when they commit, so one can become visible
+ * after a later instant has already been read; {@link StockSnapshotCompactor} only snapshots instants older
+ * than its safety margin, so a snapshot never misses a movement stamped before it.
+ * Products in sharded mode receive their deltas through {@link ShardedStockCounter}.
+ */
+public class StockLedger {
+
+    private static final String LATEST_SNAPSHOT =
+            "select s from StockSnapshot s " +
+            "where s.product.productId = :productId and s.snapshotAt <= :at " +
+            "order by s.snapshotAt desc";
+
+    private static final String NEXT_SNAPSHOT =
+            "select s from StockSnapshot s " +
+            "where s.product.productId = :productId and s.snapshotAt > :at " +
+            "order by s.snapshotAt";
+
+    // Sum up to :at, and count up to :until (the next snapshot) to tell whether that interval was purged
+    private static final String MOVEMENTS_SINCE =
+            "select coalesce(sum(case when m.occurredAt <= :at then m.quantity else 0 end), 0), count(m) " +
+            "from StockMovement m " +
+            "where m.product.productId = :productId and m.occurredAt > :since and m.occurredAt <= :until";
+
+    private static final String MOVEMENT_HISTORY =
+            "select m from StockMovement m " +
+            "where m.product.productId = :productId and m.occurredAt >= :from and m.occurredAt < :to " +
+            "order by m.occurredAt, m.movementId";
+
+    private final ShardedStockCounter shardedStockCounter;
+
+    public StockLedger() {
+        this(new ShardedStockCounter());
+    }
+
+    public StockLedger(ShardedStockCounter shardedStockCounter) {
+        this.shardedStockCounter = shardedStockCounter;
+    }
+
+    // --- Writes ---
+
+    /**
+     * Records the initial stock of a newly created product (no change to currentStock).
+     */
+    public StockMovement recordOpeningBalance(EntityManager em, Product product, User createdBy) {
+        StockMovement movement = newMovement(product, StockMovementType.OPENING_BALANCE, product.getCurrentStock(), createdBy);
+        em.persist(movement);
+        return movement;
+    }
+
+    /**
+     * Records one movement per item of a SALE (outgoing) or PURCHASE (incoming) and applies it to the products.
+     */
+    public List<StockMovement> recordTransaction(EntityManager em, Transaction transaction) {
+        StockMovementType type = transaction.getTransactionType() == TransactionType.SALE
+                ? StockMovementType.SALE
+                : StockMovementType.PURCHASE;
+        int sign = type == StockMovementType.SALE ? -1 : 1;
+        return recordItems(em, transaction, type, sign, null);
+    }
+
+    /**
+     * Reverses the movements of a cancelled transaction.
+     */
+    public List<StockMovement> recordCancellation(EntityManager em, Transaction transaction) {
+        int sign = transaction.getTransactionType() == TransactionType.SALE ? 1 : -1;
+        return recordItems(em, transaction, StockMovementType.CANCELLATION, sign, "Transaction cancelled");
+    }
+
+    /**
+     * Persists a manual adjustment (previously only applied to currentStock) together with its reason.
+     */
+    public StockMovement recordAdjustment(EntityManager em, Product product, StockAdjustmentRequestDTO dto, User createdBy) {
+        StockMovement movement = newMovement(product, StockMovementType.ADJUSTMENT, dto.getAdjustment(), createdBy);
+        movement.setReason(dto.getReason());
+        applyToProduct(em, product, dto.getAdjustment());
+        em.persist(movement);
+        return movement;
+    }
+
+    private List<StockMovement> recordItems(EntityManager em, Transaction transaction, StockMovementType type,
+                                            int sign, String reason) {
+        List<StockMovement> movements = new ArrayList<>(transaction.getItems().size());
+        for (TransactionItem item : transaction.getItems()) {
+            int delta = Math.multiplyExact(sign, item.getQuantity());
+            StockMovement movement = newMovement(item.getProduct(), type, delta, transaction.getCreatedByUser());
+            movement.setTransaction(transaction);
+            movement.setReason(reason);
+            applyToProduct(em, item.getProduct(), delta);
+            em.persist(movement);
+            movements.add(movement);
+        }
+        return movements;
+    }
+
+    private StockMovement newMovement(Product product, StockMovementType type, int quantity, User createdBy) {
+        return StockMovement.builder()
+                .user(product.getUser())
+                .product(product)
+                .movementType(type)
+                .quantity(quantity)
+                .occurredAt(OffsetDateTime.now())
+                .createdByUser(createdBy)
+                .build();
+    }
+
+    private void applyToProduct(EntityManager em, Product product, int delta) {
+        if (product.getStockShardCount() > 0) {
+            shardedStockCounter.applyDelta(em, product, delta); // Avoids the hot product row
+        } else {
+            product.setCurrentStock(Math.addExact(product.getCurrentStock(), delta));
+        }
+    }
+
+    // --- Reads ---
+
+    /**
+     * Stock level of a product at the given instant: latest snapshot at or before it,
+     * plus the movements recorded after that snapshot (bounded by the snapshot interval).
+     * Once {@link StockSnapshotCompactor#purgeCoveredMovements} has removed the movements of an interval,
+     * only its snapshot instants can still be answered.
+     *
+     * @throws IllegalArgumentException if {@code at} falls between snapshots whose movements were purged
+     *                                  (including before the product's first snapshot)
+     */
+    public int stockAt(EntityManager em, UUID productId, OffsetDateTime at) {
+        StockSnapshot previous = firstSnapshot(em, LATEST_SNAPSHOT, productId, at);
+        if (previous != null && previous.getSnapshotAt().isEqual(at)) {
+            return previous.getStockLevel();
+        }
+        // A purge only drops movements covered by a later snapshot, so without one the interval is complete
+        StockSnapshot next = firstSnapshot(em, NEXT_SNAPSHOT, productId, at);
+        Object[] movements = em.createQuery(MOVEMENTS_SINCE, Object[].class)
+                .setParameter("productId", productId)
+                .setParameter("since", previous != null ? previous.getSnapshotAt() : StockSnapshotCompactor.ORIGIN)
+                .setParameter("at", at)
+                .setParameter("until", next != null ? next.getSnapshotAt() : at)
+                .getSingleResult();
+        if (next != null && ((Number) movements[1]).longValue() < next.getMovementCount()) {
+            throw new IllegalArgumentException("Stock history of product " + productId + " before "
+                    + next.getSnapshotAt() + " was compacted; " + at + " is not a snapshot instant.");
+        }
+        long level = previous != null ? previous.getStockLevel() : 0L;
+        return Math.toIntExact(level + ((Number) movements[0]).longValue());
+    }
+
+    /**
+     * Movements of a product in [from, to), oldest first. Movements already compacted away are not returned.
+     */
+    public List<StockMovement> movementHistory(EntityManager em, UUID productId, OffsetDateTime from,
+                                               OffsetDateTime to, int maxResults) {
+        return em.createQuery(MOVEMENT_HISTORY, StockMovement.class)
+                .setParameter("productId", productId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    private static StockSnapshot firstSnapshot(EntityManager em, String query, UUID productId, OffsetDateTime at) {
+        List<StockSnapshot> snapshots = em.createQuery(query, StockSnapshot.class)
+                .setParameter("productId", productId)
+                .setParameter("at", at)
+                .setMaxResults(1)
+                .getResultList();
+        return snapshots.isEmpty() ? null : snapshots.get(0);
+    }
+}
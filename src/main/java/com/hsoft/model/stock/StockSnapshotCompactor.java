@@ -0,0 +1,167 @@
+package com.hsoft.model.stock;
+
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.StockSnapshot;
+import com.hsoft.model.entities.v1.User;
+import jakarta.persistence.EntityManager;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Periodic job that folds a tenant's stock movements into {@link StockSnapshot} rows and,
+ * optionally, purges movements that are fully covered by a snapshot.
+ * Run it per tenant on a schedule (e.g. nightly); the run interval bounds the cost of stock-at-date queries.
+ * <p>
+ * Safety margin: a movement's {@code occurredAt} is stamped when it is recorded, not when its transaction
+ * commits. A movement recorded before a snapshot instant but committed after the snapshot was taken would be
+ * missed by that snapshot and, since reads only add movements after it, excluded for good. Snapshots are
+ * therefore only taken at instants at least {@code safetyMargin} in the past, which must be longer than the
+ * longest transaction that records movements (enforce it with a database transaction/statement timeout).
+ */
+public class StockSnapshotCompactor {
+
+    public static final int DEFAULT_FLUSH_SIZE = 500;
+
+    // Well above the transaction timeout of the services recording movements
+    public static final Duration DEFAULT_SAFETY_MARGIN = Duration.ofMinutes(15);
+
+    static final OffsetDateTime ORIGIN = OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    // Movements since each product's latest snapshot, per product
+    private static final String PENDING_MOVEMENTS =
+            "select m.product.productId, sum(m.quantity), count(m) from StockMovement m " +
+            "where m.user.userId = :userId and m.occurredAt <= :at " +
+            "and m.occurredAt > coalesce((select max(s.snapshotAt) from StockSnapshot s where s.product = m.product), :origin) " +
+            "group by m.product.productId";
+
+    private static final String LATEST_LEVELS =
+            "select s.product.productId, s.stockLevel from StockSnapshot s " +
+            "where s.user.userId = :userId " +
+            "and s.snapshotAt = (select max(s2.snapshotAt) from StockSnapshot s2 where s2.product = s.product)";
+
+    // A movement can be dropped once a snapshot at or after it exists for its product
+    private static final String PURGE_COVERED_MOVEMENTS =
+            "delete from StockMovement m " +
+            "where m.user.userId = :userId and m.occurredAt < :before " +
+            "and exists (select s.snapshotId from StockSnapshot s where s.product = m.product and s.snapshotAt >= m.occurredAt)";
+
+    private final int flushSize;
+    private final Duration safetyMargin;
+
+    public StockSnapshotCompactor() {
+        this(DEFAULT_FLUSH_SIZE, DEFAULT_SAFETY_MARGIN);
+    }
+
+    public StockSnapshotCompactor(int flushSize) {
+        this(flushSize, DEFAULT_SAFETY_MARGIN);
+    }
+
+    public StockSnapshotCompactor(int flushSize, Duration safetyMargin) {
+        if (safetyMargin.isNegative()) {
+            throw new IllegalArgumentException("Safety margin must not be negative.");
+        }
+        this.flushSize = flushSize;
+        this.safetyMargin = safetyMargin;
+    }
+
+    /**
+     * Latest instant a snapshot may be taken at: every movement recorded up to it has committed (or rolled back).
+     */
+    public OffsetDateTime latestSafeSnapshotTime() {
+        return OffsetDateTime.now().minus(safetyMargin);
+    }
+
+    /**
+     * Creates a snapshot at {@code at} for every product of the tenant with movements since its last snapshot.
+     *
+     * @return number of snapshots created
+     * @throws IllegalArgumentException if {@code at} is later than {@link #latestSafeSnapshotTime()}
+     */
+    public int snapshotTenant(EntityManager em, UUID userId, OffsetDateTime at) {
+        OffsetDateTime latestSafe = latestSafeSnapshotTime();
+        if (at.isAfter(latestSafe)) {
+            throw new IllegalArgumentException("Snapshot time " + at + " is within the " + safetyMargin
+                    + " safety margin; movements recorded before it may still be uncommitted (latest safe: " + latestSafe + ").");
+        }
+        List<Object[]> pending = em.createQuery(PENDING_MOVEMENTS, Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("at", at)
+                .setParameter("origin", ORIGIN)
+                .getResultList();
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, Integer> previousLevels = new HashMap<>();
+        for (Object[] row : em.createQuery(LATEST_LEVELS, Object[].class)
+                .setParameter("userId", userId)
+                .getResultList()) {
+            previousLevels.put((UUID) row[0], (Integer) row[1]);
+        }
+
+        User owner = em.getReference(User.class, userId);
+        List<StockSnapshot> unflushed = new ArrayList<>(Math.min(flushSize, pending.size()));
+        int created = 0;
+        for (Object[] row : pending) {
+            UUID productId = (UUID) row[0];
+            long delta = ((Number) row[1]).longValue();
+            long count = ((Number) row[2]).longValue();
+            int level = Math.toIntExact(previousLevels.getOrDefault(productId, 0) + delta);
+
+            StockSnapshot snapshot = StockSnapshot.builder()
+                    .user(owner)
+                    .product(em.getReference(Product.class, productId))
+                    .snapshotAt(at)
+                    .stockLevel(level)
+                    .movementCount(count)
+                    .build();
+            em.persist(snapshot);
+            unflushed.add(snapshot);
+            if (++created % flushSize == 0) {
+                flushAndDetach(em, unflushed);
+            }
+        }
+        flushAndDetach(em, unflushed);
+        return created;
+    }
+
+    // Detaches only our snapshots: the caller's managed entities must stay managed (and their changes saved)
+    private static void flushAndDetach(EntityManager em, List<StockSnapshot> snapshots) {
+        em.flush();
+        snapshots.forEach(em::detach);
+        snapshots.clear();
+    }
+
+    /**
+     * Deletes movements older than {@code before} that are already folded into a snapshot.
+     * History before that point is afterwards answered at snapshot granularity: {@link StockLedger#stockAt}
+     * rejects instants between the snapshots of a purged interval.
+     *
+     * @return number of movements deleted
+     */
+    public int purgeCoveredMovements(EntityManager em, UUID userId, OffsetDateTime before) {
+        return em.createQuery(PURGE_COVERED_MOVEMENTS)
+                .setParameter("userId", userId)
+                .setParameter("before", before)
+                .executeUpdate();
+    }
+
+    /**
+     * Snapshots the tenant at {@code at} and purges covered movements older than {@code retainAfter}.
+     */
+    public int compact(EntityManager em, UUID userId, OffsetDateTime at, OffsetDateTime retainAfter) {
+        if (retainAfter.isAfter(at)) {
+            throw new IllegalArgumentException("retainAfter must not be later than the snapshot time.");
+        }
+        int created = snapshotTenant(em, userId, at);
+        purgeCoveredMovements(em, userId, retainAfter);
+        return created;
+    }
+}
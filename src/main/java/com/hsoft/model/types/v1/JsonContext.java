@@ -0,0 +1,443 @@
+package com.hsoft.model.types.v1;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.hsoft.model.json.JsonContextSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * The jsonb {@code context} of an entity, kept as the raw JSON text it was loaded with and
+ * parsed only on first access. Unread contexts are written back as-is, and parsed-but-unchanged
+ * contexts reuse their raw text, so neither is ever re-serialized.
+ * <p>
+ * Every mutation, including mutations of nested objects and arrays, bumps a modification counter;
+ * {@link com.hsoft.model.usertypes.JsonContextMutabilityPlan} dirty-checks by comparing that counter
+ * with the one captured in the load snapshot. Nested maps and lists are tracked copies, so a plain
+ * collection handed to {@link #put} is copied and later changes to the original are not seen.
+ * Mutate through {@link #put}/{@link #remove}/{@link #putAll}/{@link #clear}; views are read-only.
+ */
+@JsonSerialize(using = JsonContextSerializer.class)
+@Schema(type = "object", description = "Flexible JSON object for storing custom data.")
+public final class JsonContext extends AbstractMap<String, Object> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final String EMPTY_JSON = "{}";
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+    // Decimals are parsed as BigDecimal so amounts round-trip exactly
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    private String rawJson;                  // Last known JSON text (valid while rawModCount == modCount)
+    private LinkedHashMap<String, Object> values; // Parsed on first access; nested containers are tracked
+    private int modCount;
+    private int rawModCount;
+
+    // Dirty-check snapshot support: the instance this snapshot was taken from and its counter at that time
+    private transient JsonContext snapshotOf;
+    private transient int snapshotModCount;
+
+    private JsonContext(String rawJson) {
+        this.rawJson = rawJson;
+    }
+
+    // --- Factories ---
+
+    public static JsonContext empty() {
+        return new JsonContext(EMPTY_JSON);
+    }
+
+    /**
+     * Wraps JSON text as loaded from the database; it is not parsed until accessed.
+     */
+    public static JsonContext ofRaw(String rawJson) {
+        return new JsonContext(rawJson != null ? rawJson : EMPTY_JSON);
+    }
+
+    /**
+     * Copies a plain map (e.g. a request DTO's context); null yields an empty context.
+     */
+    public static JsonContext of(Map<String, ?> map) {
+        if (map == null) {
+            return empty();
+        }
+        JsonContext context = new JsonContext(null);
+        context.values = context.trackEntries(map);
+        context.modCount = 1; // No raw text yet
+        return context;
+    }
+
+    /**
+     * Independent deep copy. Free when the raw text is current (e.g. right after load or flush).
+     */
+    public static JsonContext copyOf(JsonContext source) {
+        return source != null ? ofRaw(source.toJson()) : null;
+    }
+
+    // --- Map API ---
+
+    @Override
+    public Object get(Object key) {
+        return parsed().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return parsed().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return parsed().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        if (values == null && EMPTY_JSON.equals(rawJson)) {
+            return true; // Avoid parsing the common empty case
+        }
+        return parsed().isEmpty();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return Collections.unmodifiableMap(parsed()).entrySet();
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Object previous = parsed().put(key, track(value));
+        markModified();
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        LinkedHashMap<String, Object> map = parsed();
+        if (!map.containsKey(key)) {
+            return null;
+        }
+        markModified();
+        return map.remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> m) {
+        if (!m.isEmpty()) {
+            parsed().putAll(trackEntries(m));
+            markModified();
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (!isEmpty()) {
+            parsed().clear();
+            markModified();
+        }
+    }
+    // --- Typed accessors ---
+
+    public String getString(String key) {
+        Object value = get(key);
+        return value != null ? value.toString() : null;
+    }
+
+    public BigDecimal getDecimal(String key) {
+        Object value = get(key);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof BigInteger bigInteger) {
+            return new BigDecimal(bigInteger);
+        }
+        if (value instanceof Number number) {
+            return BigDecimal.valueOf(number.doubleValue());
+        }
+        try {
+            return new BigDecimal(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Context value '" + key + "' is not a decimal: " + value);
+        }
+    }
+
+    public Long getLong(String key) {
+        Object value = get(key);
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                return ((Number) value).longValue();
+            }
+            if (value instanceof BigDecimal decimal) {
+                return decimal.longValueExact();
+            }
+            if (value instanceof BigInteger bigInteger) {
+                return bigInteger.longValueExact();
+            }
+            return Long.valueOf(value.toString());
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalStateException("Context value '" + key + "' is not a whole number: " + value);
+        }
+    }
+
+    public Boolean getBoolean(String key) {
+        Object value = get(key);
+        if (value == null || value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return Boolean.valueOf(value.toString());
+    }
+
+    // --- Serialization / dirty tracking ---
+
+    /**
+     * JSON text for writing; serializes only if the context changed since it was loaded or last written.
+     */
+    public String toJson() {
+        if (!isRawCurrent()) {
+            try {
+                rawJson = MAPPER.writeValueAsString(values);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Unable to serialize context to JSON.", e);
+            }
+            rawModCount = modCount;
+        }
+        return rawJson;
+    }
+
+    public int getModCount() {
+        return modCount;
+    }
+
+    public boolean isParsed() {
+        return values != null;
+    }
+
+    /**
+     * Snapshot used as Hibernate's loaded state: a deep copy that also remembers this instance and
+     * its modification counter, so {@link #isUnchangedSince(JsonContext)} is O(1) without comparing content.
+     */
+    public JsonContext snapshot() {
+        JsonContext snapshot = copyOf(this);
+        snapshot.snapshotOf = this;
+        snapshot.snapshotModCount = this.modCount;
+        return snapshot;
+    }
+
+    public boolean isSnapshotOf(JsonContext origin) {
+        return snapshotOf == origin;
+    }
+
+    /**
+     * True if this instance has not been mutated since {@code snapshot} was taken from it.
+     */
+    public boolean isUnchangedSince(JsonContext snapshot) {
+        return snapshot.snapshotOf == this && snapshot.snapshotModCount == this.modCount;
+    }
+
+    /**
+     * Content comparison used only when no snapshot relationship exists (e.g. the context was replaced).
+     */
+    public boolean sameContent(JsonContext other) {
+        if (this.isRawCurrent() && other.isRawCurrent() && this.rawJson.equals(other.rawJson)) {
+            return true;
+        }
+        return this.parsed().equals(other.parsed());
+    }
+
+    private boolean isRawCurrent() {
+        return rawJson != null && rawModCount == modCount;
+    }
+
+    private void markModified() {
+        modCount++;
+    }
+
+    private LinkedHashMap<String, Object> parsed() {
+        if (values == null) {
+            try {
+                values = trackEntries(MAPPER.readValue(rawJson, MAP_TYPE));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Stored context is not a JSON object.", e);
+            }
+        }
+        return values;
+    }
+
+    // --- Mutation tracking for nested containers ---
+
+    private LinkedHashMap<String, Object> trackEntries(Map<? extends String, ?> source) {
+        LinkedHashMap<String, Object> tracked = new LinkedHashMap<>(Math.max(16, source.size() * 4 / 3 + 1));
+        for (Entry<? extends String, ?> entry : source.entrySet()) {
+            tracked.put(entry.getKey(), track(entry.getValue()));
+        }
+        return tracked;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object track(Object value) {
+        if (value instanceof TrackedMap map && map.root == this) {
+            return value;
+        }
+        if (value instanceof TrackedList list && list.root == this) {
+            return value;
+        }
+        if (value instanceof Map<?, ?> map) {
+            return new TrackedMap(this, trackEntries((Map<String, ?>) map));
+        }
+        if (value instanceof List<?> list) {
+            ArrayList<Object> tracked = new ArrayList<>(list.size());
+            for (Object element : list) {
+                tracked.add(track(element));
+            }
+            return new TrackedList(this, tracked);
+        }
+        return value;
+    }
+
+    /**
+     * Nested JSON object; reports every mutation to the owning context.
+     */
+    private static final class TrackedMap extends AbstractMap<String, Object> implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final JsonContext root;
+        private final LinkedHashMap<String, Object> delegate;
+
+        private TrackedMap(JsonContext root, LinkedHashMap<String, Object> delegate) {
+            this.root = root;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return delegate.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return delegate.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return Collections.unmodifiableMap(delegate).entrySet();
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            Object previous = delegate.put(key, root.track(value));
+            root.markModified();
+            return previous;
+        }
+
+        @Override
+        public Object remove(Object key) {
+            if (!delegate.containsKey(key)) {
+                return null;
+            }
+            root.markModified();
+            return delegate.remove(key);
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ?> m) {
+            if (!m.isEmpty()) {
+                delegate.putAll(root.trackEntries(m));
+                root.markModified();
+            }
+        }
+
+        @Override
+        public void clear() {
+            if (!delegate.isEmpty()) {
+                delegate.clear();
+                root.markModified();
+            }
+        }
+    }
+
+    /**
+     * Nested JSON array; AbstractList routes every mutation (iterators, removeIf, clear...)
+     * through set/add/remove, which report to the owning context.
+     */
+    private static final class TrackedList extends AbstractList<Object> implements RandomAccess, Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final JsonContext root;
+        private final ArrayList<Object> delegate;
+
+        private TrackedList(JsonContext root, ArrayList<Object> delegate) {
+            this.root = root;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object get(int index) {
+            return delegate.get(index);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public Object set(int index, Object element) {
+            Object previous = delegate.set(index, root.track(element));
+            root.markModified();
+            return previous;
+        }
+
+        @Override
+        public void add(int index, Object element) {
+            delegate.add(index, root.track(element));
+            root.markModified();
+            modCount++; // AbstractList's own counter, for fail-fast iterators
+        }
+
+        @Override
+        public Object remove(int index) {
+            Object removed = delegate.remove(index);
+            root.markModified();
+            modCount++;
+            return removed;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.hsoft.model.types.v1;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.hsoft.model.json.MoneyJsonDeserializer;
+import com.hsoft.model.json.MoneyJsonSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable monetary amount stored as a scaled long (cents, scale 2).
+ * Matches the NUMERIC(10/12, 2) columns without BigDecimal arithmetic on hot paths.
+ * Arithmetic is exact; overflow throws {@link ArithmeticException}.
+ */
+@JsonSerialize(using = MoneyJsonSerializer.class)
+@JsonDeserialize(using = MoneyJsonDeserializer.class)
+@Schema(type = "number", description = "Monetary amount with two decimal places.", example = "29.99")
+public final class Money implements Comparable<Money>, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0L);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    // --- Factories ---
+
+    public static Money ofCents(long cents) {
+        return cents == 0L ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Converts a decimal amount exactly. Trailing zeros past the second decimal are accepted ("2.500");
+     * any other digit there is rejected rather than silently rounded.
+     *
+     * @throws ArithmeticException if the amount has more than two significant decimals or overflows a long
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        BigDecimal scaled;
+        try {
+            scaled = amount.setScale(SCALE, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Amount " + amount.toPlainString() + " has more than " + SCALE + " decimals.");
+        }
+        // unscaledValue().longValueExact() fails on anything wider than 64 bits
+        return ofCents(scaled.unscaledValue().longValueExact());
+    }
+
+    // --- Arithmetic ---
+
+    public Money plus(Money other) {
+        return other.cents == 0L ? this : ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return other.cents == 0L ? this : ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(int quantity) {
+        return quantity == 1 ? this : ofCents(Math.multiplyExact(cents, (long) quantity));
+    }
+
+    public Money negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+
+    /**
+     * Overflow-checked cent addition for accumulating totals in a primitive loop.
+     */
+    public static long addCents(long accumulator, Money amount) {
+        return amount == null ? accumulator : Math.addExact(accumulator, amount.cents);
+    }
+
+    // --- Accessors / conversion ---
+
+    public long getCents() {
+        return cents;
+    }
+
+    public boolean isZero() {
+        return cents == 0L;
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Plain decimal representation ("-12.05"), built without going through BigDecimal.
+     */
+    public String toPlainString() {
+        long whole = cents / 100;
+        int fraction = (int) Math.abs(cents % 100);
+        StringBuilder sb = new StringBuilder(24);
+        if (cents < 0 && whole == 0) {
+            sb.append('-');
+        }
+        sb.append(whole).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction).toString();
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return cents == ((Money) o).cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString();
+    }
+}
@@ -0,0 +1,12 @@
+package com.hsoft.model.types.v1;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Origin of a stock movement.")
+public enum StockMovementType {
+    OPENING_BALANCE,
+    SALE,
+    PURCHASE,
+    ADJUSTMENT,
+    CANCELLATION
+}
@@ -0,0 +1,86 @@
+package com.hsoft.model.uniqueness;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter sized for {@code capacity} insertions at false-positive rate {@code fpp}.
+ * Bit positions come from two 64-bit hashes ({@code h1 + i * h2}); bits are set with CAS,
+ * so reads never lock.
+ */
+final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final long capacity;
+    private final double fpp;
+    private final AtomicLong insertions = new AtomicLong();
+
+    BloomFilter(long capacity, double fpp) {
+        if (capacity < 1 || fpp <= 0.0 || fpp >= 1.0) {
+            throw new IllegalArgumentException("capacity must be positive and fpp in (0, 1).");
+        }
+        long optimalBits = (long) Math.ceil(-capacity * Math.log(fpp) / (LN2 * LN2));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1L, (optimalBits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * LN2));
+        this.capacity = capacity;
+        this.fpp = fpp;
+    }
+
+    void add(long h1, long h2) {
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = words.get(word)) & mask) == 0L && !words.compareAndSet(word, current, current | mask)) {
+                // Retry: another bit of this word was set concurrently
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    boolean mightContain(long h1, long h2) {
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isFull() {
+        return insertions.get() >= capacity;
+    }
+
+    long insertions() {
+        return insertions.get();
+    }
+
+    long capacity() {
+        return capacity;
+    }
+
+    double targetFpp() {
+        return fpp;
+    }
+
+    // (fraction of bits set) ^ k: the probability that an absent value hits only set bits
+    double estimatedFpp() {
+        long setBits = 0L;
+        for (int i = 0; i < words.length(); i++) {
+            setBits += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) setBits / bitCount, hashCount);
+    }
+
+    long sizeInBytes() {
+        return bitCount / 8;
+    }
+}
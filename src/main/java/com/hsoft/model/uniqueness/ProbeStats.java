@@ -0,0 +1,21 @@
+package com.hsoft.model.uniqueness;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Check counters of one guarded constraint.
+ */
+final class ProbeStats {
+
+    final LongAdder checks = new LongAdder();
+    final LongAdder definitelyFree = new LongAdder();
+    final LongAdder probes = new LongAdder();
+    final LongAdder falsePositives = new LongAdder();
+
+    // False positives among values that were actually free
+    double observedFalsePositiveRate() {
+        long fp = falsePositives.sum();
+        long free = fp + definitelyFree.sum();
+        return free == 0L ? 0.0 : (double) fp / free;
+    }
+}
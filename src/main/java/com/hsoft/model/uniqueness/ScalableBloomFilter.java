@@ -0,0 +1,121 @@
+package com.hsoft.model.uniqueness;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bloom filter that grows without a known final size (Almeida et al., "Scalable Bloom Filters"):
+ * when the newest filter reaches its capacity a new one is added with twice the capacity and half the
+ * false-positive rate, so the compound rate stays below the configured one. Lookups check every filter.
+ */
+final class ScalableBloomFilter {
+
+    private static final int GROWTH = 2;
+    private static final double TIGHTENING = 0.5;
+
+    private final double fpp;
+    private volatile BloomFilter[] filters;
+
+    ScalableBloomFilter(long initialCapacity, double fpp) {
+        this.fpp = fpp;
+        // Rates fpp0 * (1 + r + r^2 + ...) sum to at most fpp0 / (1 - r) = fpp
+        this.filters = new BloomFilter[]{new BloomFilter(initialCapacity, fpp * (1.0 - TIGHTENING))};
+    }
+
+    void add(String value) {
+        long h1 = hash(value);
+        long h2 = secondHash(h1);
+        if (mightContain(h1, h2)) {
+            return; // Present (or colliding): counting it again would only grow the filter
+        }
+        BloomFilter[] current = filters;
+        BloomFilter newest = current[current.length - 1];
+        if (newest.isFull()) {
+            newest = grow(current);
+        }
+        newest.add(h1, h2);
+    }
+
+    boolean mightContain(String value) {
+        long h1 = hash(value);
+        return mightContain(h1, secondHash(h1));
+    }
+
+    long approximateCount() {
+        long count = 0L;
+        for (BloomFilter filter : filters) {
+            count += filter.insertions();
+        }
+        return count;
+    }
+
+    int filterCount() {
+        return filters.length;
+    }
+
+    long sizeInBytes() {
+        long bytes = 0L;
+        for (BloomFilter filter : filters) {
+            bytes += filter.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    // 1 - product of (1 - rate of each filter), from the actual bit fill
+    double estimatedFalsePositiveRate() {
+        double allMiss = 1.0;
+        for (BloomFilter filter : filters) {
+            allMiss *= 1.0 - filter.estimatedFpp();
+        }
+        return 1.0 - allMiss;
+    }
+
+    double configuredFalsePositiveRate() {
+        return fpp;
+    }
+
+    private boolean mightContain(long h1, long h2) {
+        for (BloomFilter filter : filters) {
+            if (filter.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized BloomFilter grow(BloomFilter[] seen) {
+        BloomFilter[] current = filters;
+        if (current != seen) {
+            return current[current.length - 1]; // Another writer already grew it
+        }
+        BloomFilter newest = current[current.length - 1];
+        BloomFilter next = new BloomFilter(newest.capacity() * GROWTH, newest.targetFpp() * TIGHTENING);
+        BloomFilter[] grown = new BloomFilter[current.length + 1];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        grown[current.length] = next;
+        filters = grown;
+        return next;
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long secondHash(long h1) {
+        return mix(h1 + 0x9E3779B97F4A7C15L) | 1L; // Odd, so the probe sequence does not collapse
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,256 @@
+package com.hsoft.model.uniqueness;
+
+import com.hsoft.model.dto.v1.products.ProductCreateRequestDTO;
+import com.hsoft.model.dto.v1.users.RegisterRequestDTO;
+import com.hsoft.model.dto.v1.users.SubUserCreateRequestDTO;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Provider;
+import com.hsoft.model.entities.v1.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Bloom-filter precheck of the unique columns: {@code username}, {@code email}, {@code company_nit}
+ * (global) and {@code (user_id, sku)}, {@code (user_id, nit)} of providers (one filter per tenant).
+ * <p>
+ * A value the filter has never seen is definitely free and needs no query; only "maybe taken" answers
+ * are confirmed with a database probe. Filters are filled by {@link #warmUp} and by the {@code record*}
+ * methods, which every write of these columns must call (a rolled-back write only adds a false positive).
+ * Until warm-up completes every check probes the database.
+ * <p>
+ * This is a fast path, not the enforcement: writes by other application instances are not seen here,
+ * so the database unique constraints stay authoritative. Values that are renamed away stay in the
+ * filters as false positives; rebuild the guard when {@link #report()} shows the rates drifting up.
+ */
+public class UniquenessGuard {
+
+    public static final String USERNAME = "username";
+    public static final String EMAIL = "email";
+    public static final String COMPANY_NIT = "companyNit";
+    public static final String SKU = "sku";
+    public static final String PROVIDER_NIT = "providerNit";
+
+    private static final String ALL_USER_KEYS = "select u.username, u.email, u.companyNit from User u";
+    private static final String ALL_SKUS = "select p.user.userId, p.sku from Product p where p.sku is not null";
+    private static final String ALL_PROVIDER_NITS = "select p.user.userId, p.nit from Provider p where p.nit is not null";
+
+    private static final String COUNT_USERNAME = "select count(u) from User u where u.username = :value";
+    private static final String COUNT_EMAIL = "select count(u) from User u where u.email = :value";
+    private static final String COUNT_COMPANY_NIT = "select count(u) from User u where u.companyNit = :value";
+    private static final String COUNT_SKU =
+            "select count(p) from Product p where p.user.userId = :userId and p.sku = :value";
+    private static final String COUNT_PROVIDER_NIT =
+            "select count(p) from Provider p where p.user.userId = :userId and p.nit = :value";
+
+    private final UniquenessSettings settings;
+    private final ScalableBloomFilter usernames;
+    private final ScalableBloomFilter emails;
+    private final ScalableBloomFilter companyNits;
+    private final ConcurrentMap<UUID, ScalableBloomFilter> skus = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, ScalableBloomFilter> providerNits = new ConcurrentHashMap<>();
+    private final Map<String, ProbeStats> stats = Map.of(
+            USERNAME, new ProbeStats(), EMAIL, new ProbeStats(), COMPANY_NIT, new ProbeStats(),
+            SKU, new ProbeStats(), PROVIDER_NIT, new ProbeStats());
+
+    private volatile boolean warmed;
+
+    public UniquenessGuard() {
+        this(UniquenessSettings.builder().build());
+    }
+
+    public UniquenessGuard(UniquenessSettings settings) {
+        this.settings = settings;
+        this.usernames = globalFilter();
+        this.emails = globalFilter();
+        this.companyNits = globalFilter();
+    }
+
+    // --- Warm-up ---
+
+    /**
+     * Loads every existing value (streamed, values only). Writes recorded meanwhile are kept.
+     */
+    public void warmUp(EntityManager em) {
+        try (Stream<Object[]> rows = em.createQuery(ALL_USER_KEYS, Object[].class).getResultStream()) {
+            rows.forEach(row -> {
+                addIfPresent(usernames, (String) row[0]);
+                addIfPresent(emails, (String) row[1]);
+                addIfPresent(companyNits, (String) row[2]);
+            });
+        }
+        try (Stream<Object[]> rows = em.createQuery(ALL_SKUS, Object[].class).getResultStream()) {
+            rows.forEach(row -> tenantFilter(skus, (UUID) row[0]).add((String) row[1]));
+        }
+        try (Stream<Object[]> rows = em.createQuery(ALL_PROVIDER_NITS, Object[].class).getResultStream()) {
+            rows.forEach(row -> tenantFilter(providerNits, (UUID) row[0]).add((String) row[1]));
+        }
+        warmed = true;
+    }
+
+    public boolean isWarmed() {
+        return warmed;
+    }
+
+    // --- Checks ---
+
+    /**
+     * @return the taken fields among {@link #USERNAME}, {@link #EMAIL}, {@link #COMPANY_NIT}; empty if all are free
+     */
+    public Set<String> checkRegistration(EntityManager em, RegisterRequestDTO dto) {
+        Set<String> taken = new LinkedHashSet<>();
+        if (isUsernameTaken(em, dto.getUsername())) {
+            taken.add(USERNAME);
+        }
+        if (isEmailTaken(em, dto.getEmail())) {
+            taken.add(EMAIL);
+        }
+        if (isCompanyNitTaken(em, dto.getCompanyNit())) {
+            taken.add(COMPANY_NIT);
+        }
+        return taken;
+    }
+
+    /**
+     * @return the taken fields among {@link #USERNAME}, {@link #EMAIL}; empty if both are free
+     */
+    public Set<String> checkSubUser(EntityManager em, SubUserCreateRequestDTO dto) {
+        Set<String> taken = new LinkedHashSet<>();
+        if (isUsernameTaken(em, dto.getUsername())) {
+            taken.add(USERNAME);
+        }
+        if (isEmailTaken(em, dto.getEmail())) {
+            taken.add(EMAIL);
+        }
+        return taken;
+    }
+
+    public boolean checkProduct(EntityManager em, UUID userId, ProductCreateRequestDTO dto) {
+        return isSkuTaken(em, userId, dto.getSku());
+    }
+
+    public boolean isUsernameTaken(EntityManager em, String username) {
+        return check(USERNAME, usernames, username, () -> count(em, COUNT_USERNAME, null, username));
+    }
+
+    public boolean isEmailTaken(EntityManager em, String email) {
+        return check(EMAIL, emails, email, () -> count(em, COUNT_EMAIL, null, email));
+    }
+
+    public boolean isCompanyNitTaken(EntityManager em, String companyNit) {
+        return check(COMPANY_NIT, companyNits, companyNit, () -> count(em, COUNT_COMPANY_NIT, null, companyNit));
+    }
+
+    public boolean isSkuTaken(EntityManager em, UUID userId, String sku) {
+        return check(SKU, skus.get(userId), sku, () -> count(em, COUNT_SKU, userId, sku));
+    }
+
+    public boolean isProviderNitTaken(EntityManager em, UUID userId, String nit) {
+        return check(PROVIDER_NIT, providerNits.get(userId), nit, () -> count(em, COUNT_PROVIDER_NIT, userId, nit));
+    }
+
+    // --- Keeping filters current ---
+
+    public void recordUser(User user) {
+        addIfPresent(usernames, user.getUsername());
+        addIfPresent(emails, user.getEmail());
+        addIfPresent(companyNits, user.getCompanyNit());
+    }
+
+    public void recordProduct(Product product) {
+        if (product.getSku() != null) {
+            tenantFilter(skus, product.getUser().getUserId()).add(product.getSku());
+        }
+    }
+
+    public void recordProvider(Provider provider) {
+        if (provider.getNit() != null) {
+            tenantFilter(providerNits, provider.getUser().getUserId()).add(provider.getNit());
+        }
+    }
+
+    // --- Reporting ---
+
+    public List<UniquenessReport> report() {
+        List<UniquenessReport> reports = new ArrayList<>(stats.size());
+        reports.add(report(USERNAME, List.of(usernames)));
+        reports.add(report(EMAIL, List.of(emails)));
+        reports.add(report(COMPANY_NIT, List.of(companyNits)));
+        reports.add(report(SKU, skus.values()));
+        reports.add(report(PROVIDER_NIT, providerNits.values()));
+        return reports;
+    }
+
+    // --- Internals ---
+
+    // A null value violates no unique constraint; a missing tenant filter means the tenant has no values yet
+    private boolean check(String constraint, ScalableBloomFilter filter, String value, Supplier<Boolean> probe) {
+        if (value == null) {
+            return false;
+        }
+        ProbeStats counters = stats.get(constraint);
+        counters.checks.increment();
+        boolean filterSaysMaybe = filter != null && filter.mightContain(value);
+        if (warmed && !filterSaysMaybe) {
+            counters.definitelyFree.increment();
+            return false;
+        }
+        counters.probes.increment();
+        boolean taken = probe.get();
+        if (!taken && filterSaysMaybe) {
+            counters.falsePositives.increment();
+        }
+        return taken;
+    }
+
+    private static boolean count(EntityManager em, String query, UUID userId, String value) {
+        TypedQuery<Long> typed = em.createQuery(query, Long.class).setParameter("value", value);
+        if (userId != null) {
+            typed.setParameter("userId", userId);
+        }
+        return typed.getSingleResult() > 0L;
+    }
+
+    private UniquenessReport report(String constraint, Collection<ScalableBloomFilter> filters) {
+        long entries = 0L;
+        int filterCount = 0;
+        long bytes = 0L;
+        double estimated = 0.0;
+        for (ScalableBloomFilter filter : filters) {
+            entries += filter.approximateCount();
+            filterCount += filter.filterCount();
+            bytes += filter.sizeInBytes();
+            estimated = Math.max(estimated, filter.estimatedFalsePositiveRate());
+        }
+        ProbeStats counters = stats.get(constraint);
+        return new UniquenessReport(constraint, entries, filterCount, bytes, settings.getFalsePositiveRate(), estimated,
+                counters.checks.sum(), counters.definitelyFree.sum(), counters.probes.sum(),
+                counters.falsePositives.sum(), counters.observedFalsePositiveRate());
+    }
+
+    private ScalableBloomFilter globalFilter() {
+        return new ScalableBloomFilter(settings.getExpectedUsers(), settings.getFalsePositiveRate());
+    }
+
+    private ScalableBloomFilter tenantFilter(ConcurrentMap<UUID, ScalableBloomFilter> filters, UUID userId) {
+        return filters.computeIfAbsent(userId,
+                id -> new ScalableBloomFilter(settings.getExpectedPerTenant(), settings.getFalsePositiveRate()));
+    }
+
+    private static void addIfPresent(ScalableBloomFilter filter, String value) {
+        if (value != null) {
+            filter.add(value);
+        }
+    }
+}
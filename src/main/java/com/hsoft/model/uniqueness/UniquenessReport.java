@@ -0,0 +1,25 @@
+package com.hsoft.model.uniqueness;
+
+import lombok.Value;
+
+/**
+ * State and effectiveness of one guarded constraint (per-tenant ones are summed over tenants).
+ * <p>
+ * {@code observedFalsePositiveRate} is measured on free values: the share that the filter reported as
+ * "maybe taken" and the database then found free. {@code estimatedFalsePositiveRate} is derived from the
+ * filters' bit fill (the highest tenant's for per-tenant constraints).
+ */
+@Value
+public class UniquenessReport {
+    String constraint;
+    long entries;      // Approximate distinct values added
+    int filters;       // Bloom filters (scalable filters grow by adding one)
+    long sizeInBytes;
+    double configuredFalsePositiveRate;
+    double estimatedFalsePositiveRate;
+    long checks;
+    long definitelyFree; // Answered without a database probe
+    long probes;
+    long falsePositives; // Filter hits the probe found free
+    double observedFalsePositiveRate;
+}
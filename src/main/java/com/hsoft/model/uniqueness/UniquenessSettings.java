@@ -0,0 +1,24 @@
+package com.hsoft.model.uniqueness;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Sizing of {@link UniquenessGuard}; filters grow past these sizes at the configured rate.
+ */
+@Value
+@Builder
+public class UniquenessSettings {
+
+    // Initial capacity of each global user filter (username, email, company NIT)
+    @Builder.Default
+    long expectedUsers = 100_000L;
+
+    // Initial capacity of each tenant's SKU / provider NIT filter
+    @Builder.Default
+    long expectedPerTenant = 1_000L;
+
+    // Upper bound of the compound false-positive rate of each filter
+    @Builder.Default
+    double falsePositiveRate = 0.01;
+}
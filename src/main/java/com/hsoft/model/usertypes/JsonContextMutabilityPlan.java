@@ -0,0 +1,60 @@
+package com.hsoft.model.usertypes;
+
+import com.hsoft.model.types.v1.JsonContext;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.type.descriptor.java.MutabilityPlan;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot / cache handling for {@link JsonContext}.
+ * Snapshots are taken from the raw JSON text (no re-serialization right after load or flush) and
+ * remember the instance they came from, so {@link #areEqual} reduces to a modification-counter
+ * comparison and untouched contexts never get serialized or compared during flush.
+ */
+public final class JsonContextMutabilityPlan implements MutabilityPlan<JsonContext> {
+
+    public static final JsonContextMutabilityPlan INSTANCE = new JsonContextMutabilityPlan();
+
+    private JsonContextMutabilityPlan() {
+    }
+
+    @Override
+    public boolean isMutable() {
+        return true;
+    }
+
+    @Override
+    public JsonContext deepCopy(JsonContext value) {
+        return value != null ? value.snapshot() : null;
+    }
+
+    @Override
+    public Serializable disassemble(JsonContext value, SharedSessionContract session) {
+        return value != null ? value.toJson() : null;
+    }
+
+    @Override
+    public JsonContext assemble(Serializable cached, SharedSessionContract session) {
+        return cached != null ? JsonContext.ofRaw((String) cached) : null;
+    }
+
+    /**
+     * Dirty check between a loaded-state snapshot and the current value (in either order).
+     */
+    public boolean areEqual(JsonContext x, JsonContext y) {
+        if (x == y) {
+            return true;
+        }
+        if (x == null || y == null) {
+            return false;
+        }
+        if (x.isSnapshotOf(y)) {
+            return y.isUnchangedSince(x); // O(1): was the current value mutated since the snapshot?
+        }
+        if (y.isSnapshotOf(x)) {
+            return x.isUnchangedSince(y);
+        }
+        return x.sameContent(y); // Context was replaced wholesale
+    }
+}
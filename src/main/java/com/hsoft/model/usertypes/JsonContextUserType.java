@@ -0,0 +1,81 @@
+package com.hsoft.model.usertypes;
+
+import com.hsoft.model.types.v1.JsonContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Maps {@link JsonContext} to the jsonb {@code context} columns.
+ * Loads keep the raw JSON text (no parsing); writes reuse it unless the context was mutated.
+ * Snapshots and dirty checking are delegated to {@link JsonContextMutabilityPlan}.
+ */
+public class JsonContextUserType implements UserType<JsonContext> {
+
+    private static final JsonContextMutabilityPlan MUTABILITY_PLAN = JsonContextMutabilityPlan.INSTANCE;
+
+    @Override
+    public int getSqlType() {
+        return Types.OTHER;
+    }
+
+    @Override
+    public Class<JsonContext> returnedClass() {
+        return JsonContext.class;
+    }
+
+    @Override
+    public boolean equals(JsonContext x, JsonContext y) {
+        return MUTABILITY_PLAN.areEqual(x, y);
+    }
+
+    @Override
+    public int hashCode(JsonContext x) {
+        return x.hashCode();
+    }
+
+    @Override
+    public JsonContext nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session, Object owner) throws SQLException {
+        String json = rs.getString(position);
+        return json == null ? null : JsonContext.ofRaw(json);
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, JsonContext value, int index, SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.OTHER);
+        } else {
+            st.setObject(index, value.toJson(), Types.OTHER); // Cast to jsonb by the driver
+        }
+    }
+
+    @Override
+    public JsonContext deepCopy(JsonContext value) {
+        return MUTABILITY_PLAN.deepCopy(value);
+    }
+
+    @Override
+    public boolean isMutable() {
+        return MUTABILITY_PLAN.isMutable();
+    }
+
+    @Override
+    public Serializable disassemble(JsonContext value) {
+        return MUTABILITY_PLAN.disassemble(value, null);
+    }
+
+    @Override
+    public JsonContext assemble(Serializable cached, Object owner) {
+        return MUTABILITY_PLAN.assemble(cached, null);
+    }
+
+    @Override
+    public JsonContext replace(JsonContext detached, JsonContext managed, Object owner) {
+        return JsonContext.copyOf(detached);
+    }
+}
@@ -0,0 +1,81 @@
+package com.hsoft.model.usertypes;
+
+import com.hsoft.model.types.v1.Money;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+
+/**
+ * Maps {@link Money} to the existing NUMERIC(p, 2) columns.
+ * BigDecimal is only materialized at the JDBC boundary.
+ */
+public class MoneyUserType implements UserType<Money> {
+
+    @Override
+    public int getSqlType() {
+        return Types.NUMERIC;
+    }
+
+    @Override
+    public Class<Money> returnedClass() {
+        return Money.class;
+    }
+
+    @Override
+    public boolean equals(Money x, Money y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(Money x) {
+        return Objects.hashCode(x);
+    }
+
+    @Override
+    public Money nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session, Object owner) throws SQLException {
+        BigDecimal value = rs.getBigDecimal(position);
+        return value == null ? null : Money.of(value);
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, Money value, int index, SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.NUMERIC);
+        } else {
+            st.setBigDecimal(index, value.toBigDecimal());
+        }
+    }
+
+    // Money is immutable, so snapshots and cache entries can share the instance
+    @Override
+    public Money deepCopy(Money value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(Money value) {
+        return value;
+    }
+
+    @Override
+    public Money assemble(Serializable cached, Object owner) {
+        return (Money) cached;
+    }
+
+    @Override
+    public Money replace(Money detached, Money managed, Object owner) {
+        return detached;
+    }
+}
@@ -0,0 +1,146 @@
+package com.hsoft.model.aggregates;
+
+import com.hsoft.model.entities.v1.Client;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.TestDatabase;
+import com.hsoft.model.types.v1.TransactionStatus;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rebuilds running while sales are completed and cancelled must not lose any increment:
+ * after both stop, the verifier finds no mismatch.
+ */
+class DailyAggregateConcurrencyTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 3, 1);
+    private static final int WRITERS = 4;
+    private static final int SALES_PER_WRITER = 40;
+
+    private static final DailyAggregateMaintainer MAINTAINER = new DailyAggregateMaintainer();
+    private static SessionFactory sessionFactory;
+    private static UUID ownerId;
+    private static List<Product> products;
+    private static Client client;
+
+    @BeforeAll
+    static void createCatalog() {
+        sessionFactory = TestDatabase.sessionFactory();
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = Fixtures.user("aggregate-owner");
+            session.persist(owner);
+            products = List.of(Fixtures.product(owner, "AGG-1", "Product 1"), Fixtures.product(owner, "AGG-2", "Product 2"));
+            products.forEach(session::persist);
+            client = Fixtures.client(owner, "Aggregate client");
+            session.persist(client);
+            ownerId = owner.getUserId();
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void rebuildsDuringWritesLoseNoIncrement() throws Exception {
+        DailyAggregateRebuilder rebuilder = new DailyAggregateRebuilder(sessionFactory, ZoneOffset.UTC, 4, 10);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger rebuilds = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + 1);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < SALES_PER_WRITER; i++) {
+                        UUID saleId = completeSale();
+                        if (i % 4 == 0) {
+                            cancel(saleId);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Future<?> rebuilding = pool.submit(() -> {
+                while (writing.get()) {
+                    rebuilder.rebuild(ownerId, FROM, TO);
+                    rebuilds.incrementAndGet();
+                }
+                return null;
+            });
+            try {
+                for (Future<?> writer : writers) {
+                    writer.get();
+                }
+            } finally {
+                writing.set(false);
+            }
+            rebuilding.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(rebuilds.get() > 0);
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(List.of(), new DailyAggregateVerifier().verify(session, ownerId, FROM, TO));
+        }
+    }
+
+    private static UUID completeSale() {
+        Transaction[] created = new Transaction[1];
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = session.getReference(User.class, ownerId);
+            Transaction sale = Fixtures.sale(owner, session.getReference(Client.class, client.getClientId()), owner,
+                    products.stream().map(p -> session.getReference(Product.class, p.getProductId())).toList());
+            int day = ThreadLocalRandom.current().nextInt(60);
+            sale.setTransactionDate(OffsetDateTime.of(FROM.plusDays(day).atTime(12, 0), ZoneOffset.UTC));
+            session.persist(sale);
+            MAINTAINER.recordCreated(session, sale);
+            pause(); // Keep the increment uncommitted for a while, where a rebuild could overwrite it
+            created[0] = sale;
+        });
+        return created[0].getTransactionId();
+    }
+
+    private static void cancel(UUID saleId) {
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            Transaction sale = session.find(Transaction.class, saleId);
+            TransactionContribution before = MAINTAINER.capture(sale);
+            sale.setStatus(TransactionStatus.CANCELLED);
+            MAINTAINER.applyChange(session, before, sale);
+            pause();
+        });
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(1, 5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
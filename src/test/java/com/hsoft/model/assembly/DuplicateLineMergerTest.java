@@ -0,0 +1,149 @@
+package com.hsoft.model.assembly;
+
+import com.hsoft.model.dto.v1.transactions.TransactionItemCreateRequestDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Merging duplicate lines of large tickets: one pass, first-occurrence order, exact quantities,
+ * and untouched inputs.
+ */
+class DuplicateLineMergerTest {
+
+    private static final int LINES = 10_000;
+    private static final Duration BUDGET = Duration.ofSeconds(2); // A quadratic merge takes far longer
+
+    private final DuplicateLineMerger merger = new DuplicateLineMerger();
+
+    @Test
+    void ticketWithoutDuplicatesIsReturnedAsIs() {
+        List<TransactionItemCreateRequestDTO> lines = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            lines.add(line(UUID.randomUUID(), 1 + i % 5, "10.00"));
+        }
+
+        List<TransactionItemCreateRequestDTO> merged = assertTimeoutPreemptively(BUDGET, () -> merger.merge(lines));
+        assertSame(lines, merged);
+    }
+
+    @Test
+    void thousandsOfScatteredDuplicatesMergeInFirstOccurrenceOrder() {
+        int products = 2_000;
+        List<UUID> productIds = new ArrayList<>();
+        for (int i = 0; i < products; i++) {
+            productIds.add(UUID.randomUUID());
+        }
+        // Each product appears LINES / products times, shuffled across the ticket
+        List<TransactionItemCreateRequestDTO> lines = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            lines.add(line(productIds.get(i % products), 1 + i % 3, "10.00"));
+        }
+        Collections.shuffle(lines, new Random(42));
+
+        List<TransactionItemCreateRequestDTO> merged = assertTimeoutPreemptively(BUDGET, () -> merger.merge(lines));
+
+        assertEquals(products, merged.size());
+        Map<UUID, Integer> expectedQuantities = new LinkedHashMap<>();
+        for (TransactionItemCreateRequestDTO line : lines) {
+            expectedQuantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        List<UUID> firstOccurrence = new ArrayList<>(expectedQuantities.keySet());
+        for (int i = 0; i < products; i++) {
+            TransactionItemCreateRequestDTO line = merged.get(i);
+            assertEquals(firstOccurrence.get(i), line.getProductId());
+            assertEquals(expectedQuantities.get(line.getProductId()), line.getQuantity());
+        }
+        assertEquals(sumQuantities(lines), sumQuantities(merged));
+    }
+
+    @Test
+    void thousandsOfScansOfOneProductBecomeOneLine() {
+        UUID productId = UUID.randomUUID();
+        List<TransactionItemCreateRequestDTO> lines = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            Map<String, Object> context = new LinkedHashMap<>();
+            context.put("scan", i);
+            lines.add(TransactionItemCreateRequestDTO.builder()
+                    .productId(productId).quantity(1).unitPrice(new BigDecimal("2.50")).context(context).build());
+        }
+
+        List<TransactionItemCreateRequestDTO> merged = assertTimeoutPreemptively(BUDGET, () -> merger.merge(lines));
+
+        assertEquals(1, merged.size());
+        assertEquals(LINES, merged.get(0).getQuantity());
+        assertEquals(LINES - 1, merged.get(0).getContext().get("scan")); // Later lines win
+        assertEquals(0, lines.get(0).getContext().get("scan"), "input contexts are not modified");
+        assertEquals(1, lines.get(0).getQuantity());
+    }
+
+    @Test
+    void mergedContextKeepsKeyOrder() {
+        UUID productId = UUID.randomUUID();
+        Map<String, Object> first = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            first.put("k" + i, i);
+        }
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("k5", "updated");
+        second.put("z", "added");
+
+        List<TransactionItemCreateRequestDTO> merged = merger.merge(List.of(
+                TransactionItemCreateRequestDTO.builder().productId(productId).quantity(1).context(first).build(),
+                TransactionItemCreateRequestDTO.builder().productId(productId).quantity(1).context(second).build()));
+
+        List<String> expectedKeys = new ArrayList<>(first.keySet());
+        expectedKeys.add("z");
+        assertEquals(expectedKeys, new ArrayList<>(merged.get(0).getContext().keySet()));
+        assertEquals("updated", merged.get(0).getContext().get("k5"));
+    }
+
+    @Test
+    void conflictingPricesFollowThePolicy() {
+        UUID productId = UUID.randomUUID();
+        List<TransactionItemCreateRequestDTO> lines = List.of(line(productId, 1, "10.00"), line(productId, 1, "9.50"));
+
+        assertThrows(IllegalArgumentException.class, () -> merger.merge(lines));
+        DuplicateLineMerger lowest = new DuplicateLineMerger(DuplicateLineMerger.PricePolicy.LOWEST,
+                DuplicateLineMerger.ContextPolicy.MERGE);
+        assertEquals(new BigDecimal("9.50"), lowest.merge(lines).get(0).getUnitPrice());
+    }
+
+    @Test
+    void quantityOverflowIsRejected() {
+        UUID productId = UUID.randomUUID();
+        List<TransactionItemCreateRequestDTO> lines = List.of(
+                line(productId, Integer.MAX_VALUE, "1.00"), line(productId, 1, "1.00"));
+
+        assertThrows(ArithmeticException.class, () -> merger.merge(lines));
+    }
+
+    private static TransactionItemCreateRequestDTO line(UUID productId, int quantity, String unitPrice) {
+        return TransactionItemCreateRequestDTO.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .unitPrice(new BigDecimal(unitPrice))
+                .build();
+    }
+
+    private static long sumQuantities(List<TransactionItemCreateRequestDTO> lines) {
+        long total = 0;
+        for (TransactionItemCreateRequestDTO line : lines) {
+            total += line.getQuantity();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,170 @@
+package com.hsoft.model.assembly;
+
+import com.hsoft.model.dto.v1.transactions.TransactionCreateRequestDTO;
+import com.hsoft.model.dto.v1.transactions.TransactionItemCreateRequestDTO;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.TransactionItem;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.SqlRecorder;
+import com.hsoft.model.support.TestDatabase;
+import com.hsoft.model.support.TestMappers;
+import com.hsoft.model.types.v1.Money;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Assembling a ticket of {@value #LINES} lines resolves every product with one IN statement, merges duplicate
+ * lines before the lookup (one bound id per product) with the right total, and rejects products of another
+ * tenant or inactive ones, naming each.
+ */
+class TransactionAssemblerTest {
+
+    private static final int LINES = 40;
+
+    private static final SqlRecorder SQL = new SqlRecorder();
+    // The product id IN list as rendered by Hibernate, e.g. "product_id in(?,?)"
+    private static final Pattern ID_LIST = Pattern.compile("product_id in\\s*\\(([?,\\s]*)\\)");
+
+    private static SessionFactory sessionFactory;
+    private static UUID ownerId;
+    private static final List<UUID> PRODUCT_IDS = new ArrayList<>();
+    private static UUID inactiveProductId;
+    private static UUID otherTenantProductId;
+
+    @BeforeAll
+    static void createCatalogs() {
+        sessionFactory = TestDatabase.sessionFactory(SQL);
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = Fixtures.user("assembler-owner");
+            User other = Fixtures.user("assembler-other");
+            session.persist(owner);
+            session.persist(other);
+            for (int i = 0; i < LINES; i++) {
+                Product product = Fixtures.product(owner, "SKU-" + i, "Product " + i);
+                session.persist(product);
+                PRODUCT_IDS.add(product.getProductId());
+            }
+            Product inactive = Fixtures.product(owner, "SKU-INACTIVE", "Inactive product");
+            inactive.setActive(false);
+            session.persist(inactive);
+            Product otherTenant = Fixtures.product(other, "SKU-0", "Product 0");
+            session.persist(otherTenant);
+            ownerId = owner.getUserId();
+            inactiveProductId = inactive.getProductId();
+            otherTenantProductId = otherTenant.getProductId();
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void oneStatementResolvesEveryLine() {
+        List<TransactionItemCreateRequestDTO> lines = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            lines.add(line(PRODUCT_IDS.get(i), 1 + i % 3, "10.00"));
+        }
+
+        try (Session session = sessionFactory.openSession()) {
+            SQL.clear();
+            Transaction transaction = assembler().assemble(session, ownerId, request(lines));
+
+            assertEquals(1, SQL.count(), SQL.describe());
+            assertEquals(LINES, boundIds(SQL.statements().get(0)));
+            assertEquals(LINES, transaction.getItems().size());
+            for (int i = 0; i < LINES; i++) {
+                TransactionItem item = transaction.getItems().get(i);
+                assertEquals(PRODUCT_IDS.get(i), item.getProduct().getProductId());
+                assertSame(transaction, item.getTransaction());
+            }
+            assertEquals(1, SQL.count(), SQL.describe()); // Products and the user reference needed nothing more
+        }
+    }
+
+    @Test
+    void duplicateLinesAreMergedBeforeTheLookup() {
+        UUID first = PRODUCT_IDS.get(0);
+        UUID second = PRODUCT_IDS.get(1);
+        List<TransactionItemCreateRequestDTO> lines = List.of(
+                line(first, 2, "10.00"), line(second, 1, "3.50"), line(first, 3, "10.00"), line(second, 4, "3.50"));
+
+        try (Session session = sessionFactory.openSession()) {
+            SQL.clear();
+            Transaction transaction = assembler().assemble(session, ownerId, request(lines));
+
+            assertEquals(1, SQL.count(), SQL.describe());
+            assertEquals(2, boundIds(SQL.statements().get(0)));
+            List<TransactionItem> items = transaction.getItems();
+            assertEquals(2, items.size());
+            assertEquals(first, items.get(0).getProduct().getProductId());
+            assertEquals(5, items.get(0).getQuantity());
+            assertEquals(Money.ofCents(5_000), items.get(0).getSubtotal());
+            assertEquals(second, items.get(1).getProduct().getProductId());
+            assertEquals(5, items.get(1).getQuantity());
+            assertEquals(Money.ofCents(1_750), items.get(1).getSubtotal());
+            assertEquals(Money.ofCents(6_750), transaction.getTotalAmount());
+            assertTrue(transaction.isTotalAmountConsistent());
+        }
+    }
+
+    @Test
+    void productsOfAnotherTenantOrInactiveAreRejected() {
+        List<TransactionItemCreateRequestDTO> lines = List.of(
+                line(PRODUCT_IDS.get(0), 1, "10.00"),
+                line(otherTenantProductId, 1, "10.00"),
+                line(inactiveProductId, 1, "10.00"));
+
+        try (Session session = sessionFactory.openSession()) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> assembler().assemble(session, ownerId, request(lines)));
+            assertEquals("Invalid products in transaction request. Not found: [" + otherTenantProductId
+                    + "]. Inactive: [" + inactiveProductId + "].", e.getMessage());
+
+            IllegalArgumentException inactiveOnly = assertThrows(IllegalArgumentException.class,
+                    () -> assembler().assemble(session, ownerId, request(List.of(line(inactiveProductId, 1, "10.00")))));
+            assertEquals("Invalid products in transaction request. Inactive: [" + inactiveProductId + "].",
+                    inactiveOnly.getMessage());
+        }
+    }
+
+    private static long boundIds(String sql) {
+        Matcher matcher = ID_LIST.matcher(sql);
+        assertTrue(matcher.find(), sql);
+        return matcher.group(1).chars().filter(c -> c == '?').count();
+    }
+
+    private static TransactionAssembler assembler() {
+        return new TransactionAssembler(TestMappers.transactionMapper(), TestMappers.transactionItemMapper());
+    }
+
+    private static TransactionCreateRequestDTO request(List<TransactionItemCreateRequestDTO> lines) {
+        return TransactionCreateRequestDTO.builder().items(lines).build();
+    }
+
+    private static TransactionItemCreateRequestDTO line(UUID productId, int quantity, String unitPrice) {
+        return TransactionItemCreateRequestDTO.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .unitPrice(new BigDecimal(unitPrice))
+                .build();
+    }
+}
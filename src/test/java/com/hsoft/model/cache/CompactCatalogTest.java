@@ -0,0 +1,139 @@
+package com.hsoft.model.cache;
+
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.support.Benchmarks;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.types.v1.JsonContext;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lookups and duplicate rejection of the compact catalog, and (benchmark) its heap footprint per row versus
+ * the same products as detached {@link Product} entities, measured as heap deltas after full GCs.
+ */
+class CompactCatalogTest {
+
+    private static final int CATALOG = 50_000;
+    private static final String[] UNITS = {"unidad", "kg", "litro", "caja"};
+
+    private static final User OWNER = Fixtures.user("compact-owner");
+
+    @Test
+    void everyRowIsFoundBySkuAndProductId() {
+        List<Product> products = products(1_000);
+        products.get(7).setSku(null);
+        products.get(8).setPurchasePrice(null);
+        products.get(9).setActive(false);
+        CompactCatalog catalog = CompactCatalog.Builder.fromProducts(OWNER.getUserId(), products);
+
+        assertEquals(999, catalog.size());
+        for (Product product : products) {
+            int row = catalog.rowOfProduct(product.getProductId());
+            if (!product.isActive()) {
+                assertEquals(CompactCatalog.NOT_FOUND, row);
+                continue;
+            }
+            assertEquals(product.getName(), catalog.name(row));
+            assertEquals(product.getCategory(), catalog.category(row));
+            assertEquals(product.getUnitOfMeasure(), catalog.unitOfMeasure(row));
+            if (product.getSku() != null) {
+                assertEquals(row, catalog.rowOfSku(product.getSku()));
+            }
+        }
+        assertNull(catalog.sku(catalog.rowOfProduct(products.get(7).getProductId())));
+        assertNull(catalog.purchasePrice(catalog.rowOfProduct(products.get(8).getProductId())));
+        assertEquals(CompactCatalog.NOT_FOUND, catalog.rowOfSku("SKU-MISSING"));
+        assertEquals(CompactCatalog.NOT_FOUND, catalog.rowOfProduct(UUID.randomUUID()));
+    }
+
+    @Test
+    void duplicateSkusAreRejected() {
+        List<Product> products = products(100);
+        products.get(60).setSku(products.get(30).getSku());
+        assertThrows(IllegalArgumentException.class,
+                () -> CompactCatalog.Builder.fromProducts(OWNER.getUserId(), products));
+    }
+
+    @Test
+    void duplicateProductIdsAreRejected() {
+        List<Product> products = products(100);
+        products.get(60).setProductId(products.get(30).getProductId());
+        assertThrows(IllegalArgumentException.class,
+                () -> CompactCatalog.Builder.fromProducts(OWNER.getUserId(), products));
+    }
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    void compactRowsAreAFractionOfDetachedProducts() {
+        long before = usedHeapAfterGc();
+        List<Product> products = products(CATALOG);
+        long productBytes = usedHeapAfterGc() - before;
+
+        before = usedHeapAfterGc();
+        CompactCatalog catalog = CompactCatalog.Builder.fromProducts(OWNER.getUserId(), products);
+        long catalogBytes = usedHeapAfterGc() - before;
+
+        Benchmarks.report("detached Product", "%,6.0f bytes/row", (double) productBytes / CATALOG);
+        Benchmarks.report("compact catalog", "%,6.0f bytes/row   estimatedBytes() %,6.0f bytes/row",
+                (double) catalogBytes / catalog.size(), (double) catalog.estimatedBytes() / catalog.size());
+
+        assertEquals(CATALOG, catalog.size());
+        assertEquals(products.size(), catalog.size()); // Keeps the products reachable until after the measurement
+        assertTrue(Math.abs(catalogBytes - catalog.estimatedBytes()) < catalog.estimatedBytes() / 5,
+                "heap delta " + catalogBytes + " vs estimate " + catalog.estimatedBytes());
+        assertTrue(catalogBytes * 4 < productBytes, catalogBytes + " vs " + productBytes);
+    }
+
+    /**
+     * Detached products as a catalog query would leave them: 12-char SKUs, 27-char names, own price and
+     * timestamp instances per row, a two-entry context, a handful of units and 40 categories.
+     */
+    private static List<Product> products(int count) {
+        OffsetDateTime base = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = Fixtures.product(OWNER, String.format("SKU-%08d", i), String.format("Producto de prueba %08d", i));
+            product.setProductId(UUID.randomUUID());
+            product.setDescription(null); // Lazy group, not loaded by catalog reads
+            product.setSalePrice(new BigDecimal(BigDecimal.valueOf(1_000 + i, 2).toPlainString()));
+            product.setPurchasePrice(new BigDecimal(BigDecimal.valueOf(500 + i, 2).toPlainString()));
+            product.setCurrentStock(i % 500);
+            product.setUnitOfMeasure(new String(UNITS[i % UNITS.length]));
+            product.setCategory("Category " + i % 40);
+            product.setCreatedAt(base.plusSeconds(i));
+            product.setUpdatedAt(base.plusSeconds(i + 60));
+            product.setVersion((long) i % 7);
+            product.setContext(JsonContext.of(Map.of("color", "Red", "material", "Plastic")));
+            products.add(product);
+        }
+        return products;
+    }
+
+    // Used heap once full GCs stop freeing memory
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if (now >= used) {
+                return now;
+            }
+            used = now;
+        }
+        return used;
+    }
+}
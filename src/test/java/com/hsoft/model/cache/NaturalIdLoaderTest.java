@@ -0,0 +1,126 @@
+package com.hsoft.model.cache;
+
+import com.hsoft.model.dto.v1.products.ProductUpdateRequestDTO;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.TestDatabase;
+import com.hsoft.model.support.TestMappers;
+import org.hibernate.Interceptor;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.type.Type;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SKU resolutions cached by {@link NaturalIdLoader} must not outlive a rename that commits while the
+ * resolving query is in flight. The rename is committed from an {@link Interceptor#onLoad} hook, i.e. after the
+ * loader's query has read the old row and before the loader caches the resolution.
+ */
+class NaturalIdLoaderTest {
+
+    private static SessionFactory sessionFactory;
+    private static UUID ownerId;
+
+    @BeforeAll
+    static void createOwner() {
+        sessionFactory = TestDatabase.sessionFactory();
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = Fixtures.user("natural-id-owner");
+            session.persist(owner);
+            ownerId = owner.getUserId();
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void resolutionIsCachedWhenNothingChanges() {
+        CatalogCache cache = new CatalogCache();
+        NaturalIdLoader loader = new NaturalIdLoader(cache);
+        UUID productId = newProduct("STABLE-1");
+
+        try (Session session = sessionFactory.openSession()) {
+            assertTrue(loader.loadProductBySku(session, ownerId, "STABLE-1").isPresent());
+        }
+        assertEquals(productId, cache.cachedProductId(ownerId, "STABLE-1"));
+    }
+
+    @Test
+    void renameCommittedDuringALoadIsNotUndoneByTheCache() {
+        CatalogCache cache = new CatalogCache();
+        NaturalIdLoader loader = new NaturalIdLoader(cache);
+        UUID productId = newProduct("RACE-1");
+
+        try (Session session = openSessionRenamingOnFirstLoad(loader, productId, "RACE-1-NEW")) {
+            Product stale = loader.loadProductBySku(session, ownerId, "RACE-1").orElseThrow();
+            assertEquals("RACE-1", stale.getSku()); // The query read the row before the rename committed
+        }
+
+        assertNull(cache.cachedProductId(ownerId, "RACE-1"));
+        try (Session session = sessionFactory.openSession()) {
+            assertTrue(loader.loadProductBySku(session, ownerId, "RACE-1").isEmpty());
+            assertEquals(productId, loader.loadProductBySku(session, ownerId, "RACE-1-NEW").orElseThrow().getProductId());
+        }
+    }
+
+    @Test
+    void renameCommittedDuringABatchLoadIsNotUndoneByTheCache() {
+        CatalogCache cache = new CatalogCache();
+        NaturalIdLoader loader = new NaturalIdLoader(cache);
+        UUID renamedId = newProduct("BATCH-1");
+        UUID untouchedId = newProduct("BATCH-2");
+
+        try (Session session = openSessionRenamingOnFirstLoad(loader, renamedId, "BATCH-1-NEW")) {
+            Map<String, Product> loaded = loader.loadProductsBySkus(session, ownerId, List.of("BATCH-1", "BATCH-2"));
+            assertEquals(2, loaded.size());
+        }
+
+        assertNull(cache.cachedProductId(ownerId, "BATCH-1"));
+        assertEquals(untouchedId, cache.cachedProductId(ownerId, "BATCH-2"));
+    }
+
+    private static UUID newProduct(String sku) {
+        AtomicReference<UUID> id = new AtomicReference<>();
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            Product product = Fixtures.product(session.getReference(User.class, ownerId), sku, "Product " + sku);
+            session.persist(product);
+            id.set(product.getProductId());
+        });
+        return id.get();
+    }
+
+    // A session whose first entity load commits a rename (with its after-commit eviction) in another session
+    private static Session openSessionRenamingOnFirstLoad(NaturalIdLoader loader, UUID productId, String newSku) {
+        AtomicReference<Runnable> rename = new AtomicReference<>(() -> TestDatabase.inTransaction(sessionFactory, other -> {
+            ProductUpdateRequestDTO dto = new ProductUpdateRequestDTO();
+            dto.setSku(newSku);
+            loader.updateProduct(other, TestMappers.productMapper(), dto, other.find(Product.class, productId));
+        }));
+        Interceptor renameOnLoad = new Interceptor() {
+            @Override
+            public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+                Runnable once = rename.getAndSet(null);
+                if (once != null) {
+                    once.run();
+                }
+                return false;
+            }
+        };
+        return sessionFactory.withOptions().interceptor(renameOnLoad).openSession();
+    }
+}
@@ -0,0 +1,162 @@
+package com.hsoft.model.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TenantPartitionedCacheTest {
+
+    private static final UUID TENANT_A = UUID.randomUUID();
+    private static final UUID TENANT_B = UUID.randomUUID();
+
+    @Test
+    void loadThatRacesAnInvalidationIsNotCached() {
+        TenantPartitionedCache<String, String> cache = new TenantPartitionedCache<>("test", 10);
+
+        // The writer commits and invalidates while the loader still holds the old row
+        String loaded = cache.get(TENANT_A, "sku", key -> {
+            cache.invalidate(TENANT_A, key);
+            return "old";
+        });
+
+        assertEquals("old", loaded);
+        assertNull(cache.getIfPresent(TENANT_A, "sku"));
+        assertEquals("new", cache.get(TENANT_A, "sku", key -> "new"));
+        assertEquals("new", cache.getIfPresent(TENANT_A, "sku"));
+    }
+
+    @Test
+    void loadThatRacesATenantInvalidationIsNotCached() {
+        TenantPartitionedCache<String, String> cache = new TenantPartitionedCache<>("test", 10);
+
+        cache.get(TENANT_A, "sku", key -> {
+            cache.invalidateTenant(TENANT_A);
+            return "old";
+        });
+
+        assertNull(cache.getIfPresent(TENANT_A, "sku"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void generationGuardsPutsOfValuesLoadedElsewhere() {
+        TenantPartitionedCache<String, String> cache = new TenantPartitionedCache<>("test", 10);
+
+        long before = cache.generation(TENANT_A, "sku");
+        cache.invalidate(TENANT_A, "sku");
+        assertFalse(cache.put(TENANT_A, "sku", "old", before));
+        assertNull(cache.getIfPresent(TENANT_A, "sku"));
+
+        long current = cache.generation(TENANT_A, "sku");
+        cache.invalidateTenant(TENANT_A);
+        assertFalse(cache.put(TENANT_A, "sku", "old", current));
+
+        assertTrue(cache.put(TENANT_A, "sku", "new", cache.generation(TENANT_A, "sku")));
+        assertEquals("new", cache.getIfPresent(TENANT_A, "sku"));
+    }
+
+    @Test
+    void invalidationsOfOtherKeysAndTenantsDoNotBlockAPut() {
+        TenantPartitionedCache<String, String> cache = new TenantPartitionedCache<>("test", 10);
+
+        long generation = cache.generation(TENANT_A, "sku");
+        cache.invalidateTenant(TENANT_B);
+        cache.invalidate(TENANT_B, "sku");
+        assertTrue(cache.put(TENANT_A, "sku", "value", generation));
+    }
+
+    @Test
+    void regionLimitEvictsFromTheLargestPartition() {
+        TenantPartitionedCache<Integer, String> cache = new TenantPartitionedCache<>("test", 100, 150);
+        for (int i = 0; i < 100; i++) {
+            cache.put(TENANT_A, i, "a" + i);
+        }
+        for (int i = 0; i < 60; i++) {
+            cache.put(TENANT_B, i, "b" + i);
+        }
+
+        assertEquals(150, cache.size());
+        assertEquals(60, cache.size(TENANT_B));
+        assertEquals(90, cache.size(TENANT_A));
+        assertNull(cache.getIfPresent(TENANT_A, 0), "least recently used entry of the largest tenant goes first");
+        assertEquals("a99", cache.getIfPresent(TENANT_A, 99));
+        assertEquals(10, cache.getStats().getEvictions());
+    }
+
+    @Test
+    void sizeFollowsEvictionsAndInvalidations() {
+        TenantPartitionedCache<Integer, String> cache = new TenantPartitionedCache<>("test", 5, 8);
+        for (int i = 0; i < 7; i++) {
+            cache.put(TENANT_A, i, "a");
+        }
+        cache.put(TENANT_B, 1, "b");
+        cache.put(TENANT_B, 1, "b2");
+        assertEquals(6, cache.size());
+
+        cache.invalidate(TENANT_A, 6);
+        cache.invalidate(TENANT_A, 6);
+        assertEquals(5, cache.size());
+        cache.invalidateTenant(TENANT_A);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void regionLimitMustHoldAtLeastOnePartition() {
+        assertThrows(IllegalArgumentException.class, () -> new TenantPartitionedCache<>("test", 10, 5));
+    }
+
+    @Test
+    void concurrentLoadsNeverLeaveAStaleValueBehind() throws Exception {
+        int keys = 16;
+        TenantPartitionedCache<Integer, Long> cache = new TenantPartitionedCache<>("test", keys);
+        AtomicLongArray database = new AtomicLongArray(keys);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 6; t++) {
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        cache.get(TENANT_A, i % keys, key -> {
+                            long version = database.get(key);
+                            Thread.yield(); // Widen the window between the read and the put
+                            return version;
+                        });
+                    }
+                }));
+            }
+            for (int t = 0; t < 2; t++) {
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        int key = i % keys;
+                        database.incrementAndGet(key); // Commit, then evict
+                        cache.invalidate(TENANT_A, key);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (int key = 0; key < keys; key++) {
+            Long cached = cache.getIfPresent(TENANT_A, key);
+            if (cached != null) {
+                assertEquals(database.get(key), cached, "stale value cached for key " + key);
+            }
+        }
+    }
+}
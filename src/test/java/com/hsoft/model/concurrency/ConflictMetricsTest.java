@@ -0,0 +1,60 @@
+package com.hsoft.model.concurrency;
+
+import com.hsoft.model.entities.v1.Product;
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.StaleObjectStateException;
+import org.hibernate.StaleStateException;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConflictMetricsTest {
+
+    @Test
+    void entityTypeComesFromTheHibernateException() {
+        StaleObjectStateException stale = new StaleObjectStateException(Product.class.getName(), UUID.randomUUID());
+        // As converted by the EntityManager: the JPA exception wraps Hibernate's
+        OptimisticLockException wrapped = new OptimisticLockException("Row was updated", stale, null);
+
+        assertEquals("Product", ConflictMetrics.entityTypeOf(stale));
+        assertEquals("Product", ConflictMetrics.entityTypeOf(new RuntimeException(wrapped)));
+    }
+
+    @Test
+    void entityTypeComesFromTheJpaExceptionEntity() {
+        assertEquals("Product", ConflictMetrics.entityTypeOf(new OptimisticLockException(new Product())));
+    }
+
+    @Test
+    void conflictsWithoutAnEntityAreUnknown() {
+        assertEquals(ConflictMetrics.UNKNOWN_ENTITY,
+                ConflictMetrics.entityTypeOf(new StaleStateException("Batch update returned unexpected row count")));
+    }
+
+    @Test
+    void executorCountsAttemptsPerOperationAndConflictsPerEntity() {
+        ConflictMetrics metrics = new ConflictMetrics();
+        OptimisticRetryExecutor executor = new OptimisticRetryExecutor(3, 0L, 0L, metrics);
+        int[] calls = {0};
+
+        String result = executor.execute("adjustStock", () -> {
+            if (++calls[0] < 3) {
+                throw new StaleObjectStateException(Product.class.getName(), UUID.randomUUID());
+            }
+            return "done";
+        });
+        assertThrows(OptimisticLockException.class, () -> executor.run("adjustStock", () -> {
+            throw new OptimisticLockException(new Product());
+        }));
+
+        assertEquals("done", result);
+        assertEquals(6, metrics.getAttempts("adjustStock"));
+        assertEquals(5, metrics.getConflicts("adjustStock"));
+        assertEquals(1, metrics.getExhausted("adjustStock"));
+        assertEquals(5, metrics.getEntityConflicts("Product"));
+        assertEquals(0, metrics.getEntityConflicts("adjustStock"));
+    }
+}
@@ -0,0 +1,227 @@
+package com.hsoft.model.dedup;
+
+import com.hsoft.model.entities.v1.Client;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.support.Benchmarks;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.TestDatabase;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The record created first survives, whatever the order of the ids, from a single pair up to transitive groups
+ * and through the projection query; (benchmark) throughput, comparisons and recall on a synthetic tenant
+ * of {@code CLIENTS} clients with {@code VARIANTS} planted re-spellings.
+ */
+class DuplicateDetectorTest {
+
+    private static final int CLIENTS = 200_000;
+    private static final int VARIANTS = 10_000;
+
+    private static final OffsetDateTime BASE = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+
+    // Ids in the opposite order of creation, as after an import that kept the ids of another system
+    private static final UUID LATE_ID = UUID.fromString("00000000-0000-4000-8000-000000000001");
+    private static final UUID MIDDLE_ID = UUID.fromString("80000000-0000-4000-8000-000000000002");
+    private static final UUID EARLY_ID = UUID.fromString("ffffffff-0000-4000-8000-000000000003");
+
+    private static final String CONSONANTS = "bcdfghjlmnprstvxyz";
+    private static final String VOWELS = "aeiou";
+
+    @Test
+    void survivorIsTheRecordCreatedFirstWhateverItsId() {
+        ContactRecord early = ContactRecord.of(EARLY_ID, BASE, "Comercial El Sol, S.A.", "1234567-8", null, null);
+        ContactRecord late = ContactRecord.of(LATE_ID, BASE.plusDays(30), "Comercial el Sol", "12345678", null, null);
+
+        DeduplicationResult result = new DuplicateDetector().detect(List.of(late, early));
+
+        assertEquals(1, result.getSuggestions().size());
+        MergeSuggestion suggestion = result.getSuggestions().get(0);
+        assertEquals(EARLY_ID, suggestion.getSurvivorId());
+        assertEquals(LATE_ID, suggestion.getDuplicateId());
+        assertEquals(BASE, suggestion.getSurvivorCreatedAt());
+    }
+
+    @Test
+    void groupsAreLedByTheirOldestRecord() {
+        // early~middle through the NIT, middle~late through the email: one group, led by early
+        List<ContactRecord> records = List.of(
+                ContactRecord.of(LATE_ID, BASE.plusDays(2), "Ferreteria La Paz", null, null, "ventas@lapaz.com"),
+                ContactRecord.of(MIDDLE_ID, BASE.plusDays(1), "Ferreteria la Paz", "777777-1", null, "Ventas@LaPaz.com"),
+                ContactRecord.of(EARLY_ID, BASE, "Ferreteria La Paz, S.A.", "7777771", null, null));
+
+        List<List<UUID>> groups = new DuplicateDetector().detect(records).groups();
+
+        assertEquals(List.of(List.of(EARLY_ID, MIDDLE_ID, LATE_ID)), groups);
+    }
+
+    @Test
+    void clientsAreLoadedWithTheirCreationTime() {
+        SessionFactory sessionFactory = TestDatabase.sessionFactory();
+        try (sessionFactory) {
+            UUID[] ownerId = new UUID[1];
+            TestDatabase.inTransaction(sessionFactory, session -> {
+                User owner = Fixtures.user("dedup-owner");
+                session.persist(owner);
+                ownerId[0] = owner.getUserId();
+            });
+            // Two transactions, so created_at follows the insertion order while the ids run backwards
+            persistClient(sessionFactory, ownerId[0], EARLY_ID, "Distribuidora Norte");
+            persistClient(sessionFactory, ownerId[0], LATE_ID, "Distribuidora del Norte");
+
+            DeduplicationResult result;
+            try (Session session = sessionFactory.openSession()) {
+                result = new DuplicateDetector().findClientDuplicates(session, ownerId[0]);
+            }
+
+            assertEquals(1, result.getSuggestions().size());
+            MergeSuggestion suggestion = result.getSuggestions().get(0);
+            assertEquals(EARLY_ID, suggestion.getSurvivorId());
+            assertTrue(suggestion.getSurvivorCreatedAt().isBefore(suggestion.getDuplicateCreatedAt()));
+        }
+    }
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    void blockingComparesAFractionOfAllPairs() {
+        Random random = new Random(42);
+        Tenant tenant = new Tenant(random);
+        List<ContactRecord> records = new ArrayList<>(CLIENTS + VARIANTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            records.add(tenant.client(i));
+        }
+        Set<Set<UUID>> planted = new HashSet<>();
+        for (int i = 0; i < VARIANTS; i++) {
+            ContactRecord original = records.get(random.nextInt(CLIENTS));
+            ContactRecord variant = tenant.variant(original, CLIENTS + i);
+            records.add(variant);
+            planted.add(Set.of(original.getId(), variant.getId()));
+        }
+
+        DuplicateDetector detector = new DuplicateDetector();
+        detector.detect(records.subList(0, 20_000)); // Warm-up
+        DeduplicationResult result = detector.detect(records);
+
+        int found = 0;
+        int survivorsCreatedFirst = 0;
+        for (MergeSuggestion suggestion : result.getSuggestions()) {
+            if (planted.contains(Set.of(suggestion.getSurvivorId(), suggestion.getDuplicateId()))) {
+                found++;
+                if (suggestion.getSurvivorCreatedAt().isBefore(suggestion.getDuplicateCreatedAt())) {
+                    survivorsCreatedFirst++;
+                }
+            }
+        }
+        long naivePairs = (long) records.size() * (records.size() - 1) / 2;
+        Benchmarks.report(records.size() + " clients", "%,8.0f records/s   %.2f s   parallelism %d",
+                Benchmarks.perSecond(records.size(), result.getElapsed().toNanos()),
+                result.getElapsed().toNanos() / 1e9, Runtime.getRuntime().availableProcessors());
+        Benchmarks.report("comparisons", "%,d (pairwise %.1e)   %,d blocks, %d skipped",
+                result.getComparisons(), (double) naivePairs, result.getBlockCount(), result.getSkippedBlocks());
+        Benchmarks.report("planted pairs found", "%,d of %,d   other suggestions %,d",
+                found, planted.size(), result.getSuggestions().size() - found);
+
+        assertEquals(found, survivorsCreatedFirst);
+        assertTrue(found >= planted.size() * 0.95, "recall " + found + " of " + planted.size());
+        assertTrue(result.getComparisons() < naivePairs / 1_000, "comparisons " + result.getComparisons());
+    }
+
+    private static void persistClient(SessionFactory sessionFactory, UUID ownerId, UUID clientId, String name) {
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            Client client = Fixtures.client(session.getReference(User.class, ownerId), name);
+            client.setClientId(clientId);
+            client.setNit("9876543-2");
+            session.persist(client);
+        });
+    }
+
+    /**
+     * Synthetic tenant: people ("first [second] last1 last2") and companies, a third of them consumidor final,
+     * most with a phone and some with an email. Ids are random, so their order says nothing about age.
+     */
+    private static final class Tenant {
+        final Random random;
+        final String[] firstNames = new String[20_000];
+        final String[] lastNames = new String[20_000];
+        final String[] companyWords = new String[10_000];
+
+        Tenant(Random random) {
+            this.random = random;
+            fill(firstNames);
+            fill(lastNames);
+            fill(companyWords);
+        }
+
+        ContactRecord client(int n) {
+            String name;
+            if (random.nextInt(4) == 0) {
+                name = capitalize(pick(companyWords)) + " " + capitalize(pick(companyWords)) + ", S.A.";
+            } else {
+                name = capitalize(pick(firstNames)) + (random.nextBoolean() ? " " + capitalize(pick(firstNames)) : "")
+                        + " " + capitalize(pick(lastNames)) + " " + capitalize(pick(lastNames));
+            }
+            String nit = random.nextInt(3) == 0 ? "C/F" : (1_000_000 + random.nextInt(9_000_000)) + "-" + random.nextInt(10);
+            String phone = random.nextInt(10) < 7 ? String.valueOf(30_000_000 + random.nextInt(60_000_000)) : null;
+            String email = random.nextInt(10) < 4 ? "cliente" + n + "@correo.com" : null;
+            return ContactRecord.of(new UUID(random.nextLong(), random.nextLong()), BASE.plusMinutes(n), name, nit, phone, email);
+        }
+
+        // The same client typed again later: one typo in the name and differently formatted identifiers
+        ContactRecord variant(ContactRecord original, int n) {
+            String nit = original.getNit() == null ? "CF" : original.getNit().substring(0, original.getNit().length() - 1)
+                    + "-" + original.getNit().charAt(original.getNit().length() - 1);
+            String phone = original.getPhone() == null ? null : "+502 " + original.getPhone().substring(0, 4)
+                    + "-" + original.getPhone().substring(4);
+            String email = original.getEmail() == null ? null : original.getEmail().toUpperCase();
+            return ContactRecord.of(new UUID(random.nextLong(), random.nextLong()), BASE.plusMinutes(n),
+                    typo(original.getName()), nit, phone, email);
+        }
+
+        private String typo(String name) {
+            char[] chars = name.toCharArray();
+            for (int attempt = 0; attempt < 10; attempt++) {
+                int i = 1 + random.nextInt(chars.length - 2);
+                if (Character.isLetter(chars[i]) && Character.isLetter(chars[i + 1]) && chars[i] != chars[i + 1]) {
+                    char swapped = chars[i];
+                    chars[i] = chars[i + 1];
+                    chars[i + 1] = swapped;
+                    break;
+                }
+            }
+            return new String(chars);
+        }
+
+        private String pick(String[] values) {
+            return values[random.nextInt(values.length)];
+        }
+
+        private void fill(String[] values) {
+            for (int i = 0; i < values.length; i++) {
+                StringBuilder word = new StringBuilder();
+                int syllables = 2 + random.nextInt(3);
+                for (int s = 0; s < syllables; s++) {
+                    word.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())))
+                            .append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+                }
+                values[i] = word.toString();
+            }
+        }
+
+        private static String capitalize(String word) {
+            return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+        }
+    }
+}
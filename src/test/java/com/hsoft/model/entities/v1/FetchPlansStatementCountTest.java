@@ -0,0 +1,199 @@
+package com.hsoft.model.entities.v1;
+
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.SqlRecorder;
+import com.hsoft.model.support.TestDatabase;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exact SQL statement counts for each named fetch plan in {@link FetchPlans} and for the batch-fetched collections.
+ * Each test loads through the plan, then touches everything the plan promises; the count must not move.
+ */
+class FetchPlansStatementCountTest {
+
+    private static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+    private static final int TRANSACTIONS = 12;
+    private static final int LINES = 5;
+    private static final int MAIN_USERS = 3;
+
+    private static final SqlRecorder SQL = new SqlRecorder();
+    private static SessionFactory sessionFactory;
+    private static UUID ownerId;
+    private static UUID subUserId;
+    private static UUID transactionId;
+    private static UUID productId;
+
+    @BeforeAll
+    static void createData() {
+        sessionFactory = TestDatabase.sessionFactory(SQL);
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = Fixtures.user("owner");
+            User cashier = Fixtures.subUser(owner, "cashier");
+            session.persist(owner);
+            session.persist(cashier);
+            List<Product> products = new ArrayList<>();
+            for (int i = 0; i < LINES; i++) {
+                Product product = Fixtures.product(owner, "SKU-" + i, "Product " + i);
+                session.persist(product);
+                products.add(product);
+            }
+            for (int i = 0; i < TRANSACTIONS; i++) {
+                Client client = Fixtures.client(owner, "Client " + i);
+                session.persist(client);
+                Transaction sale = Fixtures.sale(owner, client, cashier, products);
+                session.persist(sale);
+                transactionId = sale.getTransactionId();
+            }
+            for (int i = 1; i < MAIN_USERS; i++) {
+                User other = Fixtures.user("owner" + i);
+                session.persist(other);
+                session.persist(Fixtures.subUser(other, "cashier" + i + "a"));
+                session.persist(Fixtures.subUser(other, "cashier" + i + "b"));
+            }
+            ownerId = owner.getUserId();
+            subUserId = cashier.getUserId();
+            productId = products.get(0).getProductId();
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @BeforeEach
+    void resetCounters() {
+        statistics().clear();
+        SQL.clear();
+    }
+
+    @Test
+    void transactionDetailIsOneStatement() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.find(Transaction.class, transactionId,
+                    Map.of(FETCH_GRAPH, session.getEntityGraph(FetchPlans.TRANSACTION_DETAIL)));
+
+            assertEquals("owner", transaction.getUser().getUsername());
+            assertEquals("cashier", transaction.getCreatedByUser().getUsername());
+            assertTrue(transaction.getClient().getName().startsWith("Client"));
+            assertEquals(LINES, transaction.getItems().size());
+            for (TransactionItem item : transaction.getItems()) {
+                assertTrue(item.getProduct().getName().startsWith("Product"));
+            }
+        }
+        assertStatements(1);
+    }
+
+    @Test
+    void transactionSummaryListIsOneStatement() {
+        try (Session session = sessionFactory.openSession()) {
+            List<Transaction> transactions = session
+                    .createQuery("select t from Transaction t where t.user.userId = :userId", Transaction.class)
+                    .setParameter("userId", ownerId)
+                    .setHint(FETCH_GRAPH, session.getEntityGraph(FetchPlans.TRANSACTION_SUMMARY))
+                    .getResultList();
+
+            assertEquals(TRANSACTIONS, transactions.size());
+            for (Transaction transaction : transactions) {
+                assertTrue(transaction.getClient().getName().startsWith("Client"));
+                assertEquals("cashier", transaction.getCreatedByUser().getUsername());
+                assertNull(transaction.getProvider());
+            }
+        }
+        assertStatements(1);
+    }
+
+    @Test
+    void productWithUserIsOneStatement() {
+        try (Session session = sessionFactory.openSession()) {
+            Product product = session.find(Product.class, productId,
+                    Map.of(FETCH_GRAPH, session.getEntityGraph(FetchPlans.PRODUCT_WITH_USER)));
+
+            assertEquals("Company owner", product.getUser().getCompanyName());
+        }
+        assertStatements(1);
+    }
+
+    @Test
+    void userWithParentIsOneStatement() {
+        try (Session session = sessionFactory.openSession()) {
+            User user = session.find(User.class, subUserId,
+                    Map.of(FETCH_GRAPH, session.getEntityGraph(FetchPlans.USER_WITH_PARENT)));
+
+            assertEquals("owner", user.getParentUser().getUsername());
+        }
+        assertStatements(1);
+    }
+
+    @Test
+    void transactionItemsAreBatchFetched() {
+        try (Session session = sessionFactory.openSession()) {
+            List<Transaction> transactions = session
+                    .createQuery("select t from Transaction t where t.user.userId = :userId", Transaction.class)
+                    .setParameter("userId", ownerId)
+                    .getResultList();
+            int lines = 0;
+            for (Transaction transaction : transactions) {
+                lines += transaction.getItems().size();
+            }
+            assertEquals(TRANSACTIONS * LINES, lines);
+        }
+        // The transactions, then the items of all of them in one batch (TRANSACTIONS <= COLLECTION_BATCH_SIZE)
+        assertStatements(2);
+    }
+
+    @Test
+    void subAccountsAreBatchFetched() {
+        try (Session session = sessionFactory.openSession()) {
+            List<User> mainUsers = session
+                    .createQuery("select u from User u where u.parentUser is null", User.class)
+                    .getResultList();
+            int subAccounts = 0;
+            for (User mainUser : mainUsers) {
+                subAccounts += mainUser.getSubAccounts().size();
+            }
+            assertEquals(MAIN_USERS, mainUsers.size());
+            assertEquals(1 + 2 * (MAIN_USERS - 1), subAccounts);
+        }
+        assertStatements(2);
+    }
+
+    @Test
+    void withoutAPlanTheSameDetailCostsOneStatementPerAssociation() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.find(Transaction.class, transactionId);
+            transaction.getUser().getUsername();
+            transaction.getCreatedByUser().getUsername();
+            transaction.getClient().getName();
+            for (TransactionItem item : transaction.getItems()) {
+                item.getProduct().getName();
+            }
+        }
+        // transaction + user + creator + client + items + one per product
+        assertStatements(5 + LINES);
+    }
+
+    private static void assertStatements(int expected) {
+        assertEquals(expected, statistics().getPrepareStatementCount(), SQL::describe);
+        assertEquals(expected, SQL.count(), SQL::describe);
+    }
+
+    private static Statistics statistics() {
+        return sessionFactory.getStatistics();
+    }
+}
@@ -0,0 +1,165 @@
+package com.hsoft.model.entities.v1;
+
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.SqlRecorder;
+import com.hsoft.model.support.TestDatabase;
+import com.hsoft.model.types.v1.JsonContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The columns Hibernate actually selects for the {@link FetchPlans#TEXT_GROUP} and {@link FetchPlans#CONTEXT_GROUP}
+ * lazy attribute groups. Without build-time enhancement lazy {@code @Basic} is silently ignored, so these tests
+ * also fail when the enhancement step is missing from the build.
+ */
+class LazyAttributeGroupsTest {
+
+    private static final SqlRecorder SQL = new SqlRecorder();
+    private static SessionFactory sessionFactory;
+    private static UUID ownerId;
+    private static UUID productId;
+    private static UUID clientId;
+    private static UUID transactionId;
+
+    @BeforeAll
+    static void createData() {
+        sessionFactory = TestDatabase.sessionFactory(SQL);
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = Fixtures.user("lazy-owner");
+            owner.setCompanyAddress("Av. Principal 123");
+            owner.setContext(JsonContext.of(Map.of("plan", "pro")));
+            session.persist(owner);
+            Product product = Fixtures.product(owner, "LAZY-1", "Lazy product");
+            product.setContext(JsonContext.of(Map.of("color", "red")));
+            session.persist(product);
+            Client client = Fixtures.client(owner, "Lazy client");
+            session.persist(client);
+            Transaction sale = Fixtures.sale(owner, client, owner, List.of(product));
+            session.persist(sale);
+            ownerId = owner.getUserId();
+            productId = product.getProductId();
+            clientId = client.getClientId();
+            transactionId = sale.getTransactionId();
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @BeforeEach
+    void clearSql() {
+        SQL.clear();
+    }
+
+    @Test
+    void entitiesAreEnhanced() {
+        for (Class<?> entity : List.of(User.class, Product.class, Client.class, Provider.class, Transaction.class)) {
+            assertTrue(PersistentAttributeInterceptable.class.isAssignableFrom(entity), entity + " is not enhanced for lazy loading");
+            assertTrue(SelfDirtinessTracker.class.isAssignableFrom(entity), entity + " is not enhanced for dirty tracking");
+        }
+    }
+
+    @Test
+    void productGroupsAreLoadedSeparatelyOnFirstAccess() {
+        try (Session session = sessionFactory.openSession()) {
+            Product product = session.find(Product.class, productId);
+            String load = single("products");
+            assertTrue(selects(load, "products", "name") && selects(load, "products", "sale_price"), load);
+            assertFalse(selects(load, "products", "description"), load);
+            assertFalse(selects(load, "products", "context"), load);
+
+            SQL.clear();
+            assertEquals("Description of Lazy product", product.getDescription());
+            String text = single("products");
+            assertTrue(selects(text, "products", "description"), text);
+            assertFalse(selects(text, "products", "context"), text);
+
+            SQL.clear();
+            assertEquals("red", product.getContext().getString("color"));
+            String context = single("products");
+            assertTrue(selects(context, "products", "context"), context);
+            assertFalse(selects(context, "products", "description"), context);
+        }
+    }
+
+    @Test
+    void listQueriesSkipTheLazyColumns() {
+        try (Session session = sessionFactory.openSession()) {
+            session.createQuery("select p from Product p", Product.class).getResultList();
+            session.createQuery("select c from Client c", Client.class).getResultList();
+            session.createQuery("select t from Transaction t", Transaction.class).getResultList();
+        }
+        String products = single("products");
+        assertFalse(selects(products, "products", "description") || selects(products, "products", "context"), products);
+        String clients = single("clients");
+        assertFalse(selects(clients, "clients", "address") || selects(clients, "clients", "context"), clients);
+        String transactions = single("transactions");
+        assertTrue(selects(transactions, "transactions", "total_amount"), transactions);
+        assertFalse(selects(transactions, "transactions", "notes") || selects(transactions, "transactions", "context"), transactions);
+    }
+
+    @Test
+    void userAndClientGroupsAreLoadedOnFirstAccess() {
+        try (Session session = sessionFactory.openSession()) {
+            User user = session.find(User.class, ownerId);
+            Client client = session.find(Client.class, clientId);
+            String userLoad = single("users");
+            String clientLoad = single("clients");
+            assertFalse(selects(userLoad, "users", "company_address") || selects(userLoad, "users", "context"), userLoad);
+            assertFalse(selects(clientLoad, "clients", "address") || selects(clientLoad, "clients", "context"), clientLoad);
+
+            SQL.clear();
+            assertEquals("Av. Principal 123", user.getCompanyAddress());
+            assertEquals("Address of Lazy client", client.getAddress());
+            assertTrue(selects(single("users"), "users", "company_address"), SQL::describe);
+            assertTrue(selects(single("clients"), "clients", "address"), SQL::describe);
+        }
+    }
+
+    @Test
+    void detailPlanSkipsTheLazyColumnsOfEveryJoinedEntity() {
+        try (Session session = sessionFactory.openSession()) {
+            session.find(Transaction.class, transactionId,
+                    Map.of("jakarta.persistence.fetchgraph", session.getEntityGraph(FetchPlans.TRANSACTION_DETAIL)));
+        }
+        String detail = single("transactions");
+        assertTrue(selects(detail, "transactions", "total_amount"), detail);
+        assertFalse(selects(detail, "transactions", "notes") || selects(detail, "transactions", "context"), detail);
+        assertFalse(selects(detail, "products", "description") || selects(detail, "products", "context"), detail);
+        assertFalse(selects(detail, "clients", "address") || selects(detail, "clients", "context"), detail);
+        // Item contexts are not lazy: they are small and read with the line
+        assertTrue(selects(detail, "transaction_items", "context"), detail);
+    }
+
+    private static String single(String table) {
+        List<String> selects = SQL.selectsFrom(table);
+        assertEquals(1, selects.size(), SQL::describe);
+        return selects.get(0);
+    }
+
+    // Whether the select list contains <column> of <table>, via the alias the statement gives the table
+    private static boolean selects(String sql, String table, String column) {
+        Matcher alias = Pattern.compile("pilot_v2\\." + table + " (\\w+)").matcher(sql);
+        assertTrue(alias.find(), sql);
+        String selectList = sql.substring(0, sql.indexOf(" from "));
+        return Pattern.compile("\\b" + alias.group(1) + "\\." + column + "\\b").matcher(selectList).find();
+    }
+}
@@ -0,0 +1,171 @@
+package com.hsoft.model.entities.v1;
+
+import com.hsoft.model.types.v1.Money;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Running total of {@link Transaction} on large tickets: every change is O(1), so 10k-line tickets edited
+ * line by line stay fast, and the running total always matches the full recompute.
+ */
+class TransactionTotalTest {
+
+    private static final int LINES = 10_000;
+    private static final Duration BUDGET = Duration.ofSeconds(2); // An O(n^2) edit sequence takes far longer
+
+    @Test
+    void addingTenThousandLinesKeepsTotalExact() {
+        Transaction transaction = new Transaction();
+        assertTimeoutPreemptively(BUDGET, () -> {
+            for (int i = 0; i < LINES; i++) {
+                transaction.addItem(item(1 + i % 7, 100 + i));
+            }
+        });
+
+        assertEquals(LINES, transaction.getItems().size());
+        assertEquals(expectedTotal(transaction.getItems()), transaction.getTotalAmount());
+        assertTrue(transaction.isTotalAmountConsistent());
+    }
+
+    @Test
+    void editingQuantityAndPriceOfEveryLineUpdatesTotal() {
+        Transaction transaction = ticket(LINES);
+        assertTimeoutPreemptively(BUDGET, () -> {
+            for (TransactionItem item : transaction.getItems()) {
+                item.setQuantity(item.getQuantity() + 2);
+                item.setUnitPrice(item.getUnitPrice().plus(Money.ofCents(5)));
+            }
+        });
+
+        assertEquals(expectedTotal(transaction.getItems()), transaction.getTotalAmount());
+        assertTrue(transaction.isTotalAmountConsistent());
+    }
+
+    @Test
+    void removingEveryLineInRandomOrderEndsAtZero() {
+        Transaction transaction = ticket(LINES);
+        List<TransactionItem> removalOrder = new ArrayList<>(transaction.getItems());
+        Collections.shuffle(removalOrder, new Random(42));
+
+        assertTimeoutPreemptively(BUDGET, () -> {
+            for (int i = 0; i < removalOrder.size(); i++) {
+                TransactionItem item = removalOrder.get(i);
+                transaction.removeItem(item);
+                assertNull(item.getTransaction());
+                if (i % 1_000 == 0) {
+                    assertEquals(expectedTotal(transaction.getItems()), transaction.getTotalAmount());
+                }
+            }
+        });
+
+        assertTrue(transaction.getItems().isEmpty());
+        assertEquals(Money.ZERO, transaction.getTotalAmount());
+    }
+
+    @Test
+    void mixedEditsMatchFullRecompute() {
+        Transaction transaction = ticket(LINES);
+        Random random = new Random(7);
+        List<TransactionItem> live = new ArrayList<>(transaction.getItems());
+
+        assertTimeoutPreemptively(BUDGET, () -> {
+            for (int step = 0; step < 4 * LINES; step++) {
+                switch (random.nextInt(4)) {
+                    case 0 -> {
+                        TransactionItem added = item(1 + random.nextInt(10), 1 + random.nextInt(10_000));
+                        transaction.addItem(added);
+                        live.add(added);
+                    }
+                    case 1 -> {
+                        if (!live.isEmpty()) {
+                            transaction.removeItem(live.remove(random.nextInt(live.size())));
+                        }
+                    }
+                    case 2 -> {
+                        if (!live.isEmpty()) {
+                            live.get(random.nextInt(live.size())).setQuantity(1 + random.nextInt(10));
+                        }
+                    }
+                    default -> {
+                        if (!live.isEmpty()) {
+                            live.get(random.nextInt(live.size())).setUnitPrice(Money.ofCents(1 + random.nextInt(10_000)));
+                        }
+                    }
+                }
+            }
+        });
+
+        assertEquals(live.size(), transaction.getItems().size());
+        assertTrue(transaction.getItems().containsAll(live));
+        assertTrue(transaction.isTotalAmountConsistent());
+        assertEquals(expectedTotal(live), transaction.getTotalAmount());
+    }
+
+    @Test
+    void removalStaysCorrectWhenItemsWereSetDirectly() {
+        // Simulates a ticket loaded by Hibernate: the item list is filled without addItem
+        Transaction transaction = new Transaction();
+        List<TransactionItem> lines = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            TransactionItem item = item(1, 100);
+            item.setTransaction(transaction);
+            lines.add(item);
+        }
+        transaction.getItems().addAll(lines);
+        transaction.calculateTotalAmount();
+
+        assertTimeoutPreemptively(BUDGET, () -> {
+            for (int i = lines.size() - 1; i >= 0; i -= 2) {
+                transaction.removeItem(lines.get(i));
+            }
+        });
+
+        assertEquals(LINES / 2, transaction.getItems().size());
+        assertEquals(Money.ofCents(100L * (LINES / 2)), transaction.getTotalAmount());
+        assertTrue(transaction.isTotalAmountConsistent());
+    }
+
+    @Test
+    void removingAnItemThatIsNotOnTheTicketChangesNothing() {
+        Transaction transaction = ticket(10);
+        Money before = transaction.getTotalAmount();
+
+        transaction.removeItem(item(3, 999));
+
+        assertEquals(10, transaction.getItems().size());
+        assertEquals(before, transaction.getTotalAmount());
+    }
+
+    private static Transaction ticket(int lines) {
+        Transaction transaction = new Transaction();
+        for (int i = 0; i < lines; i++) {
+            transaction.addItem(item(1 + i % 5, 250 + i % 1_000));
+        }
+        return transaction;
+    }
+
+    private static TransactionItem item(int quantity, long unitCents) {
+        TransactionItem item = new TransactionItem();
+        item.setUnitPrice(Money.ofCents(unitCents));
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static Money expectedTotal(List<TransactionItem> items) {
+        long cents = 0L;
+        for (TransactionItem item : items) {
+            cents += (long) item.getQuantity() * item.getUnitPrice().getCents();
+        }
+        return Money.ofCents(cents);
+    }
+}
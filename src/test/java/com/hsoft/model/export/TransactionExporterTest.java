@@ -0,0 +1,170 @@
+package com.hsoft.model.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsoft.model.entities.v1.Client;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.imports.CsvRecordReader;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.TestDatabase;
+import com.hsoft.model.support.TestMappers;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports {@code TRANSACTIONS} sales of 0 to 3 lines (another tenant's sales stay out) across windows of
+ * {@code WINDOW}: one NDJSON line per transaction with its items, one CSV row per line, and the returned count;
+ * exports outside a transaction are rejected.
+ */
+class TransactionExporterTest {
+
+    private static final int TRANSACTIONS = 11;
+    private static final int WINDOW = 4;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    private static SessionFactory sessionFactory;
+    private static UUID ownerId;
+    // Transaction id -> number of item lines
+    private static final Map<UUID, Integer> LINES = new HashMap<>();
+
+    @BeforeAll
+    static void createSales() {
+        sessionFactory = TestDatabase.sessionFactory();
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = Fixtures.user("export-owner");
+            User other = Fixtures.user("export-other");
+            session.persist(owner);
+            session.persist(other);
+            Client client = Fixtures.client(owner, "Cliente, \"Mayorista\"");
+            session.persist(client);
+            List<Product> products = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Product product = Fixtures.product(owner, "SKU-" + i, "Product " + i);
+                session.persist(product);
+                products.add(product);
+            }
+            for (int i = 0; i < TRANSACTIONS; i++) {
+                Transaction sale = Fixtures.sale(owner, client, owner, products.subList(0, i % 4));
+                session.persist(sale);
+                LINES.put(sale.getTransactionId(), i % 4);
+            }
+            Client otherClient = Fixtures.client(other, "Other client");
+            session.persist(otherClient);
+            session.persist(Fixtures.sale(other, otherClient, other, List.of()));
+            ownerId = owner.getUserId();
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void ndjsonHasOneLinePerTransactionWithItsItems() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long[] count = new long[1];
+        TestDatabase.inTransaction(sessionFactory, session -> count[0] = export(() -> exporter().exportNdjson(
+                session, ownerId, OffsetDateTime.now().minusDays(1), OffsetDateTime.now().plusDays(1), out)));
+
+        String ndjson = out.toString(StandardCharsets.UTF_8);
+        String[] lines = ndjson.split("\n");
+        assertEquals(TRANSACTIONS, count[0]);
+        assertEquals(TRANSACTIONS, lines.length);
+        assertTrue(ndjson.endsWith("}\n"));
+        Map<UUID, Integer> exported = new HashMap<>();
+        for (String line : lines) {
+            assertTrue(line.startsWith("{\"transaction\":"), line); // No root value separator before the object
+            JsonNode node = OBJECT_MAPPER.readTree(line);
+            JsonNode items = node.get("items");
+            exported.put(UUID.fromString(node.get("transaction").get("transactionId").asText()), items.size());
+            BigDecimal total = BigDecimal.ZERO;
+            for (JsonNode item : items) {
+                total = total.add(item.get("subtotal").decimalValue());
+            }
+            assertEquals(0, total.compareTo(node.get("transaction").get("totalAmount").decimalValue()), line);
+        }
+        assertEquals(LINES, exported);
+    }
+
+    @Test
+    void csvHasOneRowPerItemLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long[] count = new long[1];
+        TestDatabase.inTransaction(sessionFactory, session -> count[0] = export(() -> exporter().exportCsv(
+                session, ownerId, OffsetDateTime.now().minusDays(1), OffsetDateTime.now().plusDays(1), out)));
+
+        Map<UUID, Integer> rowsPerTransaction = new HashMap<>();
+        int rows = 0;
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader(out.toString(StandardCharsets.UTF_8)))) {
+            Map<String, String> record;
+            while ((record = reader.next()) != null) {
+                rows++;
+                UUID transactionId = UUID.fromString(record.get("transaction_id"));
+                assertEquals("Cliente, \"Mayorista\"", record.get("client_name")); // Quoted and unescaped
+                if (LINES.get(transactionId) == 0) {
+                    assertNull(record.get("item_id"));
+                    rowsPerTransaction.put(transactionId, 0);
+                    continue;
+                }
+                int quantity = Integer.parseInt(record.get("quantity"));
+                assertEquals(new BigDecimal("10.00").multiply(BigDecimal.valueOf(quantity)), new BigDecimal(record.get("subtotal")));
+                rowsPerTransaction.merge(transactionId, 1, Integer::sum);
+            }
+        }
+        int expectedRows = LINES.values().stream().mapToInt(lines -> Math.max(1, lines)).sum();
+        assertEquals(TRANSACTIONS, count[0]);
+        assertEquals(expectedRows, rows);
+        assertEquals(LINES, rowsPerTransaction);
+    }
+
+    @Test
+    void exportsOutsideATransactionAreRejected() {
+        try (Session session = sessionFactory.openSession()) {
+            assertThrows(IllegalStateException.class, () -> exporter().exportNdjson(session, ownerId,
+                    OffsetDateTime.now().minusDays(1), OffsetDateTime.now().plusDays(1), new ByteArrayOutputStream()));
+        }
+    }
+
+    private static TransactionExporter exporter() {
+        return new TransactionExporter(TestMappers.transactionMapper(), TestMappers.transactionItemMapper(),
+                OBJECT_MAPPER, WINDOW);
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        long run() throws IOException;
+    }
+
+    // inTransaction takes a Consumer; exports throw IOException
+    private static long export(Export export) {
+        try {
+            return export.run();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
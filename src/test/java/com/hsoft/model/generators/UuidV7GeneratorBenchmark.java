@@ -0,0 +1,131 @@
+package com.hsoft.model.generators;
+
+import com.hsoft.model.support.Benchmarks;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * UUIDv7 vs random v4: generation throughput (1 and N threads) and insert locality.
+ * Locality is measured against a simulated B-tree leaf level: the number of distinct leaf pages
+ * that a batch of new keys lands on, given an index that already holds {@code EXISTING} keys.
+ */
+@Tag(Benchmarks.TAG)
+class UuidV7GeneratorBenchmark {
+
+    private static final int WARMUP = 1_000_000;
+    private static final int IDS = 5_000_000;
+    private static final int EXISTING = 200_000;
+    private static final int INSERTS = 10_000;
+    private static final int KEYS_PER_PAGE = 128; // ~16-byte keys plus tuple overhead in an 8 KB page
+
+    // PostgreSQL compares uuid values as unsigned bytes
+    private static final Comparator<UUID> INDEX_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    @Test
+    void generationThroughput() throws Exception {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        for (int round = 0; round < 2; round++) { // first round is warm-up
+            boolean print = round == 1;
+            measure("v7 single thread", UuidV7Generator::nextUuid, 1, print);
+            measure("v4 single thread", UUID::randomUUID, 1, print);
+            measure("v7 " + threads + " threads", UuidV7Generator::nextUuid, threads, print);
+            measure("v4 " + threads + " threads", UUID::randomUUID, threads, print);
+        }
+    }
+
+    @Test
+    void insertLocality() {
+        int v7Pages = pagesTouched(UuidV7Generator::nextUuid);
+        int v4Pages = pagesTouched(UUID::randomUUID);
+        Benchmarks.report("v7 leaf pages per " + INSERTS + " inserts", "%,d", v7Pages);
+        Benchmarks.report("v4 leaf pages per " + INSERTS + " inserts", "%,d", v4Pages);
+
+        // v7 keys are appended to the right-most leaf; v4 keys spread over (nearly) every leaf
+        assertTrue(v7Pages <= 2, "v7 inserts touched " + v7Pages + " leaf pages");
+        assertTrue(v4Pages > EXISTING / KEYS_PER_PAGE / 2, "v4 inserts touched only " + v4Pages + " leaf pages");
+    }
+
+    @Test
+    void idsAreMonotonicAcrossThreads() throws Exception {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        int perThread = 200_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Callable<UUID[]> task = () -> {
+                UUID[] ids = new UUID[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = UuidV7Generator.nextUuid();
+                }
+                return ids;
+            };
+            Set<UUID> all = new HashSet<>(threads * perThread * 2);
+            for (Future<UUID[]> future : pool.invokeAll(Collections.nCopies(threads, task))) {
+                UUID[] ids = future.get();
+                for (int i = 1; i < ids.length; i++) {
+                    assertTrue(INDEX_ORDER.compare(ids[i - 1], ids[i]) < 0, "ids not increasing within a thread");
+                }
+                all.addAll(Arrays.asList(ids));
+            }
+            assertEquals(threads * perThread, all.size(), "duplicate ids");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void measure(String name, Supplier<UUID> generator, int threads, boolean print) throws Exception {
+        int perThread = (print ? IDS : WARMUP) / threads;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Callable<Long> task = () -> {
+                long sink = 0L;
+                for (int i = 0; i < perThread; i++) {
+                    sink ^= generator.get().getLeastSignificantBits();
+                }
+                return sink;
+            };
+            long start = System.nanoTime();
+            long sink = 0L;
+            for (Future<Long> future : pool.invokeAll(Collections.nCopies(threads, task))) {
+                sink ^= future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            if (print) {
+                Benchmarks.report(name, "%,.0f ids/s (sink %d)", Benchmarks.perSecond((long) perThread * threads, elapsed), sink & 1);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static int pagesTouched(Supplier<UUID> generator) {
+        UUID[] index = new UUID[EXISTING];
+        for (int i = 0; i < EXISTING; i++) {
+            index[i] = generator.get();
+        }
+        Arrays.sort(index, INDEX_ORDER);
+        Set<Integer> pages = new HashSet<>();
+        for (int i = 0; i < INSERTS; i++) {
+            int position = Arrays.binarySearch(index, generator.get(), INDEX_ORDER);
+            int insertionPoint = position >= 0 ? position : -position - 1;
+            pages.add(Math.min(insertionPoint, EXISTING - 1) / KEYS_PER_PAGE);
+        }
+        return pages.size();
+    }
+}
@@ -0,0 +1,197 @@
+package com.hsoft.model.imports;
+
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Provider;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.support.Benchmarks;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.TestDatabase;
+import com.hsoft.model.support.TestMappers;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Product and provider imports against the real database: duplicate keys in the file, unparsable and invalid
+ * rows, and a database constraint failing mid-batch are reported per row while the good rows are kept;
+ * existing keys are updated without touching stock; (benchmark) rows per minute on a 100k-row file.
+ */
+class CatalogImportPipelineTest {
+
+    private static final int BENCHMARK_ROWS = 100_000;
+    private static final double TARGET_ROWS_PER_MINUTE = 100_000;
+
+    // Test-only constraint, so one row passes validation and still fails in the database
+    private static final String DISCONTINUED_CHECK =
+            "alter table pilot_v2.products add constraint chk_import_test_category check (category <> 'DISCONTINUED')";
+
+    private static final Validator VALIDATOR = Validation.byDefaultProvider().configure()
+            .messageInterpolator(new ParameterMessageInterpolator())
+            .buildValidatorFactory().getValidator();
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void createDatabase() {
+        sessionFactory = TestDatabase.sessionFactory();
+        TestDatabase.inTransaction(sessionFactory, session -> session.createNativeMutationQuery(DISCONTINUED_CHECK).executeUpdate());
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void badRowsAreReportedAndGoodRowsKept() throws IOException {
+        User owner = newOwner("import-errors");
+        StringBuilder csv = new StringBuilder("sku,name,sale_price,category\n");
+        for (int i = 1; i <= 25; i++) {
+            String sku = i == 5 ? "SKU-2" : "SKU-" + i; // Row 5 repeats row 2's SKU
+            String price = i == 8 ? "ten" : i == 11 ? "-1.00" : "12.50";
+            String category = i == 14 ? "DISCONTINUED" : "Hardware";
+            csv.append(sku).append(",Product ").append(i).append(',').append(price).append(',').append(category).append('\n');
+        }
+
+        ImportReport report = importProducts(owner, csv.toString(), 10);
+
+        assertEquals(25, report.getTotalRows());
+        assertEquals(21, report.getInserted());
+        assertEquals(0, report.getUpdated());
+        List<ImportRowError> errors = report.getErrors().stream()
+                .sorted(Comparator.comparingLong(ImportRowError::getRowNumber)).toList();
+        assertEquals(List.of(5L, 8L, 11L, 14L), errors.stream().map(ImportRowError::getRowNumber).toList());
+        assertEquals("SKU-2", errors.get(0).getKey());
+        assertEquals("Duplicate key in input file.", errors.get(0).getMessage());
+        assertTrue(errors.get(1).getMessage().contains("sale_price"), errors.get(1).getMessage());
+        assertTrue(errors.get(2).getMessage().startsWith("salePrice "), errors.get(2).getMessage());
+        assertEquals("SKU-14", errors.get(3).getKey());
+        assertTrue(errors.get(3).getMessage().startsWith("Rejected by the database: ")
+                && errors.get(3).getMessage().contains("chk_import_test_category"), errors.get(3).getMessage());
+
+        Map<String, Product> stored = products(owner);
+        assertEquals(21, stored.size());
+        assertEquals("Product 2", stored.get("SKU-2").getName()); // The first occurrence wins
+        assertEquals("Product 13", stored.get("SKU-13").getName()); // Batch mates of the failing row are kept
+        assertEquals("Product 15", stored.get("SKU-15").getName());
+    }
+
+    @Test
+    void existingSkusAreUpdatedAndKeepTheirStock() throws IOException {
+        User owner = newOwner("import-update");
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            Product product = Fixtures.product(session.getReference(User.class, owner.getUserId()), "SKU-1", "Old name");
+            product.setCurrentStock(40);
+            product.setStockShardCount(4);
+            session.persist(product);
+        });
+        Product before = products(owner).get("SKU-1");
+
+        ImportReport report = importProducts(owner, "sku,name,sale_price,current_stock\nSKU-1,New name,15.00,999\nSKU-2,Other,5.00,7\n", 10);
+
+        assertEquals(1, report.getUpdated());
+        assertEquals(1, report.getInserted());
+        assertEquals(List.of(), report.getErrors());
+        Map<String, Product> stored = products(owner);
+        Product updated = stored.get("SKU-1");
+        assertEquals(before.getProductId(), updated.getProductId());
+        assertEquals("New name", updated.getName());
+        assertEquals(0, new BigDecimal("15.00").compareTo(updated.getSalePrice()));
+        assertEquals(40, updated.getCurrentStock());
+        assertEquals(4, updated.getStockShardCount());
+        assertEquals(before.getCreatedAt(), updated.getCreatedAt());
+        assertEquals(before.getVersion() + 1, updated.getVersion());
+        assertEquals(7, stored.get("SKU-2").getCurrentStock()); // New SKUs take the file's stock
+    }
+
+    @Test
+    void providersAreMatchedOnTheirNit() throws IOException {
+        User owner = newOwner("import-providers");
+        TestDatabase.inTransaction(sessionFactory, session ->
+                session.persist(Fixtures.provider(session.getReference(User.class, owner.getUserId()), "Old name", "111-1")));
+
+        String csv = "name,nit,email\n"
+                + "Renamed,111-1,\n"
+                + "Second,222-2,\n"
+                + "Second again,222-2,\n"
+                + "No NIT,,\n"
+                + "Bad email,333-3,not-an-email\n";
+        ImportReport report;
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            report = new ProviderImportPipeline(TestMappers.providerMapper(), VALIDATOR, 10)
+                    .run(session, owner, new StringReader(csv));
+        }
+
+        assertEquals(1, report.getUpdated());
+        assertEquals(2, report.getInserted());
+        assertEquals(List.of(3L, 5L), report.getErrors().stream().map(ImportRowError::getRowNumber).sorted().toList());
+        try (Session session = sessionFactory.openSession()) {
+            List<Provider> providers = session.createQuery(
+                            "from Provider p where p.user.userId = :userId order by p.name", Provider.class)
+                    .setParameter("userId", owner.getUserId())
+                    .getResultList();
+            assertEquals(List.of("No NIT", "Renamed", "Second"), providers.stream().map(Provider::getName).toList());
+        }
+    }
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    void importsAHundredThousandRowsAMinute() throws IOException {
+        User owner = newOwner("import-benchmark");
+        StringBuilder csv = new StringBuilder(BENCHMARK_ROWS * 80)
+                .append("sku,name,description,purchase_price,sale_price,current_stock,unit_of_measure,category\n");
+        for (int i = 0; i < BENCHMARK_ROWS; i++) {
+            csv.append(String.format("SKU-%08d,Producto de prueba %d,\"Descripcion, del producto %d\",%d.25,%d.50,%d,unidad,Category %d%n",
+                    i, i, i, 5 + i % 90, 10 + i % 90, i % 500, i % 40));
+        }
+
+        importProducts(newOwner("import-warm-up"), csv.substring(0, csv.indexOf("\n", csv.length() / 20) + 1), CatalogImportPipeline.DEFAULT_BATCH_SIZE);
+        ImportReport report = importProducts(owner, csv.toString(), CatalogImportPipeline.DEFAULT_BATCH_SIZE);
+
+        Benchmarks.report(BENCHMARK_ROWS + " product rows", "%,10.0f rows/min   %,d ms   batch %d",
+                report.getRowsPerMinute(), report.getElapsedMillis(), CatalogImportPipeline.DEFAULT_BATCH_SIZE);
+        assertEquals(BENCHMARK_ROWS, report.getInserted(), () -> String.valueOf(report.getErrors().subList(0, Math.min(5, report.getErrors().size()))));
+        assertTrue(report.getRowsPerMinute() >= TARGET_ROWS_PER_MINUTE, report.getRowsPerMinute() + " rows/min");
+    }
+
+    private static ImportReport importProducts(User owner, String csv, int batchSize) throws IOException {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return new ProductImportPipeline(TestMappers.productMapper(), VALIDATOR, batchSize)
+                    .run(session, owner, new StringReader(csv));
+        }
+    }
+
+    private static Map<String, Product> products(User owner) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("from Product p where p.user.userId = :userId", Product.class)
+                    .setParameter("userId", owner.getUserId())
+                    .getResultList().stream()
+                    .collect(Collectors.toMap(Product::getSku, Function.identity()));
+        }
+    }
+
+    private static User newOwner(String username) {
+        User owner = Fixtures.user(username);
+        TestDatabase.inTransaction(sessionFactory, session -> session.persist(owner));
+        return owner;
+    }
+}
@@ -0,0 +1,346 @@
+package com.hsoft.model.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsoft.model.assembly.DuplicateLineMerger;
+import com.hsoft.model.dto.v1.transactions.TransactionCreateRequestDTO;
+import com.hsoft.model.dto.v1.transactions.TransactionItemCreateRequestDTO;
+import com.hsoft.model.entities.v1.Client;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.generators.UuidV7Generator;
+import com.hsoft.model.support.Benchmarks;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.TestDatabase;
+import com.hsoft.model.support.TestMappers;
+import com.hsoft.model.types.v1.TransactionType;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Group commit against the real database: every outcome (committed, duplicate, rejected) is reported exactly once
+ * per ticket, no ticket submitted while the ingestor closes is left unresolved, and a ticket left in the log by
+ * a database outage is committed on the next start, which then truncates the log.
+ * The benchmark shows committed tickets/s as the batch size grows.
+ */
+class GroupCommitIngestorTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
+    private static final int PRODUCTS = 3;
+    private static final long RETRY_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // Test-only trigger: inserts of tickets with these notes fail as a serialization failure, which is transient
+    private static final String OUTAGE_NOTES = "OUTAGE";
+    private static final String OUTAGE_FUNCTION = "create function pilot_v2.ingest_test_outage() returns trigger"
+            + " language plpgsql as $$ begin if new.notes = '" + OUTAGE_NOTES + "' then"
+            + " raise exception 'Simulated outage' using errcode = '40001'; end if; return new; end $$";
+    private static final String OUTAGE_TRIGGER = "create trigger ingest_test_outage before insert on pilot_v2.transactions"
+            + " for each row execute function pilot_v2.ingest_test_outage()";
+
+    private static SessionFactory sessionFactory;
+    private static UUID ownerId;
+    private static UUID clientId;
+    private static final List<UUID> productIds = new ArrayList<>();
+
+    @TempDir
+    Path walDirectory;
+
+    @BeforeAll
+    static void createCatalog() {
+        sessionFactory = TestDatabase.sessionFactory();
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = Fixtures.user("ingest-owner");
+            session.persist(owner);
+            Client client = Fixtures.client(owner, "Walk-in");
+            session.persist(client);
+            for (int i = 0; i < PRODUCTS; i++) {
+                Product product = Fixtures.product(owner, "INGEST-" + i, "Product " + i);
+                session.persist(product);
+                productIds.add(product.getProductId());
+            }
+            ownerId = owner.getUserId();
+            clientId = client.getClientId();
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void replayReportsEachDuplicateAndRejectionOnce() throws Exception {
+        Path walFile = walDirectory.resolve("tickets.wal");
+        TicketRecord committed = record(ticket(new BigDecimal("10.00")));
+        // Logged by hand so one replayed batch holds every case: the insert of the batch fails on the overflowing
+        // price and the batch falls back to one insert per ticket
+        TicketRecord unknownProduct = record(ticket(new BigDecimal("10.00")));
+        unknownProduct.getRequest().getItems().get(0).setProductId(UUID.randomUUID());
+        TicketRecord overflowingPrice = record(ticket(new BigDecimal("100000000.00"))); // numeric(10,2)
+        TicketRecord valid = record(ticket(new BigDecimal("10.00")));
+        insertDirectly(committed);
+        try (TicketWal wal = new TicketWal(walFile)) {
+            List<byte[]> payloads = new ArrayList<>();
+            for (TicketRecord record : List.of(committed, unknownProduct, overflowingPrice, valid)) {
+                payloads.add(OBJECT_MAPPER.writeValueAsBytes(record));
+            }
+            wal.append(payloads);
+        }
+
+        RecordingListener listener = new RecordingListener();
+        GroupCommitIngestor ingestor = ingestor(walFile, 10, listener);
+        try (ingestor) {
+            ingestor.start();
+        }
+
+        assertEquals(Map.of(unknownProduct.getTicketId(), 1, overflowingPrice.getTicketId(), 1), listener.rejections);
+        assertEquals(Map.of(valid.getTicketId(), 1), listener.commits);
+        IngestionStats stats = ingestor.getStats();
+        assertEquals(1, stats.getDuplicates());
+        assertEquals(2, stats.getRejected());
+        assertEquals(1, stats.getCommitted());
+        assertTrue(exists(valid.getTicketId()));
+    }
+
+    @Test
+    void submitsRacingCloseAreAllResolved() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            RecordingListener listener = new RecordingListener();
+            GroupCommitIngestor ingestor = ingestor(walDirectory.resolve("race-" + round + ".wal"), 50, listener);
+            ingestor.start();
+            Set<CompletableFuture<UUID>> submitted = ConcurrentHashMap.newKeySet();
+            List<Thread> submitters = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                // Submits until the ingestor says it is not running; a full queue only slows the loop down
+                Thread submitter = new Thread(() -> {
+                    while (true) {
+                        CompletableFuture<UUID> ack = ingestor.submit(ownerId, ownerId, TransactionType.SALE,
+                                ticket(new BigDecimal("10.00")));
+                        submitted.add(ack);
+                        if (ack.handle((id, e) -> e instanceof IllegalStateException).getNow(false)) {
+                            return;
+                        }
+                        if (ack.isCompletedExceptionally()) {
+                            Thread.yield();
+                        }
+                    }
+                });
+                submitter.start();
+                submitters.add(submitter);
+            }
+            TimeUnit.MILLISECONDS.sleep(20);
+            ingestor.close();
+            for (Thread submitter : submitters) {
+                submitter.join();
+            }
+
+            int acked = 0;
+            for (CompletableFuture<UUID> ack : submitted) {
+                assertTrue(ack.isDone(), "A ticket submitted during close() was never resolved");
+                if (!ack.isCompletedExceptionally()) {
+                    acked++;
+                }
+            }
+            assertEquals(acked, ingestor.getStats().getAccepted());
+            assertEquals(acked, ingestor.getStats().getCommitted());
+        }
+    }
+
+    @Test
+    void replayThatCommitsEveryTicketTruncatesTheLog() throws Exception {
+        Path walFile = walDirectory.resolve("outage.wal");
+        RecordingListener listener = new RecordingListener();
+        GroupCommitIngestor ingestor = ingestor(walFile, 10, listener);
+        TransactionCreateRequestDTO request = ticket(new BigDecimal("10.00"));
+        request.setNotes(OUTAGE_NOTES);
+        UUID ticketId;
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            session.createNativeMutationQuery(OUTAGE_FUNCTION).executeUpdate();
+            session.createNativeMutationQuery(OUTAGE_TRIGGER).executeUpdate();
+        });
+        try {
+            ingestor.start();
+            ticketId = ingestor.submit(ownerId, ownerId, TransactionType.SALE, request).get(10, TimeUnit.SECONDS);
+            while (ingestor.getStats().getFlushRetries() == 0) {
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+            ingestor.close(); // Abandons the retried batch: the ticket stays in the log only
+        } finally {
+            TestDatabase.inTransaction(sessionFactory, session -> {
+                session.createNativeMutationQuery("drop trigger ingest_test_outage on pilot_v2.transactions").executeUpdate();
+                session.createNativeMutationQuery("drop function pilot_v2.ingest_test_outage()").executeUpdate();
+            });
+        }
+        assertFalse(exists(ticketId));
+        assertTrue(Files.size(walFile) > 0L);
+
+        try (ingestor) {
+            ingestor.start(); // Same instance, outage over
+            assertEquals(Map.of(ticketId, 1), listener.commits);
+            assertTrue(exists(ticketId));
+            assertEquals(0L, Files.size(walFile));
+        }
+    }
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    void throughputGrowsWithBatchSize() throws Exception {
+        int tickets = 5_000;
+        int threads = 8;
+        for (int batchSize : new int[]{1, 10, 50, 200}) {
+            CountDownLatch allCommitted = new CountDownLatch(tickets);
+            IngestionListener listener = new IngestionListener() {
+                @Override
+                public void onCommitted(List<UUID> transactionIds) {
+                    transactionIds.forEach(id -> allCommitted.countDown());
+                }
+            };
+            GroupCommitIngestor ingestor = ingestor(walDirectory.resolve("bench-" + batchSize + ".wal"), batchSize, listener);
+            ingestor.start();
+            AtomicInteger remaining = new AtomicInteger(tickets);
+            List<Thread> submitters = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                Thread submitter = new Thread(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        submitUntilQueued(ingestor);
+                    }
+                });
+                submitter.start();
+                submitters.add(submitter);
+            }
+            for (Thread submitter : submitters) {
+                submitter.join();
+            }
+            assertTrue(allCommitted.await(5, TimeUnit.MINUTES));
+            long nanos = System.nanoTime() - start;
+            ingestor.close();
+            IngestionStats stats = ingestor.getStats();
+            Benchmarks.report("batch " + batchSize, "%,8.0f tickets/s   %,6d WAL fsyncs   avg db batch %5.1f",
+                    Benchmarks.perSecond(tickets, nanos), stats.getWalBatches(), stats.getAverageBatchSize());
+            assertEquals(tickets, stats.getCommitted());
+        }
+    }
+
+    // Terminals do not wait for one ack before sending the next ticket; a full queue is retried (back-pressure)
+    private static void submitUntilQueued(GroupCommitIngestor ingestor) {
+        while (true) {
+            CompletableFuture<UUID> ack = ingestor.submit(ownerId, ownerId, TransactionType.SALE,
+                    ticket(new BigDecimal("10.00")));
+            if (!ack.isCompletedExceptionally()) {
+                return;
+            }
+            ack.exceptionally(e -> {
+                if (!(e instanceof RejectedExecutionException)) {
+                    throw new CompletionException(e);
+                }
+                return null;
+            }).join();
+            LockSupport.parkNanos(RETRY_PAUSE_NANOS);
+        }
+    }
+
+    private static GroupCommitIngestor ingestor(Path walFile, int batchSize, IngestionListener listener) {
+        IngestionSettings settings = IngestionSettings.builder()
+                .walFile(walFile)
+                .batchSize(batchSize)
+                .queueCapacity(1_000)
+                .minRetryDelay(Duration.ofMillis(10))
+                .build();
+        return new GroupCommitIngestor(sessionFactory, OBJECT_MAPPER, TestMappers.transactionMapper(),
+                TestMappers.transactionItemMapper(), new DuplicateLineMerger(), settings, listener);
+    }
+
+    private static TransactionCreateRequestDTO ticket(BigDecimal firstUnitPrice) {
+        List<TransactionItemCreateRequestDTO> items = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            items.add(TransactionItemCreateRequestDTO.builder()
+                    .productId(productIds.get(i))
+                    .quantity(1 + i)
+                    .unitPrice(i == 0 ? firstUnitPrice : new BigDecimal("10.00"))
+                    .build());
+        }
+        TransactionCreateRequestDTO request = new TransactionCreateRequestDTO();
+        request.setClientId(clientId);
+        request.setItems(items);
+        return request;
+    }
+
+    private static TicketRecord record(TransactionCreateRequestDTO request) {
+        return TicketRecord.builder()
+                .ticketId(UuidV7Generator.nextUuid())
+                .userId(ownerId)
+                .createdByUserId(ownerId)
+                .transactionType(TransactionType.SALE)
+                .acceptedAt(OffsetDateTime.now())
+                .request(request)
+                .build();
+    }
+
+    // Commits a ticket outside the log, as if a previous run had inserted it just before crashing
+    private void insertDirectly(TicketRecord record) throws Exception {
+        Path walFile = walDirectory.resolve("direct-" + record.getTicketId() + ".wal");
+        CountDownLatch committed = new CountDownLatch(1);
+        try (TicketWal wal = new TicketWal(walFile)) {
+            wal.append(List.of(OBJECT_MAPPER.writeValueAsBytes(record)));
+        }
+        try (GroupCommitIngestor ingestor = ingestor(walFile, 10, new IngestionListener() {
+            @Override
+            public void onCommitted(List<UUID> transactionIds) {
+                committed.countDown();
+            }
+        })) {
+            ingestor.start();
+        }
+        assertEquals(0, committed.getCount());
+    }
+
+    private static boolean exists(UUID transactionId) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.find(Transaction.class, transactionId) != null;
+        }
+    }
+
+    private static final class RecordingListener implements IngestionListener {
+        final Map<UUID, Integer> commits = new ConcurrentHashMap<>();
+        final Map<UUID, Integer> rejections = new ConcurrentHashMap<>();
+
+        @Override
+        public void onCommitted(List<UUID> transactionIds) {
+            transactionIds.forEach(id -> commits.merge(id, 1, Integer::sum));
+        }
+
+        @Override
+        public void onRejected(UUID ticketId, String reason) {
+            rejections.merge(ticketId, 1, Integer::sum);
+        }
+    }
+}
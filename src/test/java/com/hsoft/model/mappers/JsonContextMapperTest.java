@@ -0,0 +1,43 @@
+package com.hsoft.model.mappers;
+
+import com.hsoft.model.types.v1.JsonContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JsonContextMapperTest {
+
+    private final JsonContextMapper mapper = new JsonContextMapperImpl();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void nestedObjectsAndArraysArePlainIndependentCopies() {
+        JsonContext context = JsonContext.ofRaw("{\"tags\":[\"a\",{\"k\":1}],\"address\":{\"city\":\"Lima\"}}");
+        int modCount = context.getModCount();
+
+        Map<String, Object> map = mapper.jsonContextToMap(context);
+        Map<String, Object> address = assertInstanceOf(LinkedHashMap.class, map.get("address"));
+        List<Object> tags = assertInstanceOf(ArrayList.class, map.get("tags"));
+        Map<String, Object> tagObject = assertInstanceOf(LinkedHashMap.class, tags.get(1));
+
+        // Writable, and the entity's context neither sees the change nor counts it as a modification
+        address.put("city", "Cusco");
+        tags.add("b");
+        tagObject.put("k", 2);
+        assertEquals("Lima", ((Map<String, Object>) context.get("address")).get("city"));
+        assertEquals(2, ((List<Object>) context.get("tags")).size());
+        assertEquals(modCount, context.getModCount());
+    }
+
+    @Test
+    void nullStaysNull() {
+        assertNull(mapper.jsonContextToMap(null));
+    }
+}
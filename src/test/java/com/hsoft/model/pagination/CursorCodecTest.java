@@ -0,0 +1,72 @@
+package com.hsoft.model.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Cursors round-trip for every order, and decode only untouched, for the entity and order they were issued for.
+ */
+class CursorCodecTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final UUID ID = UUID.fromString("0190a1b2-c3d4-7e5f-8a9b-0c1d2e3f4a5b");
+
+    private final CursorCodec codec = new CursorCodec(SECRET);
+
+    @Test
+    void cursorsRoundTrip() {
+        KeysetCursor byDate = new KeysetCursor("Transaction", KeysetOrder.TRANSACTION_DATE_DESC,
+                OffsetDateTime.parse("2024-05-01T10:15:30.123456-06:00"), ID);
+        KeysetCursor byName = new KeysetCursor("Product", KeysetOrder.NAME_ASC, "Tornillo | 3/8\" x 2", ID);
+
+        assertEquals(byDate, codec.decode(codec.encode(byDate), "Transaction", KeysetOrder.TRANSACTION_DATE_DESC));
+        assertEquals(byName, codec.decode(codec.encode(byName), "Product", KeysetOrder.NAME_ASC));
+    }
+
+    @Test
+    void tamperedCursorsAreRejected() {
+        String token = codec.encode(new KeysetCursor("Product", KeysetOrder.NAME_ASC, "Martillo", ID));
+        int dot = token.indexOf('.');
+
+        // Another sort value under the original signature
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                ("Product|NAME_ASC|" + ID + "|Alicate").getBytes(StandardCharsets.UTF_8));
+        assertRejected(forgedPayload + token.substring(dot), "Product", KeysetOrder.NAME_ASC);
+        // One signature character changed (the first: the last one also carries padding bits)
+        char first = token.charAt(dot + 1);
+        assertRejected(token.substring(0, dot + 1) + (first == 'A' ? 'B' : 'A') + token.substring(dot + 2),
+                "Product", KeysetOrder.NAME_ASC);
+        // Signed with another secret
+        String otherKey = new CursorCodec("another secret of at least 32 bytes!".getBytes(StandardCharsets.UTF_8))
+                .encode(new KeysetCursor("Product", KeysetOrder.NAME_ASC, "Martillo", ID));
+        assertRejected(otherKey, "Product", KeysetOrder.NAME_ASC);
+    }
+
+    @Test
+    void cursorsOnlyDecodeForTheirQuery() {
+        String token = codec.encode(new KeysetCursor("Product", KeysetOrder.NAME_ASC, "Martillo", ID));
+
+        assertRejected(token, "Client", KeysetOrder.NAME_ASC);
+        assertRejected(token, "Product", KeysetOrder.UPDATED_AT_DESC);
+    }
+
+    @Test
+    void malformedCursorsAndShortSecretsAreRejected() {
+        for (String token : new String[]{null, "", "no-separator", ".sig", "***.***", "YWJj.YWJj"}) {
+            assertRejected(token, "Product", KeysetOrder.NAME_ASC);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CursorCodec(new byte[16]));
+        assertThrows(IllegalArgumentException.class, () -> new CursorCodec(null));
+    }
+
+    private void assertRejected(String token, String entityName, KeysetOrder order) {
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(token, entityName, order), token);
+    }
+}
@@ -0,0 +1,132 @@
+package com.hsoft.model.pagination;
+
+import com.hsoft.model.dto.v1.commons.CursorPageResponseDTO;
+import com.hsoft.model.entities.v1.Client;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.SqlRecorder;
+import com.hsoft.model.support.TestDatabase;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Paging a tenant's products with ties on the sort value (7 names, one shared updated_at) visits every row once,
+ * in order, with one row-comparison statement per page; another tenant's rows and cursors of other queries
+ * stay out.
+ */
+class KeysetQueryTest {
+
+    private static final int PRODUCTS = 130;
+    private static final int PAGE_SIZE = 25;
+
+    private static final SqlRecorder SQL = new SqlRecorder();
+    private static final CursorCodec CODEC = new CursorCodec("keyset-test-secret-of-32-bytes!!".getBytes(StandardCharsets.UTF_8));
+    // (sort, id) compared as one row value, as rendered by Hibernate
+    private static final Pattern ROW_COMPARISON = Pattern.compile("\\(\\w+\\.(name|updated_at),\\s*\\w+\\.product_id\\)\\s*[<>]\\s*\\(\\?,\\s*\\?\\)");
+
+    private static SessionFactory sessionFactory;
+    private static UUID ownerId;
+
+    @BeforeAll
+    static void createCatalogs() {
+        sessionFactory = TestDatabase.sessionFactory(SQL);
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = Fixtures.user("keyset-owner");
+            User other = Fixtures.user("keyset-other");
+            session.persist(owner);
+            session.persist(other);
+            for (int i = 0; i < PRODUCTS; i++) {
+                session.persist(Fixtures.product(owner, "SKU-" + i, "Product " + i % 7));
+                session.persist(Fixtures.product(other, "SKU-" + i, "Product " + i % 7));
+            }
+            ownerId = owner.getUserId();
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void pagesByNameVisitEveryRowOnceInOrder() {
+        assertPagesMatchTheFullOrder(KeysetQuery.products(KeysetOrder.NAME_ASC));
+    }
+
+    @Test
+    void pagesByUpdatedAtVisitEveryRowOnceInOrder() {
+        assertPagesMatchTheFullOrder(KeysetQuery.products(KeysetOrder.UPDATED_AT_DESC));
+    }
+
+    @Test
+    void cursorsOfAnotherQueryAreRejected() {
+        try (Session session = sessionFactory.openSession()) {
+            String cursor = KeysetQuery.products(KeysetOrder.NAME_ASC)
+                    .page(session, CODEC, ownerId, null, PAGE_SIZE, Product::getProductId).getNextCursor();
+
+            assertThrows(IllegalArgumentException.class, () -> KeysetQuery.clients(KeysetOrder.NAME_ASC)
+                    .page(session, CODEC, ownerId, cursor, PAGE_SIZE, Client::getClientId));
+            assertThrows(IllegalArgumentException.class, () -> KeysetQuery.products(KeysetOrder.UPDATED_AT_DESC)
+                    .page(session, CODEC, ownerId, cursor, PAGE_SIZE, Product::getProductId));
+        }
+        assertThrows(IllegalArgumentException.class, () -> KeysetQuery.products(KeysetOrder.TRANSACTION_DATE_DESC));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        try (Session session = sessionFactory.openSession()) {
+            CursorPageResponseDTO<UUID> all = KeysetQuery.products(KeysetOrder.NAME_ASC)
+                    .page(session, CODEC, ownerId, null, PRODUCTS, Product::getProductId);
+            assertEquals(PRODUCTS, all.getItems().size());
+            assertFalse(all.isHasNext());
+            assertNull(all.getNextCursor());
+        }
+    }
+
+    private static void assertPagesMatchTheFullOrder(KeysetQuery<Product> query) {
+        try (Session session = sessionFactory.openSession()) {
+            List<UUID> expected = session.createQuery(query.toJpql(false), Product.class)
+                    .setParameter("userId", ownerId)
+                    .getResultList().stream().map(Product::getProductId).toList();
+            assertEquals(PRODUCTS, expected.size());
+
+            List<UUID> paged = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            SQL.clear();
+            do {
+                CursorPageResponseDTO<UUID> page = query.page(session, CODEC, ownerId, cursor, PAGE_SIZE, Product::getProductId);
+                paged.addAll(page.getItems());
+                cursor = page.getNextCursor();
+                pages++;
+                assertEquals(page.isHasNext(), cursor != null);
+                assertEquals(pages, SQL.count(), SQL.describe());
+                session.clear(); // Each page from the database, as in separate requests
+            } while (cursor != null);
+
+            assertEquals(expected, paged);
+            assertEquals((PRODUCTS + PAGE_SIZE - 1) / PAGE_SIZE, pages);
+            List<String> statements = SQL.statements();
+            assertFalse(ROW_COMPARISON.matcher(statements.get(0)).find(), statements.get(0));
+            for (String sql : statements.subList(1, statements.size())) {
+                assertTrue(ROW_COMPARISON.matcher(sql).find(), sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.hsoft.model.projections;
+
+import com.hsoft.model.dto.v1.commons.ClientSummaryResponseDTO;
+import com.hsoft.model.dto.v1.commons.ProductSummaryResponseDTO;
+import com.hsoft.model.dto.v1.commons.ProviderSummaryResponseDTO;
+import com.hsoft.model.dto.v1.transactions.TransactionSummaryResponseDTO;
+import com.hsoft.model.entities.v1.Client;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Provider;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.SqlRecorder;
+import com.hsoft.model.support.TestDatabase;
+import com.hsoft.model.types.v1.TransactionType;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Each projection page is one statement and manages no entity; transaction rows carry the right client,
+ * provider and creator (sales by a cashier, purchases by the owner); catalog lists include inactive rows
+ * unless asked for active ones only.
+ */
+class ProjectionsTest {
+
+    private static final int TRANSACTIONS = 8;
+    private static final int PAGE_SIZE = 3;
+    private static final OffsetDateTime BASE = OffsetDateTime.parse("2024-06-01T08:00:00Z");
+
+    private static final SqlRecorder SQL = new SqlRecorder();
+    private static SessionFactory sessionFactory;
+    private static UUID ownerId;
+    // Transaction id -> "client|provider|creator|total" as the summary must show it
+    private static final Map<UUID, String> EXPECTED = new HashMap<>();
+
+    @BeforeAll
+    static void createData() {
+        sessionFactory = TestDatabase.sessionFactory(SQL);
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = Fixtures.user("projection-owner");
+            User cashier = Fixtures.subUser(owner, "projection-cashier");
+            session.persist(owner);
+            session.persist(cashier);
+            Provider provider = Fixtures.provider(owner, "Provider A", "111-1");
+            Provider inactiveProvider = Fixtures.provider(owner, "Provider B", "222-2");
+            inactiveProvider.setActive(false);
+            session.persist(provider);
+            session.persist(inactiveProvider);
+            List<Product> products = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                Product product = Fixtures.product(owner, "SKU-" + i, "Product " + i);
+                product.setActive(i < 3);
+                session.persist(product);
+                products.add(product);
+            }
+            for (int i = 0; i < TRANSACTIONS; i++) {
+                Transaction transaction;
+                if (i % 2 == 0) {
+                    Client client = Fixtures.client(owner, "Client " + i);
+                    client.setActive(i != 0);
+                    session.persist(client);
+                    transaction = Fixtures.sale(owner, client, cashier, products.subList(0, 1 + i / 2));
+                } else {
+                    transaction = Transaction.builder()
+                            .user(owner)
+                            .transactionType(TransactionType.PURCHASE)
+                            .provider(provider)
+                            .createdByUser(owner)
+                            .build();
+                }
+                transaction.setTransactionDate(BASE.plusHours(i));
+                session.persist(transaction);
+                EXPECTED.put(transaction.getTransactionId(), describe(
+                        transaction.getClient() != null ? transaction.getClient().getName() : null,
+                        transaction.getProvider() != null ? transaction.getProvider().getName() : null,
+                        transaction.getCreatedByUser().getUsername(),
+                        transaction.getTotalAmount().toBigDecimal()));
+            }
+            User other = Fixtures.user("projection-other");
+            session.persist(other);
+            Client otherClient = Fixtures.client(other, "Other client");
+            session.persist(otherClient);
+            session.persist(Fixtures.sale(other, otherClient, other, List.of()));
+            ownerId = owner.getUserId();
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void transactionPagesAreOneStatementEachWithTheirJoinedFields() {
+        try (Session session = sessionFactory.openSession()) {
+            Map<UUID, String> actual = new HashMap<>();
+            List<OffsetDateTime> dates = new ArrayList<>();
+            for (int first = 0; first < TRANSACTIONS; first += PAGE_SIZE) {
+                SQL.clear();
+                List<TransactionSummaryResponseDTO> page =
+                        TransactionProjections.findSummariesByUser(session, ownerId, first, PAGE_SIZE);
+                assertEquals(1, SQL.count(), SQL.describe());
+                assertEquals(Math.min(PAGE_SIZE, TRANSACTIONS - first), page.size());
+                for (TransactionSummaryResponseDTO summary : page) {
+                    actual.put(summary.getTransactionId(), describe(summary.getClientName(), summary.getProviderName(),
+                            summary.getCreatedByUser().getUsername(), summary.getTotalAmount()));
+                    dates.add(summary.getTransactionDate());
+                    assertEquals(summary.getClientName() != null, summary.getClientId() != null);
+                    assertEquals(summary.getProviderName() != null, summary.getProviderId() != null);
+                }
+            }
+            assertEquals(0, session.getStatistics().getEntityCount());
+            assertEquals(EXPECTED, actual);
+            for (int i = 0; i < TRANSACTIONS; i++) {
+                assertEquals(BASE.plusHours(TRANSACTIONS - 1 - i).toInstant(), dates.get(i).toInstant()); // Newest first
+            }
+
+            SQL.clear();
+            List<TransactionSummaryResponseDTO> purchases = TransactionProjections.findSummariesByUserAndType(
+                    session, ownerId, TransactionType.PURCHASE, 0, TRANSACTIONS);
+            assertEquals(1, SQL.count(), SQL.describe());
+            assertEquals(TRANSACTIONS / 2, purchases.size());
+            for (TransactionSummaryResponseDTO purchase : purchases) {
+                assertEquals("Provider A", purchase.getProviderName());
+                assertNull(purchase.getClientName());
+                assertEquals("projection-owner", purchase.getCreatedByUser().getUsername());
+            }
+        }
+    }
+
+    @Test
+    void catalogListsIncludeInactiveRowsUnlessActiveOnly() {
+        try (Session session = sessionFactory.openSession()) {
+            SQL.clear();
+            List<ProductSummaryResponseDTO> allProducts =
+                    CatalogProjections.findProductSummariesByUser(session, ownerId, false, 0, 10);
+            List<ProductSummaryResponseDTO> activeProducts =
+                    CatalogProjections.findProductSummariesByUser(session, ownerId, true, 0, 10);
+            List<ClientSummaryResponseDTO> allClients =
+                    CatalogProjections.findClientSummariesByUser(session, ownerId, false, 0, 10);
+            List<ClientSummaryResponseDTO> activeClients =
+                    CatalogProjections.findClientSummariesByUser(session, ownerId, true, 0, 10);
+            List<ProviderSummaryResponseDTO> allProviders =
+                    CatalogProjections.findProviderSummariesByUser(session, ownerId, false, 0, 10);
+            List<ProviderSummaryResponseDTO> activeProviders =
+                    CatalogProjections.findProviderSummariesByUser(session, ownerId, true, 0, 10);
+            assertEquals(6, SQL.count(), SQL.describe());
+            assertEquals(0, session.getStatistics().getEntityCount());
+
+            assertEquals(List.of("SKU-0", "SKU-1", "SKU-2", "SKU-3", "SKU-4"),
+                    allProducts.stream().map(ProductSummaryResponseDTO::getSku).toList());
+            assertEquals(List.of("Product 0", "Product 1", "Product 2"),
+                    activeProducts.stream().map(ProductSummaryResponseDTO::getName).toList());
+            assertEquals(List.of("Client 0", "Client 2", "Client 4", "Client 6"),
+                    allClients.stream().map(ClientSummaryResponseDTO::getName).toList());
+            assertEquals(List.of("Client 2", "Client 4", "Client 6"),
+                    activeClients.stream().map(ClientSummaryResponseDTO::getName).toList());
+            assertEquals(List.of("111-1", "222-2"), allProviders.stream().map(ProviderSummaryResponseDTO::getNit).toList());
+            assertEquals(List.of("Provider A"), activeProviders.stream().map(ProviderSummaryResponseDTO::getName).toList());
+        }
+    }
+
+    private static String describe(String client, String provider, String creator, BigDecimal total) {
+        return client + "|" + provider + "|" + creator + "|" + total.setScale(2).toPlainString();
+    }
+}
@@ -0,0 +1,215 @@
+package com.hsoft.model.search;
+
+import com.hsoft.model.support.Benchmarks;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The index on its own, without the database: removals and re-indexing through dead slots and compaction,
+ * whole-word matching of one-letter tokens, and (benchmark) query latency and update cost on a synthetic
+ * catalog of {@code CATALOG} products, with queries sampled from that catalog.
+ */
+class TenantSearchIndexTest {
+
+    private static final int CATALOG = 50_000;
+    private static final int LIMIT = 20;
+    private static final long P99_BUDGET_NANOS = 2_000_000L;
+
+    private static final int QUERIES = 2_000;
+
+    // Synthetic vocabulary: pseudo-words built from syllables, picked with a skew so that some words are common
+    private static final String[] SYLLABLES = {"ma", "lo", "ta", "ri", "co", "la", "pe", "su", "ne", "vi", "ca", "fe",
+            "do", "ra", "mi", "so", "ba", "nu", "te", "gra", "pa", "li", "tro", "sal", "chi", "zo", "que", "ar", "an",
+            "es", "or", "ul", "di", "ve", "ga", "bo", "sa", "ni", "to", "re"};
+    private static final String[] SIZES = {"250ml", "500ml", "1l", "1500ml", "2l", "100g", "250g", "500g", "1kg", "x6"};
+
+    @Test
+    void removedAndReindexedProductsOnlyMatchTheirCurrentVersion() {
+        TenantSearchIndex index = new TenantSearchIndex();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            index.apply(product(id, "SKU-" + i, "Leche entera " + i, 1L));
+        }
+        // Renames go through unpost + post: the old words must stop matching, through any number of compactions
+        for (int round = 2; round <= 20; round++) {
+            for (UUID id : ids) {
+                index.apply(product(id, "SKU-" + id, (round % 2 == 0 ? "Leche " : "Queso ") + round, round));
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            index.remove(ids.get(i));
+        }
+
+        assertEquals(50, index.size());
+        assertEquals(50, search(index, "leche", 1_000).size());
+        assertEquals(0, search(index, "queso", 1_000).size());
+        for (IndexedProduct match : search(index, "leche 20", 1_000)) {
+            assertTrue(ids.subList(50, 100).contains(match.productId));
+            assertEquals("Leche 20", match.name);
+        }
+    }
+
+    @Test
+    void oneLetterTokensOnlyMatchWholeWords() {
+        TenantSearchIndex index = new TenantSearchIndex();
+        index.apply(product(UUID.randomUUID(), "A-1", "Vitamina C", 1L));
+        index.apply(product(UUID.randomUUID(), "A-2", "Cafe molido", 1L));
+
+        List<IndexedProduct> matches = search(index, "c", LIMIT);
+        assertEquals(1, matches.size());
+        assertEquals("Vitamina C", matches.get(0).name);
+        assertEquals("Cafe molido", search(index, "caf", LIMIT).get(0).name);
+    }
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    void queriesStayUnderTwoMillisecondsAtP99() {
+        Random random = new Random(42);
+        Catalog catalog = new Catalog(random);
+        TenantSearchIndex index = new TenantSearchIndex();
+        List<IndexedProduct> products = new ArrayList<>(CATALOG);
+        for (int i = 0; i < CATALOG; i++) {
+            IndexedProduct product = catalog.product(UUID.randomUUID(), i, 1L);
+            products.add(product);
+            index.apply(product);
+        }
+        List<String> queries = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add(catalog.query(products.get(random.nextInt(CATALOG))));
+        }
+
+        // Three measured rounds after a warm-up; the median round's p99 is checked so one noisy round cannot decide
+        int warmup = 5_000;
+        int measured = 20_000;
+        search(index, queries, warmup);
+        long[] p99s = new long[3];
+        for (int round = 0; round < p99s.length; round++) {
+            long[] latencies = search(index, queries, measured);
+            long p50 = Benchmarks.percentile(latencies, 0.50);
+            p99s[round] = Benchmarks.percentile(latencies, 0.99);
+            Benchmarks.report("search " + CATALOG + " products", "p50 %.3f ms   p99 %.3f ms",
+                    Benchmarks.millis(p50), Benchmarks.millis(p99s[round]));
+        }
+        long p99 = Benchmarks.percentile(p99s, 0.50);
+
+        // Every product shares postings such as the word "sku", so a per-list removal scan would show up here
+        int updates = 20_000;
+        List<IndexedProduct> changed = new ArrayList<>(updates);
+        for (int i = 0; i < updates; i++) {
+            int n = random.nextInt(CATALOG);
+            changed.add(catalog.product(products.get(n).productId, n, 2L + i));
+        }
+        long start = System.nanoTime();
+        for (IndexedProduct product : changed) {
+            index.apply(product);
+        }
+        long updateNanos = System.nanoTime() - start;
+        Benchmarks.report("re-index " + updates + " products", "%.1f us/update",
+                updateNanos / 1_000.0 / updates);
+
+        assertEquals(CATALOG, index.size());
+        assertTrue(p99 < P99_BUDGET_NANOS, "p99 " + Benchmarks.millis(p99) + " ms");
+    }
+
+    // Latency of each of 'count' searches, cycling through the queries
+    private static long[] search(TenantSearchIndex index, List<String> queries, int count) {
+        long[] latencies = new long[count];
+        for (int i = 0; i < count; i++) {
+            String query = queries.get(i % queries.size());
+            long start = System.nanoTime();
+            search(index, query, LIMIT);
+            latencies[i] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+
+    private static List<IndexedProduct> search(TenantSearchIndex index, String query, int limit) {
+        return index.search(SearchText.tokens(query), SearchText.compact(query), limit);
+    }
+
+    private static IndexedProduct product(UUID id, String sku, String name, long version) {
+        return new IndexedProduct(id, sku, name, "Category", "Description of " + name, true, version);
+    }
+
+    /**
+     * Products named "brand word [word] size", and what a cashier types to find one of them: a whole word,
+     * a prefix, a piece inside a word, brand plus a prefix, the SKU or its start, or a single letter.
+     */
+    private static final class Catalog {
+        final Random random;
+        final String[] brands = new String[1_000];
+        final String[] words = new String[5_000];
+        final String[] categories = new String[60];
+
+        Catalog(Random random) {
+            this.random = random;
+            fill(brands);
+            fill(words);
+            fill(categories);
+        }
+
+        IndexedProduct product(UUID id, int n, long version) {
+            StringBuilder name = new StringBuilder(pick(brands)).append(' ').append(pick(words));
+            if (random.nextBoolean()) {
+                name.append(' ').append(pick(words));
+            }
+            name.append(' ').append(SIZES[random.nextInt(SIZES.length)]);
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 8; w++) {
+                description.append(pick(words)).append(' ');
+            }
+            return new IndexedProduct(id, String.format("SKU-%06d", n), name.toString(),
+                    categories[random.nextInt(categories.length)], description.toString(), true, version);
+        }
+
+        String query(IndexedProduct product) {
+            List<String> nameTokens = product.nameTokens;
+            String word = nameTokens.get(random.nextInt(nameTokens.size() - 1)); // Not the size
+            switch (random.nextInt(7)) {
+                case 0:
+                    return word;
+                case 1:
+                    return word.substring(0, 2 + random.nextInt(word.length() - 1));
+                case 2:
+                    int from = 1 + random.nextInt(word.length() - 3);
+                    return word.substring(from, Math.min(word.length(), from + 3 + random.nextInt(2)));
+                case 3:
+                    String item = nameTokens.get(1);
+                    return nameTokens.get(0) + " " + item.substring(0, 2 + random.nextInt(item.length() - 1));
+                case 4:
+                    return product.sku;
+                case 5:
+                    return product.sku.substring(0, 6 + random.nextInt(4));
+                default:
+                    return word.substring(0, 1);
+            }
+        }
+
+        // Skewed towards the first entries: the most common word is in ~1.5% of the picks
+        private String pick(String[] values) {
+            double u = random.nextDouble();
+            return values[(int) (values.length * u * u)];
+        }
+
+        private void fill(String[] values) {
+            for (int i = 0; i < values.length; i++) {
+                StringBuilder word = new StringBuilder();
+                int syllables = 2 + random.nextInt(3);
+                for (int s = 0; s < syllables; s++) {
+                    word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+                }
+                values[i] = word.toString();
+            }
+        }
+    }
+}
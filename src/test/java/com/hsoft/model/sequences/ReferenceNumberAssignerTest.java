@@ -0,0 +1,183 @@
+package com.hsoft.model.sequences;
+
+import com.hsoft.model.entities.v1.Client;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.support.Benchmarks;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.TestDatabase;
+import com.hsoft.model.types.v1.TransactionType;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Sales numbered the way the assigner's class doc prescribes (persist, assign last, commit), from concurrent threads
+ * of one tenant: gap-free numbers stay contiguous through rollbacks, and (benchmark) BLOCK keeps scaling with
+ * the thread count while GAP_FREE serializes on the counter row.
+ */
+class ReferenceNumberAssignerTest {
+
+    private static final int PRODUCTS = 3;
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void createDatabase() {
+        sessionFactory = TestDatabase.sessionFactory();
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void gapFreeNumbersAreContiguousDespiteConcurrentRollbacks() throws Exception {
+        Tenant tenant = newTenant("gap-free");
+        ReferenceNumberAssigner assigner = new ReferenceNumberAssigner(sessionFactory,
+                ReferenceSequenceSettings.builder().gapFreeTypes(Set.of(TransactionType.SALE)).build());
+
+        int committed = sell(assigner, tenant, 8, 25, 5);
+
+        Set<String> expected = new HashSet<>();
+        for (long value = SequenceCounter.FIRST_VALUE; value < SequenceCounter.FIRST_VALUE + committed; value++) {
+            expected.add(ReferenceNumberFormatter.DEFAULT.format(TransactionType.SALE, value));
+        }
+        assertEquals(8 * 25 - 8 * 5, committed);
+        assertEquals(expected, referenceNumbers(tenant));
+    }
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    void blockModeScalesWhileGapFreeSerializes() throws Exception {
+        int salesPerThread = 100;
+        ReferenceNumberAssigner block = new ReferenceNumberAssigner(sessionFactory);
+        ReferenceNumberAssigner gapFree = new ReferenceNumberAssigner(sessionFactory,
+                ReferenceSequenceSettings.builder().gapFreeTypes(Set.of(TransactionType.SALE)).build());
+        // At most half the pool: a BLOCK refill takes a second connection while the sale holds one
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            Tenant blockTenant = newTenant("block-" + threads);
+            Tenant gapFreeTenant = newTenant("gap-free-" + threads);
+            long start = System.nanoTime();
+            sell(block, blockTenant, threads, salesPerThread, 0);
+            long blockNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            sell(gapFree, gapFreeTenant, threads, salesPerThread, 0);
+            long gapFreeNanos = System.nanoTime() - start;
+            long sales = (long) threads * salesPerThread;
+            Benchmarks.report(threads + " threads", "BLOCK %,7.0f sales/s   GAP_FREE %,7.0f sales/s",
+                    Benchmarks.perSecond(sales, blockNanos), Benchmarks.perSecond(sales, gapFreeNanos));
+            assertEquals(sales, referenceNumbers(blockTenant).size());
+            assertEquals(sales, referenceNumbers(gapFreeTenant).size());
+        }
+    }
+
+    /**
+     * Each sale is its own transaction; every {@code rollbackEvery}-th sale of a thread (if > 0) is rolled back
+     * after its number was assigned.
+     *
+     * @return the number of committed sales
+     */
+    private static int sell(ReferenceNumberAssigner assigner, Tenant tenant, int threads, int salesPerThread,
+                            int rollbackEvery) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Integer>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(() -> {
+                    int committed = 0;
+                    try (Session session = sessionFactory.openSession()) {
+                        for (int i = 1; i <= salesPerThread; i++) {
+                            session.beginTransaction();
+                            Transaction sale = tenant.sale(session);
+                            session.persist(sale);
+                            assigner.assign(session, sale);
+                            if (rollbackEvery > 0 && i % rollbackEvery == 0) {
+                                session.getTransaction().rollback();
+                                session.clear();
+                            } else {
+                                session.getTransaction().commit();
+                                session.clear();
+                                committed++;
+                            }
+                        }
+                    }
+                    return committed;
+                });
+            }
+            int committed = 0;
+            for (Future<Integer> done : pool.invokeAll(workers)) {
+                committed += done.get();
+            }
+            return committed;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Set<String> referenceNumbers(Tenant tenant) {
+        try (Session session = sessionFactory.openSession()) {
+            return new HashSet<>(session.createQuery(
+                            "select t.referenceNumber from Transaction t where t.user.userId = :userId", String.class)
+                    .setParameter("userId", tenant.ownerId)
+                    .getResultList());
+        }
+    }
+
+    private static Tenant newTenant(String name) {
+        List<UUID> productIds = new ArrayList<>();
+        UUID[] ids = new UUID[2];
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = Fixtures.user(name);
+            session.persist(owner);
+            Client client = Fixtures.client(owner, "Client of " + name);
+            session.persist(client);
+            for (int i = 0; i < PRODUCTS; i++) {
+                Product product = Fixtures.product(owner, name + "-" + i, "Product " + i);
+                session.persist(product);
+                productIds.add(product.getProductId());
+            }
+            ids[0] = owner.getUserId();
+            ids[1] = client.getClientId();
+        });
+        return new Tenant(ids[0], ids[1], productIds);
+    }
+
+    private static final class Tenant {
+        final UUID ownerId;
+        final UUID clientId;
+        final List<UUID> productIds;
+
+        Tenant(UUID ownerId, UUID clientId, List<UUID> productIds) {
+            this.ownerId = ownerId;
+            this.clientId = clientId;
+            this.productIds = productIds;
+        }
+
+        Transaction sale(Session session) {
+            User owner = session.getReference(User.class, ownerId);
+            List<Product> products = new ArrayList<>();
+            for (UUID productId : productIds) {
+                products.add(session.getReference(Product.class, productId));
+            }
+            return Fixtures.sale(owner, session.getReference(Client.class, clientId), owner, products);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.hsoft.model.stock;
+
+import com.hsoft.model.dto.v1.products.ProductResponseDTO;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.support.Benchmarks;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.TestDatabase;
+import com.hsoft.model.support.TestMappers;
+import jakarta.persistence.LockModeType;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Concurrent sales of one product, plain row vs sharded counter: the final stock must be exact in both modes,
+ * also when the product is re-sharded while writers still hold the old shard count, and (benchmark) sharded
+ * throughput should keep growing with the thread count while the plain row serializes.
+ */
+class ShardedStockCounterStressTest {
+
+    private static final int INITIAL_STOCK = 1_000_000;
+    private static final int SHARDS = 16;
+
+    private static final ShardedStockCounter COUNTER = new ShardedStockCounter();
+    private static SessionFactory sessionFactory;
+    private static User owner;
+
+    @BeforeAll
+    static void createOwner() {
+        sessionFactory = TestDatabase.sessionFactory();
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            owner = Fixtures.user("stock-owner");
+            session.persist(owner);
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void concurrentSalesKeepPlainStockExact() throws Exception {
+        Product product = newProduct("PLAIN", 0);
+        sell(product, 8, 100);
+        assertEquals(INITIAL_STOCK - 800, readStock(product));
+    }
+
+    @Test
+    void concurrentSalesKeepShardedStockExactThroughReconciliation() throws Exception {
+        Product product = newProduct("HOT", SHARDS);
+        sell(product, 8, 100);
+        assertEquals(INITIAL_STOCK - 800, readStock(product));
+
+        // Responses include deltas still held in the shards
+        try (Session session = sessionFactory.openSession()) {
+            Product loaded = session.find(Product.class, product.getProductId());
+            ProductResponseDTO response = COUNTER.toProductResponse(session, TestMappers.productMapper(), loaded);
+            assertEquals(INITIAL_STOCK - 800, response.getCurrentStock());
+        }
+
+        TestDatabase.inTransaction(sessionFactory, session ->
+                assertEquals(-800L, COUNTER.reconcile(session, session.find(Product.class, product.getProductId()))));
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(INITIAL_STOCK - 800, session.find(Product.class, product.getProductId()).getCurrentStock());
+        }
+        assertEquals(INITIAL_STOCK - 800, readStock(product));
+    }
+
+    @Test
+    void reShardingUnderWritersHoldingStaleProductsLosesNoSale() throws Exception {
+        Product product = newProduct("RESHARD", SHARDS); // Every writer keeps this copy: 16 shards
+        ExecutorService resharder = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> reshards = resharder.submit(() -> {
+                for (int shardCount : new int[]{4, 0, 8, 2}) {
+                    TimeUnit.MILLISECONDS.sleep(50);
+                    TestDatabase.inTransaction(sessionFactory, session -> COUNTER.configureShards(session,
+                            session.find(Product.class, product.getProductId(), LockModeType.PESSIMISTIC_WRITE), shardCount));
+                }
+                return null;
+            });
+            sell(product, 8, 100);
+            reshards.get();
+        } finally {
+            resharder.shutdownNow();
+        }
+        assertEquals(INITIAL_STOCK - 800, readStock(product));
+    }
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    void throughputScalesWithThreadsWhenSharded() throws Exception {
+        int salesPerThread = 300;
+        for (int threads : new int[]{1, 2, 4, 8, 16}) {
+            Product plain = newProduct("PLAIN-" + threads, 0);
+            Product hot = newProduct("HOT-" + threads, SHARDS);
+            long plainNanos = sell(plain, threads, salesPerThread);
+            long shardedNanos = sell(hot, threads, salesPerThread);
+            long sales = (long) threads * salesPerThread;
+            Benchmarks.report(threads + " threads", "plain %,8.0f sales/s   sharded(%d) %,8.0f sales/s",
+                    Benchmarks.perSecond(sales, plainNanos), SHARDS, Benchmarks.perSecond(sales, shardedNanos));
+            assertEquals(INITIAL_STOCK - sales, readStock(plain));
+            assertEquals(INITIAL_STOCK - sales, readStock(hot));
+        }
+    }
+
+    private static Product newProduct(String sku, int shards) {
+        AtomicReference<Product> created = new AtomicReference<>();
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            Product product = Fixtures.product(session.getReference(User.class, owner.getUserId()), sku, "Product " + sku);
+            product.setCurrentStock(INITIAL_STOCK);
+            session.persist(product);
+            created.set(product);
+        });
+        if (shards > 0) {
+            TestDatabase.inTransaction(sessionFactory, session -> {
+                Product product = session.find(Product.class, created.get().getProductId());
+                COUNTER.configureShards(session, product, shards);
+                created.set(product);
+            });
+        }
+        return created.get();
+    }
+
+    // Each sale is its own transaction applying -1, like a checkout; returns the wall time
+    private static long sell(Product product, int threads, int salesPerThread) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(() -> {
+                    try (Session session = sessionFactory.openSession()) {
+                        for (int i = 0; i < salesPerThread; i++) {
+                            session.beginTransaction();
+                            COUNTER.applyDelta(session, product, -1);
+                            session.getTransaction().commit();
+                        }
+                    }
+                    return null;
+                });
+            }
+            long start = System.nanoTime();
+            for (Future<Void> done : pool.invokeAll(workers)) {
+                done.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static int readStock(Product product) {
+        try (Session session = sessionFactory.openSession()) {
+            return COUNTER.readStock(session, product.getProductId());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.hsoft.model.stock;
+
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.StockMovement;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.TestDatabase;
+import com.hsoft.model.types.v1.StockMovementType;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Stock-at-date from movements alone, through snapshots, and after covered movements were purged
+ * (snapshot instants stay answerable, purged gaps are rejected); the compactor leaves the caller's
+ * entities managed.
+ */
+class StockLedgerTest {
+
+    private static final OffsetDateTime DAY_0 = OffsetDateTime.parse("2024-03-01T00:00:00Z");
+
+    private static final StockLedger LEDGER = new StockLedger();
+    private static final StockSnapshotCompactor COMPACTOR = new StockSnapshotCompactor(2);
+    private static final AtomicInteger TENANTS = new AtomicInteger();
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void createDatabase() {
+        sessionFactory = TestDatabase.sessionFactory();
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void withoutSnapshotsTheLevelIsTheSumOfMovements() {
+        Tenant tenant = newTenant(1);
+        UUID product = tenant.productIds.get(0);
+        move(tenant, product, 0, 100);
+        move(tenant, product, 24, -10);
+        move(tenant, product, 48, -5);
+
+        assertEquals(0, stockAt(product, hours(-1)));
+        assertEquals(100, stockAt(product, hours(0)));
+        assertEquals(90, stockAt(product, hours(24)));
+        assertEquals(85, stockAt(product, hours(49)));
+    }
+
+    @Test
+    void snapshotsAnswerLikeTheFullLedger() {
+        Tenant tenant = newTenant(3); // More products than the flush size
+        for (UUID product : tenant.productIds) {
+            move(tenant, product, 0, 100);
+            move(tenant, product, 24, -10);
+            move(tenant, product, 48, -5);
+            move(tenant, product, 72, 20);
+        }
+        int[] hours = {-1, 0, 12, 24, 36, 48, 60, 72, 80};
+        List<Integer> before = levels(tenant.productIds.get(1), hours);
+
+        assertEquals(3, snapshot(tenant, hours(36)));
+        assertEquals(3, snapshot(tenant, hours(60)));
+        assertEquals(0, snapshot(tenant, hours(60).plusMinutes(1))); // Nothing new since
+
+        assertEquals(before, levels(tenant.productIds.get(1), hours));
+    }
+
+    @Test
+    void afterAPurgeOnlySnapshotInstantsOfThePurgedRangeAreAnswered() {
+        Tenant tenant = newTenant(1);
+        UUID product = tenant.productIds.get(0);
+        move(tenant, product, 0, 100);
+        move(tenant, product, 24, -10);
+        move(tenant, product, 48, -5);
+        move(tenant, product, 72, 20);
+        move(tenant, product, 96, -1);
+        snapshot(tenant, hours(36));
+        snapshot(tenant, hours(84));
+
+        int[] purged = new int[1];
+        TestDatabase.inTransaction(sessionFactory, session ->
+                purged[0] = COMPACTOR.purgeCoveredMovements(session, tenant.ownerId, hours(60)));
+
+        assertEquals(3, purged[0]); // 0h, 24h and 48h; 72h is covered but inside the retained range
+        assertEquals(90, stockAt(product, hours(36)));
+        assertEquals(105, stockAt(product, hours(84)));
+        assertEquals(104, stockAt(product, hours(100))); // After the last snapshot nothing was purged
+        assertThrows(IllegalArgumentException.class, () -> stockAt(product, hours(-1)));
+        assertThrows(IllegalArgumentException.class, () -> stockAt(product, hours(12)));
+        // 48h is gone, 72h is not: the (36h, 84h] interval is incomplete, so 72h cannot be answered either
+        assertThrows(IllegalArgumentException.class, () -> stockAt(product, hours(50)));
+        assertThrows(IllegalArgumentException.class, () -> stockAt(product, hours(72)));
+    }
+
+    @Test
+    void compactionKeepsTheCallersEntitiesManaged() {
+        Tenant tenant = newTenant(3);
+        for (UUID product : tenant.productIds) {
+            move(tenant, product, 0, 100);
+        }
+        UUID productId = tenant.productIds.get(0);
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            Product product = session.find(Product.class, productId);
+            assertEquals(3, COMPACTOR.compact(session, tenant.ownerId, hours(12), hours(12)));
+            product.setName("Renamed during compaction");
+        });
+
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals("Renamed during compaction", session.find(Product.class, productId).getName());
+        }
+        assertEquals(100, stockAt(productId, hours(12)));
+    }
+
+    private static List<Integer> levels(UUID productId, int[] hours) {
+        List<Integer> levels = new ArrayList<>(hours.length);
+        for (int hour : hours) {
+            levels.add(stockAt(productId, hours(hour)));
+        }
+        return levels;
+    }
+
+    private static int stockAt(UUID productId, OffsetDateTime at) {
+        try (Session session = sessionFactory.openSession()) {
+            return LEDGER.stockAt(session, productId, at);
+        }
+    }
+
+    private static int snapshot(Tenant tenant, OffsetDateTime at) {
+        int[] created = new int[1];
+        TestDatabase.inTransaction(sessionFactory, session ->
+                created[0] = COMPACTOR.snapshotTenant(session, tenant.ownerId, at));
+        return created[0];
+    }
+
+    // A movement stamped at a chosen instant, as if recorded then
+    private static void move(Tenant tenant, UUID productId, int hour, int quantity) {
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = session.getReference(User.class, tenant.ownerId);
+            session.persist(StockMovement.builder()
+                    .user(owner)
+                    .product(session.getReference(Product.class, productId))
+                    .movementType(quantity > 0 ? StockMovementType.PURCHASE : StockMovementType.SALE)
+                    .quantity(quantity)
+                    .occurredAt(hours(hour))
+                    .createdByUser(owner)
+                    .build());
+        });
+    }
+
+    private static OffsetDateTime hours(int hours) {
+        return DAY_0.plusHours(hours);
+    }
+
+    private static Tenant newTenant(int products) {
+        String name = "ledger-" + TENANTS.incrementAndGet();
+        Tenant tenant = new Tenant();
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = Fixtures.user(name);
+            session.persist(owner);
+            for (int i = 0; i < products; i++) {
+                Product product = Fixtures.product(owner, name + "-" + i, "Product " + i);
+                session.persist(product);
+                tenant.productIds.add(product.getProductId());
+            }
+            tenant.ownerId = owner.getUserId();
+        });
+        return tenant;
+    }
+
+    private static final class Tenant {
+        UUID ownerId;
+        final List<UUID> productIds = new ArrayList<>();
+    }
+}
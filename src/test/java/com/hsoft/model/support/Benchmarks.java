@@ -0,0 +1,46 @@
+package com.hsoft.model.support;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Small helpers shared by the {@code @Tag("benchmark")} tests (run with {@code ./gradlew benchmark}).
+ */
+public final class Benchmarks {
+
+    public static final String TAG = "benchmark";
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Nearest-rank percentile of the samples (sorted in place), e.g. {@code percentile(latencies, 0.99)}.
+     */
+    public static long percentile(long[] samples, double p) {
+        if (samples.length == 0) {
+            throw new IllegalArgumentException("No samples");
+        }
+        Arrays.sort(samples);
+        int rank = (int) Math.ceil(p * samples.length);
+        return samples[Math.max(0, Math.min(samples.length - 1, rank - 1))];
+    }
+
+    public static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    public static double perSecond(long operations, long nanos) {
+        return operations * 1_000_000_000.0 / Math.max(1L, nanos);
+    }
+
+    public static void report(String name, String format, Object... args) {
+        System.out.printf(Locale.ROOT, "[benchmark] %-40s " + format + "%n", prepend(name, args));
+    }
+
+    private static Object[] prepend(Object first, Object[] rest) {
+        Object[] all = new Object[rest.length + 1];
+        all[0] = first;
+        System.arraycopy(rest, 0, all, 1, rest.length);
+        return all;
+    }
+}
@@ -0,0 +1,78 @@
+package com.hsoft.model.support;
+
+import com.hsoft.model.entities.v1.Client;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Provider;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.TransactionItem;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.types.v1.Money;
+import com.hsoft.model.types.v1.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Minimal valid (transient) entities for tests; callers persist them.
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    public static User user(String username) {
+        return User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .passwordHash("hash")
+                .companyName("Company " + username)
+                .build();
+    }
+
+    public static User subUser(User parent, String username) {
+        User user = user(username);
+        user.setParentUser(parent);
+        user.setCompanyName(parent.getCompanyName());
+        parent.getSubAccounts().add(user);
+        return user;
+    }
+
+    public static Product product(User owner, String sku, String name) {
+        return Product.builder()
+                .user(owner)
+                .sku(sku)
+                .name(name)
+                .description("Description of " + name)
+                .salePrice(new BigDecimal("10.00"))
+                .build();
+    }
+
+    public static Client client(User owner, String name) {
+        return Client.builder().user(owner).name(name).address("Address of " + name).build();
+    }
+
+    public static Provider provider(User owner, String name, String nit) {
+        return Provider.builder().user(owner).name(name).nit(nit).address("Address of " + name).build();
+    }
+
+    /**
+     * A SALE with one line per product (quantity 1 + index, unit price 10.00).
+     */
+    public static Transaction sale(User owner, Client client, User createdBy, List<Product> products) {
+        Transaction transaction = Transaction.builder()
+                .user(owner)
+                .transactionType(TransactionType.SALE)
+                .client(client)
+                .createdByUser(createdBy)
+                .notes("Notes")
+                .build();
+        for (int i = 0; i < products.size(); i++) {
+            TransactionItem item = new TransactionItem();
+            item.setProduct(products.get(i));
+            item.setUnitPrice(Money.ofCents(1_000));
+            item.setQuantity(1 + i);
+            transaction.addItem(item);
+        }
+        return transaction;
+    }
+}
@@ -0,0 +1,59 @@
+package com.hsoft.model.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records every SQL statement Hibernate prepares, so tests can assert statement counts and selected columns.
+ */
+public class SqlRecorder implements StatementInspector {
+
+    private final List<String> statements = new ArrayList<>();
+
+    @Override
+    public synchronized String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    public synchronized void clear() {
+        statements.clear();
+    }
+
+    public synchronized List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    public synchronized int count() {
+        return statements.size();
+    }
+
+    /**
+     * Statements (lower-cased) that select from the given table, e.g. {@code selectsFrom("products")}.
+     */
+    public synchronized List<String> selectsFrom(String table) {
+        String needle = " from pilot_v2." + table.toLowerCase(Locale.ROOT) + " ";
+        List<String> selects = new ArrayList<>();
+        for (String sql : statements) {
+            String lower = sql.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("select") && (lower + " ").contains(needle)) {
+                selects.add(lower);
+            }
+        }
+        return selects;
+    }
+
+    /**
+     * Readable dump for assertion messages.
+     */
+    public synchronized String describe() {
+        StringBuilder out = new StringBuilder(statements.size() + " statement(s):");
+        for (String sql : statements) {
+            out.append(System.lineSeparator()).append("  ").append(sql);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,127 @@
+package com.hsoft.model.support;
+
+import com.hsoft.model.entities.v1.Client;
+import com.hsoft.model.entities.v1.DailyTransactionAggregate;
+import com.hsoft.model.entities.v1.PasswordResetToken;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.ProductStockShard;
+import com.hsoft.model.entities.v1.Provider;
+import com.hsoft.model.entities.v1.ReferenceSequence;
+import com.hsoft.model.entities.v1.StockMovement;
+import com.hsoft.model.entities.v1.StockSnapshot;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.TransactionItem;
+import com.hsoft.model.entities.v1.User;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Embedded PostgreSQL for tests that need the real database (jsonb, {@code on conflict}, advisory locks).
+ * One server per test JVM; every {@link #sessionFactory} call recreates the {@code pilot_v2} schema from the
+ * entity mappings, so each test class starts from empty tables.
+ */
+public final class TestDatabase {
+
+    public static final List<Class<?>> ENTITIES = List.of(
+            User.class, PasswordResetToken.class, Client.class, Provider.class, Product.class, ProductStockShard.class,
+            Transaction.class, TransactionItem.class, StockMovement.class, StockSnapshot.class,
+            DailyTransactionAggregate.class, ReferenceSequence.class);
+
+    private static EmbeddedPostgres postgres;
+
+    private TestDatabase() {
+    }
+
+    public static SessionFactory sessionFactory() {
+        return sessionFactory(sql -> sql, Map.of());
+    }
+
+    public static SessionFactory sessionFactory(StatementInspector inspector) {
+        return sessionFactory(inspector, Map.of());
+    }
+
+    public static SessionFactory sessionFactory(StatementInspector inspector, Map<String, String> settings) {
+        Configuration configuration = new Configuration();
+        ENTITIES.forEach(configuration::addAnnotatedClass);
+        configuration.setProperty(AvailableSettings.URL, server().getJdbcUrl("postgres", "postgres"));
+        configuration.setProperty(AvailableSettings.USER, "postgres");
+        configuration.setProperty(AvailableSettings.HBM2DDL_AUTO, "create");
+        configuration.setProperty(AvailableSettings.HBM2DDL_CREATE_NAMESPACES, "true");
+        configuration.setProperty(AvailableSettings.GENERATE_STATISTICS, "true");
+        configuration.setProperty(AvailableSettings.POOL_SIZE, "16");
+        configuration.setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50");
+        configuration.setProperty(AvailableSettings.ORDER_INSERTS, "true");
+        settings.forEach(configuration::setProperty);
+        configuration.getProperties().put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+
+        SessionFactory sessionFactory = configuration.buildSessionFactory();
+        try (Session session = sessionFactory.openSession()) {
+            session.doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    // updated_at is maintained by a trigger in the real schema; a default is enough for tests
+                    List<String> tables = new ArrayList<>();
+                    try (ResultSet rs = statement.executeQuery("select table_name from information_schema.columns "
+                            + "where table_schema = 'pilot_v2' and column_name = 'updated_at'")) {
+                        while (rs.next()) {
+                            tables.add(rs.getString(1));
+                        }
+                    }
+                    for (String table : tables) {
+                        statement.execute("alter table pilot_v2." + table + " alter column updated_at set default now()");
+                    }
+                }
+            });
+        }
+        return sessionFactory;
+    }
+
+    /**
+     * Runs the work in its own transaction and commits it.
+     */
+    public static void inTransaction(SessionFactory sessionFactory, Consumer<Session> work) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            try {
+                work.accept(session);
+                session.getTransaction().commit();
+            } catch (RuntimeException e) {
+                if (session.getTransaction().isActive()) {
+                    session.getTransaction().rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static synchronized EmbeddedPostgres server() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+            }
+            EmbeddedPostgres started = postgres;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.close();
+                } catch (IOException ignored) {
+                    // JVM is exiting
+                }
+            }));
+        }
+        return postgres;
+    }
+}
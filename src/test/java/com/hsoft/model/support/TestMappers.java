@@ -0,0 +1,45 @@
+package com.hsoft.model.support;
+
+import com.hsoft.model.mappers.ClientMapperImpl;
+import com.hsoft.model.mappers.JsonContextMapperImpl;
+import com.hsoft.model.mappers.MoneyMapperImpl;
+import com.hsoft.model.mappers.ProductMapper;
+import com.hsoft.model.mappers.ProductMapperImpl;
+import com.hsoft.model.mappers.ProviderMapper;
+import com.hsoft.model.mappers.ProviderMapperImpl;
+import com.hsoft.model.mappers.TransactionItemMapper;
+import com.hsoft.model.mappers.TransactionItemMapperImpl;
+import com.hsoft.model.mappers.TransactionMapper;
+import com.hsoft.model.mappers.TransactionMapperImpl;
+import com.hsoft.model.mappers.UserMapperImpl;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * The generated MapStruct mappers (componentModel "spring"), wired the way the application wires them.
+ */
+public final class TestMappers {
+
+    private static final AnnotationConfigApplicationContext CONTEXT =
+            new AnnotationConfigApplicationContext(JsonContextMapperImpl.class, MoneyMapperImpl.class,
+                    ProductMapperImpl.class, UserMapperImpl.class, ClientMapperImpl.class, ProviderMapperImpl.class,
+                    TransactionItemMapperImpl.class, TransactionMapperImpl.class);
+
+    private TestMappers() {
+    }
+
+    public static ProductMapper productMapper() {
+        return CONTEXT.getBean(ProductMapper.class);
+    }
+
+    public static ProviderMapper providerMapper() {
+        return CONTEXT.getBean(ProviderMapper.class);
+    }
+
+    public static TransactionMapper transactionMapper() {
+        return CONTEXT.getBean(TransactionMapper.class);
+    }
+
+    public static TransactionItemMapper transactionItemMapper() {
+        return CONTEXT.getBean(TransactionItemMapper.class);
+    }
+}
@@ -0,0 +1,81 @@
+package com.hsoft.model.types.v1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Conversion from decimals is exact (no rounding past two decimals), arithmetic fails on overflow instead of
+ * wrapping, and the JSON wire format is a plain number with two decimals, as for BigDecimal.
+ */
+class MoneyTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void decimalsAreConvertedExactly() {
+        assertEquals(150L, Money.of(new BigDecimal("1.5")).getCents());
+        assertEquals(250L, Money.of(new BigDecimal("2.50")).getCents());
+        assertEquals(250L, Money.of(new BigDecimal("2.500")).getCents()); // Trailing zeros carry no value
+        assertEquals(-1205L, Money.of(new BigDecimal("-12.05")).getCents());
+        assertEquals(200L, Money.of(new BigDecimal("2E+0")).getCents());
+        assertNull(Money.of(null));
+    }
+
+    @Test
+    void moreThanTwoDecimalsAreRejected() {
+        ArithmeticException e = assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("2.505")));
+        assertEquals("Amount 2.505 has more than 2 decimals.", e.getMessage());
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.001")));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("-19.999")));
+    }
+
+    @Test
+    void amountsBeyondALongOfCentsAreRejected() {
+        assertEquals(Long.MAX_VALUE, Money.of(BigDecimal.valueOf(Long.MAX_VALUE, 2)).getCents());
+        assertThrows(ArithmeticException.class, () -> Money.of(BigDecimal.valueOf(Long.MAX_VALUE, 2).add(new BigDecimal("0.01"))));
+    }
+
+    @Test
+    void arithmeticOverflowThrows() {
+        Money max = Money.ofCents(Long.MAX_VALUE);
+        Money min = Money.ofCents(Long.MIN_VALUE);
+
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> min.minus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> max.times(2));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE / 3 + 1).times(-3));
+        assertThrows(ArithmeticException.class, min::negate);
+        assertThrows(ArithmeticException.class, () -> Money.addCents(Long.MAX_VALUE, Money.ofCents(1)));
+
+        assertEquals(Money.ofCents(Long.MAX_VALUE - 1), max.minus(Money.ofCents(1)));
+        assertEquals(Money.ofCents(-2_997), Money.ofCents(999).times(-3));
+        assertEquals(max, max.plus(Money.ZERO).times(1));
+    }
+
+    @Test
+    void jsonIsAPlainNumberWithTwoDecimals() throws Exception {
+        assertEquals("25.00", OBJECT_MAPPER.writeValueAsString(Money.ofCents(2_500)));
+        assertEquals("-0.05", OBJECT_MAPPER.writeValueAsString(Money.ofCents(-5)));
+        assertEquals("{\"total\":1999.90}", OBJECT_MAPPER.writeValueAsString(Map.of("total", Money.ofCents(199_990))));
+
+        assertEquals(Money.ofCents(2_500), OBJECT_MAPPER.readValue("25.00", Money.class));
+        assertEquals(Money.ofCents(2_500), OBJECT_MAPPER.readValue("25", Money.class));
+        assertEquals(Money.ofCents(2_550), OBJECT_MAPPER.readValue("\"25.5\"", Money.class));
+        assertEquals(Money.ofCents(-5), OBJECT_MAPPER.readValue(OBJECT_MAPPER.writeValueAsString(Money.ofCents(-5)), Money.class));
+    }
+
+    @Test
+    void jsonWithMoreThanTwoDecimalsIsRejected() {
+        assertThrows(InvalidFormatException.class, () -> OBJECT_MAPPER.readValue("25.005", Money.class));
+        assertThrows(InvalidFormatException.class, () -> OBJECT_MAPPER.readValue("\"25.005\"", Money.class));
+        assertThrows(InvalidFormatException.class, () -> OBJECT_MAPPER.readValue("\"ten\"", Money.class));
+    }
+}
@@ -0,0 +1,71 @@
+package com.hsoft.model.uniqueness;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A filter sized for {@code CAPACITY} values taking {@code VALUES}: it grows by doubling filters, never loses
+ * a value, and keeps the observed false-positive rate on absent values near the configured bound.
+ */
+class ScalableBloomFilterTest {
+
+    private static final int CAPACITY = 1_000;
+    private static final int VALUES = 200_000;
+    private static final double FPP = 0.01;
+
+    @Test
+    void noFalseNegativesWhileGrowing() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(CAPACITY, FPP);
+        for (int i = 0; i < VALUES; i++) {
+            filter.add("value-" + i);
+        }
+        for (int i = 0; i < VALUES; i++) {
+            assertTrue(filter.mightContain("value-" + i), "value-" + i);
+        }
+    }
+
+    @Test
+    void growsByAddingDoublingFilters() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(CAPACITY, FPP);
+        int added = 0;
+        while (filter.approximateCount() < CAPACITY) {
+            filter.add("value-" + added++);
+        }
+        assertEquals(1, filter.filterCount());
+        long firstBytes = filter.sizeInBytes();
+
+        filter.add("value-" + added++);
+        assertEquals(2, filter.filterCount());
+        while (added < VALUES) {
+            filter.add("value-" + added++);
+        }
+        // Capacities 1k, 2k, 4k, ...: eight filters hold 255k, seven only 127k
+        assertEquals(8, filter.filterCount());
+        // Each filter has twice the entries at half the rate, so more than twice the bits of the previous one
+        assertTrue(filter.sizeInBytes() > firstBytes * 255, filter.sizeInBytes() + " bytes");
+        // Adds that already hit the filter are not counted
+        assertTrue(filter.approximateCount() > VALUES * (1 - FPP), String.valueOf(filter.approximateCount()));
+    }
+
+    @Test
+    void observedFalsePositiveRateStaysNearTheConfiguredOne() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(CAPACITY, FPP);
+        for (int i = 0; i < VALUES; i++) {
+            filter.add("value-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < VALUES; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        double observed = (double) falsePositives / VALUES;
+
+        // One standard deviation at 200k samples is ~0.02 percentage points
+        assertTrue(observed > 0.0 && observed < FPP * 1.1, "observed " + observed);
+        assertEquals(filter.estimatedFalsePositiveRate(), observed, FPP * 0.2);
+        assertEquals(FPP, filter.configuredFalsePositiveRate());
+    }
+}
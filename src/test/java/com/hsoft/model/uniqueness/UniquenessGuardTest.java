@@ -0,0 +1,189 @@
+package com.hsoft.model.uniqueness;
+
+import com.hsoft.model.dto.v1.users.RegisterRequestDTO;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.imports.ProductImportPipeline;
+import com.hsoft.model.imports.ProviderImportPipeline;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.SqlRecorder;
+import com.hsoft.model.support.TestDatabase;
+import com.hsoft.model.support.TestMappers;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The guard against the real database: every check probes until warm-up, then only "maybe taken" answers do;
+ * recorded writes, including committed import rows, are seen after warm-up; and the reported false-positive rate is the share of free values
+ * that still needed a probe.
+ */
+class UniquenessGuardTest {
+
+    private static final int PRODUCTS = 2_000;
+
+    private static final SqlRecorder SQL = new SqlRecorder();
+    private static final Validator VALIDATOR = Validation.byDefaultProvider().configure()
+            .messageInterpolator(new ParameterMessageInterpolator())
+            .buildValidatorFactory().getValidator();
+    private static SessionFactory sessionFactory;
+    private static UUID ownerId;
+
+    @BeforeAll
+    static void createCatalog() {
+        sessionFactory = TestDatabase.sessionFactory(SQL);
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = Fixtures.user("guard-owner");
+            owner.setCompanyNit("1234567-8");
+            session.persist(owner);
+            for (int i = 0; i < PRODUCTS; i++) {
+                session.persist(Fixtures.product(owner, sku(i), "Product " + i));
+            }
+            ownerId = owner.getUserId();
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void everyCheckProbesUntilWarmedUp() {
+        UniquenessGuard guard = new UniquenessGuard();
+        try (Session session = sessionFactory.openSession()) {
+            SQL.clear();
+            assertFalse(guard.isSkuTaken(session, ownerId, "FREE-1"));
+            assertTrue(guard.isSkuTaken(session, ownerId, sku(1)));
+            assertEquals(Set.of(UniquenessGuard.USERNAME, UniquenessGuard.COMPANY_NIT),
+                    guard.checkRegistration(session, registration("guard-owner", "new@example.com", "1234567-8")));
+            assertEquals(5, SQL.count(), SQL.describe());
+
+            guard.warmUp(session);
+            assertTrue(guard.isWarmed());
+            SQL.clear();
+            assertFalse(guard.isSkuTaken(session, ownerId, "FREE-2"));
+            assertFalse(guard.isSkuTaken(session, UUID.randomUUID(), sku(1))); // Tenant without products
+            assertEquals(Set.of(), guard.checkRegistration(session, registration("new-user", "new@example.com", "7654321-0")));
+            assertEquals(0, SQL.count(), SQL.describe());
+
+            assertTrue(guard.isSkuTaken(session, ownerId, sku(2)));
+            assertEquals(1, SQL.count(), SQL.describe());
+        }
+
+        UniquenessReport skus = report(guard, UniquenessGuard.SKU);
+        assertEquals(5, skus.getChecks());
+        assertEquals(2, skus.getDefinitelyFree());
+        assertEquals(3, skus.getProbes());
+    }
+
+    @Test
+    void recordedWritesAreProbedAfterWarmUp() {
+        UniquenessGuard guard = new UniquenessGuard();
+        try (Session session = sessionFactory.openSession()) {
+            guard.warmUp(session);
+        }
+        AtomicReference<Product> created = new AtomicReference<>();
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            Product product = Fixtures.product(session.getReference(User.class, ownerId), "RECORDED-1", "Recorded");
+            session.persist(product);
+            created.set(product);
+        });
+        guard.recordProduct(created.get());
+
+        try (Session session = sessionFactory.openSession()) {
+            SQL.clear();
+            assertTrue(guard.isSkuTaken(session, ownerId, "RECORDED-1"));
+            assertEquals(1, SQL.count(), SQL.describe());
+        }
+    }
+
+    @Test
+    void importedRowsAreProbedAfterWarmUp() throws IOException {
+        UniquenessGuard guard = new UniquenessGuard();
+        try (Session session = sessionFactory.openSession()) {
+            guard.warmUp(session);
+        }
+        User owner;
+        try (Session session = sessionFactory.openSession()) {
+            owner = session.find(User.class, ownerId);
+        }
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            new ProductImportPipeline(TestMappers.productMapper(), VALIDATOR, 10, guard).run(session, owner,
+                    new StringReader("sku,name,sale_price\nIMPORTED-1,Imported,5.00\nINVALID-1,Invalid,-5.00\n"));
+            new ProviderImportPipeline(TestMappers.providerMapper(), VALIDATOR, 10, guard).run(session, owner,
+                    new StringReader("name,nit\nImported provider,555555-5\n"));
+        }
+
+        try (Session session = sessionFactory.openSession()) {
+            SQL.clear();
+            assertTrue(guard.isSkuTaken(session, ownerId, "IMPORTED-1"));
+            assertTrue(guard.isProviderNitTaken(session, ownerId, "555555-5"));
+            assertEquals(2, SQL.count(), SQL.describe());
+            assertFalse(guard.isSkuTaken(session, ownerId, "INVALID-1")); // Rejected rows are not recorded
+            assertEquals(2, SQL.count(), SQL.describe());
+        }
+    }
+
+    @Test
+    void reportedFalsePositiveRateIsTheShareOfFreeValuesProbed() {
+        // Small filters at a loose rate, so a few thousand checks show false positives
+        double fpp = 0.05;
+        UniquenessGuard guard = new UniquenessGuard(UniquenessSettings.builder()
+                .expectedPerTenant(100)
+                .falsePositiveRate(fpp)
+                .build());
+        int checks = 4_000;
+        try (Session session = sessionFactory.openSession()) {
+            guard.warmUp(session);
+            SQL.clear();
+            for (int i = 0; i < checks; i++) {
+                assertFalse(guard.isSkuTaken(session, ownerId, "FREE-" + i));
+            }
+        }
+
+        UniquenessReport skus = report(guard, UniquenessGuard.SKU);
+        assertEquals(checks, skus.getChecks());
+        assertEquals(skus.getProbes(), skus.getFalsePositives()); // Every value was free
+        assertEquals(skus.getProbes(), SQL.count());
+        assertEquals(checks, skus.getDefinitelyFree() + skus.getFalsePositives());
+        assertEquals((double) skus.getFalsePositives() / checks, skus.getObservedFalsePositiveRate(), 1e-9);
+        assertTrue(skus.getFalsePositives() > 0 && skus.getObservedFalsePositiveRate() < fpp * 1.5,
+                skus.getFalsePositives() + " false positives");
+        assertTrue(skus.getFilters() > 1, "filters " + skus.getFilters()); // 2000 SKUs past a capacity of 100
+    }
+
+    private static UniquenessReport report(UniquenessGuard guard, String constraint) {
+        List<UniquenessReport> reports = guard.report();
+        return reports.stream().filter(r -> r.getConstraint().equals(constraint)).findFirst().orElseThrow();
+    }
+
+    private static RegisterRequestDTO registration(String username, String email, String companyNit) {
+        RegisterRequestDTO dto = new RegisterRequestDTO();
+        dto.setUsername(username);
+        dto.setEmail(email);
+        dto.setCompanyNit(companyNit);
+        return dto;
+    }
+
+    private static String sku(int i) {
+        return String.format("SKU-%05d", i);
+    }
+}
@@ -0,0 +1,228 @@
+package com.hsoft.model.usertypes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.TransactionItem;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.support.Benchmarks;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.SqlRecorder;
+import com.hsoft.model.support.TestDatabase;
+import com.hsoft.model.types.v1.JsonContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Flushing a large ticket with {@link JsonContextMutabilityPlan}: unchanged contexts are neither parsed,
+ * serialized nor written, and modified ones are written once each. The benchmarks time the flush of a
+ * {@value #LINES}-line ticket with unchanged vs modified contexts, and compare the plan's snapshot + dirty check
+ * with a serialize-and-compare plan, which is what a plain JSON-mapped {@code Map} costs per flush.
+ */
+class JsonContextFlushTest {
+
+    private static final int LINES = 500;
+    private static final int ROUNDS = 50;
+
+    private static final SqlRecorder SQL = new SqlRecorder();
+    private static SessionFactory sessionFactory;
+    private static UUID transactionId;
+
+    @BeforeAll
+    static void createTicket() {
+        sessionFactory = TestDatabase.sessionFactory(SQL);
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = Fixtures.user("flush-owner");
+            session.persist(owner);
+            List<Product> products = new ArrayList<>();
+            for (int i = 0; i < LINES; i++) {
+                Product product = Fixtures.product(owner, "FLUSH-" + i, "Product " + i);
+                session.persist(product);
+                products.add(product);
+            }
+            Transaction sale = Fixtures.sale(owner, null, owner, products);
+            sale.setContext(JsonContext.of(Map.of("channel", "pos", "register", 3)));
+            int line = 0;
+            for (TransactionItem item : sale.getItems()) {
+                item.setContext(JsonContext.of(lineContext(line++)));
+            }
+            session.persist(sale);
+            transactionId = sale.getTransactionId();
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void unchangedContextsAreNotParsedOrWritten() {
+        List<TransactionItem> items = new ArrayList<>();
+        flushLoadedTicket(ticket -> items.addAll(ticket.getItems()));
+
+        assertTrue(SQL.statements().stream().noneMatch(sql -> sql.startsWith("update")), SQL::describe);
+        for (TransactionItem item : items) {
+            assertFalse(item.getContext().isParsed());
+        }
+    }
+
+    @Test
+    void modifiedContextsAreWrittenOncePerRow() {
+        flushLoadedTicket(ticket -> {
+            for (TransactionItem item : ticket.getItems().subList(0, 10)) {
+                item.getContext().put("checked", true);
+            }
+        });
+
+        assertEquals(10, sessionFactory.getStatistics().getEntityUpdateCount(), SQL::describe);
+    }
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    void flushTimeOfALargeTicket() {
+        // A read of one nested value per line, the common case (parses but does not modify)
+        Consumer<Transaction> read = ticket -> ticket.getItems().forEach(item -> item.getContext().get("serialNumber"));
+        Consumer<Transaction> modify = ticket -> ticket.getItems().forEach(item -> item.getContext().put("checked", true));
+        for (int round = 0; round < 2; round++) { // first round is warm-up
+            boolean print = round == 1;
+            measureFlush(LINES + " lines, untouched contexts", ticket -> ticket.getItems().size(), print);
+            measureFlush(LINES + " lines, contexts read", read, print);
+            measureFlush(LINES + " lines, contexts modified", modify, print);
+        }
+    }
+
+    @Test
+    @Tag(Benchmarks.TAG)
+    void dirtyCheckAgainstSerializeAndCompare() {
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            rows.add(JsonContext.of(lineContext(i)).toJson());
+        }
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            long[] tracked = new long[ROUNDS];
+            long[] naive = new long[ROUNDS];
+            for (int r = 0; r < ROUNDS; r++) {
+                tracked[r] = trackedLoadAndFlush(rows);
+                naive[r] = serializingLoadAndFlush(rows);
+            }
+            if (print) {
+                Benchmarks.report("snapshot+dirty check, " + LINES + " contexts", "tracked p50 %6.3f ms   serialize-and-compare p50 %6.3f ms",
+                        Benchmarks.millis(Benchmarks.percentile(tracked, 0.5)), Benchmarks.millis(Benchmarks.percentile(naive, 0.5)));
+            }
+        }
+    }
+
+    // Loads the ticket with its items, applies the change, times the flush and rolls back
+    private static long flushLoadedTicket(Consumer<Transaction> change) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            try {
+                Transaction ticket = session.find(Transaction.class, transactionId);
+                ticket.getItems().size();
+                change.accept(ticket);
+                SQL.clear();
+                sessionFactory.getStatistics().clear();
+                long start = System.nanoTime();
+                session.flush();
+                return System.nanoTime() - start;
+            } finally {
+                session.getTransaction().rollback();
+            }
+        }
+    }
+
+    private static void measureFlush(String name, Consumer<Transaction> change, boolean print) {
+        long[] samples = new long[ROUNDS];
+        for (int r = 0; r < ROUNDS; r++) {
+            samples[r] = flushLoadedTicket(change);
+        }
+        if (print) {
+            Benchmarks.report(name, "flush p50 %7.3f ms   p99 %7.3f ms",
+                    Benchmarks.millis(Benchmarks.percentile(samples, 0.5)), Benchmarks.millis(Benchmarks.percentile(samples, 0.99)));
+        }
+    }
+
+    private static long trackedLoadAndFlush(List<String> rows) {
+        JsonContextMutabilityPlan plan = JsonContextMutabilityPlan.INSTANCE;
+        long start = System.nanoTime();
+        int dirty = 0;
+        for (String row : rows) {
+            JsonContext current = JsonContext.ofRaw(row);
+            JsonContext loaded = plan.deepCopy(current);
+            if (!plan.areEqual(loaded, current)) {
+                dirty++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        assertEquals(0, dirty);
+        return elapsed;
+    }
+
+    // What a plain Map mapped as JSON costs: parse on load, snapshot by a serialize/parse round trip,
+    // dirty check by serializing both sides
+    private static long serializingLoadAndFlush(List<String> rows) {
+        long start = System.nanoTime();
+        int dirty = 0;
+        for (String row : rows) {
+            Map<String, Object> current = Naive.read(row);
+            Map<String, Object> loaded = Naive.read(Naive.write(current));
+            if (!Naive.write(loaded).equals(Naive.write(current))) {
+                dirty++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        assertEquals(0, dirty);
+        return elapsed;
+    }
+
+    private static Map<String, Object> lineContext(int line) {
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("serialNumber", "SN" + line);
+        context.put("discount", Map.of("kind", "percent", "value", 10));
+        context.put("tags", List.of("promo", "line-" + line));
+        return context;
+    }
+
+    private static final class Naive {
+
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+        private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE = new TypeReference<>() {
+        };
+
+        static Map<String, Object> read(String json) {
+            try {
+                return MAPPER.readValue(json, MAP_TYPE);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        static String write(Map<String, Object> map) {
+            try {
+                return MAPPER.writeValueAsString(map);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.hsoft.model.usertypes;
+
+import com.hsoft.model.entities.v1.Product;
+import com.hsoft.model.entities.v1.Transaction;
+import com.hsoft.model.entities.v1.TransactionItem;
+import com.hsoft.model.entities.v1.User;
+import com.hsoft.model.support.Fixtures;
+import com.hsoft.model.support.TestDatabase;
+import com.hsoft.model.types.v1.Money;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link MoneyUserType} round trip through the NUMERIC columns: the largest unit price a numeric(10,2) holds,
+ * a negative cent amount, and a subtotal and total beyond numeric(10,2) in the numeric(12,2) columns come back
+ * exactly and are stored as those decimals.
+ */
+class MoneyUserTypeTest {
+
+    // Largest numeric(10,2) value
+    private static final Money MAX_UNIT_PRICE = Money.of(new BigDecimal("99999999.99"));
+    private static final Money SMALL_REFUND = Money.ofCents(-5);
+
+    private static SessionFactory sessionFactory;
+    private static UUID transactionId;
+
+    @BeforeAll
+    static void createSale() {
+        sessionFactory = TestDatabase.sessionFactory();
+        TestDatabase.inTransaction(sessionFactory, session -> {
+            User owner = Fixtures.user("money-owner");
+            session.persist(owner);
+            Product first = Fixtures.product(owner, "MONEY-1", "Product 1");
+            Product second = Fixtures.product(owner, "MONEY-2", "Product 2");
+            session.persist(first);
+            session.persist(second);
+            Transaction sale = Fixtures.sale(owner, null, owner, List.of(first, second));
+            TransactionItem expensive = sale.getItems().get(0);
+            expensive.setUnitPrice(MAX_UNIT_PRICE);
+            expensive.setQuantity(3); // Subtotal only fits numeric(12,2)
+            sale.getItems().get(1).setUnitPrice(SMALL_REFUND); // Quantity 2
+            session.persist(sale);
+            transactionId = sale.getTransactionId();
+        });
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void amountsRoundTripExactly() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction sale = session.get(Transaction.class, transactionId);
+            List<TransactionItem> items = sale.getItems().stream()
+                    .sorted(Comparator.comparing(TransactionItem::getQuantity)).toList();
+
+            assertEquals(SMALL_REFUND, items.get(0).getUnitPrice());
+            assertEquals(Money.ofCents(-10), items.get(0).getSubtotal());
+            assertEquals(MAX_UNIT_PRICE, items.get(1).getUnitPrice());
+            assertEquals(Money.ofCents(29_999_999_997L), items.get(1).getSubtotal());
+            assertEquals(Money.ofCents(29_999_999_987L), sale.getTotalAmount());
+        }
+    }
+
+    @Test
+    void columnsHoldTheDecimalAmounts() {
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(List.of(new BigDecimal("-0.05"), new BigDecimal("99999999.99")), column(session, "unit_price"));
+            assertEquals(List.of(new BigDecimal("-0.10"), new BigDecimal("299999999.97")), column(session, "subtotal"));
+            assertEquals(new BigDecimal("299999999.87"), session.createNativeQuery(
+                            "select total_amount from pilot_v2.transactions where transaction_id = :id", BigDecimal.class)
+                    .setParameter("id", transactionId)
+                    .getSingleResult());
+        }
+    }
+
+    private static List<BigDecimal> column(Session session, String column) {
+        return session.createNativeQuery("select " + column + " from pilot_v2.transaction_items"
+                        + " where transaction_id = :id order by quantity", BigDecimal.class)
+                .setParameter("id", transactionId)
+                .getResultList();
+    }
+}